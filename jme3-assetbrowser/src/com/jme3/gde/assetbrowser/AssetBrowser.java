@@ -41,6 +41,7 @@ import com.jme3.gde.assetbrowser.widgets.SoundPreview;
 import com.jme3.gde.assetbrowser.widgets.TexturePreview;
 import com.jme3.gde.core.assets.BinaryModelDataObject;
 import com.jme3.gde.core.assets.ProjectAssetManager;
+import com.jme3.gde.core.icons.IconList;
 import com.jme3.gde.core.util.ProjectSelection;
 import com.jme3.gde.materials.JMEMaterialDataObject;
 import com.jme3.gde.materials.multiview.MaterialOpenSupport;
@@ -49,16 +50,19 @@ import com.jme3.gde.textureeditor.JmeTextureDataObject;
 import com.jme3.gde.textureeditor.OpenTexture;
 import com.jme3.scene.Spatial;
 import java.awt.Dimension;
-import java.awt.GridBagConstraints;
-import java.awt.GridBagLayout;
+import java.awt.Rectangle;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
 import java.awt.event.KeyEvent;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import javax.swing.JOptionPane;
 import org.openide.DialogDisplayer;
@@ -91,6 +95,11 @@ public class AssetBrowser extends javax.swing.JPanel implements PreviewInteracti
     private int lastGridColumns = 0;
     private int lastGridRows = 0;
     private String lastFilter = "";
+    private int lastImageSize = 0;
+    // asset name and type of every cell in the grid, row by row
+    private final List<String[]> assets = new ArrayList<>();
+    private final Map<Integer, AssetPreviewWidget> visiblePreviews = new HashMap<>();
+    private final PreviewLoader previewLoader = new PreviewLoader();
 
     private int sizeX = Constants.sizeX;
     private int sizeY = Constants.sizeY;
@@ -133,11 +142,13 @@ public class AssetBrowser extends javax.swing.JPanel implements PreviewInteracti
         initComponents();
         
         addComponentListener(resizeListener);
+        jScrollPane1.getViewport().addChangeListener(e -> updateVisiblePreviews());
     }
 
     /**
      * Will recalculate grid, and remove all previews and regenerate if rows or
-     * columns or filter has changed
+     * columns or filter has changed. Only the previews of the visible cells
+     * are created, see updateVisiblePreviews
      *
      * @param filter only show previews containing filter
      */
@@ -146,7 +157,6 @@ public class AssetBrowser extends javax.swing.JPanel implements PreviewInteracti
             return;
         }
 
-        // this is required to make the panel resize
         if (!componentListenerAdded && getParent() != null) {
             getParent().addComponentListener(resizeListener);
             componentListenerAdded = true;
@@ -154,7 +164,7 @@ public class AssetBrowser extends javax.swing.JPanel implements PreviewInteracti
         }
         Dimension size = previewsPanel.getSize();
 
-        int rows = Math.min(size.height, getHeight() - 30) / sizeY;
+        int rows = Math.max(Math.min(size.height, getHeight() - 30) / sizeY, 1);
         
         final var textures = Arrays.stream(assetManager.getTextures()).filter(s -> filter.isEmpty() || s.toLowerCase().contains(filter)).collect(Collectors.toList());
         final var materials = Arrays.stream(assetManager.getMaterials()).filter(s -> filter.isEmpty() || s.toLowerCase().contains(filter)).collect(Collectors.toList());
@@ -162,29 +172,31 @@ public class AssetBrowser extends javax.swing.JPanel implements PreviewInteracti
         final var sounds = Arrays.stream(assetManager.getSounds()).filter(s -> filter.isEmpty() || s.toLowerCase().contains(filter)).collect(Collectors.toList());
         final var matdefs = Arrays.stream(assetManager.getMatDefs()).filter(s -> filter.isEmpty() || s.toLowerCase().contains(filter)).collect(Collectors.toList());
         int numAssets = textures.size() + materials.size() + models.size() + sounds.size() + matdefs.size();
-        int columns = Math.max(numAssets / rows, 1);
+        int columns = Math.max((numAssets + rows - 1) / rows, 1);
 
         Dimension newSize = new Dimension(columns * sizeX, rows * sizeY);
-        if (columns != lastGridColumns || rows != lastGridRows || !lastFilter.equals(filter)) {
-            GridBagConstraints constraints = new GridBagConstraints();
-            previewsPanel.setLayout(new GridBagLayout());
-            constraints.fill = GridBagConstraints.BOTH;
-            constraints.gridx = sizeX;
-            constraints.gridy = sizeY;
+        if (columns != lastGridColumns || rows != lastGridRows || !lastFilter.equals(filter)
+                || imageSize != lastImageSize || numAssets != assets.size()) {
+            previewLoader.cancelAll();
             previewsPanel.removeAll();
+            visiblePreviews.clear();
+            previewsPanel.setLayout(null);
             previewsPanel.setSize(newSize);
             previewsPanel.setPreferredSize(newSize);
 
-            previewsPanel.setLayout(new GridBagLayout());
-
-            int index = addAssets(textures, TEXTURES, constraints, columns, rows, 0);
-            index = addAssets(materials, MATERIALS, constraints, columns, rows, index);
-            index = addAssets(models, MODELS, constraints, columns, rows, index);
-            index = addAssets(sounds, SOUNDS, constraints, columns, rows, index);
-            index = addAssets(matdefs, MAT_DEFS, constraints, columns, rows, index);
+            assets.clear();
+            addAssets(textures, TEXTURES);
+            addAssets(materials, MATERIALS);
+            addAssets(models, MODELS);
+            addAssets(sounds, SOUNDS);
+            addAssets(matdefs, MAT_DEFS);
             lastGridColumns = columns;
             lastGridRows = rows;
             lastFilter = filter;
+            lastImageSize = imageSize;
+            updateVisiblePreviews();
+            previewsPanel.revalidate();
+            previewsPanel.repaint();
         }
     }
 
@@ -193,46 +205,93 @@ public class AssetBrowser extends javax.swing.JPanel implements PreviewInteracti
      *
      * @param items the assets to preview
      * @param type type of asset
-     * @param constraints
-     * @param columns columns in the grid
-     * @param rows rows in the grid
-     * @param startIndex last used index when adding previews
-     * @return
      */
-    private int addAssets(List<String> items, String type, GridBagConstraints constraints, int columns, int rows, int startIndex) {
+    private void addAssets(List<String> items, String type) {
         Collections.sort(items);
-        int index = startIndex;
         for (String item : items) {
-            AssetPreviewWidget preview = null;
-
-            constraints.gridx = index % columns;
-            constraints.gridy = (int) (((float) index-1) / (columns));
-            if (type.startsWith(TEXTURES)) {
-                preview = new TexturePreview(this, previewUtil.getOrCreateTexturePreview(item, imageSize));
-            } else if (type.startsWith(MATERIALS)) {
-                preview = new MaterialPreview(this);
-                preview.setPreviewImage(previewUtil.getOrCreateMaterialPreview(item, preview, imageSize));
-            } else if (type.startsWith(MODELS)) {
-                preview = new ModelPreview(this);
-                preview.setPreviewImage(previewUtil.getOrCreateModelPreview(item, preview, imageSize));
-            } else if (type.startsWith(SOUNDS)) {
-                preview = new SoundPreview(this, previewUtil.getSoundPreview(item, imageSize));
-            } else if (type.startsWith(MAT_DEFS)) {
-                preview = new MatDefPreview(this, previewUtil.getDefaultIcon(item, imageSize));
-            }
-            if (preview == null) {
-                continue;
+            assets.add(new String[]{item, type});
+        }
+    }
+
+    /**
+     * Creates the previews of the cells in (or next to) the visible part of
+     * the grid and removes the ones that went out of view, cancelling their
+     * pending preview requests.
+     */
+    private void updateVisiblePreviews() {
+        if (assets.isEmpty() || lastGridColumns == 0) {
+            return;
+        }
+        Rectangle visible = previewsPanel.getVisibleRect();
+        if (visible.isEmpty()) {
+            visible = new Rectangle(jScrollPane1.getViewport().getViewPosition(), jScrollPane1.getViewport().getExtentSize());
+        }
+        int firstColumn = Math.max(visible.x / sizeX - 1, 0);
+        int lastColumn = Math.min((visible.x + visible.width) / sizeX + 1, lastGridColumns - 1);
+        int firstRow = Math.max(visible.y / sizeY - 1, 0);
+        int lastRow = Math.min((visible.y + visible.height) / sizeY + 1, lastGridRows - 1);
+
+        for (Iterator<Map.Entry<Integer, AssetPreviewWidget>> it = visiblePreviews.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Integer, AssetPreviewWidget> entry = it.next();
+            int column = entry.getKey() % lastGridColumns;
+            int row = entry.getKey() / lastGridColumns;
+            if (column < firstColumn || column > lastColumn || row < firstRow || row > lastRow) {
+                previewLoader.cancel(entry.getValue());
+                previewsPanel.remove(entry.getValue());
+                it.remove();
             }
-            preview.setMinimumSize(new Dimension(sizeX, sizeY));
-            preview.setPreferredSize(new Dimension(sizeX, sizeY));
-            if (assetManager.getAbsoluteAssetPath(item) != null) {
-                preview.setEditable(true);
+        }
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int index = row * lastGridColumns + column;
+                if (index >= assets.size() || visiblePreviews.containsKey(index)) {
+                    continue;
+                }
+                AssetPreviewWidget preview = createPreview(assets.get(index)[0], assets.get(index)[1]);
+                if (preview == null) {
+                    continue;
+                }
+                preview.setBounds(column * sizeX, row * sizeY, sizeX, sizeY);
+                previewsPanel.add(preview);
+                visiblePreviews.put(index, preview);
             }
-            preview.setPreviewName(item);
-            previewsPanel.add(preview, constraints);
-            index++;
         }
-        return index;
+        previewsPanel.repaint();
+    }
+
+    /**
+     * Creates the widget for an asset, textures, materials and models get a
+     * placeholder icon until the preview loader has created their preview
+     */
+    private AssetPreviewWidget createPreview(String item, String type) {
+        final AssetPreviewWidget preview;
+        final PreviewHelper helper = previewUtil;
+        final int size = imageSize;
+        if (type.startsWith(TEXTURES)) {
+            preview = new TexturePreview(this, IconList.asset);
+            previewLoader.request(preview, () -> helper.getOrCreateTexturePreview(item, size));
+        } else if (type.startsWith(MATERIALS)) {
+            preview = new MaterialPreview(this);
+            preview.setPreviewImage(IconList.asset);
+            previewLoader.request(preview, () -> helper.getOrCreateMaterialPreview(item, preview, size));
+        } else if (type.startsWith(MODELS)) {
+            preview = new ModelPreview(this);
+            preview.setPreviewImage(IconList.asset);
+            previewLoader.request(preview, () -> helper.getOrCreateModelPreview(item, preview, size));
+        } else if (type.startsWith(SOUNDS)) {
+            preview = new SoundPreview(this, previewUtil.getSoundPreview(item, imageSize));
+        } else if (type.startsWith(MAT_DEFS)) {
+            preview = new MatDefPreview(this, previewUtil.getDefaultIcon(item, imageSize));
+        } else {
+            return null;
+        }
+        preview.setMinimumSize(new Dimension(sizeX, sizeY));
+        preview.setPreferredSize(new Dimension(sizeX, sizeY));
+        if (assetManager.getAbsoluteAssetPath(item) != null) {
+            preview.setEditable(true);
+        }
+        preview.setPreviewName(item);
+        return preview;
     }
 
     /**
@@ -365,6 +424,9 @@ public class AssetBrowser extends javax.swing.JPanel implements PreviewInteracti
         assetManager = ProjectSelection.getProjectAssetManager("Select project");
         projectName = assetManager.getProject().getProjectDirectory().getName();
         projectLabel.setText(projectName);
+        if (previewUtil != null) {
+            previewUtil.close();
+        }
         previewUtil = new PreviewHelper(assetManager);
         createAssetBrowserFolder(assetManager);
         // Check which assets was added/deleted/renamed/changed? Nah, just load
@@ -55,16 +55,13 @@ import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.attribute.BasicFileAttributes;
-import java.nio.file.attribute.FileTime;
-import javax.imageio.ImageIO;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.Icon;
 import javax.swing.ImageIcon;
 import jme3tools.converters.ImageToAwt;
 import org.openide.filesystems.FileObject;
-import org.openide.util.Exceptions;
+import org.openide.util.RequestProcessor;
 
 /**
  * Helper class for generating preview images
@@ -73,33 +70,77 @@ import org.openide.util.Exceptions;
  */
 public class PreviewHelper {
 
+    private static final Logger logger = Logger.getLogger(PreviewHelper.class.getName());
     private static final int PREVIEW_SIZE = 150;
+    private static final String TEXTURE = "texture";
+    private static final String MATERIAL = "material";
+    private static final String MODEL = "model";
+    // writes the thumbnails in the order they are created, off the AWT thread
+    private static final RequestProcessor STORE_WRITER = new RequestProcessor("Thumbnail store", 1);
     private final ProjectAssetManager assetManager;
+    private final ThumbnailStore thumbnailStore;
 
     private static final Vector3f previewLocation = new Vector3f(4, 4, 7);
     private static final Vector3f previewLookAt = new Vector3f(0, 0, 0);
 
     public PreviewHelper(ProjectAssetManager assetManager) {
         this.assetManager = assetManager;
+        FileObject projectDirectory = assetManager.getProject().getProjectDirectory();
+        this.thumbnailStore = new ThumbnailStore(new File(projectDirectory.getPath() + "/.assetBrowser/", "thumbnails.store"));
+    }
+
+    /**
+     * Closes the thumbnail store of the project once the pending thumbnails
+     * are written, blocks until then so a new store of the same project
+     * doesn't open the file while this one still writes to it
+     */
+    public void close() {
+        STORE_WRITER.post(thumbnailStore::close).waitFinished();
     }
 
     public Icon getOrCreateTexturePreview(String asset, int size) {
-        final var icon = tryGetPreview(asset, size);
+        final var key = getPreviewKey(asset, TEXTURE);
+        final var icon = tryGetPreview(key, size);
         if (icon != null) {
             return icon;
         }
-        System.out.println("creating preview ");
-        Texture texture = assetManager.loadTexture(asset);
-        Image image = texture.getImage();
-
-        BufferedImage buff = ImageToAwt.convert(image, false, false, 0);
-
-        BufferedImage scaled = scaleDown(buff, 150, 150);
-        BufferedImage noAlpha = convertImage(scaled);
-        savePreview(assetManager, asset.split("\\.")[0], noAlpha);
+        BufferedImage noAlpha;
+        BufferedImage thumbnail = readThumbnail(asset);
+        if (thumbnail != null) {
+            noAlpha = convertImage(scaleDown(thumbnail, PREVIEW_SIZE, PREVIEW_SIZE), false);
+        } else {
+            Texture texture = assetManager.loadTexture(asset);
+            Image image = texture.getImage();
+
+            BufferedImage buff = ImageToAwt.convert(image, false, false, 0);
+
+            BufferedImage scaled = scaleDown(buff, PREVIEW_SIZE, PREVIEW_SIZE);
+            noAlpha = convertImage(scaled, true);
+        }
+        savePreview(key, noAlpha);
         return new ImageIcon(noAlpha);
     }
 
+    /**
+     * Reads the texture at preview resolution, without loading the whole
+     * image through the asset manager
+     *
+     * @return the image or null if the format isn't supported by
+     * TextureThumbnailReader
+     */
+    private BufferedImage readThumbnail(String asset) {
+        final FileObject file = assetManager.getAssetFileObject(asset);
+        if (file == null) {
+            return null;
+        }
+        try {
+            return TextureThumbnailReader.read(file, PREVIEW_SIZE);
+        } catch (IOException | RuntimeException ex) {
+            logger.log(Level.FINE, "Could not read thumbnail of " + asset, ex);
+            return null;
+        }
+    }
+
     public Icon getSoundPreview(String asset, int size) {
         return Icons.soundIcon;
     }
@@ -109,7 +150,8 @@ public class PreviewHelper {
     }
 
     public Icon getOrCreateMaterialPreview(String asset, AssetPreviewWidget widget, int size) {
-        final var icon = tryGetPreview(asset, size);
+        final var key = getPreviewKey(asset, MATERIAL);
+        final var icon = tryGetPreview(key, size);
         if (icon != null) {
             return icon;
         }
@@ -119,7 +161,7 @@ public class PreviewHelper {
         Box boxMesh = new Box(1.75f, 1.75f, 1.75f);
         Geometry box = new Geometry("previewBox", boxMesh);
         box.setMaterial(mat);
-        PreviewListener listener = new PreviewListener(assetManager, mat.getAssetName().split("\\.")[0], widget);
+        PreviewListener listener = new PreviewListener(key, widget);
         SceneApplication.getApplication().addSceneListener(listener);
         SceneApplication.getApplication().enqueue(() -> {
             SceneApplication.getApplication().getRenderManager().preloadScene(box);
@@ -134,40 +176,32 @@ public class PreviewHelper {
         return IconList.asset;
     }
 
-    private Icon tryGetPreview(String asset, int size) {
-        final var assetPath = assetManager.getAbsoluteAssetPath(asset);
-
-        final FileTime assetModificationTime = getAssetModificationTime(assetPath);
-
-        final File previewFile = loadPreviewFile(assetManager, asset.split("\\.")[0]);
+    /**
+     * Returns the key of the preview in the thumbnail store, it is based on
+     * the content of the asset so it stays valid when file times change
+     */
+    private String getPreviewKey(String asset, String type) {
+        final FileObject file = assetManager.getAssetFileObject(asset);
+        if (file == null) {
+            return null;
+        }
+        return thumbnailStore.getKey(file, type + "/" + PREVIEW_SIZE);
+    }
 
-        if (previewFile != null && assetModificationTime != null) {
-            final Path previewPath = previewFile.toPath();
-            if(previewPath == null) {
-                return null;
-            }
-            try {
-                final BasicFileAttributes previewAttributes = Files.readAttributes(
-                        previewPath, BasicFileAttributes.class);
-                final FileTime previewCreationTime = previewAttributes.creationTime();
-
-                if (previewCreationTime.compareTo(assetModificationTime) > 0) {
-                    System.out.println("existing preview OK " + previewFile);
-                    BufferedImage image = ImageIO.read(previewFile);
-                    if (image != null) {
-                        return new ImageIcon(size != PREVIEW_SIZE ? image.getScaledInstance(size, size, 0) : image);
-                    }
-                }
-
-            } catch (IOException ex) {
-                Exceptions.printStackTrace(ex);
-            }
+    private Icon tryGetPreview(String key, int size) {
+        if (key == null) {
+            return null;
+        }
+        final BufferedImage image = thumbnailStore.get(key);
+        if (image != null) {
+            return new ImageIcon(size != PREVIEW_SIZE ? image.getScaledInstance(size, size, 0) : image);
         }
         return null;
     }
 
     public Icon getOrCreateModelPreview(String asset, AssetPreviewWidget widget, int size) {
-        final var icon = tryGetPreview(asset, size);
+        final var key = getPreviewKey(asset, MODEL);
+        final var icon = tryGetPreview(key, size);
         if (icon != null) {
             return icon;
         }
@@ -179,7 +213,7 @@ public class PreviewHelper {
 
         recurseApplyDefaultMaterial(spatial, unshaded);
 
-        PreviewListener listener = new PreviewListener(assetManager, asset.split("\\.")[0], widget);
+        PreviewListener listener = new PreviewListener(key, widget);
         SceneApplication.getApplication().addSceneListener(listener);
         SceneApplication.getApplication().enqueue(() -> {
             SceneApplication.getApplication().getRenderManager().preloadScene(spatial);
@@ -209,41 +243,9 @@ public class PreviewHelper {
         }
     }
 
-    private FileTime getAssetModificationTime(String assetPath) {
-        if (assetPath == null) {
-            return null;
-        }
-        Path path = new File(assetPath).toPath();
-
-        try {
-            // creating BasicFileAttributes class object using
-            // readAttributes method
-            BasicFileAttributes file_att = Files.readAttributes(
-                    path, BasicFileAttributes.class);
-            return file_att.lastModifiedTime();
-        } catch (IOException ex) {
-            Exceptions.printStackTrace(ex);
-        }
-        return null;
-    }
-
-    private File loadPreviewFile(ProjectAssetManager assetManager, String id) {
-        FileObject fileObject = assetManager.getProject().getProjectDirectory();
-        return new File(fileObject.getPath() + "/.assetBrowser/", id + ".jpg");
-    }
-
-    private void savePreview(ProjectAssetManager assetManager, String id, BufferedImage preview) {
-        FileObject fileObject = assetManager.getProject().getProjectDirectory();
-        String[] fileSections = id.split("/");
-        String fileName = fileSections[fileSections.length - 1];
-        File path = new File(fileObject.getPath() + "/.assetBrowser/" + id.substring(0, id.length() - fileName.length()));
-        File file = new File(path, fileName + ".jpg");
-        try {
-            path.mkdirs();
-            file.createNewFile();
-            ImageIO.write(preview, "jpg", file);
-        } catch (IOException ex) {
-            Exceptions.printStackTrace(ex);
+    private void savePreview(String key, BufferedImage preview) {
+        if (key != null) {
+            STORE_WRITER.post(() -> thumbnailStore.put(key, preview));
         }
     }
 
@@ -251,7 +253,8 @@ public class PreviewHelper {
         int sourceWidth = sourceImage.getWidth();
         int sourceHeight = sourceImage.getHeight();
 
-        BufferedImage targetImage = new BufferedImage(targetWidth, targetHeight, sourceImage.getType());
+        int type = sourceImage.getType() == BufferedImage.TYPE_CUSTOM ? BufferedImage.TYPE_INT_ARGB : sourceImage.getType();
+        BufferedImage targetImage = new BufferedImage(targetWidth, targetHeight, type);
 
         Graphics2D g = targetImage.createGraphics();
         g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
@@ -264,13 +267,11 @@ public class PreviewHelper {
     private class PreviewListener implements SceneListener {
 
         final AssetPreviewWidget widget;
-        final ProjectAssetManager assetManager;
-        private final String assetName;
+        private final String key;
 
-        public PreviewListener(ProjectAssetManager assetManager, String assetName, AssetPreviewWidget widget) {
+        public PreviewListener(String key, AssetPreviewWidget widget) {
             this.widget = widget;
-            this.assetManager = assetManager;
-            this.assetName = assetName;
+            this.key = key;
         }
 
         @Override
@@ -284,17 +285,23 @@ public class PreviewHelper {
         @Override
         public void previewCreated(PreviewRequest request) {
             if (request.getRequester() == this) {
-                final var image = convertImage(request.getImage());
+                final var image = convertImage(request.getImage(), true);
                 java.awt.EventQueue.invokeLater(() -> {
                     widget.setPreviewImage(new ImageIcon(image));
-                    savePreview(assetManager, assetName, image);
+                    savePreview(key, image);
                     widget.revalidate();
                 });
             }
         }
     };
 
-    private static BufferedImage convertImage(BufferedImage preview) {
+    /**
+     * Draws the preview on a white background
+     *
+     * @param flip flip the image vertically, for images read from the GPU or
+     * loaded through the asset manager
+     */
+    private static BufferedImage convertImage(BufferedImage preview, boolean flip) {
         final int width = preview.getWidth();
         final int height = preview.getHeight();
         BufferedImage converted = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
@@ -303,7 +310,11 @@ public class PreviewHelper {
         g.fillRect(0, 0, width, height);
         int w = preview.getWidth();
         int h = preview.getHeight();
-        g.drawImage(preview, 0, 0, w, h, 0, h, w, 0, null);
+        if (flip) {
+            g.drawImage(preview, 0, 0, w, h, 0, h, w, 0, null);
+        } else {
+            g.drawImage(preview, 0, 0, w, h, 0, 0, w, h, null);
+        }
         g.dispose();
         return converted;
     }
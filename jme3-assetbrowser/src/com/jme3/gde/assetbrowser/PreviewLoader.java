@@ -0,0 +1,119 @@
+/*
+ *  Copyright (c) 2009-2024 jMonkeyEngine
+ *  All rights reserved.
+ * 
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are
+ *  met:
+ * 
+ *  * Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ *  * Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 
+ *  * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ *  TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ *  PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.assetbrowser;
+
+import com.jme3.gde.assetbrowser.widgets.AssetPreviewWidget;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Icon;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Loads preview icons for AssetPreviewWidgets in the background. The queue is
+ * bounded and last in, first out, so widgets that just scrolled into view are
+ * served first; widgets that scroll out of view are cancelled.
+ */
+class PreviewLoader {
+
+    private static final Logger logger = Logger.getLogger(PreviewLoader.class.getName());
+    private static final int WORKERS = 2;
+    private static final int MAX_PENDING = 256;
+    private final RequestProcessor processor = new RequestProcessor("Asset Browser previews", WORKERS);
+    // newest request last, the workers take from the end
+    private final LinkedHashMap<AssetPreviewWidget, Callable<Icon>> pending = new LinkedHashMap<>();
+
+    /**
+     * Queues loading the preview of the widget, the icon is set on the EDT
+     * if the widget is still showing by then.
+     *
+     * @param widget the widget to set the icon on
+     * @param loader creates the icon, called on a worker thread
+     */
+    void request(AssetPreviewWidget widget, Callable<Icon> loader) {
+        synchronized (pending) {
+            pending.remove(widget);
+            pending.put(widget, loader);
+            if (pending.size() > MAX_PENDING) {
+                // the oldest requests are the ones furthest out of view
+                Iterator<AssetPreviewWidget> it = pending.keySet().iterator();
+                it.next();
+                it.remove();
+            }
+        }
+        processor.post(this::loadNext);
+    }
+
+    void cancel(AssetPreviewWidget widget) {
+        synchronized (pending) {
+            pending.remove(widget);
+        }
+    }
+
+    void cancelAll() {
+        synchronized (pending) {
+            pending.clear();
+        }
+    }
+
+    private void loadNext() {
+        AssetPreviewWidget widget = null;
+        Callable<Icon> loader = null;
+        synchronized (pending) {
+            for (Map.Entry<AssetPreviewWidget, Callable<Icon>> entry : pending.entrySet()) {
+                widget = entry.getKey();
+                loader = entry.getValue();
+            }
+            if (widget == null) {
+                return;
+            }
+            pending.remove(widget);
+        }
+        try {
+            final Icon icon = loader.call();
+            final AssetPreviewWidget target = widget;
+            if (icon != null) {
+                java.awt.EventQueue.invokeLater(() -> {
+                    if (target.getParent() != null) {
+                        target.setPreviewImage(icon);
+                        target.repaint();
+                    }
+                });
+            }
+        } catch (Exception ex) {
+            logger.log(Level.WARNING, "Could not create preview for " + widget.getPreviewName(), ex);
+        }
+    }
+}
@@ -0,0 +1,371 @@
+/*
+ *  Copyright (c) 2009-2024 jMonkeyEngine
+ *  All rights reserved.
+ * 
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are
+ *  met:
+ * 
+ *  * Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ *  * Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 
+ *  * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ *  TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ *  PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.assetbrowser;
+
+import java.awt.image.BufferedImage;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Iterator;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.openide.filesystems.FileObject;
+
+/**
+ * Reads textures at thumbnail resolution without decoding the full image.
+ * DDS files are read from the smallest mip level that is still at least the
+ * requested size, uncompressed TGA files and everything ImageIO can read are
+ * subsampled while reading. The returned images are upright, unlike textures
+ * loaded through the asset manager.
+ */
+class TextureThumbnailReader {
+
+    private static final int DDS_HEADER_SIZE = 128;
+    private static final int DDPF_ALPHAPIXELS = 0x1;
+    private static final int DDPF_FOURCC = 0x4;
+    private static final int DDPF_RGB = 0x40;
+    private static final int DDPF_LUMINANCE = 0x20000;
+    private static final int DXT1 = 0x31545844;
+    private static final int DXT3 = 0x33545844;
+    private static final int DXT5 = 0x35545844;
+    private static final int TGA_HEADER_SIZE = 18;
+
+    private TextureThumbnailReader() {
+    }
+
+    /**
+     * @param file the texture file
+     * @param size the minimum width and height of the returned image, if the
+     * texture is large enough
+     * @return the image or null if the format is not supported, callers
+     * should then fall back to loading the texture through the asset manager
+     * @throws IOException if the file can't be read
+     */
+    static BufferedImage read(FileObject file, int size) throws IOException {
+        String ext = file.getExt().toLowerCase();
+        switch (ext) {
+            case "dds":
+                return readDds(file, size);
+            case "tga":
+                return readTga(file, size);
+            case "png":
+            case "jpg":
+            case "jpeg":
+            case "gif":
+            case "bmp":
+                return readImageIO(file, size);
+            default:
+                return null;
+        }
+    }
+
+    private static int getSubsampling(int width, int height, int size) {
+        return Math.max(1, Math.min(width, height) / size);
+    }
+
+    private static BufferedImage readImageIO(FileObject file, int size) throws IOException {
+        try (InputStream in = file.getInputStream(); ImageInputStream stream = ImageIO.createImageInputStream(in)) {
+            if (stream == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(stream);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(stream, true, true);
+                int subsampling = getSubsampling(reader.getWidth(0), reader.getHeight(0), size);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage readTga(FileObject file, int size) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            ByteBuffer header = ByteBuffer.wrap(readFully(in, TGA_HEADER_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+            int idLength = header.get(0) & 0xFF;
+            int colorMapType = header.get(1) & 0xFF;
+            int imageType = header.get(2) & 0xFF;
+            int colorMapLength = header.getShort(5) & 0xFFFF;
+            int colorMapEntrySize = header.get(7) & 0xFF;
+            int width = header.getShort(12) & 0xFFFF;
+            int height = header.getShort(14) & 0xFFFF;
+            int bitsPerPixel = header.get(16) & 0xFF;
+            boolean topDown = (header.get(17) & 0x20) != 0;
+            // only uncompressed true color and grayscale images can be
+            // subsampled without decoding every row
+            if (colorMapType != 0 || (imageType != 2 && imageType != 3)
+                    || (bitsPerPixel != 8 && bitsPerPixel != 24 && bitsPerPixel != 32)
+                    || width == 0 || height == 0) {
+                return null;
+            }
+            skipFully(in, idLength + (long) colorMapLength * ((colorMapEntrySize + 7) / 8));
+
+            int bytesPerPixel = bitsPerPixel / 8;
+            int subsampling = getSubsampling(width, height, size);
+            int outWidth = (width + subsampling - 1) / subsampling;
+            int outHeight = (height + subsampling - 1) / subsampling;
+            BufferedImage image = new BufferedImage(outWidth, outHeight, BufferedImage.TYPE_INT_ARGB);
+            int[] line = new int[outWidth];
+            long rowBytes = (long) width * bytesPerPixel;
+            byte[] row = new byte[(int) rowBytes];
+            for (int y = 0; y < outHeight; y++) {
+                readFully(in, row);
+                for (int x = 0; x < outWidth; x++) {
+                    int i = x * subsampling * bytesPerPixel;
+                    if (bytesPerPixel == 1) {
+                        int l = row[i] & 0xFF;
+                        line[x] = 0xFF000000 | l << 16 | l << 8 | l;
+                    } else {
+                        int a = bytesPerPixel == 4 ? row[i + 3] & 0xFF : 0xFF;
+                        line[x] = a << 24 | (row[i + 2] & 0xFF) << 16 | (row[i + 1] & 0xFF) << 8 | (row[i] & 0xFF);
+                    }
+                }
+                image.setRGB(0, topDown ? y : outHeight - 1 - y, outWidth, 1, line, 0, outWidth);
+                if (y < outHeight - 1) {
+                    skipFully(in, rowBytes * (subsampling - 1));
+                }
+            }
+            return image;
+        }
+    }
+
+    private static BufferedImage readDds(FileObject file, int size) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            ByteBuffer header = ByteBuffer.wrap(readFully(in, DDS_HEADER_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) != 0x20534444) {
+                return null;
+            }
+            int height = header.getInt(12);
+            int width = header.getInt(16);
+            int mipMapCount = Math.max(1, header.getInt(28));
+            int pixelFormatFlags = header.getInt(80);
+            int fourCC = header.getInt(84);
+            int bitCount = header.getInt(88);
+            int[] masks = {header.getInt(92), header.getInt(96), header.getInt(100), header.getInt(104)};
+
+            int blockSize = 0;
+            if ((pixelFormatFlags & DDPF_FOURCC) != 0) {
+                if (fourCC == DXT1) {
+                    blockSize = 8;
+                } else if (fourCC == DXT3 || fourCC == DXT5) {
+                    blockSize = 16;
+                } else {
+                    // DX10 headers, ATI/BC formats etc.
+                    return null;
+                }
+            } else if ((pixelFormatFlags & (DDPF_RGB | DDPF_LUMINANCE)) == 0
+                    || (bitCount != 8 && bitCount != 16 && bitCount != 24 && bitCount != 32)) {
+                return null;
+            }
+            if ((pixelFormatFlags & DDPF_ALPHAPIXELS) == 0) {
+                masks[3] = 0;
+            }
+            if ((pixelFormatFlags & DDPF_LUMINANCE) != 0) {
+                masks[1] = masks[0];
+                masks[2] = masks[0];
+            }
+
+            // skip to the smallest level that is still large enough
+            int level = 0;
+            long offset = 0;
+            while (level < mipMapCount - 1 && Math.min(width, height) / 2 >= size) {
+                offset += getLevelSize(width, height, blockSize, bitCount);
+                width = Math.max(1, width / 2);
+                height = Math.max(1, height / 2);
+                level++;
+            }
+            skipFully(in, offset);
+            byte[] data = readFully(in, (int) getLevelSize(width, height, blockSize, bitCount));
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            if (blockSize != 0) {
+                decodeDxt(data, width, height, fourCC, image);
+            } else {
+                decodeRgb(data, width, height, bitCount / 8, masks, image);
+            }
+            return image;
+        }
+    }
+
+    private static long getLevelSize(int width, int height, int blockSize, int bitCount) {
+        if (blockSize != 0) {
+            return (long) Math.max(1, (width + 3) / 4) * Math.max(1, (height + 3) / 4) * blockSize;
+        }
+        return (long) width * height * (bitCount / 8);
+    }
+
+    private static void decodeRgb(byte[] data, int width, int height, int bytesPerPixel, int[] masks, BufferedImage image) {
+        int[] shifts = new int[4];
+        int[] maxValues = new int[4];
+        for (int c = 0; c < 4; c++) {
+            if (masks[c] != 0) {
+                shifts[c] = Integer.numberOfTrailingZeros(masks[c]);
+                maxValues[c] = masks[c] >>> shifts[c];
+            }
+        }
+        int[] line = new int[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int i = (y * width + x) * bytesPerPixel;
+                int value = 0;
+                for (int b = 0; b < bytesPerPixel; b++) {
+                    value |= (data[i + b] & 0xFF) << (8 * b);
+                }
+                int argb = 0;
+                for (int c = 0; c < 4; c++) {
+                    int channel = maxValues[c] == 0 ? (c == 3 ? 0xFF : 0)
+                            : ((value & masks[c]) >>> shifts[c]) * 0xFF / maxValues[c];
+                    argb |= channel << (c == 3 ? 24 : 16 - 8 * c);
+                }
+                line[x] = argb;
+            }
+            image.setRGB(0, y, width, 1, line, 0, width);
+        }
+    }
+
+    private static void decodeDxt(byte[] data, int width, int height, int fourCC, BufferedImage image) {
+        int blocksX = Math.max(1, (width + 3) / 4);
+        int blocksY = Math.max(1, (height + 3) / 4);
+        int blockSize = fourCC == DXT1 ? 8 : 16;
+        int[] colors = new int[4];
+        int[] alphas = new int[8];
+        int[] block = new int[16];
+        for (int by = 0; by < blocksY; by++) {
+            for (int bx = 0; bx < blocksX; bx++) {
+                int offset = (by * blocksX + bx) * blockSize;
+                int colorOffset = fourCC == DXT1 ? offset : offset + 8;
+                int c0 = (data[colorOffset] & 0xFF) | (data[colorOffset + 1] & 0xFF) << 8;
+                int c1 = (data[colorOffset + 2] & 0xFF) | (data[colorOffset + 3] & 0xFF) << 8;
+                colors[0] = rgb565(c0);
+                colors[1] = rgb565(c1);
+                if (c0 > c1 || fourCC != DXT1) {
+                    colors[2] = mix(colors[0], colors[1], 2, 1, 3);
+                    colors[3] = mix(colors[0], colors[1], 1, 2, 3);
+                } else {
+                    colors[2] = mix(colors[0], colors[1], 1, 1, 2);
+                    colors[3] = 0;
+                }
+                int indices = (data[colorOffset + 4] & 0xFF) | (data[colorOffset + 5] & 0xFF) << 8
+                        | (data[colorOffset + 6] & 0xFF) << 16 | (data[colorOffset + 7] & 0xFF) << 24;
+                for (int p = 0; p < 16; p++) {
+                    int index = (indices >>> (2 * p)) & 0x3;
+                    int alpha = fourCC == DXT1 && c0 <= c1 && index == 3 ? 0 : 0xFF;
+                    block[p] = alpha << 24 | colors[index];
+                }
+                if (fourCC == DXT3) {
+                    for (int p = 0; p < 16; p++) {
+                        int alpha = (data[offset + p / 2] >>> (4 * (p % 2))) & 0xF;
+                        block[p] = (block[p] & 0xFFFFFF) | (alpha * 17) << 24;
+                    }
+                } else if (fourCC == DXT5) {
+                    alphas[0] = data[offset] & 0xFF;
+                    alphas[1] = data[offset + 1] & 0xFF;
+                    for (int a = 2; a < 8; a++) {
+                        alphas[a] = alphas[0] > alphas[1]
+                                ? ((8 - a) * alphas[0] + (a - 1) * alphas[1]) / 7
+                                : a < 6 ? ((6 - a) * alphas[0] + (a - 1) * alphas[1]) / 5 : (a == 6 ? 0 : 0xFF);
+                    }
+                    long alphaIndices = 0;
+                    for (int b = 0; b < 6; b++) {
+                        alphaIndices |= (long) (data[offset + 2 + b] & 0xFF) << (8 * b);
+                    }
+                    for (int p = 0; p < 16; p++) {
+                        int alpha = alphas[(int) (alphaIndices >>> (3 * p)) & 0x7];
+                        block[p] = (block[p] & 0xFFFFFF) | alpha << 24;
+                    }
+                }
+                for (int p = 0; p < 16; p++) {
+                    int x = bx * 4 + p % 4;
+                    int y = by * 4 + p / 4;
+                    if (x < width && y < height) {
+                        image.setRGB(x, y, block[p]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int rgb565(int color) {
+        int r = (color >>> 11) & 0x1F;
+        int g = (color >>> 5) & 0x3F;
+        int b = color & 0x1F;
+        return (r << 3 | r >>> 2) << 16 | (g << 2 | g >>> 4) << 8 | (b << 3 | b >>> 2);
+    }
+
+    private static int mix(int c0, int c1, int w0, int w1, int sum) {
+        int result = 0;
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int v = (((c0 >>> shift) & 0xFF) * w0 + ((c1 >>> shift) & 0xFF) * w1) / sum;
+            result |= v << shift;
+        }
+        return result;
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] data = new byte[length];
+        readFully(in, data);
+        return data;
+    }
+
+    private static void readFully(InputStream in, byte[] data) throws IOException {
+        int read = 0;
+        while (read < data.length) {
+            int count = in.read(data, read, data.length - read);
+            if (count < 0) {
+                throw new EOFException();
+            }
+            read += count;
+        }
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                if (in.read() < 0) {
+                    throw new EOFException();
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+}
@@ -0,0 +1,542 @@
+/*
+ *  Copyright (c) 2009-2024 jMonkeyEngine
+ *  All rights reserved.
+ * 
+ *  Redistribution and use in source and binary forms, with or without
+ *  modification, are permitted provided that the following conditions are
+ *  met:
+ * 
+ *  * Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 
+ *  * Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 
+ *  * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *    may be used to endorse or promote products derived from this software
+ *    without specific prior written permission.
+ * 
+ *  THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ *  "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ *  TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ *  PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ *  CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ *  EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ *  PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ *  PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ *  LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ *  NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ *  SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.assetbrowser;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.openide.filesystems.FileObject;
+
+/**
+ * Single file store for asset browser thumbnails. Thumbnails are keyed by the
+ * content hash of the asset and the preview settings, so they stay valid when
+ * a checkout resets file times. The file is an append-only list of records,
+ * read with positional reads, decoded thumbnails are kept in a small LRU
+ * cache.
+ *
+ * Replaced records and thumbnails of content that no asset has anymore are
+ * dropped by copying the live records into a new file that replaces the old
+ * one, once they take more space than the live records. The JPEG previews of
+ * the old cache are deleted when a store is opened.
+ */
+public class ThumbnailStore {
+
+    private static final Logger logger = Logger.getLogger(ThumbnailStore.class.getName());
+    private static final int MAGIC = 0x4A4D5448;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final byte THUMBNAIL = 0;
+    private static final byte CONTENT_HASH = 1;
+    private static final int MAX_CACHED_IMAGES = 512;
+    private static final long MIN_COMPACT_SIZE = 4 * 1024 * 1024;
+    private static final int COMPACT_CHECK_INTERVAL = 64;
+
+    private final File file;
+    private FileChannel channel;
+    private long end;
+    private int appendsSinceCheck;
+    private final Map<String, Entry> thumbnails = new HashMap<>();
+    private final Map<String, ContentHash> hashes = new HashMap<>();
+    private final Map<String, BufferedImage> images = new LinkedHashMap<String, BufferedImage>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+            return size() > MAX_CACHED_IMAGES;
+        }
+    };
+
+    public ThumbnailStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the key of a thumbnail, made of the content hash of the asset
+     * file and the settings used to render the thumbnail.
+     *
+     * @param asset the asset file
+     * @param settings the preview settings, e.g. type and size
+     * @return the key or null if the asset can't be read
+     */
+    public String getKey(FileObject asset, String settings) {
+        String hash = getContentHash(asset);
+        return hash == null ? null : hash + ":" + settings;
+    }
+
+    /**
+     * @param key the thumbnail key
+     * @return the decoded thumbnail or null if the store has none
+     */
+    public synchronized BufferedImage get(String key) {
+        BufferedImage image = images.get(key);
+        if (image != null) {
+            return image;
+        }
+        Entry entry = thumbnails.get(key);
+        if (entry == null || !open()) {
+            return null;
+        }
+        try {
+            image = new BufferedImage(entry.width, entry.height, BufferedImage.TYPE_3BYTE_BGR);
+            byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+            readFully(ByteBuffer.wrap(data, 0, entry.length), entry.offset);
+            images.put(key, image);
+            return image;
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not read thumbnail store " + file, ex);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the thumbnail, an existing thumbnail with the same key is
+     * replaced.
+     *
+     * @param key the thumbnail key
+     * @param image the thumbnail
+     */
+    public synchronized void put(String key, BufferedImage image) {
+        BufferedImage bgr = image;
+        if (image.getType() != BufferedImage.TYPE_3BYTE_BGR) {
+            bgr = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
+            Graphics2D g = bgr.createGraphics();
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+        }
+        byte[] data = ((DataBufferByte) bgr.getRaster().getDataBuffer()).getData();
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(5 + 2 + keyBytes.length + 4 + data.length);
+        record.put(THUMBNAIL);
+        record.putInt(record.capacity() - 5);
+        record.putShort((short) keyBytes.length);
+        record.put(keyBytes);
+        record.putShort((short) bgr.getWidth());
+        record.putShort((short) bgr.getHeight());
+        record.put(data);
+        long offset = append(record);
+        if (offset >= 0) {
+            thumbnails.put(key, new Entry(offset, record.capacity(), offset + record.capacity() - data.length,
+                    data.length, bgr.getWidth(), bgr.getHeight()));
+            checkCompaction();
+        }
+        images.put(key, bgr);
+    }
+
+    /**
+     * Compacts the store if needed and closes the store file, it is reopened
+     * on the next access.
+     */
+    public synchronized void close() {
+        if (channel != null) {
+            compactIfNeeded();
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ex) {
+                logger.log(Level.FINE, "Could not close thumbnail store", ex);
+            }
+            channel = null;
+        }
+    }
+
+    /**
+     * Hashes the content of the file, the hash is remembered together with
+     * the modification time and size so a file is only read again when one
+     * of these changed.
+     */
+    private String getContentHash(FileObject asset) {
+        String path = asset.toURL().toExternalForm();
+        long lastModified = asset.lastModified().getTime();
+        long size = asset.getSize();
+        synchronized (this) {
+            open();
+            ContentHash known = hashes.get(path);
+            if (known != null && known.lastModified == lastModified && known.size == size) {
+                return known.hash;
+            }
+        }
+        String hash;
+        try (InputStream in = asset.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest.digest()) {
+                builder.append(String.format("%02x", b));
+            }
+            hash = builder.toString();
+        } catch (IOException | NoSuchAlgorithmException ex) {
+            logger.log(Level.WARNING, "Could not hash " + path, ex);
+            return null;
+        }
+        synchronized (this) {
+            byte[] pathBytes = path.getBytes(StandardCharsets.UTF_8);
+            byte[] hashBytes = hash.getBytes(StandardCharsets.UTF_8);
+            ByteBuffer record = ByteBuffer.allocate(5 + 2 + pathBytes.length + 16 + 2 + hashBytes.length);
+            record.put(CONTENT_HASH);
+            record.putInt(record.capacity() - 5);
+            record.putShort((short) pathBytes.length);
+            record.put(pathBytes);
+            record.putLong(lastModified);
+            record.putLong(size);
+            record.putShort((short) hashBytes.length);
+            record.put(hashBytes);
+            long offset = append(record);
+            hashes.put(path, new ContentHash(offset, record.capacity(), lastModified, size, hash));
+            if (offset >= 0) {
+                checkCompaction();
+            }
+        }
+        return hash;
+    }
+
+    private long append(ByteBuffer record) {
+        if (!open()) {
+            return -1;
+        }
+        try {
+            long offset = end;
+            record.flip();
+            while (record.hasRemaining()) {
+                end += channel.write(record, end);
+            }
+            return offset;
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not write thumbnail store " + file, ex);
+            return -1;
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of " + file);
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Opens the store and indexes its records, a store with a wrong header is
+     * cleared and a truncated last record is dropped.
+     */
+    private boolean open() {
+        if (channel != null) {
+            return true;
+        }
+        try {
+            file.getParentFile().mkdirs();
+            deleteOldPreviews(file.getParentFile());
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            thumbnails.clear();
+            hashes.clear();
+            long size = channel.size();
+            end = HEADER_SIZE;
+            if (!index(size)) {
+                channel.truncate(0);
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                channel.write(header, 0);
+                end = HEADER_SIZE;
+                return true;
+            }
+            if (end < size) {
+                logger.log(Level.INFO, "Dropping {0} bytes of incomplete records from {1}", new Object[]{size - end, file});
+                channel.truncate(end);
+            }
+            compactIfNeeded();
+            return true;
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not open thumbnail store " + file, ex);
+            closeChannel();
+            return false;
+        }
+    }
+
+    /**
+     * Reads the record headers and keys, the pixels are skipped.
+     *
+     * @return false if the file has no valid header
+     */
+    private boolean index(long size) throws IOException {
+        if (size < HEADER_SIZE) {
+            return false;
+        }
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            return false;
+        }
+        try {
+            long position = HEADER_SIZE;
+            while (position + 5 <= size) {
+                byte kind = in.readByte();
+                int length = in.readInt();
+                long next = position + 5 + length;
+                if (length < 0 || next > size) {
+                    break;
+                }
+                String key = readString(in);
+                int read = 2 + key.getBytes(StandardCharsets.UTF_8).length;
+                if (kind == THUMBNAIL) {
+                    int width = in.readShort();
+                    int height = in.readShort();
+                    read += 4;
+                    long offset = position + 5 + read;
+                    thumbnails.put(key, new Entry(position, (int) (next - position), offset, (int) (next - offset), width, height));
+                } else if (kind == CONTENT_HASH) {
+                    long lastModified = in.readLong();
+                    long fileSize = in.readLong();
+                    String hash = readString(in);
+                    read += 16 + 2 + hash.getBytes(StandardCharsets.UTF_8).length;
+                    hashes.put(key, new ContentHash(position, (int) (next - position), lastModified, fileSize, hash));
+                }
+                in.skipNBytes(length - read);
+                position = next;
+                end = next;
+            }
+        } catch (EOFException ex) {
+            // a truncated last record, dropped by the caller
+        }
+        return true;
+    }
+
+    private void checkCompaction() {
+        if (++appendsSinceCheck >= COMPACT_CHECK_INTERVAL) {
+            compactIfNeeded();
+        }
+    }
+
+    /**
+     * Copies the live records into a new file and swaps it in, when the dead
+     * records take more space than the live ones. Hashes of local files that
+     * are gone and thumbnails whose content hash no asset has anymore are
+     * dropped.
+     */
+    private void compactIfNeeded() {
+        appendsSinceCheck = 0;
+        Set<String> liveHashes = new HashSet<>();
+        long live = HEADER_SIZE;
+        for (Iterator<Map.Entry<String, ContentHash>> it = hashes.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, ContentHash> entry = it.next();
+            if (entry.getValue().recordStart < 0 || isMissingFile(entry.getKey())) {
+                it.remove();
+                continue;
+            }
+            liveHashes.add(entry.getValue().hash);
+            live += entry.getValue().recordLength;
+        }
+        for (Iterator<Map.Entry<String, Entry>> it = thumbnails.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, Entry> entry = it.next();
+            String key = entry.getKey();
+            if (!liveHashes.contains(key.substring(0, Math.max(0, key.indexOf(':'))))) {
+                it.remove();
+                images.remove(key);
+                continue;
+            }
+            live += entry.getValue().recordLength;
+        }
+        if (end - live < MIN_COMPACT_SIZE || end - live < live) {
+            return;
+        }
+        Path target = file.toPath();
+        Path temp = new File(file.getPath() + ".tmp").toPath();
+        Map<String, Entry> newThumbnails = new HashMap<>();
+        Map<String, ContentHash> newHashes = new HashMap<>();
+        long position = HEADER_SIZE;
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                out.write(header, 0);
+                for (Map.Entry<String, ContentHash> entry : hashes.entrySet()) {
+                    ContentHash hash = entry.getValue();
+                    copy(out, hash.recordStart, hash.recordLength, position);
+                    newHashes.put(entry.getKey(), new ContentHash(position, hash.recordLength, hash.lastModified, hash.size, hash.hash));
+                    position += hash.recordLength;
+                }
+                for (Map.Entry<String, Entry> entry : thumbnails.entrySet()) {
+                    Entry thumbnail = entry.getValue();
+                    copy(out, thumbnail.recordStart, thumbnail.recordLength, position);
+                    newThumbnails.put(entry.getKey(), new Entry(position, thumbnail.recordLength,
+                            position + thumbnail.offset - thumbnail.recordStart, thumbnail.length, thumbnail.width, thumbnail.height));
+                    position += thumbnail.recordLength;
+                }
+                out.force(false);
+            }
+            // nothing maps the store, so it can be replaced while closed on any platform
+            closeChannel();
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            logger.log(Level.FINE, "Compacted {0} from {1} to {2} bytes", new Object[]{file, end, position});
+            channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            thumbnails.clear();
+            thumbnails.putAll(newThumbnails);
+            hashes.clear();
+            hashes.putAll(newHashes);
+            end = position;
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not compact thumbnail store " + file, ex);
+            try {
+                Files.deleteIfExists(temp);
+                if (channel == null) {
+                    channel = FileChannel.open(target, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                }
+            } catch (IOException ex2) {
+                logger.log(Level.WARNING, "Could not reopen thumbnail store " + file, ex2);
+                channel = null;
+            }
+        }
+    }
+
+    private void copy(FileChannel out, long start, int length, long position) throws IOException {
+        long copied = 0;
+        while (copied < length) {
+            long count = channel.transferTo(start + copied, length - copied, out.position(position + copied));
+            if (count <= 0) {
+                throw new EOFException("Unexpected end of " + file);
+            }
+            copied += count;
+        }
+    }
+
+    private static boolean isMissingFile(String url) {
+        try {
+            URI uri = new URI(url);
+            return "file".equals(uri.getScheme()) && !new File(uri).exists();
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Deletes the JPEG previews the asset browser stored before it had a
+     * thumbnail store.
+     */
+    private static void deleteOldPreviews(File folder) {
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            paths.sorted(Comparator.reverseOrder())
+                    .filter(path -> !path.equals(folder.toPath()))
+                    .forEach(path -> {
+                        File old = path.toFile();
+                        if ((old.isFile() && old.getName().endsWith(".jpg"))
+                                || (old.isDirectory() && old.list().length == 0)) {
+                            old.delete();
+                        }
+                    });
+        } catch (IOException | RuntimeException ex) {
+            logger.log(Level.FINE, "Could not delete old previews in " + folder, ex);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readShort()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Entry {
+
+        final long recordStart;
+        final int recordLength;
+        final long offset;
+        final int length;
+        final int width;
+        final int height;
+
+        Entry(long recordStart, int recordLength, long offset, int length, int width, int height) {
+            this.recordStart = recordStart;
+            this.recordLength = recordLength;
+            this.offset = offset;
+            this.length = length;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    private static class ContentHash {
+
+        final long recordStart;
+        final int recordLength;
+        final long lastModified;
+        final long size;
+        final String hash;
+
+        ContentHash(long recordStart, int recordLength, long lastModified, long size, String hash) {
+            this.recordStart = recordStart;
+            this.recordLength = recordLength;
+            this.lastModified = lastModified;
+            this.size = size;
+            this.hash = hash;
+        }
+    }
+}
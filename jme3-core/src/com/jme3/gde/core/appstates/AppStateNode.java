@@ -35,6 +35,7 @@ import com.jme3.app.state.AppState;
 import com.jme3.app.state.AppStateManager;
 import com.jme3.gde.core.icons.IconList;
 import com.jme3.gde.core.properties.SceneExplorerProperty;
+import com.jme3.gde.core.properties.SceneExplorerPropertyCache;
 import com.jme3.gde.core.properties.ScenePropertyChangeListener;
 import com.jme3.gde.core.scene.SceneSyncListener;
 import com.jme3.gde.core.util.PropertyUtils;
@@ -60,6 +61,7 @@ public class AppStateNode extends AbstractNode implements ScenePropertyChangeLis
 
     protected AppState appState;
     protected AppStateManager parent;
+    private final SceneExplorerPropertyCache syncProperties = new SceneExplorerPropertyCache(this);
 //    private static Image icon;
 //    private static final String ICON_ENABLED = "com/jme3/gde/core/filters/icons/eye.gif";
 //    private static final String ICON_DISABLED = "com/jme3/gde/core/filters/icons/crossedEye.gif";
@@ -111,15 +113,7 @@ public class AppStateNode extends AbstractNode implements ScenePropertyChangeLis
 //        return null;
 //    }
     public void syncSceneData(float tpf) {
-        //TODO: precache structure to avoid locks? Do it backwards, sending the actual bean value?
-        for (PropertySet propertySet : getPropertySets()) {
-            for (Property<?> property : propertySet.getProperties()) {
-                if (property instanceof SceneExplorerProperty) {
-                    SceneExplorerProperty<?> prop = (SceneExplorerProperty) property;
-                    prop.syncValue();
-                }
-            }
-        }
+        syncProperties.syncValues();
     }
 
     @Override
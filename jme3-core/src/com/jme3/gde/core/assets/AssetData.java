@@ -33,27 +33,15 @@ package com.jme3.gde.core.assets;
 
 import com.jme3.asset.AssetKey;
 import com.jme3.export.Savable;
-import java.io.BufferedOutputStream;
-import java.io.BufferedInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Properties;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.openide.cookies.SaveCookie;
 import org.openide.filesystems.FileAlreadyLockedException;
-import org.openide.filesystems.FileLock;
 import org.openide.filesystems.FileObject;
-import org.openide.filesystems.FileUtil;
-import org.openide.util.Exceptions;
-import org.openide.util.Mutex;
-import org.openide.util.Mutex.Action;
+import org.openide.util.RequestProcessor;
 
 /**
  * Global object to access actual jME3 data within an AssetDataObject, available
@@ -66,11 +54,22 @@ public class AssetData {
 
     private static final Logger logger = Logger.getLogger(AssetData.class.getName());
     private final List<AssetDataPropertyChangeListener> listeners = new ArrayList<AssetDataPropertyChangeListener>();
-    private final Mutex propsMutex = new Mutex();
-    private final Properties props = new Properties();
+    private static final RequestProcessor saveProcessor = new RequestProcessor("AssetData properties", 1);
+    private static final int SAVE_DELAY = 500;
+    private final CachedProperties props = new CachedProperties() {
+        @Override
+        protected FileObject findFolder() {
+            return file.getPrimaryFile().getParent();
+        }
+
+        @Override
+        protected String getFileName() {
+            return file.getPrimaryFile().getName() + "." + extension;
+        }
+    };
+    private final RequestProcessor.Task saveTask = saveProcessor.create(props::save);
     private AssetDataObject file;
     private String extension = "jmpdata";
-    private Date lastLoaded;
 
     public AssetData(AssetDataObject file) {
         this.file = file;
@@ -138,6 +137,8 @@ public class AssetData {
      */
     public void saveAsset() throws IOException {
         file.saveAsset();
+        saveTask.cancel();
+        props.save();
     }
 
     public void closeAsset() {
@@ -156,33 +157,17 @@ public class AssetData {
         return file.getFailedList();
     }
 
-    public synchronized String getProperty(final String key) {
-        readProperties();
-        return propsMutex.readAccess(new Action<String>() {
-            public String run() {
-                return props.getProperty(key);
-            }
-        });
+    public String getProperty(final String key) {
+        return props.getProperty(key);
     }
 
-    public synchronized String getProperty(final String key, final String defaultValue) {
-        readProperties();
-        return propsMutex.readAccess(new Action<String>() {
-            public String run() {
-                return props.getProperty(key, defaultValue);
-            }
-        });
+    public String getProperty(final String key, final String defaultValue) {
+        return props.getProperty(key, defaultValue);
     }
 
-    public synchronized String setProperty(final String key, final String value) {
-        readProperties();
-        String ret = propsMutex.writeAccess(new Action<String>() {
-            public String run() {
-                String ret = (String) props.setProperty(key, value);
-                return ret;
-            }
-        });
-        writeProperties();
+    public String setProperty(final String key, final String value) {
+        String ret = props.setProperty(key, value);
+        saveTask.schedule(SAVE_DELAY);
         notifyListeners(key, ret, value);
         return ret;
     }
@@ -195,79 +180,6 @@ public class AssetData {
     public void saveProperties() throws FileAlreadyLockedException, IOException {
     }
 
-    private void readProperties() {
-        propsMutex.writeAccess(new Runnable() {
-            public void run() {
-                final FileObject myFile = FileUtil.findBrother(file.getPrimaryFile(), extension);
-                if (myFile == null) {
-                    return;
-                }
-                final Date lastMod = myFile.lastModified();
-                if (!lastMod.equals(lastLoaded)) {
-                    props.clear();
-                    lastLoaded = lastMod;
-                    InputStream in = null;
-                    try {
-                        in = new BufferedInputStream(myFile.getInputStream());
-                        try {
-                            props.load(in);
-                        } catch (IOException ex) {
-                            Exceptions.printStackTrace(ex);
-                        }
-                    } catch (FileNotFoundException ex) {
-                        Exceptions.printStackTrace(ex);
-                    } finally {
-                        try {
-                            if (in != null) {
-                                in.close();
-                            }
-                        } catch (IOException ex) {
-                            Exceptions.printStackTrace(ex);
-                        }
-                    }
-                    logger.log(Level.FINE, "Read AssetData properties for {0}", file);
-                }
-            }
-        });
-    }
-
-    private void writeProperties() {
-        //writeAccess because we write lastMod date, not because we write to the file
-        //the mutex protects the properties object, not the file
-        propsMutex.writeAccess(new Runnable() {
-            public void run() {
-                OutputStream out = null;
-                FileLock lock = null;
-                try {
-                    FileObject pFile = file.getPrimaryFile();
-                    FileObject myFile = FileUtil.findBrother(pFile, extension);
-                    if (myFile == null) {
-                        myFile = FileUtil.createData(pFile.getParent(), pFile.getName() + "." + extension);
-                    }
-                    lock = myFile.lock();
-                    out = new BufferedOutputStream(myFile.getOutputStream(lock));
-                    props.store(out, "");
-                    out.flush();
-                    lastLoaded = myFile.lastModified();
-                    logger.log(Level.FINE, "Written AssetData properties for {0}", file);
-                } catch (IOException e) {
-                    Exceptions.printStackTrace(e);
-                } finally {
-                    if (out != null) {
-                        try {
-                            out.close();
-                        } catch (IOException ex) {
-                            Exceptions.printStackTrace(ex);
-                        }
-                    }
-                    if (lock != null) {
-                        lock.releaseLock();
-                    }
-                }
-            }
-        });
-    }
-
     protected void notifyListeners(String property, String before, String after) {
         synchronized (listeners) {
             for (Iterator<AssetDataPropertyChangeListener> it = listeners.iterator(); it.hasNext();) {
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.assets;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.filesystems.FileChangeAdapter;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileLock;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+
+/**
+ * A properties file which is read once and then served from an immutable
+ * snapshot, so reading a key does not touch the file system or take a lock.
+ * Changes are kept in memory until {@link #save()} writes them back in one
+ * go. A listener on the folder of the file drops the snapshot when the file
+ * is changed by someone else, the next read loads it again.
+ */
+public abstract class CachedProperties {
+
+    private static final Logger logger = Logger.getLogger(CachedProperties.class.getName());
+    private volatile Map<String, String> snapshot;
+    private FileObject folder;
+    private volatile String fileName;
+    private long lastWritten;
+    private boolean modified;
+    private FileChangeListener weakListener;
+    private final FileChangeListener listener = new FileChangeAdapter() {
+        @Override
+        public void fileDataCreated(FileEvent fe) {
+            if (fe.getFile().getNameExt().equals(fileName)) {
+                fileEvent(fe.getFile());
+            }
+        }
+
+        @Override
+        public void fileChanged(FileEvent fe) {
+            if (fe.getFile().getNameExt().equals(fileName)) {
+                fileEvent(fe.getFile());
+            }
+        }
+
+        @Override
+        public void fileDeleted(FileEvent fe) {
+            if (fe.getFile().getNameExt().equals(fileName)) {
+                fileEvent(fe.getFile());
+            }
+        }
+
+        @Override
+        public void fileRenamed(FileRenameEvent fe) {
+            String oldName = fe.getExt().isEmpty() ? fe.getName() : fe.getName() + "." + fe.getExt();
+            if (oldName.equals(fileName)) {
+                fileEvent(fe.getFile());
+            }
+        }
+    };
+
+    /**
+     * @return the folder the properties file is stored in, or null if there
+     * is none
+     * @throws IOException if the folder can not be created
+     */
+    protected abstract FileObject findFolder() throws IOException;
+
+    /**
+     * @return the name and extension of the properties file in the folder
+     */
+    protected abstract String getFileName();
+
+    public String getProperty(String key) {
+        return getSnapshot().get(key);
+    }
+
+    public String getProperty(String key, String defaultValue) {
+        return getSnapshot().getOrDefault(key, defaultValue);
+    }
+
+    /**
+     * @return an unmodifiable view of all properties at this point
+     */
+    public Map<String, String> getSnapshot() {
+        Map<String, String> current = snapshot;
+        if (current == null) {
+            current = load();
+        }
+        return current;
+    }
+
+    /**
+     * Sets a property, the change is written to the file by the next
+     * {@link #save()}.
+     *
+     * @return the previous value or null
+     */
+    public synchronized String setProperty(String key, String value) {
+        Map<String, String> properties = new HashMap<>(getSnapshot());
+        String previous = properties.put(key, value);
+        snapshot = Collections.unmodifiableMap(properties);
+        modified = true;
+        return previous;
+    }
+
+    public synchronized boolean isModified() {
+        return modified;
+    }
+
+    /**
+     * Writes the properties to the file if they were changed, creating the
+     * file if necessary.
+     */
+    public synchronized void save() {
+        if (!modified) {
+            return;
+        }
+        Properties properties = new Properties();
+        properties.putAll(getSnapshot());
+        FileLock lock = null;
+        try {
+            FileObject storageFolder = attach();
+            if (storageFolder == null) {
+                return;
+            }
+            FileObject myFile = storageFolder.getFileObject(fileName);
+            if (myFile == null) {
+                myFile = FileUtil.createData(storageFolder, fileName);
+            }
+            lock = myFile.lock();
+            try (OutputStream out = new BufferedOutputStream(myFile.getOutputStream(lock))) {
+                properties.store(out, "");
+            }
+            lastWritten = myFile.lastModified().getTime();
+            modified = false;
+            logger.log(Level.FINE, "Written properties {0}", myFile);
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not write properties " + fileName, ex);
+        } finally {
+            if (lock != null) {
+                lock.releaseLock();
+            }
+        }
+    }
+
+    /**
+     * Forgets the loaded properties and the location of the file, e.g. after
+     * the file was renamed. Unsaved changes are lost.
+     */
+    public synchronized void invalidate() {
+        detach();
+        snapshot = null;
+        modified = false;
+    }
+
+    private synchronized Map<String, String> load() {
+        if (snapshot != null) {
+            return snapshot;
+        }
+        Map<String, String> properties = new HashMap<>();
+        try {
+            FileObject storageFolder = attach();
+            FileObject myFile = storageFolder != null ? storageFolder.getFileObject(fileName) : null;
+            if (myFile != null) {
+                Properties loaded = new Properties();
+                try (InputStream in = new BufferedInputStream(myFile.getInputStream())) {
+                    loaded.load(in);
+                }
+                for (String key : loaded.stringPropertyNames()) {
+                    properties.put(key, loaded.getProperty(key));
+                }
+                lastWritten = myFile.lastModified().getTime();
+                logger.log(Level.FINE, "Read properties {0}", myFile);
+            }
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not read properties " + fileName, ex);
+        }
+        snapshot = Collections.unmodifiableMap(properties);
+        return snapshot;
+    }
+
+    private FileObject attach() throws IOException {
+        if (folder == null) {
+            folder = findFolder();
+            fileName = getFileName();
+            if (folder != null) {
+                weakListener = FileUtil.weakFileChangeListener(listener, folder);
+                folder.addFileChangeListener(weakListener);
+            }
+        }
+        return folder;
+    }
+
+    private void detach() {
+        if (folder != null) {
+            folder.removeFileChangeListener(weakListener);
+            folder = null;
+            weakListener = null;
+        }
+    }
+
+    private synchronized void fileEvent(FileObject file) {
+        if (modified || !file.getParent().equals(folder)) {
+            return;
+        }
+        FileObject myFile = folder.getFileObject(fileName);
+        if (myFile == null || myFile.lastModified().getTime() != lastWritten) {
+            snapshot = null;
+        }
+    }
+}
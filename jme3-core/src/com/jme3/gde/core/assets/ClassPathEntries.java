@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.assets;
+
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ * Name to FileObject lookup table for the entries of a single classpath item.
+ * The table is built on first access, classpath items are recreated when the
+ * class loader of the ProjectAssetManager is updated so there is no need to
+ * keep it in sync with the underlying jar or folder.
+ */
+class ClassPathEntries {
+
+    private final FileObject root;
+    private Map<String, FileObject> entries;
+    private Map<String, FileObject> entriesIgnoreCase;
+
+    /**
+     * @param object the classpath item, jar files are resolved to their
+     * archive root
+     */
+    ClassPathEntries(FileObject object) {
+        // Gradle projects don't know that the dependency is a Jar file
+        if (FileUtil.isArchiveFile(object)) {
+            FileObject archiveRoot = FileUtil.getArchiveRoot(object);
+            this.root = archiveRoot != null ? archiveRoot : object;
+        } else {
+            this.root = object;
+        }
+    }
+
+    FileObject getRoot() {
+        return root;
+    }
+
+    /**
+     * @param name the relative path of the entry
+     * @return the entry with exactly this path or null
+     */
+    FileObject get(String name) {
+        return getEntries().get(name);
+    }
+
+    /**
+     * @param name the relative path of the entry
+     * @return the entry with this path in any case or null
+     */
+    FileObject getIgnoreCase(String name) {
+        getEntries();
+        return entriesIgnoreCase.get(name.toLowerCase(Locale.ENGLISH));
+    }
+
+    private synchronized Map<String, FileObject> getEntries() {
+        if (entries == null) {
+            Map<String, FileObject> map = new HashMap<>();
+            Map<String, FileObject> mapIgnoreCase = new HashMap<>();
+            Enumeration<? extends FileObject> jarEntry = root.getChildren(true);
+            while (jarEntry.hasMoreElements()) {
+                FileObject jarEntryAsset = jarEntry.nextElement();
+                String path = jarEntryAsset.getPath();
+                if (!path.startsWith("/")) {
+                    map.putIfAbsent(path, jarEntryAsset);
+                    mapIgnoreCase.putIfAbsent(path.toLowerCase(Locale.ENGLISH), jarEntryAsset);
+                }
+            }
+            entriesIgnoreCase = mapIgnoreCase;
+            entries = map;
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.assets;
+
+import com.jme3.asset.AssetKey;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.openide.filesystems.FileObject;
+
+/**
+ * Records which assets a ProjectAssetManager loaded, the modification time of
+ * their files at that point and which assets were requested while another
+ * asset was loading (e.g. the material definition and textures of a j3m).
+ * This allows evicting only the assets whose files changed and the cached
+ * assets that were built from them instead of clearing the whole cache.
+ *
+ * Assets that left the cache and that no other asset depends on are
+ * forgotten once the number of recorded assets doubled, so the records stay
+ * in proportion to the cache.
+ */
+class ProjectAssetDependencies {
+
+    private static final long NO_FILE = -1;
+    private static final int MIN_PRUNE_SIZE = 256;
+
+    private final ProjectAssetManager manager;
+    private final ThreadLocal<Deque<String>> loading = ThreadLocal.withInitial(ArrayDeque::new);
+    private final Map<String, Loaded> loaded = new HashMap<>();
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+    private final Map<String, Set<String>> dependents = new HashMap<>();
+    private int pruneSize = MIN_PRUNE_SIZE;
+
+    ProjectAssetDependencies(ProjectAssetManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Called before a load starts on the current thread.
+     *
+     * @return the depth to pass to {@link #exit(int)} when the load ends
+     */
+    int enter() {
+        return loading.get().size();
+    }
+
+    /**
+     * Called when a load ends on the current thread, also when it failed.
+     * Drops the assets that were requested below the given depth and did not
+     * report being loaded, together with the dependencies they recorded.
+     *
+     * @param depth the depth returned by {@link #enter()}
+     */
+    void exit(int depth) {
+        Deque<String> stack = loading.get();
+        while (stack.size() > depth) {
+            String failed = stack.pop();
+            synchronized (this) {
+                removeDependencies(failed);
+            }
+        }
+        if (stack.isEmpty()) {
+            loading.remove();
+        }
+    }
+
+    void assetRequested(AssetKey<?> key) {
+        Deque<String> stack = loading.get();
+        String parent = stack.peek();
+        if (parent != null) {
+            addDependency(parent, key.getName());
+        }
+        if (!isCached(key)) {
+            synchronized (this) {
+                removeDependencies(key.getName());
+            }
+            stack.push(key.getName());
+        }
+    }
+
+    void assetLoaded(AssetKey<?> key) {
+        Deque<String> stack = loading.get();
+        if (stack.contains(key.getName())) {
+            // also drops requests that failed to load below this asset
+            String name;
+            while (!key.getName().equals(name = stack.pop())) {
+                synchronized (this) {
+                    removeDependencies(name);
+                }
+            }
+        }
+        long stamp = getStamp(key.getName());
+        boolean prune;
+        synchronized (this) {
+            loaded.put(key.getName(), new Loaded(key, stamp));
+            prune = loaded.size() > pruneSize;
+            if (prune) {
+                pruneSize = Integer.MAX_VALUE;
+            }
+        }
+        if (prune) {
+            prune();
+        }
+    }
+
+    /**
+     * Forgets the assets that are no longer cached and that no recorded
+     * asset depends on, they are recorded again when they are reloaded. The
+     * cache is looked up outside of the lock.
+     */
+    private void prune() {
+        List<Loaded> candidates = new ArrayList<>();
+        synchronized (this) {
+            for (Map.Entry<String, Loaded> entry : loaded.entrySet()) {
+                if (!dependents.containsKey(entry.getKey())) {
+                    candidates.add(entry.getValue());
+                }
+            }
+        }
+        List<Loaded> unused = new ArrayList<>();
+        for (Loaded asset : candidates) {
+            if (!isCached(asset.key)) {
+                unused.add(asset);
+            }
+        }
+        synchronized (this) {
+            for (Loaded asset : unused) {
+                String name = asset.key.getName();
+                if (loaded.get(name) == asset && !dependents.containsKey(name)) {
+                    loaded.remove(name);
+                    removeDependencies(name);
+                }
+            }
+            pruneSize = Math.max(MIN_PRUNE_SIZE, loaded.size() * 2);
+        }
+    }
+
+    /**
+     * Records a dependency the asset manager cannot see, e.g. the shader
+     * sources which are loaded when a material definition is first rendered.
+     */
+    synchronized void addDependency(String asset, String dependency) {
+        if (asset.equals(dependency)) {
+            return;
+        }
+        dependencies.computeIfAbsent(asset, k -> new HashSet<>()).add(dependency);
+        dependents.computeIfAbsent(dependency, k -> new HashSet<>()).add(asset);
+    }
+
+    /**
+     * Finds the assets reachable from the given ones whose files changed
+     * since they were loaded, plus every loaded asset depending on them. The
+     * returned assets are forgotten, they are recorded again when reloaded.
+     *
+     * @param names the asset names to start from
+     * @return the keys of the assets to evict
+     */
+    List<AssetKey<?>> removeModified(Collection<String> names) {
+        Map<String, Long> stamps = new HashMap<>();
+        synchronized (this) {
+            Deque<String> queue = new ArrayDeque<>(names);
+            while (!queue.isEmpty()) {
+                String name = queue.pop();
+                if (!stamps.containsKey(name)) {
+                    Loaded asset = loaded.get(name);
+                    stamps.put(name, asset != null ? asset.stamp : null);
+                    queue.addAll(dependencies.getOrDefault(name, Collections.emptySet()));
+                }
+            }
+        }
+
+        // the files are looked up outside of the lock, loading threads
+        // report their assets meanwhile
+        Deque<String> modified = new ArrayDeque<>();
+        for (Map.Entry<String, Long> entry : stamps.entrySet()) {
+            if (entry.getValue() != null && entry.getValue().longValue() != getStamp(entry.getKey())) {
+                modified.add(entry.getKey());
+            }
+        }
+
+        List<AssetKey<?>> keys = new ArrayList<>();
+        synchronized (this) {
+            Set<String> visited = new HashSet<>();
+            while (!modified.isEmpty()) {
+                String name = modified.pop();
+                if (visited.add(name)) {
+                    modified.addAll(dependents.getOrDefault(name, Collections.emptySet()));
+                    Loaded asset = loaded.remove(name);
+                    if (asset != null) {
+                        keys.add(asset.key);
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+
+    synchronized void clear() {
+        loaded.clear();
+        dependencies.clear();
+        dependents.clear();
+        pruneSize = MIN_PRUNE_SIZE;
+    }
+
+    private void removeDependencies(String asset) {
+        Set<String> previous = dependencies.remove(asset);
+        if (previous != null) {
+            for (String dependency : previous) {
+                Set<String> set = dependents.get(dependency);
+                if (set != null && set.remove(asset) && set.isEmpty()) {
+                    dependents.remove(dependency);
+                }
+            }
+        }
+    }
+
+    private boolean isCached(AssetKey<?> key) {
+        return key.getCacheType() != null && manager.getFromCache(key) != null;
+    }
+
+    private long getStamp(String name) {
+        FileObject file = manager.getAssetFileObject(name);
+        return file != null ? file.lastModified().getTime() : NO_FILE;
+    }
+
+    private static class Loaded {
+
+        private final AssetKey<?> key;
+        private final long stamp;
+
+        Loaded(AssetKey<?> key, long stamp) {
+            this.key = key;
+            this.stamp = stamp;
+        }
+    }
+}
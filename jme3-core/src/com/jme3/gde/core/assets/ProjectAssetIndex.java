@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.assets;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.modules.Places;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Index of the assets of a ProjectAssetManager, grouped by (lower case) file
+ * suffix. The project part is built once, kept up to date through a recursive
+ * listener on the asset folder and persisted in the IDE cache directory so
+ * the next session can answer queries before the folder has been rescanned.
+ * The dependency part is built lazily from the classpath items and dropped
+ * whenever the class loader of the asset manager is updated.
+ */
+class ProjectAssetIndex {
+
+    private static final Logger logger = Logger.getLogger(ProjectAssetIndex.class.getName());
+    private static final RequestProcessor PROCESSOR = new RequestProcessor("Asset index", 1);
+    private static final String CACHE_FOLDER = "jme3-asset-index";
+    private static final int INDEX_VERSION = 1;
+    private static final int SAVE_DELAY = 2000;
+
+    private final ProjectAssetManager manager;
+    private final Map<String, NavigableSet<String>> projectAssets = new HashMap<>();
+    private final Map<String, NavigableSet<String>> dependencyAssets = new HashMap<>();
+    private final RequestProcessor.Task saveTask = PROCESSOR.create(this::save);
+    private FileObject assetFolder;
+    private boolean projectValid;
+    private boolean dependenciesValid;
+    private int dependencyGeneration;
+
+    ProjectAssetIndex(ProjectAssetManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Adds all indexed assets with the given suffix to the set.
+     *
+     * @param suffix the file suffix, without the dot
+     * @param includeDependencies also return assets found on the classpath
+     * @param list the set to add the asset paths to
+     * @return the set passed in
+     */
+    Set<String> collect(String suffix, boolean includeDependencies, Set<String> list) {
+        collectProject(suffix, list);
+        if (includeDependencies) {
+            collectDependencies(suffix, list);
+        }
+        return list;
+    }
+
+    Set<String> collectProject(String suffix, Set<String> list) {
+        String key = suffix.toLowerCase(Locale.ENGLISH);
+        synchronized (this) {
+            ensureProject();
+            addAll(projectAssets.get(key), list);
+        }
+        return list;
+    }
+
+    Set<String> collectDependencies(String suffix, Set<String> list) {
+        String key = suffix.toLowerCase(Locale.ENGLISH);
+        Map<String, NavigableSet<String>> assets = ensureDependencies();
+        synchronized (this) {
+            addAll(assets.get(key), list);
+        }
+        return list;
+    }
+
+    /**
+     * Drops the classpath part of the index, it is rebuilt on the next query.
+     */
+    synchronized void invalidateDependencies() {
+        dependencyAssets.clear();
+        dependenciesValid = false;
+        dependencyGeneration++;
+    }
+
+    /**
+     * Detaches from the asset folder and drops the whole index.
+     */
+    synchronized void dispose() {
+        if (assetFolder != null) {
+            assetFolder.removeRecursiveListener(folderListener);
+            assetFolder = null;
+        }
+        projectAssets.clear();
+        projectValid = false;
+        invalidateDependencies();
+    }
+
+    private static void addAll(Collection<String> source, Set<String> target) {
+        if (source != null) {
+            target.addAll(source);
+        }
+    }
+
+    private void ensureProject() {
+        FileObject folder = manager.getAssetFolder();
+        if (folder != assetFolder) {
+            if (assetFolder != null) {
+                assetFolder.removeRecursiveListener(folderListener);
+            }
+            projectAssets.clear();
+            projectValid = false;
+            assetFolder = folder;
+            if (folder == null) {
+                return;
+            }
+            folder.addRecursiveListener(folderListener);
+            if (load()) {
+                // serve the persisted state and verify it in the background
+                projectValid = true;
+                PROCESSOR.post(this::rescan);
+                return;
+            }
+        }
+        if (!projectValid && folder != null) {
+            scan(folder, projectAssets);
+            projectValid = true;
+            saveTask.schedule(SAVE_DELAY);
+        }
+    }
+
+    private void rescan() {
+        Map<String, NavigableSet<String>> scanned = new HashMap<>();
+        FileObject folder;
+        synchronized (this) {
+            folder = assetFolder;
+        }
+        if (folder == null) {
+            return;
+        }
+        scan(folder, scanned);
+        synchronized (this) {
+            if (folder != assetFolder) {
+                return;
+            }
+            if (!scanned.equals(projectAssets)) {
+                projectAssets.clear();
+                projectAssets.putAll(scanned);
+                saveTask.schedule(SAVE_DELAY);
+            }
+        }
+    }
+
+    private void scan(FileObject folder, Map<String, NavigableSet<String>> target) {
+        Enumeration<? extends FileObject> assets = folder.getChildren(true);
+        while (assets.hasMoreElements()) {
+            FileObject asset = assets.nextElement();
+            if (asset.isData()) {
+                add(target, asset.getExt(), manager.getRelativeAssetPath(asset.getPath()));
+            }
+        }
+    }
+
+    /**
+     * Builds the classpath part if needed. The classpath roots are read and
+     * scanned without holding the index lock, the asset manager takes its
+     * classpath lock while invalidating the index.
+     *
+     * @return the assets by suffix, only read it while holding the index lock
+     */
+    private Map<String, NavigableSet<String>> ensureDependencies() {
+        int generation;
+        synchronized (this) {
+            if (dependenciesValid) {
+                return dependencyAssets;
+            }
+            generation = dependencyGeneration;
+        }
+        Map<String, NavigableSet<String>> scanned = new HashMap<>();
+        for (FileObject root : manager.getClassPathRoots()) {
+            Enumeration<? extends FileObject> jarEntry = root.getChildren(true);
+            while (jarEntry.hasMoreElements()) {
+                FileObject jarEntryAsset = jarEntry.nextElement();
+                String path = jarEntryAsset.getPath();
+                if (jarEntryAsset.isData() && !path.startsWith("/")) {
+                    add(scanned, jarEntryAsset.getExt(), path);
+                }
+            }
+        }
+        synchronized (this) {
+            if (generation != dependencyGeneration) {
+                // the classpath changed during the scan, answer this query
+                // with it but let the next one scan again
+                return scanned;
+            }
+            if (!dependenciesValid) {
+                dependencyAssets.clear();
+                dependencyAssets.putAll(scanned);
+                dependenciesValid = true;
+            }
+            return dependencyAssets;
+        }
+    }
+
+    private static void add(Map<String, NavigableSet<String>> target, String ext, String path) {
+        target.computeIfAbsent(ext.toLowerCase(Locale.ENGLISH), k -> new TreeSet<>()).add(path);
+    }
+
+    private static void remove(Map<String, NavigableSet<String>> target, String ext, String path) {
+        NavigableSet<String> set = target.get(ext.toLowerCase(Locale.ENGLISH));
+        if (set != null) {
+            set.remove(path);
+        }
+    }
+
+    private static void removeFolder(Map<String, NavigableSet<String>> target, String path) {
+        String prefix = path.isEmpty() ? "" : path + "/";
+        for (NavigableSet<String> set : target.values()) {
+            Iterator<String> it = set.tailSet(prefix, true).iterator();
+            while (it.hasNext() && it.next().startsWith(prefix)) {
+                it.remove();
+            }
+        }
+    }
+
+    private synchronized void fileAdded(FileObject file) {
+        if (!projectValid) {
+            return;
+        }
+        if (file.isFolder()) {
+            scan(file, projectAssets);
+        } else {
+            add(projectAssets, file.getExt(), manager.getRelativeAssetPath(file.getPath()));
+        }
+        saveTask.schedule(SAVE_DELAY);
+    }
+
+    private synchronized void fileRemoved(FileObject parent, String nameExt, String ext, boolean folder) {
+        if (!projectValid) {
+            return;
+        }
+        String path = parent == null ? nameExt
+                : manager.getRelativeAssetPath(parent.getPath() + "/" + nameExt);
+        if (folder) {
+            removeFolder(projectAssets, path);
+        } else {
+            remove(projectAssets, ext, path);
+        }
+        saveTask.schedule(SAVE_DELAY);
+    }
+
+    private final FileChangeListener folderListener = new FileChangeListener() {
+        @Override
+        public void fileFolderCreated(FileEvent fe) {
+            fileAdded(fe.getFile());
+        }
+
+        @Override
+        public void fileDataCreated(FileEvent fe) {
+            fileAdded(fe.getFile());
+        }
+
+        @Override
+        public void fileChanged(FileEvent fe) {
+        }
+
+        @Override
+        public void fileDeleted(FileEvent fe) {
+            FileObject file = fe.getFile();
+            fileRemoved(file.getParent(), file.getNameExt(), file.getExt(), file.isFolder());
+        }
+
+        @Override
+        public void fileRenamed(FileRenameEvent fe) {
+            FileObject file = fe.getFile();
+            String oldNameExt = fe.getExt().isEmpty() ? fe.getName() : fe.getName() + "." + fe.getExt();
+            fileRemoved(file.getParent(), oldNameExt, fe.getExt(), file.isFolder());
+            fileAdded(file);
+        }
+
+        @Override
+        public void fileAttributeChanged(FileAttributeEvent fae) {
+        }
+    };
+
+    private File getCacheFile(FileObject folder) {
+        String name = Integer.toHexString(folder.getPath().hashCode()) + ".idx";
+        return new File(Places.getCacheSubdirectory(CACHE_FOLDER), name);
+    }
+
+    /**
+     * Reads the persisted index of the current asset folder, the format is a
+     * header line with version and folder path followed by one relative asset
+     * path per line.
+     */
+    private boolean load() {
+        File file = getCacheFile(assetFolder);
+        if (!file.isFile()) {
+            return false;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (!(INDEX_VERSION + " " + assetFolder.getPath()).equals(header)) {
+                return false;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int dot = line.lastIndexOf('.');
+                int slash = line.lastIndexOf('/');
+                add(projectAssets, dot > slash + 1 ? line.substring(dot + 1) : "", line);
+            }
+            logger.log(Level.FINE, "Loaded asset index {0}", file);
+            return true;
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not read asset index " + file, ex);
+            projectAssets.clear();
+            return false;
+        }
+    }
+
+    private void save() {
+        Map<String, NavigableSet<String>> snapshot = new HashMap<>();
+        FileObject folder;
+        synchronized (this) {
+            if (!projectValid || assetFolder == null) {
+                return;
+            }
+            folder = assetFolder;
+            for (Map.Entry<String, NavigableSet<String>> entry : projectAssets.entrySet()) {
+                snapshot.put(entry.getKey(), new TreeSet<>(entry.getValue()));
+            }
+        }
+        File file = getCacheFile(folder);
+        File tmp = new File(file.getPath() + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp.toPath(), StandardCharsets.UTF_8)) {
+                writer.write(INDEX_VERSION + " " + folder.getPath());
+                writer.newLine();
+                for (NavigableSet<String> set : snapshot.values()) {
+                    for (String path : set) {
+                        writer.write(path);
+                        writer.newLine();
+                    }
+                }
+            }
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not write asset index " + file, ex);
+        }
+    }
+}
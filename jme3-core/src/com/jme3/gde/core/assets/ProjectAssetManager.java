@@ -44,7 +44,6 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -93,6 +92,8 @@ public class ProjectAssetManager extends DesktopAssetManager {
     private final List<AssetEventListener> assetEventListeners = Collections.synchronizedList(new LinkedList<>());
     private final List<String> folderNames = new LinkedList<>();
     private final List<FileObject> jarItems = new LinkedList<>();
+    private final ProjectAssetIndex assetIndex = new ProjectAssetIndex(this);
+    private final ProjectAssetDependencies assetDependencies = new ProjectAssetDependencies(this);
     private URLClassLoader loader;
 
     public ProjectAssetManager(Project prj, String folderName) {
@@ -293,6 +294,8 @@ public class ProjectAssetManager extends DesktopAssetManager {
                 clearClassLoader();
                 loadClassLoader();
             }
+            // outside of the classpath lock, the index takes its own lock first
+            assetIndex.invalidateDependencies();
         });
         notifyClassPathListeners();
     }
@@ -306,6 +309,7 @@ public class ProjectAssetManager extends DesktopAssetManager {
         super.setAssetEventListener(new AssetEventListener() {
             @Override
             public void assetLoaded(AssetKey ak) {
+                assetDependencies.assetLoaded(ak);
                 synchronized (assetEventListeners) {
                     for (AssetEventListener assetEventListener : assetEventListeners) {
                         assetEventListener.assetLoaded(ak);
@@ -315,6 +319,7 @@ public class ProjectAssetManager extends DesktopAssetManager {
 
             @Override
             public void assetRequested(AssetKey ak) {
+                assetDependencies.assetRequested(ak);
                 synchronized (assetEventListeners) {
                     for (AssetEventListener assetEventListener : assetEventListeners) {
                         assetEventListener.assetRequested(ak);
@@ -333,6 +338,61 @@ public class ProjectAssetManager extends DesktopAssetManager {
         });
     }
 
+    @Override
+    public <T> T loadAsset(AssetKey<T> key) {
+        int depth = assetDependencies.enter();
+        try {
+            return super.loadAsset(key);
+        } finally {
+            // a failed load reports no assetLoaded for its requests
+            assetDependencies.exit(depth);
+        }
+    }
+
+    @Override
+    public void clearCache() {
+        super.clearCache();
+        assetDependencies.clear();
+    }
+
+    /**
+     * Removes the given assets from the cache if their files changed since
+     * they were loaded, together with the assets they depend on that changed
+     * and all cached assets that were loaded from one of these. Unlike
+     * {@link #clearCache()} this keeps unrelated assets cached, so e.g. a
+     * material preview refresh only reloads what was actually edited.
+     *
+     * @param keys the assets to check, e.g. a material and its definition
+     * @return the number of assets removed from the cache
+     */
+    public int deleteModifiedFromCache(AssetKey<?>... keys) {
+        List<String> names = new ArrayList<>(keys.length);
+        for (AssetKey<?> key : keys) {
+            names.add(key.getName());
+        }
+        int count = 0;
+        for (AssetKey<?> key : assetDependencies.removeModified(names)) {
+            if (key.getCacheType() != null && deleteFromCache(key)) {
+                count++;
+            }
+        }
+        logger.log(Level.FINE, "Removed {0} modified assets from the cache", count);
+        return count;
+    }
+
+    /**
+     * Records that an asset has to be reloaded when the given dependency
+     * changed, for dependencies which are not requested while the asset
+     * itself is loading, like the shader sources of a material definition.
+     *
+     * @param asset the asset depending on the other one
+     * @param dependency the asset it depends on
+     * @see #deleteModifiedFromCache(com.jme3.asset.AssetKey...)
+     */
+    public void addAssetDependency(AssetKey<?> asset, AssetKey<?> dependency) {
+        assetDependencies.addDependency(asset.getName(), dependency.getName());
+    }
+
     /**
      * Returns the
      * <code>FileObject</code> for a given asset path, or null if no such asset
@@ -368,15 +428,9 @@ public class ProjectAssetManager extends DesktopAssetManager {
             // TODO I need to find out if classPathItems contains all jars added to a project
 
             for (ClassPathItem classPathItem : classPathItems) {
-                FileObject jarFile = classPathItem.object;
-
-                Enumeration<FileObject> jarEntry = (Enumeration<FileObject>) jarFile.getChildren(true);
-                while (jarEntry.hasMoreElements()) {
-                    FileObject jarEntryAsset = jarEntry.nextElement();
-                    String path = jarEntryAsset.getPath();
-                    if (!path.startsWith("/") && path.equals(name)) {
-                        return jarEntryAsset;
-                    }
+                FileObject jarEntryAsset = classPathItem.entries.get(name);
+                if (jarEntryAsset != null) {
+                    return jarEntryAsset;
                 }
             }
         }
@@ -533,51 +587,30 @@ public class ProjectAssetManager extends DesktopAssetManager {
     }
 
     private Set<String> collectFilesWithSuffix(String suffix, boolean includeDependencies) {
-        Set<String> list = new TreeSet<>();
-        collectProjectFilesWithSuffix(suffix, list);
-        if(includeDependencies) {
-            collectDependenciesFilesWithSuffix(suffix, list);
-        }
-        return list;
+        return assetIndex.collect(suffix, includeDependencies, new TreeSet<>());
     }
 
     private Set<String> collectProjectFilesWithSuffix(String suffix, Set<String> list) {
-        FileObject assetsFolder = getAssetFolder();
-        if (assetsFolder != null) {
-            Enumeration<FileObject> assets = (Enumeration<FileObject>) assetsFolder.getChildren(true);
-            while (assets.hasMoreElements()) {
-                FileObject asset = assets.nextElement();
-                if (asset.getExt().equalsIgnoreCase(suffix)) {
-                    list.add(getRelativeAssetPath(asset.getPath()));
-                }
-            }
-        }
-        return list;
+        return assetIndex.collectProject(suffix, list);
     }
 
     private Set<String> collectDependenciesFilesWithSuffix(String suffix, Set<String> list) {
+        return assetIndex.collectDependencies(suffix, list);
+    }
+
+    /**
+     * Returns the roots of all classpath items, jar files are resolved to
+     * their archive root.
+     */
+    List<FileObject> getClassPathRoots() {
+        List<FileObject> roots = new ArrayList<>();
         synchronized (classPathItems) {
+            // TODO I need to find out if classPathItems contains all jars added to a project
             for (ClassPathItem classPathItem : classPathItems) {
-                FileObject jarFile = classPathItem.object;
-                
-                // Gradle projects don't know that the dependency is a Jar file
-                if (FileUtil.isArchiveFile(jarFile)) {
-                    jarFile = FileUtil.getArchiveRoot(jarFile);
-                }
-
-                Enumeration<FileObject> jarEntry = (Enumeration<FileObject>) jarFile.getChildren(true);
-                while (jarEntry.hasMoreElements()) {
-                    FileObject jarEntryAsset = jarEntry.nextElement();
-                    if (jarEntryAsset.getExt().equalsIgnoreCase(suffix)) {
-                        if (!jarEntryAsset.getPath().startsWith("/")) {
-                            list.add(jarEntryAsset.getPath());
-                        }
-                    }
-                }
+                roots.add(classPathItem.entries.getRoot());
             }
-// TODO I need to find out if classPathItems contains all jars added to a project
-                        return list;
         }
+        return roots;
     }
 
     public InputStream getResourceAsStream(String name) {
@@ -586,26 +619,14 @@ public class ProjectAssetManager extends DesktopAssetManager {
             // TODO I need to find out if classPathItems contains all jars added to a project
             
             for (ClassPathItem classPathItem : classPathItems) {
-                FileObject jarFile = classPathItem.object;
-
-                Enumeration<FileObject> jarEntry;
-                if (FileUtil.isArchiveFile(jarFile)) {
-                    FileObject jarFileRoot = FileUtil.getArchiveRoot(jarFile);
-                    jarEntry = (Enumeration<FileObject>) jarFileRoot.getChildren(true);
-                } else {
-                    jarEntry = (Enumeration<FileObject>) jarFile.getChildren(true);
-                }
-
-                while (jarEntry.hasMoreElements()) {
-                    FileObject jarEntryAsset = jarEntry.nextElement();
-                    if (jarEntryAsset.getPath().equalsIgnoreCase(name)) {
-                        try {
-                            in = jarEntryAsset.getInputStream();
-                        } catch (FileNotFoundException ex) {
-                            Exceptions.printStackTrace(ex);
-                        }
-                        break;
+                FileObject jarEntryAsset = classPathItem.entries.getIgnoreCase(name);
+                if (jarEntryAsset != null) {
+                    try {
+                        in = jarEntryAsset.getInputStream();
+                    } catch (FileNotFoundException ex) {
+                        Exceptions.printStackTrace(ex);
                     }
+                    break;
                 }
             }
         }
@@ -663,6 +684,7 @@ public class ProjectAssetManager extends DesktopAssetManager {
             this.folderNames.remove(0);
         }
         this.folderNames.add(0, folderName);
+        assetIndex.dispose();
     }
 
     @Override
@@ -746,13 +768,12 @@ public class ProjectAssetManager extends DesktopAssetManager {
 
         FileObject object;
         FileChangeListener listener;
-
-        public ClassPathItem() {
-        }
+        ClassPathEntries entries;
 
         public ClassPathItem(FileObject object, FileChangeListener listener) {
             this.object = object;
             this.listener = listener;
+            this.entries = new ClassPathEntries(object);
         }
     }
 
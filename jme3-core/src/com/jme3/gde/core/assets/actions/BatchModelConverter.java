@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.assets.actions;
+
+import com.jme3.export.Savable;
+import com.jme3.gde.core.assets.SpatialAssetDataObject;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.api.progress.ProgressHandle;
+import org.openide.util.Cancellable;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Converts a batch of models to j3o. The models are loaded in parallel, one
+ * per processor, while the j3o files are written one after another by the
+ * calling thread. Loaded models wait for their export in a queue holding one
+ * model per loading thread, so when writing falls behind at most twice as
+ * many models as loading threads plus the one being written are kept in
+ * memory.
+ * <p>
+ * The loaders of the asset manager are kept per thread and its caches are
+ * thread safe, so the models are loaded through the project asset manager
+ * like a single conversion; each model evicts its own dependencies from the
+ * cache when it is closed after the export.
+ */
+class BatchModelConverter implements Cancellable {
+
+    private static final Logger logger = Logger.getLogger(BatchModelConverter.class.getName());
+
+    private final List<SpatialAssetDataObject> models;
+    private final int threads;
+    private final BlockingQueue<Loaded> exportQueue;
+    private final List<String> failed = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean cancelled;
+
+    BatchModelConverter(List<SpatialAssetDataObject> models) {
+        this(models, Runtime.getRuntime().availableProcessors());
+    }
+
+    BatchModelConverter(List<SpatialAssetDataObject> models, int threads) {
+        this.models = models;
+        this.threads = Math.max(1, Math.min(threads, models.size()));
+        this.exportQueue = new ArrayBlockingQueue<>(this.threads);
+    }
+
+    /**
+     * Converts all models, blocks until the last one was written or the
+     * conversion was cancelled.
+     *
+     * @return the names of the models that could not be converted
+     */
+    List<String> run() {
+        if (models.isEmpty()) {
+            return failed;
+        }
+        ProgressHandle progressHandle = ProgressHandle.createHandle("Converting Models", this);
+        progressHandle.start(models.size());
+        long start = System.nanoTime();
+        RequestProcessor loaders = new RequestProcessor("Model conversion", threads);
+        for (SpatialAssetDataObject model : models) {
+            loaders.post(() -> load(model));
+        }
+
+        long loadTime = 0;
+        int converted = 0;
+        int taken = 0;
+        try {
+            while (taken < models.size()) {
+                Loaded loaded = exportQueue.take();
+                taken++;
+                loadTime += loaded.loadTime;
+                if (loaded.savable != null && export(loaded)) {
+                    converted++;
+                }
+                progressHandle.progress(loaded.model.getName(), taken);
+            }
+        } catch (InterruptedException ex) {
+            cancelled = true;
+            Thread.currentThread().interrupt();
+        } finally {
+            // frees models still waiting when the conversion was cancelled
+            loaders.shutdown();
+            drainQueue(models.size() - taken);
+            progressHandle.finish();
+        }
+        logger.log(Level.INFO, "Converted {0} of {1} models in {2} ms with {3} threads, {4} ms spent loading",
+                new Object[]{converted, models.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    threads, TimeUnit.NANOSECONDS.toMillis(loadTime)});
+        return failed;
+    }
+
+    @Override
+    public boolean cancel() {
+        cancelled = true;
+        return true;
+    }
+
+    private void load(SpatialAssetDataObject model) {
+        Loaded loaded = new Loaded(model);
+        boolean loading = !cancelled;
+        long start = System.nanoTime();
+        try {
+            if (loading) {
+                loaded.savable = model.loadAsset();
+            }
+        } catch (Exception ex) {
+            logger.log(Level.SEVERE, "An Exception has occured.", ex);
+        } finally {
+            // run() waits for one entry per model, also when loading threw an error
+            loaded.loadTime = System.nanoTime() - start;
+            if (loading && loaded.savable == null) {
+                failed.add(model.getName());
+            }
+            try {
+                exportQueue.put(loaded);
+            } catch (InterruptedException ex) {
+                model.closeAsset();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private boolean export(Loaded loaded) {
+        SpatialAssetDataObject model = loaded.model;
+        if (cancelled) {
+            model.closeAsset();
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            model.saveAsset();
+            return true;
+        } catch (Exception ex) {
+            failed.add(model.getName());
+            logger.log(Level.SEVERE, "An Exception has occured.", ex);
+            return false;
+        } finally {
+            model.closeAsset();
+            logger.log(Level.INFO, "Converted {0}: loading took {1} ms, writing {2} ms",
+                    new Object[]{model.getName(), TimeUnit.NANOSECONDS.toMillis(loaded.loadTime),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)});
+        }
+    }
+
+    /**
+     * Waits for the entries of the models that were not exported and closes
+     * them, every model queues exactly one entry.
+     */
+    private void drainQueue(int remaining) {
+        boolean interrupted = Thread.interrupted();
+        while (remaining > 0) {
+            try {
+                exportQueue.take().model.closeAsset();
+                remaining--;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Loaded {
+
+        private final SpatialAssetDataObject model;
+        private Savable savable;
+        private long loadTime;
+
+        Loaded(SpatialAssetDataObject model) {
+            this.model = model;
+        }
+    }
+}
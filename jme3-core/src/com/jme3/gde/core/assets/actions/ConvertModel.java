@@ -31,16 +31,14 @@
  */
 package com.jme3.gde.core.assets.actions;
 
-import com.jme3.export.Savable;
 import com.jme3.gde.core.assets.BinaryModelDataObject;
 import com.jme3.gde.core.assets.SpatialAssetDataObject;
 import com.jme3.gde.core.util.notify.MessageUtil;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.logging.Level;
 import java.util.logging.Logger;
-import org.netbeans.api.progress.ProgressHandle;
 
 public final class ConvertModel implements ActionListener {
     protected static final Logger logger = Logger.getLogger(ConvertModel.class.getName());
@@ -52,31 +50,24 @@ public final class ConvertModel implements ActionListener {
 
     @Override
     public void actionPerformed(ActionEvent ev) {
+        final List<SpatialAssetDataObject> models = new ArrayList<>(context.size());
+        for (SpatialAssetDataObject spatialAssetDataObject : context) {
+            if (!(spatialAssetDataObject instanceof BinaryModelDataObject)) {
+                models.add(spatialAssetDataObject);
+            }
+        }
         Runnable run = new Runnable() {
             @Override
             public void run() {
-                ProgressHandle progressHandle = ProgressHandle.createHandle("Converting Model");
-                progressHandle.start();
-                for (SpatialAssetDataObject spatialAssetDataObject : context) {
-                    if (!(spatialAssetDataObject instanceof BinaryModelDataObject)) {
-                        try {
-                            Savable sav = spatialAssetDataObject.loadAsset();
-                            if (sav != null) {
-                                spatialAssetDataObject.saveAsset();
-                                spatialAssetDataObject.closeAsset();
-                            }
-                        } catch (Exception ex) {
-                            //Exceptions.printStackTrace(ex); // does only print the stacktrace when launching the sdk in debug mode
-                            //bad for user reports, so we use error() and loggers
-                            MessageUtil.error("Unable to convert the model: An Exception has occured.\n"
-                                    + "Please look into the Output Window and report that Exception\n"
-                                    + "(including the full stacktrace) to us at \n"
-                                    + "https://github.com/jMonkeyEngine/sdk/issues");
-                            logger.log(Level.SEVERE, "An Exception has occured.", ex);
-                        }
-                    }
+                List<String> failed = new BatchModelConverter(models).run();
+                if (!failed.isEmpty()) {
+                    //Exceptions.printStackTrace(ex); // does only print the stacktrace when launching the sdk in debug mode
+                    //bad for user reports, so we use error() and loggers
+                    MessageUtil.error("Unable to convert " + String.join(", ", failed) + ": An Exception has occured.\n"
+                            + "Please look into the Output Window and report that Exception\n"
+                            + "(including the full stacktrace) to us at \n"
+                            + "https://github.com/jMonkeyEngine/sdk/issues");
                 }
-                progressHandle.finish();
             }
         };
         new Thread(run).start();
@@ -0,0 +1,639 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.assets.pipeline;
+
+import com.jme3.asset.AssetEventListener;
+import com.jme3.asset.AssetKey;
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.ModelKey;
+import com.jme3.asset.plugins.FileLocator;
+import com.jme3.export.binary.BinaryExporter;
+import com.jme3.gde.core.util.SpatialUtil;
+import com.jme3.scene.Spatial;
+import com.jme3.system.JmeSystem;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jme3tools.optimize.LodGenerator;
+
+/**
+ * Converts the assets of a folder like the SDK does, without the IDE: models
+ * are stored as j3o with the original path data the SDK adds on conversion,
+ * optionally with baked levels of detail, and textures can be compressed to
+ * j3i like the NVCompress tool does. Inputs are processed in parallel, each
+ * worker thread with its own asset manager.
+ * <p>
+ * The build is incremental: the SHA-256 of each input, of the assets the
+ * asset manager requested while converting it (e.g. the materials and
+ * textures of a model) and the options are stored in a manifest. Inputs
+ * whose content, dependencies and options did not change and whose outputs
+ * still exist are skipped.
+ * <p>
+ * The assetPipeline task of the SDK build runs it with the SDK and jME jars
+ * on the classpath, e.g. on CI:
+ * <pre>
+ * gradlew assetPipeline --args="assets --lod 0.25,0.5"
+ * </pre>
+ * or directly:
+ * <pre>
+ * java -cp ... com.jme3.gde.core.assets.pipeline.AssetPipeline assets --lod 0.25,0.5
+ * </pre>
+ */
+public class AssetPipeline {
+
+    private static final Logger logger = Logger.getLogger(AssetPipeline.class.getName());
+    public static final String MANIFEST_NAME = "jme3-pipeline.properties";
+    private static final int MANIFEST_VERSION = 3;
+    private static final String USAGE = """
+            Usage: AssetPipeline <assetFolder> [options]
+              --output <folder>       write the outputs here instead of next to the inputs
+              --models <suffixes>     model suffixes to convert, default obj,gltf,glb,fbx,mesh.xml,scene
+              --textures <suffixes>   texture suffixes to compress to j3i, default none
+              --mipmaps               generate mip maps for compressed textures
+              --lod <values>          bake levels of detail with these reduction values
+              --lod-method <method>   PROPORTIONAL, CONSTANT or COLLAPSE_COST, default PROPORTIONAL
+              --threads <count>       worker threads, default the number of processors
+              --manifest <file>       default <assetFolder>/jme3-pipeline.properties
+              --force                 rebuild unchanged inputs too
+            """;
+
+    private final File assetFolder;
+    private File outputFolder;
+    private File manifestFile;
+    private List<String> modelSuffixes = List.of("obj", "gltf", "glb", "fbx", "mesh.xml", "scene");
+    private List<String> textureSuffixes = List.of();
+    private boolean mipmaps;
+    private float[] lodValues;
+    private LodGenerator.TriangleReductionMethod lodMethod = LodGenerator.TriangleReductionMethod.PROPORTIONAL;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean force;
+    private final ThreadLocal<AssetManager> managers = ThreadLocal.withInitial(this::createAssetManager);
+    // the assets requested by the asset manager of the thread during the current conversion
+    private final ThreadLocal<Set<String>> requested = ThreadLocal.withInitial(TreeSet::new);
+
+    public AssetPipeline(File assetFolder) {
+        this.assetFolder = assetFolder.getAbsoluteFile();
+        this.outputFolder = this.assetFolder;
+        this.manifestFile = new File(this.assetFolder, MANIFEST_NAME);
+    }
+
+    public static void main(String[] args) {
+        AssetPipeline pipeline;
+        try {
+            pipeline = parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println(ex.getMessage());
+            System.err.print(USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            Result result = pipeline.run();
+            System.out.println(result);
+            System.exit(result.getFailed().isEmpty() ? 0 : 1);
+        } catch (IOException ex) {
+            logger.log(Level.SEVERE, "Asset pipeline failed", ex);
+            System.exit(1);
+        }
+    }
+
+    static AssetPipeline parse(String[] args) {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            throw new IllegalArgumentException("No asset folder given");
+        }
+        File folder = new File(args[0]);
+        if (!folder.isDirectory()) {
+            throw new IllegalArgumentException("Not a folder: " + folder);
+        }
+        AssetPipeline pipeline = new AssetPipeline(folder);
+        for (int i = 1; i < args.length; i++) {
+            String option = args[i];
+            switch (option) {
+                case "--mipmaps" -> pipeline.setMipmaps(true);
+                case "--force" -> pipeline.setForce(true);
+                default -> {
+                    if (i + 1 >= args.length) {
+                        throw new IllegalArgumentException("Missing value for " + option);
+                    }
+                    String value = args[++i];
+                    switch (option) {
+                        case "--output" -> pipeline.setOutputFolder(new File(value));
+                        case "--models" -> pipeline.setModelSuffixes(split(value));
+                        case "--textures" -> pipeline.setTextureSuffixes(split(value));
+                        case "--lod" -> {
+                            List<String> values = split(value);
+                            float[] lods = new float[values.size()];
+                            for (int j = 0; j < lods.length; j++) {
+                                lods[j] = Float.parseFloat(values.get(j));
+                            }
+                            pipeline.setLodValues(lods);
+                        }
+                        case "--lod-method" -> pipeline.setLodMethod(LodGenerator.TriangleReductionMethod.valueOf(value.toUpperCase(Locale.ENGLISH)));
+                        case "--threads" -> pipeline.setThreads(Integer.parseInt(value));
+                        case "--manifest" -> pipeline.setManifestFile(new File(value));
+                        default -> throw new IllegalArgumentException("Unknown option " + option);
+                    }
+                }
+            }
+        }
+        return pipeline;
+    }
+
+    private static List<String> split(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .map(s -> s.toLowerCase(Locale.ENGLISH))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Converts all changed inputs and writes the manifest.
+     *
+     * @return the built, skipped and failed inputs
+     * @throws IOException if the asset folder or the manifest can not be read
+     * or written
+     */
+    public Result run() throws IOException {
+        long start = System.nanoTime();
+        Properties previous = new Properties();
+        if (manifestFile.isFile()) {
+            try (InputStream in = Files.newInputStream(manifestFile.toPath())) {
+                previous.load(in);
+            }
+        }
+        String options = getOptions();
+        boolean reuse = !force && options.equals(previous.getProperty("pipeline.options"))
+                && Integer.toString(MANIFEST_VERSION).equals(previous.getProperty("pipeline.version"));
+
+        List<Path> inputs = findInputs();
+        Set<Path> collisions = findCollisions(inputs);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        List<Future<Entry>> futures = new ArrayList<>(inputs.size());
+        for (Path input : inputs) {
+            if (collisions.contains(input)) {
+                futures.add(CompletableFuture.completedFuture(new Entry(getAssetName(input))));
+                continue;
+            }
+            futures.add(executor.submit(() -> process(input, reuse ? previous : null)));
+        }
+        executor.shutdown();
+
+        Properties manifest = new Properties();
+        manifest.setProperty("pipeline.version", Integer.toString(MANIFEST_VERSION));
+        manifest.setProperty("pipeline.options", options);
+        Result result = new Result();
+        try {
+            for (Future<Entry> future : futures) {
+                Entry entry = future.get();
+                entry.store(manifest);
+                switch (entry.status) {
+                    case BUILT -> result.built.add(entry.name);
+                    case SKIPPED -> result.skipped.add(entry.name);
+                    default -> result.failed.add(entry.name);
+                }
+            }
+        } catch (InterruptedException ex) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new IOException("Asset pipeline interrupted", ex);
+        } catch (ExecutionException ex) {
+            executor.shutdownNow();
+            throw new IOException(ex.getCause());
+        }
+        result.time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        File parent = manifestFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (OutputStream out = Files.newOutputStream(manifestFile.toPath())) {
+            manifest.store(out, "jMonkeyEngine asset pipeline");
+        }
+        return result;
+    }
+
+    private List<Path> findInputs() throws IOException {
+        Path manifest = manifestFile.getAbsoluteFile().toPath();
+        try (Stream<Path> files = Files.walk(assetFolder.toPath())) {
+            return files.filter(Files::isRegularFile)
+                    .filter(path -> !path.equals(manifest))
+                    .filter(path -> isModel(path) || isTexture(path))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Finds the inputs that would be written to the same output, like
+     * Models/foo.obj and Models/foo.fbx, which both become Models/foo.j3o.
+     * None of them is converted, so the result does not depend on the order
+     * the inputs are processed in.
+     */
+    private Set<Path> findCollisions(List<Path> inputs) {
+        Map<File, List<Path>> outputs = new HashMap<>();
+        for (Path input : inputs) {
+            String name = getAssetName(input);
+            File output = isModel(input) ? getModelFile(name) : getTextureFile(name);
+            outputs.computeIfAbsent(output, file -> new ArrayList<>()).add(input);
+        }
+        Set<Path> collisions = new HashSet<>();
+        for (Map.Entry<File, List<Path>> output : outputs.entrySet()) {
+            List<Path> sources = output.getValue();
+            if (sources.size() > 1) {
+                logger.log(Level.SEVERE, "Could not convert {0}, they would all be written to {1}",
+                        new Object[]{sources.stream().map(this::getAssetName).collect(Collectors.joining(", ")), getOutputName(output.getKey())});
+                collisions.addAll(sources);
+            }
+        }
+        return collisions;
+    }
+
+    private Entry process(Path input, Properties previous) {
+        String name = getAssetName(input);
+        Entry entry = new Entry(name);
+        long start = System.nanoTime();
+        try {
+            entry.hash = hash(input);
+            if (previous != null && isUpToDate(name, entry.hash, previous)) {
+                entry.status = Status.SKIPPED;
+                entry.outputs = previous.getProperty(name + ".outputs");
+                entry.dependencies = previous.getProperty(name + ".dependencies");
+                entry.dependencyHash = previous.getProperty(name + ".dependencyHash");
+                entry.time = previous.getProperty(name + ".time");
+                return entry;
+            }
+            Set<String> dependencies = requested.get();
+            dependencies.clear();
+            List<File> outputs = isModel(input) ? convertModel(name) : compressTexture(input, name);
+            dependencies.remove(name);
+            entry.outputs = outputs.stream().map(this::getOutputName).collect(Collectors.joining(","));
+            entry.dependencies = String.join(",", dependencies);
+            entry.dependencyHash = hashDependencies(dependencies);
+            entry.status = Status.BUILT;
+        } catch (Exception ex) {
+            logger.log(Level.SEVERE, "Could not convert " + name, ex);
+            entry.status = Status.FAILED;
+        }
+        // keeps the memory of a worker bounded to the asset it converts
+        managers.get().clearCache();
+        long time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        entry.time = Long.toString(time);
+        logger.log(Level.INFO, "{0} {1} in {2} ms", new Object[]{entry.status, name, time});
+        return entry;
+    }
+
+    private boolean isUpToDate(String name, String hash, Properties previous) throws IOException {
+        String status = previous.getProperty(name + ".status");
+        if (!hash.equals(previous.getProperty(name + ".hash")) || Status.FAILED.name().equals(status)) {
+            return false;
+        }
+        String outputs = previous.getProperty(name + ".outputs", "");
+        for (String output : outputs.split(",")) {
+            if (!output.isEmpty() && !new File(outputFolder, output).isFile()) {
+                return false;
+            }
+        }
+        String dependencies = previous.getProperty(name + ".dependencies", "");
+        List<String> names = dependencies.isEmpty() ? List.of() : Arrays.asList(dependencies.split(","));
+        return hashDependencies(names).equals(previous.getProperty(name + ".dependencyHash"));
+    }
+
+    /**
+     * Hashes the names and contents of the dependencies found in the asset
+     * folder. Dependencies from the classpath, like the jME materials, only
+     * contribute their name.
+     */
+    private String hashDependencies(Iterable<String> dependencies) throws IOException {
+        MessageDigest digest = createDigest();
+        for (String dependency : dependencies) {
+            Path file = new File(assetFolder, dependency).toPath();
+            digest.update(dependency.getBytes(StandardCharsets.UTF_8));
+            digest.update(Files.isRegularFile(file) ? hash(file).getBytes(StandardCharsets.UTF_8) : new byte[1]);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Stores the model as j3o with the data the SDK adds when converting a
+     * model, the original paths of its spatials and the original file in the
+     * j3odata properties.
+     */
+    private List<File> convertModel(String name) throws IOException {
+        Spatial model = managers.get().loadModel(new ModelKey(name));
+        SpatialUtil.storeOriginalPathUserData(model);
+        if (lodValues != null) {
+            bakeLods(model);
+        }
+        File out = getModelFile(name);
+        out.getParentFile().mkdirs();
+        BinaryExporter.getInstance().save(model, out);
+
+        File data = new File(out.getParentFile(), out.getName() + "data");
+        Properties properties = new Properties();
+        properties.setProperty("ORIGINAL_PATH", name);
+        try (OutputStream stream = Files.newOutputStream(data.toPath())) {
+            properties.store(stream, "");
+        }
+        return List.of(out, data);
+    }
+
+    private void bakeLods(Spatial model) {
+        LodBaker.Result result = new LodBaker(lodMethod, lodValues).bake(model);
+        logger.log(Level.FINE, "{0}: {1}", new Object[]{model.getName(), result});
+    }
+
+    private List<File> compressTexture(Path input, String name) throws IOException {
+        File out = getTextureFile(name);
+        out.getParentFile().mkdirs();
+        if (isHdr(name)) {
+            TextureCompressor.compressRgbe(input.toFile(), out);
+            return List.of(out);
+        }
+        TextureCompressor.compressJ3(managers.get(), name, out, mipmaps);
+        return List.of(out, new File(out + ".png"));
+    }
+
+    private AssetManager createAssetManager() {
+        AssetManager manager = JmeSystem.newAssetManager();
+        manager.registerLocator(assetFolder.getPath(), FileLocator.class);
+        manager.addAssetEventListener(new AssetEventListener() {
+            @Override
+            public void assetLoaded(AssetKey key) {
+            }
+
+            @Override
+            public void assetRequested(AssetKey key) {
+                requested.get().add(key.getName());
+            }
+
+            @Override
+            public void assetDependencyNotFound(AssetKey parentKey, AssetKey dependentAssetKey) {
+                // a missing dependency that appears later has to trigger a rebuild
+                requested.get().add(dependentAssetKey.getName());
+            }
+        });
+        return manager;
+    }
+
+    private boolean isModel(Path path) {
+        return hasSuffix(path, modelSuffixes);
+    }
+
+    private boolean isTexture(Path path) {
+        // skips the previews and the RGBE images the texture compression writes
+        String fileName = path.getFileName().toString().toLowerCase(Locale.ENGLISH);
+        return hasSuffix(path, textureSuffixes) && !fileName.endsWith(".j3i.png") && !fileName.endsWith(".hdr.png");
+    }
+
+    private static boolean isHdr(String name) {
+        return name.toLowerCase(Locale.ENGLISH).endsWith(".hdr");
+    }
+
+    private static boolean hasSuffix(Path path, List<String> suffixes) {
+        String fileName = path.getFileName().toString().toLowerCase(Locale.ENGLISH);
+        for (String suffix : suffixes) {
+            if (fileName.endsWith("." + suffix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String getAssetName(Path input) {
+        return assetFolder.toPath().relativize(input).toString().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * Replaces the last extension of the model name like the SDK does, so
+     * Models/Ninja.mesh.xml becomes Models/Ninja.mesh.j3o.
+     */
+    private File getModelFile(String name) {
+        int slash = name.lastIndexOf('/');
+        int dot = name.lastIndexOf('.');
+        String base = dot > slash ? name.substring(0, dot) : name;
+        return new File(outputFolder, base + ".j3o");
+    }
+
+    /**
+     * Keeps the full texture name like the NVCompress tool does, so
+     * Textures/foo.png becomes Textures/foo.png.j3i and an HDR image
+     * Textures/sky.hdr becomes the RGBE image Textures/sky.hdr.png.
+     */
+    private File getTextureFile(String name) {
+        return new File(outputFolder, name + (isHdr(name) ? ".png" : ".j3i"));
+    }
+
+    private String getOutputName(File output) {
+        return outputFolder.toPath().relativize(output.toPath()).toString().replace(File.separatorChar, '/');
+    }
+
+    private String getOptions() {
+        StringBuilder options = new StringBuilder();
+        options.append("models=").append(String.join(",", modelSuffixes));
+        options.append(";textures=").append(String.join(",", textureSuffixes));
+        options.append(";mipmaps=").append(mipmaps);
+        options.append(";lod=").append(lodValues != null ? Arrays.toString(lodValues) : "none");
+        options.append(";lodMethod=").append(lodMethod);
+        options.append(";output=").append(outputFolder.getPath());
+        return options.toString();
+    }
+
+    private static MessageDigest createDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    private static String hash(Path input) throws IOException {
+        MessageDigest digest = createDigest();
+        byte[] buffer = new byte[65536];
+        try (InputStream in = Files.newInputStream(input)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    public File getOutputFolder() {
+        return outputFolder;
+    }
+
+    public void setOutputFolder(File outputFolder) {
+        this.outputFolder = outputFolder.getAbsoluteFile();
+    }
+
+    public File getManifestFile() {
+        return manifestFile;
+    }
+
+    public void setManifestFile(File manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    public void setModelSuffixes(List<String> modelSuffixes) {
+        this.modelSuffixes = modelSuffixes;
+    }
+
+    public void setTextureSuffixes(List<String> textureSuffixes) {
+        this.textureSuffixes = textureSuffixes;
+    }
+
+    public void setMipmaps(boolean mipmaps) {
+        this.mipmaps = mipmaps;
+    }
+
+    /**
+     * @param lodValues the reduction values of the levels of detail to bake,
+     * or null to not bake any
+     */
+    public void setLodValues(float[] lodValues) {
+        this.lodValues = lodValues;
+    }
+
+    public void setLodMethod(LodGenerator.TriangleReductionMethod lodMethod) {
+        this.lodMethod = lodMethod;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public void setForce(boolean force) {
+        this.force = force;
+    }
+
+    private enum Status {
+        BUILT, SKIPPED, FAILED
+    }
+
+    private static class Entry {
+
+        private final String name;
+        private Status status = Status.FAILED;
+        private String hash;
+        private String outputs;
+        private String dependencies;
+        private String dependencyHash;
+        private String time;
+
+        Entry(String name) {
+            this.name = name;
+        }
+
+        void store(Properties manifest) {
+            manifest.setProperty(name + ".status", status.name());
+            if (hash != null) {
+                manifest.setProperty(name + ".hash", hash);
+            }
+            if (outputs != null) {
+                manifest.setProperty(name + ".outputs", outputs);
+            }
+            if (dependencies != null) {
+                manifest.setProperty(name + ".dependencies", dependencies);
+            }
+            if (dependencyHash != null) {
+                manifest.setProperty(name + ".dependencyHash", dependencyHash);
+            }
+            if (time != null) {
+                manifest.setProperty(name + ".time", time);
+            }
+        }
+    }
+
+    /**
+     * The outcome of a pipeline run.
+     */
+    public static class Result {
+
+        private final List<String> built = new ArrayList<>();
+        private final List<String> skipped = new ArrayList<>();
+        private final List<String> failed = new ArrayList<>();
+        private long time;
+
+        public List<String> getBuilt() {
+            return built;
+        }
+
+        public List<String> getSkipped() {
+            return skipped;
+        }
+
+        public List<String> getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return the duration of the run in milliseconds
+         */
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return "Built " + built.size() + ", skipped " + skipped.size() + ", failed " + failed.size()
+                    + " assets in " + time + " ms" + (failed.isEmpty() ? "" : ", failed: " + String.join(", ", failed));
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.assets.pipeline;
+
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.jme3.scene.VertexBuffer;
+import com.jme3.terrain.Terrain;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jme3tools.optimize.LodGenerator;
+
+/**
+ * Bakes levels of detail for all geometries below a spatial. The levels of
+ * each mesh are computed in parallel on a shared fork join pool, then set on
+ * the meshes by the calling thread, so the scene is only modified by the
+ * thread that called {@link #bake(com.jme3.scene.Spatial)}. Geometries sharing
+ * a mesh are baked once.
+ * <p>
+ * The meshes are read by the worker threads, so the scene must not be
+ * changed during the bake, e.g. by calling it from the render thread. To
+ * bake a scene that is being rendered, {@link #compute(java.util.List)} the
+ * levels of copies of its meshes instead and set them on the render thread.
+ */
+public class LodBaker {
+
+    private static final Logger logger = Logger.getLogger(LodBaker.class.getName());
+    private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Notified from the worker threads whenever the levels of a mesh are
+     * computed.
+     */
+    public interface ProgressListener {
+
+        void geometryBaked(Geometry geometry, int done, int total);
+    }
+
+    private final LodGenerator.TriangleReductionMethod method;
+    private final float[] values;
+    private ProgressListener listener;
+    private volatile boolean cancelled;
+
+    /**
+     * @param method the reduction method
+     * @param values the reduction values of the levels, see
+     * {@link LodGenerator#bakeLods(jme3tools.optimize.LodGenerator.TriangleReductionMethod, float...)}
+     */
+    public LodBaker(LodGenerator.TriangleReductionMethod method, float[] values) {
+        this.method = method;
+        this.values = values;
+    }
+
+    public void setProgressListener(ProgressListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Stops the bake, the meshes whose levels are being computed are
+     * finished but no levels are set.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @param root the spatial to bake
+     * @return the number of triangles of all meshes that can be baked
+     */
+    public static int countTriangles(Spatial root) {
+        int triangles = 0;
+        for (Geometry geometry : findGeometries(root)) {
+            triangles += geometry.getMesh().getTriangleCount();
+        }
+        return triangles;
+    }
+
+    /**
+     * Computes the levels of detail of all triangle meshes with an index
+     * buffer below the root and sets them, unless the bake was cancelled.
+     *
+     * @param root the spatial to bake
+     * @return the triangle counts and time of the bake
+     */
+    public Result bake(Spatial root) {
+        List<Geometry> geometries = findGeometries(root);
+        Result result = compute(geometries);
+        if (!result.cancelled) {
+            for (int i = 0; i < geometries.size(); i++) {
+                geometries.get(i).getMesh().setLodLevels(result.levels.get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Computes the levels of detail of the geometries without setting them.
+     *
+     * @param geometries the geometries to bake, see
+     * {@link #findGeometries(com.jme3.scene.Spatial)}
+     * @return the levels of each geometry, the triangle counts and time of
+     * the bake
+     */
+    public Result compute(List<Geometry> geometries) {
+        long start = System.nanoTime();
+        Result result = new Result(geometries.size(), values.length + 1);
+        List<ForkJoinTask<VertexBuffer[]>> tasks = new ArrayList<>(geometries.size());
+        int[] done = new int[1];
+        for (Geometry geometry : geometries) {
+            tasks.add(pool.submit(() -> {
+                if (cancelled) {
+                    return null;
+                }
+                VertexBuffer[] lods = new LodGenerator(geometry).computeLods(method, values);
+                if (listener != null) {
+                    int count;
+                    synchronized (done) {
+                        count = ++done[0];
+                    }
+                    listener.geometryBaked(geometry, count, geometries.size());
+                }
+                return lods;
+            }));
+        }
+
+        List<VertexBuffer[]> computed = new ArrayList<>(geometries.size());
+        try {
+            for (ForkJoinTask<VertexBuffer[]> task : tasks) {
+                computed.add(task.get());
+            }
+        } catch (InterruptedException ex) {
+            cancelled = true;
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            cancelled = true;
+            logger.log(Level.SEVERE, "Could not compute levels of detail", ex.getCause());
+        }
+        if (cancelled) {
+            for (ForkJoinTask<VertexBuffer[]> task : tasks) {
+                task.cancel(false);
+            }
+            result.cancelled = true;
+        } else {
+            result.levels = computed;
+            for (VertexBuffer[] lods : computed) {
+                for (int level = 0; level < lods.length && level < result.triangles.length; level++) {
+                    result.triangles[level] += lods[level].getData().limit() / 3;
+                }
+            }
+        }
+        result.time = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Finds the geometries to bake, one per mesh. Terrains are left out as
+     * they manage the levels of detail of their patches themselves.
+     *
+     * @param root the spatial to bake
+     * @return the geometries with an indexed triangle mesh
+     */
+    public static List<Geometry> findGeometries(Spatial root) {
+        List<Geometry> geometries = new ArrayList<>();
+        findGeometries(root, new IdentityHashMap<>(), geometries);
+        return geometries;
+    }
+
+    private static void findGeometries(Spatial spatial, Map<Mesh, Geometry> meshes, List<Geometry> geometries) {
+        if (spatial instanceof Terrain) {
+            return;
+        }
+        if (spatial instanceof Geometry geometry) {
+            Mesh mesh = geometry.getMesh();
+            if (mesh != null && mesh.getMode() == Mesh.Mode.Triangles
+                    && mesh.getBuffer(VertexBuffer.Type.Index) != null
+                    && meshes.putIfAbsent(mesh, geometry) == null) {
+                geometries.add(geometry);
+            }
+        } else if (spatial instanceof Node node) {
+            for (Spatial child : node.getChildren()) {
+                findGeometries(child, meshes, geometries);
+            }
+        }
+    }
+
+    /**
+     * The outcome of a bake.
+     */
+    public static class Result {
+
+        private final int geometries;
+        private final int[] triangles;
+        private List<VertexBuffer[]> levels;
+        private boolean cancelled;
+        private long time;
+
+        Result(int geometries, int levels) {
+            this.geometries = geometries;
+            this.triangles = new int[levels];
+        }
+
+        /**
+         * @return the number of meshes baked
+         */
+        public int getGeometries() {
+            return geometries;
+        }
+
+        /**
+         * @return the total triangle count of each level, the first one is
+         * the full mesh
+         */
+        public int[] getTriangles() {
+            return triangles;
+        }
+
+        /**
+         * @return the levels of detail of each geometry, in the order of the
+         * geometries, or null if the bake was cancelled
+         */
+        public List<VertexBuffer[]> getLevels() {
+            return levels;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return the duration of the bake in milliseconds
+         */
+        public long getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            if (cancelled) {
+                return "Level of detail generation cancelled after " + time + " ms";
+            }
+            StringBuilder text = new StringBuilder();
+            text.append("Generated levels of detail for ").append(geometries)
+                    .append(" meshes in ").append(time).append(" ms, triangles per level:");
+            for (int count : triangles) {
+                text.append(' ').append(count);
+            }
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.assets.pipeline;
+
+import com.jme3.asset.AssetManager;
+import com.jme3.export.binary.BinaryExporter;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.plugins.HDRLoader;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.imageio.ImageIO;
+import jme3tools.converters.ImageToAwt;
+import jme3tools.converters.MipMapGenerator;
+
+/**
+ * The in-process texture conversions of the NVCompress tool, without any user
+ * interface so they can also run in the headless {@link AssetPipeline}.
+ */
+public final class TextureCompressor {
+
+    private TextureCompressor() {
+    }
+
+    /**
+     * Converts a texture to a j3i image, optionally generating mip maps, and
+     * writes a png preview of it next to the output.
+     *
+     * @param manager the asset manager to load the texture with
+     * @param assetName the name of the texture in the asset manager
+     * @param output the j3i file to write
+     * @param mipmaps generate mip maps if the image has none
+     * @throws IOException if the output can not be written
+     */
+    public static void compressJ3(AssetManager manager, String assetName, File output, boolean mipmaps) throws IOException {
+        Texture tex = manager.loadTexture(assetName);
+        Image image = tex.getImage();
+        if (mipmaps && !image.hasMipmaps()) {
+            MipMapGenerator.generateMipMaps(image);
+        }
+        BinaryExporter.getInstance().save(image, output);
+        BufferedImage preview = ImageToAwt.convert(image, false, true, 0);
+        ImageIO.write(preview, "png", new File(output + ".png"));
+    }
+
+    /**
+     * Converts a hdr image to a png in RGBE format.
+     *
+     * @param input the hdr file
+     * @param output the png file to write
+     * @throws IOException if the input can not be read or the output written
+     */
+    public static void compressRgbe(File input, File output) throws IOException {
+        HDRLoader loader = new HDRLoader(true);
+        Image image;
+        try (InputStream in = new FileInputStream(input)) {
+            image = loader.load(in, false);
+        }
+        BufferedImage rgbeImage = ImageToAwt.convert(image, false, true, 0);
+        ImageIO.write(rgbeImage, "png", output);
+    }
+}
@@ -34,6 +34,7 @@ package com.jme3.gde.core.filters;
 import com.jme3.gde.core.filters.actions.EnableFiterAction;
 import com.jme3.gde.core.icons.IconList;
 import com.jme3.gde.core.properties.SceneExplorerProperty;
+import com.jme3.gde.core.properties.SceneExplorerPropertyCache;
 import com.jme3.gde.core.properties.ScenePropertyChangeListener;
 import com.jme3.gde.core.scene.SceneSyncListener;
 import com.jme3.gde.core.sceneexplorer.nodes.AbstractSceneExplorerNode;
@@ -71,6 +72,7 @@ public abstract class AbstractFilterNode extends AbstractNode implements FilterN
     protected DataObject dataObject;
     protected Filter filter;
     private static Image icon;
+    private final SceneExplorerPropertyCache syncProperties = new SceneExplorerPropertyCache(this);
 
     @Override
     public Image getIcon(int type) {
@@ -119,15 +121,7 @@ public abstract class AbstractFilterNode extends AbstractNode implements FilterN
     }
     
     public void syncSceneData(float tpf) {
-        //TODO: precache structure to avoid locks? Do it backwards, sending the actual bean value?
-        for (PropertySet propertySet : getPropertySets()) {
-            for (Property<?> property : propertySet.getProperties()) {
-                if(property instanceof SceneExplorerProperty){
-                    SceneExplorerProperty prop = (SceneExplorerProperty)property;
-                    prop.syncValue();
-                }
-            }
-        }
+        syncProperties.syncValues();
     }
     
     @Override
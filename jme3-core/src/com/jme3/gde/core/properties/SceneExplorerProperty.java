@@ -42,11 +42,17 @@ import com.jme3.math.Matrix3f;
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.LinkedList;
+import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.openide.nodes.PropertySupport;
@@ -80,14 +86,21 @@ public class SceneExplorerProperty<T> extends PropertySupport.Reflection<T> {
      * and not the initialiation value.
      */
     public static final String PROP_INIT_CHANGE = "PROP_INIT_CHANGE";
-    protected T objectLocal;
-    protected boolean changing = false;
+    /**
+     * Listener notifications of all properties, delivered in one event on the
+     * EDT so a sync of many changed properties does not flood the queue.
+     */
+    private static final Queue<Runnable> notifications = new ConcurrentLinkedQueue<Runnable>();
+    private static final AtomicBoolean notificationsPosted = new AtomicBoolean();
+    protected volatile T objectLocal;
+    protected volatile boolean changing = false;
     protected final boolean cloneable;
     protected final boolean instantiable;
     protected final boolean primitive;
     protected final Mutex mutex = new Mutex();
-    protected boolean inited = false;
+    protected volatile boolean inited = false;
     protected final boolean editable;
+    private final MethodHandle getterHandle;
     protected LinkedList<ScenePropertyChangeListener> listeners = new LinkedList<ScenePropertyChangeListener>();
 
     public SceneExplorerProperty(T instance, Class valueType, String getter, String setter) throws NoSuchMethodException {
@@ -96,6 +109,7 @@ public class SceneExplorerProperty<T> extends PropertySupport.Reflection<T> {
 
     public SceneExplorerProperty(T instance, Class valueType, String getter, String setter, ScenePropertyChangeListener listener) throws NoSuchMethodException {
         super(instance, valueType, getter, setter);
+        getterHandle = findGetter(instance, getter);
         primitive = isPrimitive(instance, getter);
         if (!primitive) {
             cloneable = canClone(instance, getter);
@@ -137,6 +151,9 @@ public class SceneExplorerProperty<T> extends PropertySupport.Reflection<T> {
      */
     public void syncValue() {
         final T realValue = getSuperValue();
+        if (!needsSync(realValue)) {
+            return;
+        }
         mutex.readAccess(new Runnable() {
             @Override
             public void run() {
@@ -178,6 +195,22 @@ public class SceneExplorerProperty<T> extends PropertySupport.Reflection<T> {
         });
     }
 
+    /**
+     * Checks without locking if the scene value differs from the local
+     * value, the checks are repeated under the lock before applying the
+     * value.
+     */
+    private boolean needsSync(T realValue) {
+        if (changing) {
+            return false;
+        }
+        T local = objectLocal;
+        if (local == null) {
+            return !inited || realValue != null;
+        }
+        return !local.equals(realValue);
+    }
+
     /**
      * Gets the current value, its a duplicate of the actual scene value. Note
      * that the value is most probably not initialized yet when the Propety is
@@ -238,6 +271,27 @@ public class SceneExplorerProperty<T> extends PropertySupport.Reflection<T> {
         });
     }
 
+    /**
+     * Creates a method handle for the getter, so reading the scene value does
+     * not have to go through reflection on every sync.
+     *
+     * @param obj
+     * @param getter
+     * @return the handle or null if the getter is not accessible
+     */
+    private static MethodHandle findGetter(Object obj, String getter) {
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup().unreflect(obj.getClass().getMethod(getter))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (NoSuchMethodException | IllegalAccessException | SecurityException ex) {
+            logger.log(Level.FINE, "No getter handle for {0}, using reflection", getter);
+            return null;
+        }
+    }
+
     /**
      * Checks if a getters return object is a primitive.
      *
@@ -392,6 +446,9 @@ public class SceneExplorerProperty<T> extends PropertySupport.Reflection<T> {
     protected T getSuperValue() {
         try {
             logger.log(Level.FINER, "Get super value thread {0}", Thread.currentThread().getName());
+            if (getterHandle != null) {
+                return (T) getterHandle.invokeExact(instance);
+            }
             return super.getValue();
         } catch (IllegalAccessException ex) {
             Exceptions.printStackTrace(ex);
@@ -399,6 +456,9 @@ public class SceneExplorerProperty<T> extends PropertySupport.Reflection<T> {
             Exceptions.printStackTrace(ex);
         } catch (InvocationTargetException ex) {
             Exceptions.printStackTrace(ex);
+        } catch (Throwable ex) {
+            // thrown by the getter handle
+            Exceptions.printStackTrace(ex);
         }
         return null;
     }
@@ -499,7 +559,7 @@ public class SceneExplorerProperty<T> extends PropertySupport.Reflection<T> {
      * @param after 
      */
     protected void notifyListeners(final String type, final Object before, final Object after) {
-        java.awt.EventQueue.invokeLater(new Runnable() {
+        notifications.add(new Runnable() {
             @Override
             public void run() {
                 logger.log(Level.FINE, "Notify SceneExplorer listeners");
@@ -508,5 +568,17 @@ public class SceneExplorerProperty<T> extends PropertySupport.Reflection<T> {
                 }
             }
         });
+        if (notificationsPosted.compareAndSet(false, true)) {
+            java.awt.EventQueue.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    notificationsPosted.set(false);
+                    Runnable notification;
+                    while ((notification = notifications.poll()) != null) {
+                        notification.run();
+                    }
+                }
+            });
+        }
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.properties;
+
+import java.beans.PropertyChangeEvent;
+import java.util.ArrayList;
+import java.util.List;
+import org.openide.nodes.Node;
+import org.openide.nodes.Node.Property;
+import org.openide.nodes.Node.PropertySet;
+import org.openide.nodes.NodeAdapter;
+
+/**
+ * Caches the SceneExplorerProperties of a node so syncing them with the scene
+ * does not have to walk all property sets of the node on every sync. The
+ * cache is dropped when the property sets of the node change.
+ */
+public class SceneExplorerPropertyCache {
+
+    private final Node node;
+    private volatile SceneExplorerProperty<?>[] properties;
+    private volatile int version;
+
+    public SceneExplorerPropertyCache(Node node) {
+        this.node = node;
+        node.addNodeListener(new NodeAdapter() {
+            @Override
+            public void propertyChange(PropertyChangeEvent ev) {
+                if (Node.PROP_PROPERTY_SETS.equals(ev.getPropertyName())) {
+                    invalidate();
+                }
+            }
+        });
+    }
+
+    /**
+     * Drops the cached properties, they are collected again on the next
+     * sync.
+     */
+    public synchronized void invalidate() {
+        version++;
+        properties = null;
+    }
+
+    /**
+     * Synchronizes the local and scene values of all SceneExplorerProperties
+     * of the node, has to be called on render thread.
+     */
+    public void syncValues() {
+        for (SceneExplorerProperty<?> property : getProperties()) {
+            property.syncValue();
+        }
+    }
+
+    private SceneExplorerProperty<?>[] getProperties() {
+        SceneExplorerProperty<?>[] cached = properties;
+        if (cached != null) {
+            return cached;
+        }
+        int collectedVersion = version;
+        List<SceneExplorerProperty<?>> list = new ArrayList<>();
+        for (PropertySet propertySet : node.getPropertySets()) {
+            for (Property<?> property : propertySet.getProperties()) {
+                if (property instanceof SceneExplorerProperty) {
+                    list.add((SceneExplorerProperty<?>) property);
+                }
+            }
+        }
+        cached = list.toArray(new SceneExplorerProperty<?>[list.size()]);
+        synchronized (this) {
+            // the sheet changed while collecting, use the result only once
+            if (collectedVersion == version) {
+                properties = cached;
+            }
+        }
+        return cached;
+    }
+}
@@ -34,17 +34,26 @@ package com.jme3.gde.core.scene;
 import com.jme3.app.Application;
 import com.jme3.app.state.AbstractAppState;
 import com.jme3.app.state.AppStateManager;
+import com.jme3.gde.core.undoredo.SceneUndoRedoManager;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import javax.swing.event.ChangeListener;
+import org.openide.util.Lookup;
 import org.openide.util.Lookup.Result;
 import org.openide.util.LookupEvent;
 import org.openide.util.LookupListener;
 import org.openide.util.Utilities;
 
 /**
+ * Syncs the properties of the selected scene explorer node with the scene.
+ * The node is synced on the next frame after an edit was added, undone or
+ * redone in the scene undo manager, which covers the changes made through
+ * the SDK. Changes made by the scene itself, e.g. by controls, are picked up
+ * by a sync once a second, which still reads every cached property getter of
+ * the node.
  *
  * @author normenhansen
  */
@@ -57,6 +66,9 @@ public class NodeSyncAppState extends AbstractAppState implements LookupListener
     private SceneSyncListener node;
     private float timeStep = 1;
     private float timer = 0;
+    private volatile boolean edited = false;
+    private final ChangeListener editListener = e -> edited = true;
+    private SceneUndoRedoManager undoRedo;
 
     public NodeSyncAppState() {
         nodeSelectionResult = Utilities.actionsGlobalContext().lookupResult(SceneSyncListener.class);
@@ -66,6 +78,10 @@ public class NodeSyncAppState extends AbstractAppState implements LookupListener
     public void initialize(AppStateManager stateManager, Application app) {
         super.initialize(stateManager, app);
         nodeSelectionResult.addLookupListener(this);
+        undoRedo = Lookup.getDefault().lookup(SceneUndoRedoManager.class);
+        if (undoRedo != null) {
+            undoRedo.addChangeListener(editListener);
+        }
     }
 
     @Override
@@ -79,7 +95,8 @@ public class NodeSyncAppState extends AbstractAppState implements LookupListener
             }
         }
         timer += tpf;
-        if (timer > timeStep) {
+        if (edited || timer > timeStep) {
+            edited = false;
             timer = 0;
             SceneSyncListener node = this.node;
             if (initialized && node != null) {
@@ -120,6 +137,9 @@ public class NodeSyncAppState extends AbstractAppState implements LookupListener
     @Override
     public void cleanup() {
         nodeSelectionResult.removeLookupListener(this);
+        if (undoRedo != null) {
+            undoRedo.removeChangeListener(editListener);
+        }
         super.cleanup();
     }
 }
@@ -42,32 +42,46 @@ import com.jme3.renderer.RenderManager;
 import com.jme3.renderer.ViewPort;
 import com.jme3.renderer.queue.RenderQueue;
 import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
 import com.jme3.texture.FrameBuffer;
 import com.jme3.texture.Image.Format;
 import com.jme3.util.BufferUtils;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferByte;
-import java.awt.image.WritableRaster;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.openide.util.RequestProcessor;
 
 /**
+ * Renders the queued PreviewRequests offscreen. Requests of the same size are
+ * batched, each one gets a slot of an atlas framebuffer with its own
+ * ViewPort and camera, so up to MAX_SLOTS previews are rendered per frame and
+ * read back with a single call. Splitting the atlas into the separate images
+ * is done on a worker thread while the next batch renders.
  *
  * @author normenhansen
  */
 public class ScenePreviewProcessor implements SceneProcessor {
 
+    private static final int MAX_SLOTS = 16;
+    private static final int MAX_ATLAS_SIZE = 2048;
+    private static final int READBACK_BUFFERS = 2;
+    private static final RequestProcessor readbackProcessor = new RequestProcessor("Preview readback", 1);
     private static int width = 120, height = 120;
-    private ByteBuffer cpuBuf = BufferUtils.createByteBuffer(width * height * 4);
-    private byte[] cpuArray = new byte[width * height * 4];
     protected Node previewNode = new Node("Preview Node");
     protected JmeSpatial previewSpat = null;
     private FrameBuffer offBuffer;
     private ViewPort offView;
-    private Camera offCamera;
+    private ViewPort readbackView;
+    private final List<PreviewSlot> slots = new ArrayList<>();
+    private int columns = 1, rows = 1;
     private final ConcurrentLinkedQueue<PreviewRequest> previewQueue = new ConcurrentLinkedQueue<PreviewRequest>();
-    private PreviewRequest currentPreviewRequest;    
-    private PointLight light;
+    private final List<PreviewRequest> currentBatch = new ArrayList<>();
+    private final LinkedBlockingQueue<ByteBuffer> freeBuffers = new LinkedBlockingQueue<>();
+    private volatile int bufferSize;
 
     public void addRequest(PreviewRequest request) {
         previewQueue.add(request);
@@ -79,50 +93,62 @@ public class ScenePreviewProcessor implements SceneProcessor {
     }
 
     public void setupPreviewView() {
-        if (offCamera == null) {
-            offCamera = new Camera(width, height);
-        } else {
-            offCamera.resize(width, height, true);
-        }
+        RenderManager renderManager = SceneApplication.getApplication().getRenderManager();
+        columns = Math.max(1, Math.min(MAX_ATLAS_SIZE / width, MAX_SLOTS));
+        rows = Math.max(1, Math.min(MAX_ATLAS_SIZE / height, MAX_SLOTS / columns));
+        int atlasWidth = columns * width;
+        int atlasHeight = rows * height;
 
-        // create a pre-view. a view that is rendered before the main view
+        // create the pre-views, views that are rendered before the main view.
+        // The first one only hands out the queued requests, the slot views
+        // render them and the last one reads back the whole atlas
         if (offView == null) {
-            offView = SceneApplication.getApplication().getRenderManager().createPreView("Offscreen View", offCamera);
+            offView = renderManager.createPreView("Offscreen View", new Camera(atlasWidth, atlasHeight));
+            offView.setClearFlags(false, false, false);
+            offView.addProcessor(this);
             ColorRGBA color = new ColorRGBA();
             color.setAsSrgb(0.25f, 0.25f, 0.25f, 1.0f);
-            offView.setBackgroundColor(color);
-            offView.setClearFlags(true, true, true);
-            offView.addProcessor(this);
-            // setup framebuffer's scene
-            light = new PointLight();
-            light.setPosition(offCamera.getLocation());
-            light.setColor(ColorRGBA.White);
-            previewNode.addLight(light);
+            for (int i = 0; i < MAX_SLOTS; i++) {
+                slots.add(new PreviewSlot(renderManager, i, color, atlasWidth, atlasHeight));
+            }
+            readbackView = renderManager.createPreView("Offscreen Readback View", new Camera(atlasWidth, atlasHeight));
+            readbackView.setClearFlags(false, false, false);
+            readbackView.addProcessor(readback);
+        }
 
-            // attach the scene to the viewport to be rendered
-            offView.attachScene(previewNode);
+        offView.getCamera().resize(atlasWidth, atlasHeight, true);
+        readbackView.getCamera().resize(atlasWidth, atlasHeight, true);
+        for (int i = 0; i < slots.size(); i++) {
+            PreviewSlot slot = slots.get(i);
+            slot.camera.resize(atlasWidth, atlasHeight, true);
+            int column = i % columns;
+            int row = i / columns;
+            slot.camera.setViewPort((float) column / columns, (float) (column + 1) / columns,
+                    (float) row / rows, (float) (row + 1) / rows);
+            slot.view.setEnabled(false);
         }
 
-        cpuBuf = BufferUtils.createByteBuffer(width * height * 4);
-        cpuArray = new byte[width * height * 4];
+        // the buffers still in flight are dropped when they come back
+        bufferSize = atlasWidth * atlasHeight * 4;
+        freeBuffers.clear();
+        for (int i = 0; i < READBACK_BUFFERS; i++) {
+            freeBuffers.add(BufferUtils.createByteBuffer(bufferSize));
+        }
 
         // create offscreen framebuffer        
-        offBuffer = new FrameBuffer(width, height, 0);
-
-        //setup framebuffer's cam
-        offCamera.setFrustumPerspective(45f, 1f, 1f, 1000f);
-        offCamera.setLocation(new Vector3f(5f, 5f, 5f));
-        offCamera.lookAt(new Vector3f(0f, 0f, 0f), Vector3f.UNIT_Y);
+        offBuffer = new FrameBuffer(atlasWidth, atlasHeight, 0);
 
         //setup framebuffer to use texture
         offBuffer.setDepthBuffer(Format.Depth);        
         offBuffer.setColorBuffer(Format.RGBA8);
         offBuffer.setSrgb(true);
 
-        //set viewport to render to offscreen framebuffer
+        //set viewports to render to offscreen framebuffer
         offView.setOutputFrameBuffer(offBuffer);
-
-
+        for (PreviewSlot slot : slots) {
+            slot.view.setOutputFrameBuffer(offBuffer);
+        }
+        readbackView.setOutputFrameBuffer(offBuffer);
     }
 
     @Override
@@ -141,76 +167,147 @@ public class ScenePreviewProcessor implements SceneProcessor {
 
     @Override
     public void preFrame(float f) {
-        currentPreviewRequest = previewQueue.poll();
-        if (currentPreviewRequest != null) {
-            boolean reInit = false;
-            if (currentPreviewRequest.getCameraRequest().getWidth() != width) {
-                reInit = true;
-                width = currentPreviewRequest.getCameraRequest().getWidth();
-            }
-            if (currentPreviewRequest.getCameraRequest().getHeight() != height) {
-                reInit = true;
-                height = currentPreviewRequest.getCameraRequest().getHeight();
-            }
-            if (reInit) {
+        PreviewRequest first = previewQueue.peek();
+        if (first != null && currentBatch.isEmpty() && !freeBuffers.isEmpty()) {
+            if (first.getCameraRequest().getWidth() != width || first.getCameraRequest().getHeight() != height) {
+                width = first.getCameraRequest().getWidth();
+                height = first.getCameraRequest().getHeight();
                 setupPreviewView();
             }
-            previewNode.attachChild(currentPreviewRequest.getSpatial());
-            if (currentPreviewRequest.getCameraRequest().location != null) {
-                offCamera.setLocation(currentPreviewRequest.getCameraRequest().location);
-                light.setPosition(currentPreviewRequest.getCameraRequest().location);
-            }
-            if (currentPreviewRequest.getCameraRequest().rotation != null) {
-                offCamera.setRotation(currentPreviewRequest.getCameraRequest().rotation);
-            }
-            if (currentPreviewRequest.getCameraRequest().lookAt != null) {
-                offCamera.lookAt(currentPreviewRequest.getCameraRequest().lookAt, currentPreviewRequest.getCameraRequest().up);
+            int slotCount = columns * rows;
+            while (currentBatch.size() < slotCount) {
+                PreviewRequest request = previewQueue.peek();
+                if (request == null
+                        || request.getCameraRequest().getWidth() != width
+                        || request.getCameraRequest().getHeight() != height
+                        || isInBatch(request.getSpatial())) {
+                    break;
+                }
+                previewQueue.poll();
+                slots.get(currentBatch.size()).attach(request);
+                currentBatch.add(request);
             }
         }
         update(f);
     }
 
+    /**
+     * A spatial can only be attached to one slot, requests for a spatial that
+     * is already being rendered wait for the next batch.
+     */
+    private boolean isInBatch(Spatial spatial) {
+        for (PreviewRequest request : currentBatch) {
+            if (request.getSpatial() == spatial) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void postQueue(RenderQueue rq) {
     }
 
     @Override
     public void postFrame(FrameBuffer fb) {
-        if (currentPreviewRequest != null) {
-            cpuBuf.clear();
-            SceneApplication.getApplication().getRenderer().readFrameBufferWithFormat(offBuffer, cpuBuf, Format.BGRA8);
-
-            // copy native memory to java memory
-            cpuBuf.clear();
-            cpuBuf.get(cpuArray);
-            cpuBuf.clear();
-
-            // flip the components the way AWT likes them
-            for (int i = 0; i < width * height * 4; i += 4) {
-                byte b = cpuArray[i + 0];
-                byte g = cpuArray[i + 1];
-                byte r = cpuArray[i + 2];
-                byte a = cpuArray[i + 3];
-                
-                cpuArray[i + 0] = a;
-                cpuArray[i + 1] = b;
-                cpuArray[i + 2] = g;
-                cpuArray[i + 3] = r;
+    }
+
+    private final SceneProcessor readback = new SceneProcessor() {
+        @Override
+        public void initialize(RenderManager rm, ViewPort vp) {
+        }
+
+        @Override
+        public void reshape(ViewPort vp, int w, int h) {
+        }
+
+        @Override
+        public boolean isInitialized() {
+            return true;
+        }
+
+        @Override
+        public void preFrame(float tpf) {
+        }
+
+        @Override
+        public void postQueue(RenderQueue rq) {
+        }
+
+        @Override
+        public void postFrame(FrameBuffer out) {
+            if (currentBatch.isEmpty()) {
+                return;
+            }
+            final ByteBuffer cpuBuf = freeBuffers.poll();
+            if (cpuBuf != null) {
+                cpuBuf.clear();
+                SceneApplication.getApplication().getRenderer().readFrameBufferWithFormat(offBuffer, cpuBuf, Format.BGRA8);
             }
+            final List<PreviewRequest> batch = new ArrayList<>(currentBatch);
+            final int slotWidth = width;
+            final int slotHeight = height;
+            final int atlasColumns = columns;
+            for (int i = 0; i < batch.size(); i++) {
+                slots.get(i).detach();
+            }
+            currentBatch.clear();
+            if (cpuBuf == null) {
+                return;
+            }
+            readbackProcessor.post(() -> {
+                try {
+                    for (int i = 0; i < batch.size(); i++) {
+                        int x = (i % atlasColumns) * slotWidth;
+                        int y = (i / atlasColumns) * slotHeight;
+                        PreviewRequest request = batch.get(i);
+                        request.setImage(extractImage(cpuBuf, atlasColumns * slotWidth, x, y, slotWidth, slotHeight));
+                        SceneApplication.getApplication().notifyPreview(request);
+                    }
+                } finally {
+                    if (cpuBuf.capacity() == bufferSize) {
+                        freeBuffers.add(cpuBuf);
+                    }
+                }
+            });
+        }
 
-            BufferedImage image = new BufferedImage(width, height,
-                    BufferedImage.TYPE_4BYTE_ABGR);
-            WritableRaster wr = image.getRaster();
-            DataBufferByte db = (DataBufferByte) wr.getDataBuffer();
-            System.arraycopy(cpuArray, 0, db.getData(), 0, cpuArray.length);
+        @Override
+        public void setProfiler(AppProfiler profiler) {
+        }
 
-            currentPreviewRequest.setImage(image);
-            previewNode.detachAllChildren();
-            SceneApplication.getApplication().notifyPreview(currentPreviewRequest);
-            currentPreviewRequest = null;
+        @Override
+        public void cleanup() {
         }
+    };
+
+    /**
+     * Copies one slot out of the BGRA8 atlas into an AWT image.
+     */
+    private static BufferedImage extractImage(ByteBuffer atlas, int atlasWidth, int x, int y, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height,
+                BufferedImage.TYPE_4BYTE_ABGR);
+        byte[] cpuArray = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        int rowBytes = width * 4;
+        for (int row = 0; row < height; row++) {
+            atlas.get(((y + row) * atlasWidth + x) * 4, cpuArray, row * rowBytes, rowBytes);
+        }
+
+        // flip the components the way AWT likes them
+        for (int i = 0; i < cpuArray.length; i += 4) {
+            byte b = cpuArray[i + 0];
+            byte g = cpuArray[i + 1];
+            byte r = cpuArray[i + 2];
+            byte a = cpuArray[i + 3];
+
+            cpuArray[i + 0] = a;
+            cpuArray[i + 1] = b;
+            cpuArray[i + 2] = g;
+            cpuArray[i + 3] = r;
+        }
+        return image;
     }
-    
+
     @Override
     public void setProfiler(AppProfiler profiler) {
         /* We don't support profiling yet */
@@ -219,4 +316,56 @@ public class ScenePreviewProcessor implements SceneProcessor {
     @Override
     public void cleanup() {
     }
+
+    /**
+     * One cell of the preview atlas.
+     */
+    private class PreviewSlot {
+
+        final Camera camera;
+        final ViewPort view;
+        final Node node;
+        final PointLight light;
+
+        PreviewSlot(RenderManager renderManager, int index, ColorRGBA background, int atlasWidth, int atlasHeight) {
+            camera = new Camera(atlasWidth, atlasHeight);
+            view = renderManager.createPreView("Offscreen View " + index, camera);
+            view.setBackgroundColor(background);
+            view.setClearFlags(true, true, true);
+            view.setEnabled(false);
+            node = new Node("Preview Slot " + index);
+            light = new PointLight();
+            light.setColor(ColorRGBA.White);
+            node.addLight(light);
+            previewNode.attachChild(node);
+
+            // attach the scene to the viewport to be rendered
+            view.attachScene(node);
+        }
+
+        void attach(PreviewRequest request) {
+            //setup framebuffer's cam
+            camera.setFrustumPerspective(45f, 1f, 1f, 1000f);
+            camera.setLocation(new Vector3f(5f, 5f, 5f));
+            camera.lookAt(new Vector3f(0f, 0f, 0f), Vector3f.UNIT_Y);
+            PreviewRequest.CameraRequest cameraRequest = request.getCameraRequest();
+            if (cameraRequest.location != null) {
+                camera.setLocation(cameraRequest.location);
+            }
+            if (cameraRequest.rotation != null) {
+                camera.setRotation(cameraRequest.rotation);
+            }
+            if (cameraRequest.lookAt != null) {
+                camera.lookAt(cameraRequest.lookAt, cameraRequest.up);
+            }
+            light.setPosition(camera.getLocation());
+            node.attachChild(request.getSpatial());
+            view.setEnabled(true);
+        }
+
+        void detach() {
+            node.detachAllChildren();
+            view.setEnabled(false);
+        }
+    }
 }
@@ -33,6 +33,7 @@ package com.jme3.gde.core.sceneexplorer.nodes;
 
 import com.jme3.gde.core.filters.AbstractFilterNode;
 import com.jme3.gde.core.properties.SceneExplorerProperty;
+import com.jme3.gde.core.properties.SceneExplorerPropertyCache;
 import com.jme3.gde.core.properties.ScenePropertyChangeListener;
 import com.jme3.gde.core.scene.SceneSyncListener;
 import com.jme3.gde.core.util.DynamicLookup;
@@ -64,6 +65,7 @@ public abstract class AbstractSceneExplorerNode extends AbstractNode implements
     protected boolean readOnly = false;
     protected DataObject dataObject;
     private final List<Property<?>> sceneProperties = Collections.synchronizedList(new LinkedList<Property<?>>());
+    private final SceneExplorerPropertyCache syncProperties = new SceneExplorerPropertyCache(this);
 
     public AbstractSceneExplorerNode() {
         this(Children.LEAF, null);
@@ -276,15 +278,7 @@ public abstract class AbstractSceneExplorerNode extends AbstractNode implements
     
     @Override
     public void syncSceneData(float tpf) {
-        //TODO: precache structure to avoid locks? Do it backwards, sending the actual bean value?
-        for (PropertySet propertySet : getPropertySets()) {
-            for (Property<?> property : propertySet.getProperties()) {
-                if(property instanceof SceneExplorerProperty){
-                    SceneExplorerProperty<?> prop = (SceneExplorerProperty<?>)property;
-                    prop.syncValue();
-                }
-            }
-        }
+        syncProperties.syncValues();
     }
 
     @Override
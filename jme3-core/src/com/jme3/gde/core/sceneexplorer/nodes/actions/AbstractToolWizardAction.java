@@ -56,55 +56,62 @@ public abstract class AbstractToolWizardAction implements ToolAction {
         return new AbstractAction(name) {
 
             public void actionPerformed(ActionEvent e) {
-                final Object settings = showWizard(rootNode);
-                SceneApplication.getApplication().enqueue(new Callable<Void>() {
-
-                    public Void call() throws Exception {
-                        final Object object = doApplyTool(rootNode, settings);
-                        if (object != null) {
-                            Lookup.getDefault().lookup(SceneUndoRedoManager.class).addEdit(this, new AbstractUndoableSceneEdit() {
-
-                                @Override
-                                public void sceneUndo() throws CannotUndoException {
-                                    doUndoTool(rootNode, object);
-                                    setModified();
-                                }
-
-                                @Override
-                                public void sceneRedo() throws CannotRedoException {
-                                    doApplyTool(rootNode, settings);
-                                    setModified();
-                                }
-
-                                @Override
-                                public void awtRedo() {
-                                    dataObject.setModified(true);
-                                    rootNode.refresh(true);
-                                }
-
-                                @Override
-                                public void awtUndo() {
-                                    dataObject.setModified(true);
-                                    rootNode.refresh(true);
-                                }
-                            });
-                            setModified();
+                applyTool(rootNode, dataObject, showWizard(rootNode));
+            }
+        };
+    }
+
+    /**
+     * Applies the tool with the settings on the render thread and adds an
+     * undo edit for it.
+     */
+    protected void applyTool(final AbstractSceneExplorerNode rootNode, final DataObject dataObject, final Object settings) {
+        SceneApplication.getApplication().enqueue(new Callable<Void>() {
+
+            public Void call() throws Exception {
+                final Object object = doApplyTool(rootNode, settings);
+                if (object != null) {
+                    Lookup.getDefault().lookup(SceneUndoRedoManager.class).addEdit(this, new AbstractUndoableSceneEdit() {
+
+                        @Override
+                        public void sceneUndo() throws CannotUndoException {
+                            doUndoTool(rootNode, object);
+                            setModified(rootNode, dataObject);
+                        }
+
+                        @Override
+                        public void sceneRedo() throws CannotRedoException {
+                            doApplyTool(rootNode, settings);
+                            setModified(rootNode, dataObject);
                         }
-                        return null;
-                    }
-                });
+
+                        @Override
+                        public void awtRedo() {
+                            dataObject.setModified(true);
+                            rootNode.refresh(true);
+                        }
+
+                        @Override
+                        public void awtUndo() {
+                            dataObject.setModified(true);
+                            rootNode.refresh(true);
+                        }
+                    });
+                    setModified(rootNode, dataObject);
+                }
+                return null;
             }
+        });
+    }
 
-            protected void setModified() {
-                java.awt.EventQueue.invokeLater(new Runnable() {
+    private static void setModified(final AbstractSceneExplorerNode rootNode, final DataObject dataObject) {
+        java.awt.EventQueue.invokeLater(new Runnable() {
 
-                    public void run() {
-                        dataObject.setModified(true);
-                        rootNode.refresh(true);
-                    }
-                });
+            public void run() {
+                dataObject.setModified(true);
+                rootNode.refresh(true);
             }
-        };
+        });
     }
 
     protected abstract Object showWizard(org.openide.nodes.Node node);
@@ -31,22 +31,36 @@
  */
 package com.jme3.gde.core.sceneexplorer.nodes.actions.impl;
 
+import com.jme3.gde.core.assets.pipeline.LodBaker;
+import com.jme3.gde.core.scene.SceneApplication;
 import com.jme3.gde.core.sceneexplorer.nodes.AbstractSceneExplorerNode;
-import com.jme3.gde.core.sceneexplorer.nodes.JmeGeometry;
+import com.jme3.gde.core.sceneexplorer.nodes.JmeSpatial;
 import com.jme3.gde.core.sceneexplorer.nodes.actions.AbstractToolWizardAction;
 import com.jme3.gde.core.sceneexplorer.nodes.actions.ToolAction;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Mesh;
+import com.jme3.scene.Spatial;
 import com.jme3.scene.VertexBuffer;
 import java.awt.Component;
+import java.awt.event.ActionEvent;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.AbstractAction;
+import javax.swing.Action;
 import javax.swing.JComponent;
 import jme3tools.optimize.LodGenerator;
+import org.netbeans.api.progress.ProgressHandle;
 import org.openide.DialogDisplayer;
 import org.openide.WizardDescriptor;
+import org.openide.awt.StatusDisplayer;
+import org.openide.loaders.DataObject;
 import org.openide.nodes.Node;
+import org.openide.util.RequestProcessor;
 
 /**
  *
@@ -55,35 +69,112 @@ import org.openide.nodes.Node;
 @org.openide.util.lookup.ServiceProvider(service = ToolAction.class)
 public class GenerateLODTool extends AbstractToolWizardAction {
 
+    private static final Logger logger = Logger.getLogger(GenerateLODTool.class.getName());
+    private static final RequestProcessor BAKER = new RequestProcessor("Levels of detail", 1);
+
     public GenerateLODTool() {
         name = "Generate Levels of Detail";
     }
 
     @Override
-    protected void doUndoTool(AbstractSceneExplorerNode rootNode, Object undoObject) {
+    protected Action makeAction(final AbstractSceneExplorerNode rootNode, final DataObject dataObject) {
+        return new AbstractAction(name) {
 
-        Geometry geom = rootNode.getLookup().lookup(Geometry.class);
-        Mesh mesh = geom.getMesh();
-        if (mesh != null) {
-            VertexBuffer[] vbs = (VertexBuffer[]) undoObject;
-            if (vbs.length>0){
-                mesh.setLodLevels((VertexBuffer[]) undoObject);
-            }else{
-                mesh.setLodLevels(null);
+            public void actionPerformed(ActionEvent e) {
+                final WizardDescriptor wiz = (WizardDescriptor) showWizard(rootNode);
+                if (wiz == null) {
+                    return;
+                }
+                SceneApplication.getApplication().enqueue(() -> {
+                    bake(rootNode, dataObject, wiz);
+                    return null;
+                });
+            }
+        };
+    }
+
+    /**
+     * Copies the meshes on the render thread and computes their levels of
+     * detail in the background, the levels are then set with
+     * {@link #applyTool} so only that and the undo edit run on the render
+     * thread.
+     */
+    private void bake(final AbstractSceneExplorerNode rootNode, final DataObject dataObject, WizardDescriptor wiz) {
+        final Spatial spatial = rootNode.getLookup().lookup(Spatial.class);
+        List<Geometry> geometries = LodBaker.findGeometries(spatial);
+        if (geometries.isEmpty()) {
+            return;
+        }
+        final List<Mesh> meshes = new ArrayList<>(geometries.size());
+        for (Geometry geom : geometries) {
+            meshes.add(geom.getMesh());
+        }
+        float[] values = (float[]) wiz.getProperties().get("reductionValues");
+        if (values == null) {
+            Map<Mesh, VertexBuffer[]> noLods = new IdentityHashMap<>();
+            for (Mesh mesh : meshes) {
+                noLods.put(mesh, new VertexBuffer[0]);
             }
+            applyTool(rootNode, dataObject, noLods);
+            return;
+        }
+        //the bake reads copies, so the scene can be rendered and edited meanwhile
+        final List<Geometry> copies = new ArrayList<>(geometries.size());
+        for (Geometry geom : geometries) {
+            copies.add(new Geometry(geom.getName(), geom.getMesh().deepClone()));
         }
+        final String spatialName = spatial.getName();
+        LodGenerator.TriangleReductionMethod method = (LodGenerator.TriangleReductionMethod) wiz.getProperties().get("reductionMethod");
+        final LodBaker baker = new LodBaker(method, values);
+        BAKER.post(() -> {
+            ProgressHandle progressHandle = ProgressHandle.createHandle("Generating Levels of Detail", () -> {
+                baker.cancel();
+                return true;
+            });
+            progressHandle.start(copies.size());
+            baker.setProgressListener((geom, done, total) -> progressHandle.progress(geom.getName(), done));
+            LodBaker.Result result;
+            try {
+                result = baker.compute(copies);
+            } finally {
+                progressHandle.finish();
+            }
+            logger.log(Level.INFO, "{0}: {1}", new Object[]{spatialName, result});
+            StatusDisplayer.getDefault().setStatusText(result.toString());
+            if (result.isCancelled()) {
+                return;
+            }
+            Map<Mesh, VertexBuffer[]> lods = new IdentityHashMap<>();
+            for (int i = 0; i < meshes.size(); i++) {
+                lods.put(meshes.get(i), result.getLevels().get(i));
+            }
+            applyTool(rootNode, dataObject, lods);
+        });
+    }
 
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void doUndoTool(AbstractSceneExplorerNode rootNode, Object undoObject) {
+        Map<Mesh, VertexBuffer[]> lods = (Map<Mesh, VertexBuffer[]>) undoObject;
+        for (Map.Entry<Mesh, VertexBuffer[]> entry : lods.entrySet()) {
+            VertexBuffer[] vbs = entry.getValue();
+            if (vbs.length > 0) {
+                entry.getKey().setLodLevels(vbs);
+            } else {
+                entry.getKey().setLodLevels(null);
+            }
+        }
     }
 
     public Class<?> getNodeClass() {
-        return JmeGeometry.class;
+        return JmeSpatial.class;
     }
 
     @Override
     protected Object showWizard(Node node) {
         AbstractSceneExplorerNode rootNode = (AbstractSceneExplorerNode) node;
-        Geometry geom = rootNode.getLookup().lookup(Geometry.class);
-        int triSize = geom.getMesh().getTriangleCount();
+        Spatial spatial = rootNode.getLookup().lookup(Spatial.class);
+        int triSize = LodBaker.countTriangles(spatial);
 
         List<WizardDescriptor.Panel<WizardDescriptor>> panels = new ArrayList<WizardDescriptor.Panel<WizardDescriptor>>();
         panels.add(new GenerateLODWizardPanel1());
@@ -109,41 +200,26 @@ public class GenerateLODTool extends AbstractToolWizardAction {
         return null;
     }
 
+    /**
+     * Sets the baked levels of detail.
+     *
+     * @param settings the levels of each mesh
+     * @return the previous levels of each mesh
+     */
     @Override
+    @SuppressWarnings("unchecked")
     protected Object doApplyTool(AbstractSceneExplorerNode rootNode, Object settings) {
-        WizardDescriptor wiz = (WizardDescriptor) settings;
-
-        Geometry geom = rootNode.getLookup().lookup(Geometry.class);
-        Mesh mesh = geom.getMesh();
-        if (mesh != null) {
-            //save old lods
-            VertexBuffer[] lods = null;
-            if (geom.getMesh().getNumLodLevels() > 0) {
-                lods = new VertexBuffer[geom.getMesh().getNumLodLevels()];
-                for (int i = 0; i < lods.length; i++) {
-                    lods[i] = geom.getMesh().getLodLevel(i);
-                }
+        Map<Mesh, VertexBuffer[]> newLods = (Map<Mesh, VertexBuffer[]>) settings;
+        //save old lods
+        Map<Mesh, VertexBuffer[]> oldLods = new IdentityHashMap<>();
+        for (Mesh mesh : newLods.keySet()) {
+            VertexBuffer[] lods = new VertexBuffer[mesh.getNumLodLevels()];
+            for (int i = 0; i < lods.length; i++) {
+                lods[i] = mesh.getLodLevel(i);
             }
-
-            
-            if (wiz != null) {
-                float[] values = (float[]) wiz.getProperties().get("reductionValues");
-                if (values != null) {
-                    //generate lods
-                    LodGenerator generator = new LodGenerator(geom);
-                    LodGenerator.TriangleReductionMethod method = (LodGenerator.TriangleReductionMethod) wiz.getProperties().get("reductionMethod");
-                    generator.bakeLods(method, values);
-                }else{
-                    mesh.setLodLevels(null);                    
-                }
-            }
-
-            if(lods == null){
-                return new VertexBuffer[0];
-            }
-            return lods;
+            oldLods.put(mesh, lods);
         }
-        return null;
-
-    }        
+        doUndoTool(rootNode, newLods);
+        return oldLods;
+    }
 }
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.assets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openide.filesystems.FileLock;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ * Checks that CachedProperties writes changes only on save and picks up
+ * changes made to the file by others.
+ */
+public class CachedPropertiesTest {
+
+    private FileObject folder;
+    private CachedProperties props;
+
+    public CachedPropertiesTest() {
+    }
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        folder = FileUtil.createMemoryFileSystem().getRoot().createFolder("data");
+        props = new CachedProperties() {
+            @Override
+            protected FileObject findFolder() {
+                return folder;
+            }
+
+            @Override
+            protected String getFileName() {
+                return "Test.j3odata";
+            }
+        };
+    }
+
+    @Test
+    public void testSaveWritesChanges() {
+        assertNull(props.getProperty("position"));
+        assertEquals("0,0", props.getProperty("position", "0,0"));
+
+        assertNull(props.setProperty("position", "10,20"));
+        assertEquals("10,20", props.getProperty("position"));
+        assertTrue(props.isModified());
+        assertNull(folder.getFileObject("Test.j3odata"));
+
+        props.save();
+        assertFalse(props.isModified());
+        assertTrue(folder.getFileObject("Test.j3odata") != null);
+
+        props.invalidate();
+        assertEquals("10,20", props.getProperty("position"));
+    }
+
+    @Test
+    public void testExternalChangeIsRead() throws IOException, InterruptedException {
+        props.setProperty("position", "10,20");
+        props.save();
+        assertEquals("10,20", props.getProperty("position"));
+
+        // make sure the file gets a new modification time
+        Thread.sleep(20);
+        FileObject file = folder.getFileObject("Test.j3odata");
+        FileLock lock = file.lock();
+        try (OutputStream out = file.getOutputStream(lock)) {
+            out.write("position=30,40\n".getBytes(StandardCharsets.ISO_8859_1));
+        } finally {
+            lock.releaseLock();
+        }
+
+        assertEquals("30,40", props.getProperty("position"));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.core.assets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ * Checks the jar entry lookup of ClassPathEntries against the linear scan
+ * ProjectAssetManager used before, on a large synthetic jar. The timing
+ * comparison only runs with -Djme3.benchmarks=true.
+ */
+public class ClassPathEntriesTest {
+
+    private static final int ENTRIES = 20000;
+    private static final int LOOKUPS = 50;
+    private static final int BENCHMARK_LOOKUPS = 500;
+    private static File jar;
+    private static FileObject jarFile;
+
+    public ClassPathEntriesTest() {
+    }
+
+    @BeforeAll
+    public static void setUpClass() throws IOException {
+        jar = File.createTempFile("classpath-entries", ".jar");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (int i = 0; i < ENTRIES; i++) {
+                out.putNextEntry(new ZipEntry(entryName(i)));
+                out.write(("asset " + i).getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+        }
+        jarFile = FileUtil.toFileObject(FileUtil.normalizeFile(jar));
+    }
+
+    @AfterAll
+    public static void tearDownClass() {
+        jar.delete();
+    }
+
+    private static String entryName(int i) {
+        return "Textures/Set" + (i % 100) + "/Texture" + i + ".png";
+    }
+
+    @Test
+    public void testLookup() {
+        ClassPathEntries entries = new ClassPathEntries(jarFile);
+        FileObject entry = entries.get(entryName(42));
+        assertNotNull(entry);
+        assertEquals(entryName(42), entry.getPath());
+        assertNull(entries.get(entryName(42).toLowerCase()));
+        assertEquals(entry, entries.getIgnoreCase(entryName(42).toLowerCase()));
+        assertNull(entries.get("Textures/Missing.png"));
+    }
+
+    @Test
+    public void testLookupMatchesLinearScan() {
+        FileObject root = FileUtil.getArchiveRoot(jarFile);
+        ClassPathEntries entries = new ClassPathEntries(jarFile);
+        for (int i = 0; i < LOOKUPS; i++) {
+            String name = entryName((i * 37) % ENTRIES);
+            FileObject expected = linearLookup(root, name);
+            assertNotNull(expected);
+            assertEquals(expected, entries.get(name));
+            assertEquals(expected, entries.getIgnoreCase(name.toUpperCase()));
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "jme3.benchmarks", matches = "true")
+    public void benchmarkLookup() {
+        FileObject root = FileUtil.getArchiveRoot(jarFile);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < BENCHMARK_LOOKUPS; i++) {
+            String name = entryName((i * 37) % ENTRIES);
+            assertNotNull(linearLookup(root, name));
+        }
+        long linear = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        ClassPathEntries entries = new ClassPathEntries(jarFile);
+        for (int i = 0; i < BENCHMARK_LOOKUPS; i++) {
+            String name = entryName((i * 37) % ENTRIES);
+            assertNotNull(entries.get(name));
+        }
+        long hashed = System.nanoTime() - start;
+
+        System.out.println(String.format("%d lookups in %d jar entries: linear %.1f ms, hashed %.1f ms (incl. building the table)",
+                BENCHMARK_LOOKUPS, ENTRIES, linear / 1e6, hashed / 1e6));
+    }
+
+    private static FileObject linearLookup(FileObject root, String name) {
+        Enumeration<? extends FileObject> jarEntry = root.getChildren(true);
+        while (jarEntry.hasMoreElements()) {
+            FileObject jarEntryAsset = jarEntry.nextElement();
+            if (jarEntryAsset.getPath().equals(name)) {
+                return jarEntryAsset;
+            }
+        }
+        return null;
+    }
+}
@@ -31,20 +31,15 @@
  */
 package com.jme3.gde.materialdefinition;
 
+import com.jme3.gde.core.assets.CachedProperties;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.io.BufferedOutputStream;
-import java.io.BufferedInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.netbeans.api.project.Project;
 import org.openide.filesystems.FileLock;
@@ -53,7 +48,6 @@ import org.openide.filesystems.FileUtil;
 import org.openide.loaders.DataFolder;
 import org.openide.util.Exceptions;
 import org.openide.util.Mutex;
-import org.openide.util.Mutex.Action;
 
 /**
  * Global object to access actual jME3 data within an AssetDataObject, available
@@ -67,7 +61,17 @@ public class MatDefMetaData {
     private static final Logger logger = Logger.getLogger(MatDefMetaData.class.getName());
     private final List<PropertyChangeListener> listeners = new ArrayList<PropertyChangeListener>();
     private final Mutex propsMutex = new Mutex();
-    private final Properties props = new Properties();
+    private final CachedProperties props = new CachedProperties() {
+        @Override
+        protected FileObject findFolder() throws IOException {
+            return getFolder();
+        }
+
+        @Override
+        protected String getFileName() {
+            return getFileFullName(file.getPrimaryFile());
+        }
+    };
     private static final Properties defaultProps = new Properties();
 
     static {
@@ -80,7 +84,6 @@ public class MatDefMetaData {
     }
     private MatDefDataObject file;
     private String extension = "jmpdata";
-    private Date lastLoaded;
     private FileObject folder;
     private FileObject root;
 
@@ -105,89 +108,28 @@ public class MatDefMetaData {
         this.extension = extension;
     }
 
-    public synchronized String getProperty(final String key) {
-        readProperties();
-        return propsMutex.readAccess(new Action<String>() {
-            public String run() {
-                String prop = props.getProperty(key);
-                if (prop == null) {
-                    return defaultProps.getProperty(key);
-                }
-                return prop;
-            }
-        });
+    public String getProperty(final String key) {
+        String prop = props.getProperty(key);
+        if (prop == null) {
+            return defaultProps.getProperty(key);
+        }
+        return prop;
     }
 
-    public synchronized String getProperty(final String key, final String defaultValue) {
-        readProperties();
-        return propsMutex.readAccess(new Action<String>() {
-            public String run() {
-                String prop = props.getProperty(key);
-                if (prop == null) {
-                    return defaultProps.getProperty(key);
-                }
-                return prop;
-            }
-        });
+    public String getProperty(final String key, final String defaultValue) {
+        String prop = props.getProperty(key);
+        if (prop == null) {
+            return defaultProps.getProperty(key);
+        }
+        return prop;
     }
 
-    public synchronized String setProperty(final String key, final String value) {
-        readProperties();
-        String ret = propsMutex.writeAccess(new Action<String>() {
-            public String run() {
-                String ret = (String) props.setProperty(key, value);
-                return ret;
-            }
-        });
-        // writeProperties();
+    public String setProperty(final String key, final String value) {
+        String ret = props.setProperty(key, value);
         notifyListeners(key, ret, value);
         return ret;
     }
 
-    private void readProperties() {
-        propsMutex.writeAccess(new Runnable() {
-            public void run() {
-                try {
-                    FileObject pFile = file.getPrimaryFile();
-                    FileObject storageFolder = getFolder();
-                    if (storageFolder == null) {
-                        return;
-                    }
-                    final FileObject myFile = storageFolder.getFileObject(getFileFullName(pFile)); //fs.findResource(fs.getRoot().getPath()+"/"+ file.getPrimaryFile().getName() + "." + extension);//
-
-                    if (myFile == null) {
-                        return;
-                    }
-                    final Date lastMod = myFile.lastModified();
-                    if (!lastMod.equals(lastLoaded)) {
-                        props.clear();
-                        lastLoaded = lastMod;
-                        InputStream in = null;
-                        try {
-                            in = new BufferedInputStream(myFile.getInputStream());
-                            try {
-                                props.load(in);
-                            } catch (IOException ex) {
-                                Exceptions.printStackTrace(ex);
-                            }
-                        } catch (FileNotFoundException ex) {
-                            Exceptions.printStackTrace(ex);
-                        } finally {
-                            try {
-                                in.close();
-                            } catch (IOException ex) {
-                                Exceptions.printStackTrace(ex);
-                            }
-                        }
-                        logger.log(Level.FINE, "Read AssetData properties for {0}", file);
-                    }
-                } catch (IOException ex) {
-                    Exceptions.printStackTrace(ex);
-                }
-            }
-        });
-    }
-
     public void cleanup() {
         propsMutex.writeAccess(new Runnable() {
             public void run() {
@@ -226,6 +168,7 @@ public class MatDefMetaData {
     }
 
     public void rename(final DataFolder df, final String name) {
+        props.save();
         propsMutex.writeAccess(new Runnable() {
             public void run() {
                 OutputStream out = null;
@@ -263,7 +206,7 @@ public class MatDefMetaData {
                 }
             }
         });
-
+        props.invalidate();
     }
 
     public void duplicate(final DataFolder df, final String name) {
@@ -309,51 +252,7 @@ public class MatDefMetaData {
     }
 
     public void save() {
-        if (!props.isEmpty()) {
-            writeProperties();
-        }
-    }
-
-    private void writeProperties() {
-        //writeAccess because we write lastMod date, not because we write to the file
-        //the mutex protects the properties object, not the file
-        propsMutex.writeAccess(new Runnable() {
-            public void run() {
-                OutputStream out = null;
-                FileLock lock = null;
-                try {
-                    FileObject pFile = file.getPrimaryFile();
-                    FileObject storageFolder = getFolder();
-                    if (storageFolder == null) {
-                        return;
-                    }
-
-                    FileObject myFile = storageFolder.getFileObject(getFileFullName(pFile));//FileUtil.findBrother(pFile, extension);//fs.findResource(fs.getRoot().getPath()+"/"+ pFile.getName() + "." + extension);//
-                    if (myFile == null) {
-                        myFile = FileUtil.createData(storageFolder, getFileFullName(pFile));
-                    }
-                    lock = myFile.lock();
-                    out = new BufferedOutputStream(myFile.getOutputStream(lock));
-                    props.store(out, "");
-                    out.flush();
-                    lastLoaded = myFile.lastModified();
-                    logger.log(Level.FINE, "Written AssetData properties for {0}", file);
-                } catch (IOException e) {
-                    Exceptions.printStackTrace(e);
-                } finally {
-                    if (out != null) {
-                        try {
-                            out.close();
-                        } catch (IOException ex) {
-                            Exceptions.printStackTrace(ex);
-                        }
-                    }
-                    if (lock != null) {
-                        lock.releaseLock();
-                    }
-                }
-            }
-        });
+        props.save();
     }
 
     private String getFileFullName(FileObject pFile) {
@@ -31,6 +31,7 @@
  */
 package com.jme3.gde.materials;
 
+import com.jme3.asset.AssetKey;
 import com.jme3.asset.AssetNotFoundException;
 import com.jme3.asset.MaterialKey;
 import com.jme3.gde.core.assets.ProjectAssetManager;
@@ -41,6 +42,8 @@ import com.jme3.gde.core.scene.SceneRequest;
 import com.jme3.gde.core.editor.icons.Icons;
 import com.jme3.material.MatParam;
 import com.jme3.material.Material;
+import com.jme3.material.MaterialDef;
+import com.jme3.material.TechniqueDef;
 import com.jme3.math.FastMath;
 import com.jme3.math.Quaternion;
 import com.jme3.math.Vector3f;
@@ -49,9 +52,11 @@ import com.jme3.scene.Geometry;
 import com.jme3.scene.shape.Box;
 import com.jme3.scene.shape.Quad;
 import com.jme3.scene.shape.Sphere;
+import com.jme3.texture.Texture;
 import com.jme3.util.mikktspace.MikktspaceTangentGenerator;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.ImageIcon;
@@ -73,8 +78,7 @@ public class MaterialPreviewRenderer implements SceneListener {
     private Material currentMaterial;
     private boolean init = false;
     private final JLabel label;
-    private final ScheduledThreadPoolExecutor exec = new ScheduledThreadPoolExecutor(5);
-    private boolean previewRequested;
+    private final MaterialPreviewScheduler scheduler = MaterialPreviewScheduler.getDefault();
 
     public enum DisplayType {
 
@@ -125,12 +129,15 @@ public class MaterialPreviewRenderer implements SceneListener {
         if (!init) {
             init();
         }
-        exec.execute(() -> {
+        scheduler.schedule(label, () -> {
             MaterialKey key = new MaterialKey(assetManager.getRelativeAssetPath(materialFileName));
+            assetManager.deleteModifiedFromCache(key);
             assetManager.deleteFromCache(key);
             Material mat = assetManager.loadAsset(key);
             if (mat != null) {
-                showMaterial(mat);
+                renderMaterial(mat, null);
+            } else {
+                scheduler.finished(label);
             }
         });
 
@@ -144,6 +151,10 @@ public class MaterialPreviewRenderer implements SceneListener {
         if (!init) {
             init();
         }
+        scheduler.schedule(label, () -> renderMaterial(m, techniqueName));
+    }
+
+    private void renderMaterial(final Material m, final String techniqueName) {
         SceneApplication.getApplication().enqueue(() -> {
             if (techniqueName != null) {
                 try {
@@ -158,13 +169,9 @@ public class MaterialPreviewRenderer implements SceneListener {
                     currentMaterial = mat;
                     currentGeom.setMaterial(mat);
                     try {
-                        if (currentGeom.getMaterial() != null) {
-                            PreviewRequest request = new PreviewRequest(MaterialPreviewRenderer.this, currentGeom, label.getWidth(), label.getHeight());
-                            request.getCameraRequest().setLocation(new Vector3f(0, 0, 7));
-                            request.getCameraRequest().setLookAt(new Vector3f(0, 0, 0), Vector3f.UNIT_Y);
-                            SceneApplication.getApplication().createPreview(request);
-                        }
+                        createPreview();
                     } catch (Exception e) {
+                        scheduler.finished(label);
                         java.awt.EventQueue.invokeLater(() -> {
                             label.setIcon(Icons.error);
                         });
@@ -172,6 +179,8 @@ public class MaterialPreviewRenderer implements SceneListener {
                     }
                 });
 
+            } else {
+                scheduler.finished(label);
             }
             return mat;
         });
@@ -190,7 +199,7 @@ public class MaterialPreviewRenderer implements SceneListener {
     public Material reloadMaterial(Material mat) {
         Material dummy;
         try {
-            ((ProjectAssetManager) mat.getMaterialDef().getAssetManager()).clearCache();
+            deleteModifiedFromCache(mat);
 
             //creating a dummy mat with the mat def of the mat to reload
             dummy = new Material(mat.getMaterialDef());
@@ -233,6 +242,35 @@ public class MaterialPreviewRenderer implements SceneListener {
         return dummy;
     }
 
+    /**
+     * Evicts the changed parts of the material from the asset cache, the
+     * shader sources are registered as dependencies of the material definition
+     * because they are only loaded when it is compiled.
+     */
+    private void deleteModifiedFromCache(Material mat) {
+        MaterialDef matDef = mat.getMaterialDef();
+        if (matDef.getAssetName() == null) {
+            return;
+        }
+        ProjectAssetManager assetManager = (ProjectAssetManager) matDef.getAssetManager();
+        AssetKey<?> defKey = new AssetKey<>(matDef.getAssetName());
+        for (String techniqueName : matDef.getTechniqueDefsNames()) {
+            for (TechniqueDef techniqueDef : matDef.getTechniqueDefs(techniqueName)) {
+                for (String shaderName : techniqueDef.getShaderProgramNames().values()) {
+                    assetManager.addAssetDependency(defKey, new AssetKey<>(shaderName));
+                }
+            }
+        }
+        List<AssetKey<?>> keys = new ArrayList<>();
+        keys.add(defKey);
+        for (MatParam matParam : mat.getParams()) {
+            if (matParam.getValue() instanceof Texture texture && texture.getKey() != null) {
+                keys.add(texture.getKey());
+            }
+        }
+        assetManager.deleteModifiedFromCache(keys.toArray(AssetKey<?>[]::new));
+    }
+
     public void switchDisplay(DisplayType type) {
         switch (type) {
             case Box -> currentGeom = box;
@@ -258,17 +296,17 @@ public class MaterialPreviewRenderer implements SceneListener {
             java.awt.EventQueue.invokeLater(() -> {
                 label.setIcon(icon);
             });
-            previewRequested = false;
+            scheduler.finished(label);
         }
     }
 
     public void cleanUp() {
         SceneApplication.getApplication().removeSceneListener(this);
-        exec.shutdownNow();
+        scheduler.cancel(label);
     }
 
     public boolean isPreviewRequested() {
-        return previewRequested;
+        return scheduler.isScheduled(label);
     }
 
     /**
@@ -276,19 +314,30 @@ public class MaterialPreviewRenderer implements SceneListener {
      * material
      */
     public void refreshOnly() {
-        if(previewRequested) {
+        if (isPreviewRequested()) {
             return;
         }
-        SceneApplication.getApplication().enqueue((Callable<Object>) () -> {
-            if (currentGeom.getMaterial() != null) {
-                PreviewRequest request = new PreviewRequest(MaterialPreviewRenderer.this, currentGeom, label.getWidth(), label.getHeight());
-                request.getCameraRequest().setLocation(new Vector3f(0, 0, 7));
-                request.getCameraRequest().setLookAt(new Vector3f(0, 0, 0), Vector3f.UNIT_Y);
-                SceneApplication.getApplication().createPreview(request);
-            }
-            return null;
+        scheduler.schedule(label, () -> {
+            SceneApplication.getApplication().enqueue((Callable<Object>) () -> {
+                createPreview();
+                return null;
+            });
         });
-        previewRequested = true;
+    }
+
+    /**
+     * Renders the current geometry, the scheduler is notified when the
+     * preview arrives.
+     */
+    private void createPreview() {
+        if (currentGeom.getMaterial() == null) {
+            scheduler.finished(label);
+            return;
+        }
+        PreviewRequest request = new PreviewRequest(MaterialPreviewRenderer.this, currentGeom, label.getWidth(), label.getHeight());
+        request.getCameraRequest().setLocation(new Vector3f(0, 0, 7));
+        request.getCameraRequest().setLookAt(new Vector3f(0, 0, 0), Vector3f.UNIT_Y);
+        SceneApplication.getApplication().createPreview(request);
     }
 
 }
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.materials;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Schedules the preview renders of all material and shader node editors.
+ * Requests are coalesced per target (the label showing the preview): while a
+ * preview of a target is being built only the latest request is kept and
+ * older ones are dropped, and a target is not rendered more often than every
+ * {@link #DEFAULT_INTERVAL} milliseconds. Editing a value continuously thus
+ * results in a steady preview rate instead of a growing backlog of renders.
+ * <p>
+ * A scheduled job runs on a shared background thread and has to call
+ * {@link #finished(java.lang.Object)} once the preview was delivered or
+ * failed, e.g. from the render thread.
+ */
+public final class MaterialPreviewScheduler {
+
+    private static final Logger logger = Logger.getLogger(MaterialPreviewScheduler.class.getName());
+    /**
+     * The minimum time between two previews of one target, about 30 per
+     * second.
+     */
+    public static final int DEFAULT_INTERVAL = 33;
+    /**
+     * After this time a preview that did not report back is considered lost
+     * and the next request of the target is started anyway.
+     */
+    private static final long STALE_TIMEOUT = 5000;
+    private static final MaterialPreviewScheduler DEFAULT = new MaterialPreviewScheduler(DEFAULT_INTERVAL);
+
+    private final RequestProcessor processor = new RequestProcessor("Material preview", 1);
+    private final Map<Object, Target> targets = new HashMap<>();
+    private final long interval;
+    private long completed;
+    private long dropped;
+    private double averageLatency;
+    private long maxLatency;
+
+    MaterialPreviewScheduler(long interval) {
+        this.interval = interval;
+    }
+
+    public static MaterialPreviewScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Requests a preview of the target, replacing a request of the same
+     * target that did not start yet.
+     *
+     * @param target the object the preview is shown in
+     * @param job builds the preview, runs on the scheduler thread
+     */
+    public void schedule(Object target, Runnable job) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Target state = targets.computeIfAbsent(target, k -> new Target());
+            if (state.job != null) {
+                dropped++;
+            } else {
+                state.requested = now;
+            }
+            state.job = job;
+            if (state.running && now - state.started > STALE_TIMEOUT) {
+                logger.log(Level.FINE, "Preview of {0} did not finish, starting the next one", target);
+                state.running = false;
+            }
+            if (!state.running && !state.posted) {
+                post(target, state, now);
+            }
+        }
+    }
+
+    /**
+     * Reports that the preview of the target was delivered or could not be
+     * built, the next pending request of the target may start.
+     *
+     * @param target the object the preview is shown in
+     */
+    public synchronized void finished(Object target) {
+        Target state = targets.get(target);
+        if (state == null || !state.running) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long latency = now - state.latencyStart;
+        completed++;
+        averageLatency = completed == 1 ? latency : averageLatency * 0.9 + latency * 0.1;
+        maxLatency = Math.max(maxLatency, latency);
+        state.running = false;
+        if (state.job != null) {
+            post(target, state, now);
+        } else {
+            targets.remove(target);
+        }
+    }
+
+    /**
+     * Drops the pending request of the target, e.g. when its editor closes.
+     *
+     * @param target the object the preview is shown in
+     */
+    public synchronized void cancel(Object target) {
+        Target state = targets.remove(target);
+        if (state != null && state.job != null) {
+            dropped++;
+        }
+    }
+
+    /**
+     * @param target the object the preview is shown in
+     * @return true if a preview of the target is pending or being built
+     */
+    public synchronized boolean isScheduled(Object target) {
+        return targets.containsKey(target);
+    }
+
+    /**
+     * @return the number of targets waiting for their preview to start
+     */
+    public synchronized int getQueueDepth() {
+        int depth = 0;
+        for (Target state : targets.values()) {
+            if (state.job != null) {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * @return the number of previews built since startup
+     */
+    public synchronized long getCompletedCount() {
+        return completed;
+    }
+
+    /**
+     * @return the number of requests replaced by a newer one before they
+     * started
+     */
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    /**
+     * @return the moving average of the time from a request to its preview,
+     * in milliseconds
+     */
+    public synchronized double getAverageLatency() {
+        return averageLatency;
+    }
+
+    /**
+     * @return the longest time from a request to its preview, in
+     * milliseconds
+     */
+    public synchronized long getMaxLatency() {
+        return maxLatency;
+    }
+
+    private void post(Object target, Target state, long now) {
+        state.posted = true;
+        int delay = (int) Math.max(0, state.started + interval - now);
+        processor.post(() -> run(target), delay);
+    }
+
+    private void run(Object target) {
+        Runnable job;
+        synchronized (this) {
+            Target state = targets.get(target);
+            if (state == null) {
+                return;
+            }
+            state.posted = false;
+            job = state.job;
+            if (job == null || state.running) {
+                return;
+            }
+            state.job = null;
+            state.running = true;
+            state.started = System.currentTimeMillis();
+            state.latencyStart = state.requested;
+        }
+        try {
+            job.run();
+        } catch (RuntimeException ex) {
+            logger.log(Level.WARNING, "Error building material preview", ex);
+            finished(target);
+        }
+    }
+
+    private static class Target {
+
+        private Runnable job;
+        private boolean running;
+        private boolean posted;
+        private long requested;
+        private long started;
+        private long latencyStart;
+    }
+}
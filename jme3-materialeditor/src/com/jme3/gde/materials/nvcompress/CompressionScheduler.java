@@ -0,0 +1,272 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.materials.nvcompress;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.openide.util.NbPreferences;
+
+/**
+ * Runs the jobs of the NVCompress tool on a pool of worker threads, so the
+ * in-process J3 compression and the nvcompress processes of several files
+ * run at the same time. Jobs whose output is newer than their input and was
+ * written with the same settings are skipped. The settings of an output are
+ * kept in a hidden file next to it.
+ * <p>
+ * Interrupting the thread that called {@link #run()} interrupts all workers,
+ * which stops the running jobs and destroys their processes.
+ */
+class CompressionScheduler {
+
+    private static final Logger logger = Logger.getLogger(CompressionScheduler.class.getName());
+    static final String PREF_THREADS = "CompressionThreads";
+
+    /**
+     * A compression of a single file.
+     */
+    interface Job {
+
+        /**
+         * @param progress receives the progress of the file in percent
+         */
+        void run(Progress progress) throws IOException, InterruptedException;
+    }
+
+    interface Progress {
+
+        void update(int percent);
+    }
+
+    /**
+     * Notified from the worker threads about the overall progress.
+     */
+    interface Listener {
+
+        void progress(String status, int percent);
+    }
+
+    private final int threads;
+    private final Listener listener;
+    private final List<Entry> entries = new ArrayList<>();
+    private int done;
+    private int skipped;
+    private int failed;
+
+    /**
+     * @param threads the number of worker threads
+     * @param listener the progress listener
+     */
+    CompressionScheduler(int threads, Listener listener) {
+        this.threads = Math.max(1, threads);
+        this.listener = listener;
+    }
+
+    /**
+     * @return the number of worker threads set in the preferences, by
+     * default one per processor
+     */
+    static int getPreferredThreads() {
+        return NbPreferences.forModule(NVCompress.class).getInt(PREF_THREADS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Adds a job to run.
+     *
+     * @param input the file to compress
+     * @param output the file the job writes, or null if unknown, then the
+     * job always runs
+     * @param settings the settings the output is written with, like the
+     * format and the tool arguments, or null if unknown, then the job
+     * always runs
+     * @param status the status shown while the job runs
+     * @param job the job
+     */
+    void add(File input, File output, String settings, String status, Job job) {
+        entries.add(new Entry(input, output, settings, status, job));
+    }
+
+    /**
+     * Runs all jobs and waits for them to finish.
+     *
+     * @throws InterruptedException when the calling thread is interrupted,
+     * the running jobs are interrupted as well
+     */
+    void run() throws InterruptedException {
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread thread = new Thread(r, "NVCompressor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, entries.size())), factory);
+        List<Future<?>> futures = new ArrayList<>(entries.size());
+        long start = System.currentTimeMillis();
+        try {
+            for (Entry entry : entries) {
+                if (entry.isUpToDate()) {
+                    logger.log(Level.FINE, "Skipping {0}, output is up to date", entry.input);
+                    synchronized (this) {
+                        skipped++;
+                    }
+                    finished(entry);
+                    continue;
+                }
+                futures.add(pool.submit(() -> {
+                    try {
+                        entry.clearStamp();
+                        entry.job.run(percent -> update(entry, percent));
+                        entry.writeStamp();
+                    } catch (IOException ex) {
+                        logger.log(Level.WARNING, "Could not convert " + entry.input, ex);
+                        synchronized (this) {
+                            failed++;
+                        }
+                    }
+                    finished(entry);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    logger.log(Level.WARNING, "Conversion failed", ex.getCause());
+                    synchronized (this) {
+                        failed++;
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        logger.log(Level.INFO, "Converted {0} files in {1} ms, {2} skipped, {3} failed",
+                new Object[]{entries.size() - skipped - failed, System.currentTimeMillis() - start, skipped, failed});
+    }
+
+    synchronized int getSkipped() {
+        return skipped;
+    }
+
+    synchronized int getFailed() {
+        return failed;
+    }
+
+    private void update(Entry entry, int percent) {
+        String status;
+        int total;
+        synchronized (this) {
+            entry.percent = Math.max(0, Math.min(100, percent));
+            status = entry.status + " (" + done + "/" + entries.size() + ")";
+            total = getPercent();
+        }
+        listener.progress(status, total);
+    }
+
+    private void finished(Entry entry) {
+        String status;
+        int total;
+        synchronized (this) {
+            entry.percent = 100;
+            done++;
+            status = entry.status + " (" + done + "/" + entries.size() + ")";
+            total = getPercent();
+        }
+        listener.progress(status, total);
+    }
+
+    private int getPercent() {
+        int sum = 0;
+        for (Entry entry : entries) {
+            sum += entry.percent;
+        }
+        return sum / entries.size();
+    }
+
+    private static class Entry {
+
+        private final File input;
+        private final File output;
+        private final String settings;
+        private final String status;
+        private final Job job;
+        private int percent;
+
+        Entry(File input, File output, String settings, String status, Job job) {
+            this.input = input;
+            this.output = output;
+            this.settings = settings;
+            this.status = status;
+            this.job = job;
+        }
+
+        boolean isUpToDate() {
+            if (output == null || !output.exists() || output.lastModified() < input.lastModified()) {
+                return false;
+            }
+            try {
+                File stamp = getStampFile();
+                return stamp.exists() && new String(Files.readAllBytes(stamp.toPath()), StandardCharsets.UTF_8).equals(settings);
+            } catch (IOException ex) {
+                logger.log(Level.FINE, "Could not read the settings of " + output, ex);
+                return false;
+            }
+        }
+
+        void clearStamp() throws IOException {
+            if (output != null) {
+                Files.deleteIfExists(getStampFile().toPath());
+            }
+        }
+
+        void writeStamp() throws IOException {
+            if (output != null && settings != null) {
+                Files.write(getStampFile().toPath(), settings.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private File getStampFile() {
+            return new File(output.getParentFile(), "." + output.getName() + ".settings");
+        }
+    }
+}
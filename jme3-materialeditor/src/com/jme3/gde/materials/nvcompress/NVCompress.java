@@ -34,25 +34,21 @@ package com.jme3.gde.materials.nvcompress;
 
 import com.jme3.asset.AssetManager;
 import com.jme3.asset.plugins.FileLocator;
-import com.jme3.export.binary.BinaryExporter;
+import com.jme3.gde.core.assets.pipeline.TextureCompressor;
 import com.jme3.system.JmeSystem;
-import com.jme3.texture.Image;
-import com.jme3.texture.Texture;
-import com.jme3.texture.plugins.HDRLoader;
 import java.awt.Component;
 import java.awt.Container;
 import java.awt.Cursor;
+import java.awt.EventQueue;
 import java.awt.event.KeyEvent;
-import java.awt.image.BufferedImage;
 import java.io.*;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import javax.imageio.ImageIO;
+import java.util.Set;
 import javax.swing.DefaultListModel;
 import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
-import jme3tools.converters.ImageToAwt;
-import jme3tools.converters.MipMapGenerator;
 import org.openide.util.NbPreferences;
 
 @SuppressWarnings({"unchecked", "rawtypes"})
@@ -448,58 +444,18 @@ public class NVCompress extends javax.swing.JFrame {
         btnDecompress.setText("Decompress");
     }
 
-    private void runJ3(File input, File output, String statusStr) throws InterruptedException{
-        updateWork(statusStr, 0);
-        if (manager == null)
-            manager = JmeSystem.newAssetManager();
-
-        manager.registerLocator(input.getParent(),
-                                FileLocator.class);
-
-        String format = (String) cmbCompressType.getSelectedItem();
+    private void runJ3(File input, File output, String format, boolean mipmaps) throws IOException{
         if (format.equals("PNG-RGBE")){
-            HDRLoader loader = new HDRLoader(true);
-            try{
-                Image image;
-                try (FileInputStream in = new FileInputStream(input)) {
-                    image = loader.load(in, false);
-                }
-
-                BufferedImage rgbeImage = ImageToAwt.convert(image, false, true, 0);
-                if (output == null){
-                    output = new File(input.getParent(), input.getName() + ".png");
-                }
-                ImageIO.write(rgbeImage, "png", output);
-            } catch (IOException ex){
-                ex.printStackTrace();
-            }
+            TextureCompressor.compressRgbe(input, output);
         }else{
-            Texture tex = manager.loadTexture(input.getName());
-            Image image = tex.getImage();
-
-            boolean mips = chkMips.isSelected();
-            if (mips && !image.hasMipmaps()){
-                MipMapGenerator.generateMipMaps(image);
-            }
-            if (output == null){
-                output = new File(input.getParent(), input.getName() + ".j3i");
-            }
-
-            try{
-                BinaryExporter.getInstance().save(image, output);
-                BufferedImage preview = ImageToAwt.convert(image, false, true, 0);
-                ImageIO.write(preview, "png", new File(output + ".png"));
-            }catch (IOException ex){
-                ex.printStackTrace();
-            }
+            TextureCompressor.compressJ3(manager, input.getName(), output, mipmaps);
         }
     }
 
-    private void runCommand(String[] args, String statusStr) throws InterruptedException{
+    private void runCommand(String[] args, CompressionScheduler.Progress progress) throws IOException, InterruptedException{
         Process p = null;
         try{
             ProcessBuilder builder = new ProcessBuilder(args);
-            updateWork(statusStr, 0);
             p = builder.start();
             try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream()))) {
                 String ln;
@@ -510,7 +466,7 @@ public class NVCompress extends javax.swing.JFrame {
                     if (ln.endsWith("%")){
                         // show status in bar
                         int percent = Integer.parseInt(ln.substring(0, ln.length()-1));
-                        updateWork(statusStr, percent);
+                        progress.update(percent);
                     }else if (ln.startsWith("time taken")){
                         ln = ln.substring(12, ln.length()-7).trim();
                         System.out.println("Time Taken: "+ln+" seconds");
@@ -519,10 +475,8 @@ public class NVCompress extends javax.swing.JFrame {
             }
             int error = p.waitFor();
             if (error != 0){
-                System.out.println("Error Code: " + error);
+                throw new IOException(new File(args[0]).getName() + " failed with error code " + error);
             }
-        } catch (IOException ex){
-            ex.printStackTrace();
         } catch (InterruptedException ex){
             // may get interrupted if user canceled work
             if (p != null)
@@ -533,44 +487,28 @@ public class NVCompress extends javax.swing.JFrame {
         }
     }
 
-    private void runNVDecompress(final File inFile) throws InterruptedException{
-        if (!inFile.getName().toLowerCase().endsWith(".dds"))
-            return; // not a DDS file
-
+    private void runNVDecompress(final File inFile, CompressionScheduler.Progress progress) throws IOException, InterruptedException{
         String[] args = new String[2];
         args[0] = new File(texToolsPath, "nvdecompress").toString();
         args[1] = inFile.toString();
 
         System.out.println("Decompressing file "+inFile);
-        runCommand(args, "Decompressing file "+inFile.getName());
+        runCommand(args, progress);
     }
 
-    private void runNVCompress(final File inFile, File outFile) throws InterruptedException{
+    private void runNVCompress(final File inFile, File outFile, String[] params, CompressionScheduler.Progress progress) throws IOException, InterruptedException{
         String nvcompressCmd = new File(texToolsPath, "nvcompress").toString();
-        int argCount = 2; // nvcompressCmd & inFile are always specified
-        if (outFile != null)
-            argCount ++;
-
-        String[] params = computeCompressParameters();
-        argCount += params.length;
-
-        String[] args = new String[argCount];
+        String[] args = new String[params.length + 3];
         args[0] = nvcompressCmd;
         System.arraycopy(params, 0, args, 1, params.length);
         args[params.length + 1] = inFile.toString();
-        if (outFile != null)
-            args[params.length + 2] = outFile.toString();
+        args[params.length + 2] = outFile.toString();
 
         System.out.println("Converting file "+inFile);
 //        System.out.println("Arguments: ");
 //        for (String arg : args) System.out.println("   "+arg);
 
-        runCommand(args, "Converting "+inFile.getName());
-    }
-
-    private void runJ3Compress(final File inFile, File outFile) throws InterruptedException{
-        System.out.println("Converting file "+inFile);
-        runJ3(inFile, outFile, "Converting "+inFile.getName());
+        runCommand(args, progress);
     }
 
     private Object[] compileFileList(){
@@ -583,90 +521,110 @@ public class NVCompress extends javax.swing.JFrame {
         return values.toArray();
     }
 
+    /**
+     * @return the output file, with the given extension in the export
+     * directory or next to the input file
+     */
+    private File getOutputFile(File inFile, File exportDir, String ext){
+        String name = inFile.getName();
+        int extPt = name.lastIndexOf(".");
+        if (extPt > 0)
+            name = name.substring(0, extPt);
+
+        return new File(exportDir != null ? exportDir : inFile.getParentFile(), name+"."+ext);
+    }
+
+    private CompressionScheduler createScheduler(){
+        return new CompressionScheduler(CompressionScheduler.getPreferredThreads(),
+                (status, percent) -> EventQueue.invokeLater(() -> {
+                    if (workThread != null)
+                        updateWork(status, percent);
+                }));
+    }
+
+    /**
+     * Runs the jobs of the scheduler on the work thread, interrupting the
+     * work thread cancels them.
+     */
+    private void runScheduler(final CompressionScheduler scheduler, String name){
+        startWork();
+        workThread = new Thread(name){
+            @Override
+            public void run(){
+                try{
+                    scheduler.run();
+                }catch (InterruptedException ex){
+                    return; // user canceled
+                }
+                if (scheduler.getSkipped() > 0)
+                    System.out.println(scheduler.getSkipped()+" files are up to date");
+                if (scheduler.getFailed() > 0)
+                    System.out.println(scheduler.getFailed()+" files could not be converted");
+                EventQueue.invokeLater(() -> endWork());
+            }
+        };
+        workThread.setDaemon(true);
+        workThread.start();
+    }
+
     private void runNVCompressAll(final File exportDir){
         final Object[] fileList = compileFileList();
         if (fileList != null && fileList.length > 0){
-            startWork();
-            workThread = new Thread("NVCompressor"){
-                @Override
-                public void run(){
-                    for (Object val : fileList){
-                        File inFile = (File) val;
-                        File outFile = null;
-                        if (exportDir != null){
-                            String name = inFile.getName();
-                            int extPt = name.lastIndexOf(".");
-                            if (extPt > 0)
-                                name = name.substring(0, extPt);
-                            
-                            outFile = new File(exportDir, name+".dds");
-                        }
-                        try{
-                            runNVCompress(inFile, outFile);
-                        }catch (InterruptedException ex){
-                            return; // user canceled
-                        }
-                    }
-                    endWork();
-                }
-            };
-            workThread.setDaemon(true);
-            workThread.start();
+            final String[] params = computeCompressParameters();
+            final String settings = "nvcompress " + String.join(" ", params);
+            CompressionScheduler scheduler = createScheduler();
+            for (Object val : fileList){
+                final File inFile = (File) val;
+                final File outFile = getOutputFile(inFile, exportDir, "dds");
+                scheduler.add(inFile, outFile, settings, "Converting "+inFile.getName(),
+                        progress -> runNVCompress(inFile, outFile, params, progress));
+            }
+            runScheduler(scheduler, "NVCompressor");
         }
     }
 
     private void runJ3CompressAll(final File exportDir, final String ext){
         final Object[] fileList = compileFileList();
         if (fileList != null && fileList.length > 0){
-            startWork();
-            workThread = new Thread("J3Compressor"){
-                @Override
-                public void run(){
-                    for (Object val : fileList){
-                        File inFile = (File) val;
-                        File outFile = null;
-                        if (exportDir != null){
-                            String name = inFile.getName();
-                            int extPt = name.lastIndexOf(".");
-                            if (extPt > 0)
-                                name = name.substring(0, extPt);
-
-                            outFile = new File(exportDir, name+"."+ext);
-                        }
-                        try{
-                            runJ3Compress(inFile, outFile);
-                        }catch (InterruptedException ex){
-                            return; // user canceled
-                        }
-                    }
-                    endWork();
-                }
-            };
-            workThread.setDaemon(true);
-            workThread.start();
+            final String format = (String) cmbCompressType.getSelectedItem();
+            final boolean mipmaps = chkMips.isSelected();
+            final String settings = format + (mipmaps ? " mipmaps" : "");
+            if (manager == null)
+                manager = JmeSystem.newAssetManager();
+
+            CompressionScheduler scheduler = createScheduler();
+            Set<File> folders = new HashSet<>();
+            for (Object val : fileList){
+                final File inFile = (File) val;
+                if (folders.add(inFile.getParentFile()))
+                    manager.registerLocator(inFile.getParent(), FileLocator.class);
+
+                // the output keeps the full input name when written next to it
+                final File outFile = exportDir != null ? getOutputFile(inFile, exportDir, ext)
+                        : new File(inFile.getParent(), inFile.getName() + (ext.equals("j3i") ? ".j3i" : ".png"));
+                scheduler.add(inFile, outFile, settings, "Converting "+inFile.getName(),
+                        progress -> {
+                            System.out.println("Converting file "+inFile);
+                            runJ3(inFile, outFile, format, mipmaps);
+                        });
+            }
+            runScheduler(scheduler, "J3Compressor");
         }
     }
 
     private void runNVDecompressAll(){
         final Object[] fileList = compileFileList();
         if (fileList != null && fileList.length > 0){
-            startWork();
-            workThread = new Thread("NVDecompressor"){
-                @Override
-                public void run(){
-                    for (Object val : fileList){
-                        File inFile = (File) val;
-                        try{
-                            runNVDecompress(inFile);
-                        }catch (InterruptedException ex){
-                            return; // user canceled
-                        }
-                    }
-                    endWork();
-                }
-            };
-            workThread.setDaemon(true);
-            workThread.start();
+            CompressionScheduler scheduler = createScheduler();
+            for (Object val : fileList){
+                final File inFile = (File) val;
+                if (!inFile.getName().toLowerCase().endsWith(".dds"))
+                    continue; // not a DDS file
+
+                scheduler.add(inFile, null, null, "Decompressing file "+inFile.getName(),
+                        progress -> runNVDecompress(inFile, progress));
+            }
+            runScheduler(scheduler, "NVDecompressor");
         }
     }
 
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.materials;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the coalescing of MaterialPreviewScheduler
+ */
+public class MaterialPreviewSchedulerTest {
+
+    @Test
+    public void testRequestsCoalesceWhileRunning() throws InterruptedException {
+        MaterialPreviewScheduler scheduler = new MaterialPreviewScheduler(0);
+        Object target = new Object();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch second = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger latest = new AtomicInteger();
+
+        scheduler.schedule(target, () -> {
+            runs.incrementAndGet();
+            started.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 10; i++) {
+            final int value = i;
+            scheduler.schedule(target, () -> {
+                runs.incrementAndGet();
+                latest.set(value);
+                second.countDown();
+            });
+        }
+        assertEquals(1, scheduler.getQueueDepth());
+        assertEquals(9, scheduler.getDroppedCount());
+
+        scheduler.finished(target);
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+        scheduler.finished(target);
+
+        assertEquals(2, runs.get());
+        assertEquals(10, latest.get());
+        assertEquals(2, scheduler.getCompletedCount());
+        assertFalse(scheduler.isScheduled(target));
+    }
+
+    @Test
+    public void testCancelDropsPendingRequest() throws InterruptedException {
+        MaterialPreviewScheduler scheduler = new MaterialPreviewScheduler(0);
+        Object target = new Object();
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+
+        scheduler.schedule(target, () -> {
+            runs.incrementAndGet();
+            started.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        scheduler.schedule(target, runs::incrementAndGet);
+        scheduler.cancel(target);
+        scheduler.finished(target);
+
+        assertEquals(1, runs.get());
+        assertEquals(0, scheduler.getQueueDepth());
+        assertFalse(scheduler.isScheduled(target));
+    }
+}
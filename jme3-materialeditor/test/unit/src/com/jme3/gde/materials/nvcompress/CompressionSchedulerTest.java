@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.materials.nvcompress;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for the worker pool of the NVCompress tool
+ */
+public class CompressionSchedulerTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    public void testJobsRunConcurrently() throws Exception {
+        CompressionScheduler scheduler = new CompressionScheduler(2, (status, percent) -> {
+        });
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        for (int i = 0; i < 2; i++) {
+            File input = Files.createFile(folder.resolve("tex" + i + ".png")).toFile();
+            scheduler.add(input, null, null, "Converting", progress -> {
+                try {
+                    barrier.await(5, TimeUnit.SECONDS);
+                } catch (Exception ex) {
+                    throw new IOException(ex);
+                }
+            });
+        }
+        scheduler.run();
+        assertEquals(0, scheduler.getFailed());
+    }
+
+    @Test
+    public void testUpToDateOutputsAreSkipped() throws Exception {
+        File input = Files.createFile(folder.resolve("tex.png")).toFile();
+        File output = Files.createFile(folder.resolve("tex.dds")).toFile();
+        input.setLastModified(1000000L);
+        output.setLastModified(2000000L);
+        AtomicInteger runs = new AtomicInteger();
+        AtomicInteger lastPercent = new AtomicInteger();
+
+        // no settings are known for the output yet
+        CompressionScheduler scheduler = new CompressionScheduler(2, (status, percent) -> {
+        });
+        scheduler.add(input, output, "-bc1", "Converting", progress -> runs.incrementAndGet());
+        scheduler.run();
+        assertEquals(1, runs.get());
+        assertEquals(0, scheduler.getSkipped());
+
+        scheduler = new CompressionScheduler(2, (status, percent) -> lastPercent.set(percent));
+        scheduler.add(input, output, "-bc1", "Converting", progress -> runs.incrementAndGet());
+        scheduler.run();
+        assertEquals(1, runs.get());
+        assertEquals(1, scheduler.getSkipped());
+        assertEquals(100, lastPercent.get());
+
+        input.setLastModified(3000000L);
+        scheduler = new CompressionScheduler(2, (status, percent) -> {
+        });
+        scheduler.add(input, output, "-bc1", "Converting", progress -> runs.incrementAndGet());
+        scheduler.run();
+        assertEquals(2, runs.get());
+        assertEquals(0, scheduler.getSkipped());
+    }
+
+    @Test
+    public void testChangedSettingsAreConverted() throws Exception {
+        File input = Files.createFile(folder.resolve("tex.png")).toFile();
+        File output = Files.createFile(folder.resolve("tex.dds")).toFile();
+        input.setLastModified(1000000L);
+        output.setLastModified(2000000L);
+        AtomicInteger runs = new AtomicInteger();
+        CompressionScheduler scheduler = new CompressionScheduler(1, (status, percent) -> {
+        });
+        scheduler.add(input, output, "-bc1", "Converting", progress -> runs.incrementAndGet());
+        scheduler.run();
+
+        scheduler = new CompressionScheduler(1, (status, percent) -> {
+        });
+        scheduler.add(input, output, "-bc3", "Converting", progress -> runs.incrementAndGet());
+        scheduler.run();
+        assertEquals(2, runs.get());
+        assertEquals(0, scheduler.getSkipped());
+    }
+
+    @Test
+    public void testFailedJobsAreNotSkipped() throws Exception {
+        File input = Files.createFile(folder.resolve("tex.png")).toFile();
+        File output = Files.createFile(folder.resolve("tex.dds")).toFile();
+        input.setLastModified(1000000L);
+        output.setLastModified(2000000L);
+        CompressionScheduler scheduler = new CompressionScheduler(1, (status, percent) -> {
+        });
+        scheduler.add(input, output, "-bc1", "Converting", progress -> {
+            throw new IOException("nvcompress failed with error code 1");
+        });
+        scheduler.run();
+        assertEquals(1, scheduler.getFailed());
+
+        AtomicInteger runs = new AtomicInteger();
+        scheduler = new CompressionScheduler(1, (status, percent) -> {
+        });
+        scheduler.add(input, output, "-bc1", "Converting", progress -> runs.incrementAndGet());
+        scheduler.run();
+        assertEquals(1, runs.get());
+        assertEquals(0, scheduler.getSkipped());
+    }
+
+    @Test
+    public void testInterruptCancelsJobs() throws Exception {
+        CompressionScheduler scheduler = new CompressionScheduler(1, (status, percent) -> {
+        });
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        File input = Files.createFile(folder.resolve("tex.png")).toFile();
+        scheduler.add(input, null, null, "Converting", progress -> {
+            started.countDown();
+            try {
+                Thread.sleep(10000);
+            } catch (InterruptedException ex) {
+                cancelled.countDown();
+                throw ex;
+            }
+        });
+        Thread thread = new Thread(() -> {
+            try {
+                scheduler.run();
+            } catch (InterruptedException ex) {
+                // expected
+            }
+        });
+        thread.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        thread.interrupt();
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        thread.join(5000);
+    }
+}
@@ -15,24 +15,22 @@ import com.jme3.scene.Mesh;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.scene.Spatial.CullHint;
-import com.jme3.terrain.Terrain;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
 import java.util.concurrent.Callable;
-import jme3tools.optimize.GeometryBatchFactory;
-import org.critterai.nmgen.IntermediateData;
 
 /**
  *
  * @author sploreg
  */
 public class NavMeshController {
+    // edge length of the navmesh tiles in cells, smaller scenes are built at once
+    private static final int TILE_CELLS = 128;
     private final JmeSpatial jmeRootNode;
     private final Node rootNode;
     private final AssetDataObject currentFileObject;
     //private NavMesh navMesh; // current nav mesh in this scene
     private Material navMaterial;
+    private final NavMeshSources sources = new NavMeshSources();
+    private NavMeshTiles tiles;
 
     public NavMeshController(JmeSpatial jmeRootNode, AssetDataObject currentFileObject, NavMeshTopComponent topComponent) {
         this.jmeRootNode = jmeRootNode;
@@ -81,16 +79,29 @@ public class NavMeshController {
         generator.setMaxVertsPerPoly((int)maxVertsPerPoly);
         generator.setContourSampleDistance(contourSampleDistance);
         generator.setContourMaxDeviation(contourMaxDeviation);
-        
-        IntermediateData id = new IntermediateData();
+        generator.setTileSize(generator.getCellSize() * TILE_CELLS);
         
         generator.setIntermediateData(null);
         
-        Mesh mesh = new Mesh();
-        //NavMesh navMesh = new NavMesh();
-        
-        GeometryBatchFactory.mergeGeometries(findGeometries(rootNode, new LinkedList<Geometry>(), generator), mesh);
-        Mesh optiMesh = generator.optimize(mesh);
+        sources.update(rootNode, generator);
+        Mesh optiMesh;
+        if (!generator.needsTiles(sources.getPositions())) {
+            // a scene that fits into one tile is generated at once as before
+            tiles = null;
+            optiMesh = generator.optimize(sources.getPositions(), sources.getIndices());
+        } else {
+            // only the tiles around the geometries changed since the last
+            // generation are rebuilt, the others are taken from the last tiles
+            NavMeshTiles newTiles = new NavMeshTiles(generator, sources.getPositions(), sources.getIndices(), generator.getTileSize());
+            if (tiles != null && newTiles.isCompatible(tiles)) {
+                newTiles.copyResults(tiles);
+                optiMesh = generator.optimize(newTiles, newTiles.getTiles(sources.getDirtyAreas()), null);
+            } else {
+                optiMesh = generator.optimize(newTiles, null, null);
+            }
+            // a failed build leaves tiles with outdated results behind
+            tiles = optiMesh != null ? newTiles : null;
+        }
 
         final Geometry navMesh = new Geometry("NavMesh");
         navMesh.setMesh(optiMesh);
@@ -144,24 +155,6 @@ public class NavMeshController {
         return rootNode.getUserData("NavMeshGenerator");
     }
     
-    private List<Geometry> findGeometries(Node node, List<Geometry> geoms, NavMeshGenerator generator) {
-        for (Iterator<Spatial> it = node.getChildren().iterator(); it.hasNext();) {
-            Spatial spatial = it.next();
-            if (spatial instanceof Geometry) {
-                geoms.add((Geometry) spatial);
-            } else if (spatial instanceof Node) {
-                if (spatial instanceof Terrain) {
-                    Mesh merged = generator.terrain2mesh((Terrain)spatial);
-                    Geometry g = new Geometry("mergedTerrain");
-                    g.setMesh(merged);
-                    geoms.add(g);
-                } else 
-                    findGeometries((Node) spatial, geoms, generator);
-            }
-        }
-        return geoms;
-    }
-
     /**
      * Create polygons from each of the Nav Mesh Cells.
      * @return a single mesh representing the nav mesh
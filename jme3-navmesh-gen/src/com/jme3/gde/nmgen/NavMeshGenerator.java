@@ -16,6 +16,7 @@ import java.nio.FloatBuffer;
 import org.critterai.nmgen.IntermediateData;
 import org.critterai.nmgen.NavmeshGenerator;
 import org.critterai.nmgen.TriangleMesh;
+import org.netbeans.api.progress.ProgressHandle;
 import org.openide.DialogDisplayer;
 import org.openide.NotifyDescriptor;
 
@@ -44,6 +45,7 @@ public class NavMeshGenerator implements Savable {
     private float contourMaxDeviation = 25;
     private IntermediateData intermediateData;
     private int timeout = 10000;
+    private float tileSize = 0;
 
     public NavMeshGenerator() {
     }
@@ -65,20 +67,40 @@ public class NavMeshGenerator implements Savable {
         System.out.println("Max Verts/Poly: " + maxVertsPerPoly);
         System.out.println("Contour Sample Dist: " + contourSampleDistance);
         System.out.println("Contour Max Dev.: " + contourMaxDeviation);
+        System.out.println("Tile Size: " + tileSize);
     }
 
     public void setIntermediateData(IntermediateData data) {
         this.intermediateData = data;
     }
 
-    public Mesh optimize(Mesh mesh) {
-        nmgen = new NavmeshGenerator(cellSize, cellHeight, minTraversableHeight,
+    NavmeshGenerator createNmgen() {
+        return new NavmeshGenerator(cellSize, cellHeight, minTraversableHeight,
                 maxTraversableStep, maxTraversableSlope,
                 clipLedges, traversableAreaBorderSize,
                 smoothingThreshold, useConservativeExpansion,
                 minUnconnectedRegionSize, mergeRegionSize,
                 maxEdgeLength, edgeMaxDeviation, maxVertsPerPoly,
                 contourSampleDistance, contourMaxDeviation);
+    }
+
+    public Mesh optimize(Mesh mesh) {
+        return optimize(mesh, null);
+    }
+
+    /**
+     * Generates the navmesh for the given mesh. When a tile size is set and
+     * the mesh is larger than one tile, the mesh is split into tiles which
+     * are generated in parallel, the progress handle is then switched to
+     * determinate mode and advanced per tile.
+     * 
+     * @param mesh the merged scene geometry
+     * @param progressHandle the handle to report the progress to, may be null
+     * @return the navmesh or null if the generation timed out or found no
+     * walkable area
+     */
+    public Mesh optimize(Mesh mesh, ProgressHandle progressHandle) {
+        nmgen = createNmgen();
 
         FloatBuffer pb = mesh.getFloatBuffer(Type.Position);
         IndexBuffer ib = mesh.getIndexBuffer();
@@ -95,7 +117,74 @@ public class NavMeshGenerator implements Savable {
         }
 
 
-        TriangleMesh triMesh = buildNavMesh(positions, indices, intermediateData);
+        if (needsTiles(positions)) {
+            return optimize(new NavMeshTiles(this, positions, indices, tileSize), null, progressHandle);
+        }
+        return toMesh(buildNavMesh(positions, indices, intermediateData));
+    }
+
+    /**
+     * Generates the navmesh for the given triangles at once.
+     *
+     * @param positions the vertices, x y z per vertex
+     * @param indices three vertex indices per triangle
+     * @return the navmesh or null if the generation timed out or found no
+     * walkable area
+     */
+    Mesh optimize(float[] positions, int[] indices) {
+        nmgen = createNmgen();
+        return toMesh(buildNavMesh(positions, indices, intermediateData));
+    }
+
+    /**
+     * @param positions the vertices, x y z per vertex
+     * @return true if a tile size is set and the vertices span more than one
+     * tile in x or z direction
+     */
+    boolean needsTiles(float[] positions) {
+        if (tileSize <= 0 || positions.length == 0) {
+            return false;
+        }
+        float x0 = positions[0], x1 = positions[0];
+        float z0 = positions[2], z1 = positions[2];
+        for (int i = 3; i < positions.length; i += 3) {
+            x0 = Math.min(x0, positions[i]);
+            x1 = Math.max(x1, positions[i]);
+            z0 = Math.min(z0, positions[i + 2]);
+            z1 = Math.max(z1, positions[i + 2]);
+        }
+        return x1 - x0 > tileSize || z1 - z0 > tileSize;
+    }
+
+    /**
+     * Builds the given tiles and merges all tiles into the navmesh.
+     * 
+     * @param tiles the tiles of the scene geometry
+     * @param tileIndices the tiles to build or null to build all tiles
+     * @param progressHandle the handle to report the progress to, may be null
+     * @return the navmesh or null if the generation timed out or found no
+     * walkable area
+     */
+    Mesh optimize(NavMeshTiles tiles, int[] tileIndices, ProgressHandle progressHandle) {
+        if (progressHandle != null) {
+            progressHandle.switchToDeterminate(tileIndices == null ? tiles.getTileCount() : tileIndices.length);
+        }
+        // each tile is a lot smaller than the whole scene, so the timeout
+        // applies to the wait for the next tile rather than the whole build
+        boolean built;
+        if (tileIndices == null) {
+            built = tiles.build(timeout, progressHandle == null ? null : progressHandle::progress);
+        } else {
+            built = tiles.build(tileIndices, timeout, progressHandle == null ? null : progressHandle::progress);
+        }
+        if (!built) {
+            DialogDisplayer.getDefault().notifyLater(new NotifyDescriptor.Message("NavMesh Generation timed out."));
+            return null;
+        }
+        return toMesh(tiles.stitch());
+    }
+
+    private Mesh toMesh(TriangleMesh triMesh) {
         if (triMesh == null) {
             return null;
         }
@@ -458,6 +547,29 @@ public class NavMeshGenerator implements Savable {
         this.useConservativeExpansion = useConservativeExpansion;
     }
 
+    /**
+     * @return true if the other generator builds the same navmesh from the
+     * same geometry
+     */
+    boolean hasSameSettings(NavMeshGenerator other) {
+        return cellSize == other.cellSize
+                && cellHeight == other.cellHeight
+                && minTraversableHeight == other.minTraversableHeight
+                && maxTraversableStep == other.maxTraversableStep
+                && maxTraversableSlope == other.maxTraversableSlope
+                && clipLedges == other.clipLedges
+                && traversableAreaBorderSize == other.traversableAreaBorderSize
+                && smoothingThreshold == other.smoothingThreshold
+                && useConservativeExpansion == other.useConservativeExpansion
+                && minUnconnectedRegionSize == other.minUnconnectedRegionSize
+                && mergeRegionSize == other.mergeRegionSize
+                && maxEdgeLength == other.maxEdgeLength
+                && edgeMaxDeviation == other.edgeMaxDeviation
+                && maxVertsPerPoly == other.maxVertsPerPoly
+                && contourSampleDistance == other.contourSampleDistance
+                && contourMaxDeviation == other.contourMaxDeviation;
+    }
+
     public int getTimeout() {
         return timeout;
     }
@@ -465,6 +577,23 @@ public class NavMeshGenerator implements Savable {
     public void setTimeout(int timeout) {
         this.timeout = timeout;
     }
+
+    public float getTileSize() {
+        return tileSize;
+    }
+
+    /**
+     * The edge length of the square tiles the source geometry is split into.
+     * The tiles are generated in parallel and stitched together, which is a
+     * lot faster for large scenes. A value of zero generates the whole scene
+     * at once, as do scenes that fit into one tile.
+     * Constraints: >= 0
+     */
+    public void setTileSize(float tileSize) {
+        this.tileSize = tileSize;
+        if (this.tileSize < 0)
+            this.tileSize = 0;
+    }
     
     @Override
     public void write(JmeExporter ex) throws IOException {
@@ -485,6 +614,7 @@ public class NavMeshGenerator implements Savable {
         oc.write(maxVertsPerPoly, "maxVertsPerPoly", 6);
         oc.write(contourSampleDistance, "contourSampleDistance", 25);
         oc.write(contourMaxDeviation, "contourMaxDeviation", 25);
+        oc.write(tileSize, "tileSize", 0);
     }
 
     @Override
@@ -506,6 +636,7 @@ public class NavMeshGenerator implements Savable {
         maxVertsPerPoly = (int) ic.readFloat("maxVertsPerPoly", 6);
         contourSampleDistance = ic.readFloat("contourSampleDistance", 25);
         contourMaxDeviation = ic.readFloat("contourMaxDeviation", 25);
+        tileSize = ic.readFloat("tileSize", 0);
     }
 
     private class MeshBuildRunnable implements Runnable {
@@ -0,0 +1,236 @@
+package com.jme3.gde.nmgen;
+
+import com.jme3.math.Matrix4f;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.scene.mesh.IndexBuffer;
+import com.jme3.terrain.Terrain;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the world space triangles of the geometries and terrains a navmesh is
+ * generated from. On an update only the sources whose mesh, transform or
+ * heightmap changed are read again, the areas they covered before and after
+ * the change are collected so only the navmesh tiles in these areas have to
+ * be rebuilt.
+ */
+class NavMeshSources {
+
+    private Map<Spatial, Source> sources = new IdentityHashMap<>();
+    private final List<float[]> dirtyAreas = new ArrayList<>();
+    private float[] positions = new float[0];
+    private int[] indices = new int[0];
+
+    /**
+     * Collects the geometries and terrains below the root node, the
+     * previous navmesh is left out.
+     *
+     * @param rootNode the scene root
+     * @param generator the generator to create the terrain meshes with
+     */
+    void update(Node rootNode, NavMeshGenerator generator) {
+        dirtyAreas.clear();
+        Map<Spatial, Source> updated = new IdentityHashMap<>();
+        collect(rootNode, rootNode, generator, updated);
+        for (Source removed : sources.values()) {
+            addArea(removed.positions, removed.indices);
+        }
+        sources = updated;
+
+        int vertexCount = 0;
+        int indexCount = 0;
+        for (Source source : sources.values()) {
+            vertexCount += source.positions.length;
+            indexCount += source.indices.length;
+        }
+        positions = new float[vertexCount];
+        indices = new int[indexCount];
+        vertexCount = 0;
+        indexCount = 0;
+        for (Source source : sources.values()) {
+            System.arraycopy(source.positions, 0, positions, vertexCount, source.positions.length);
+            for (int i = 0; i < source.indices.length; i++) {
+                indices[indexCount++] = source.indices[i] + vertexCount / 3;
+            }
+            vertexCount += source.positions.length;
+        }
+    }
+
+    /**
+     * @return the world space positions of all sources
+     */
+    float[] getPositions() {
+        return positions;
+    }
+
+    /**
+     * @return the triangles of all sources
+     */
+    int[] getIndices() {
+        return indices;
+    }
+
+    /**
+     * @return the areas changed by the last update as minX, maxX, minZ, maxZ
+     */
+    List<float[]> getDirtyAreas() {
+        return dirtyAreas;
+    }
+
+    private void collect(Node node, Node rootNode, NavMeshGenerator generator, Map<Spatial, Source> updated) {
+        for (Spatial spatial : node.getChildren()) {
+            if (node == rootNode && "NavMesh".equals(spatial.getName())) {
+                continue;
+            }
+            if (spatial instanceof Geometry) {
+                Source source = readGeometry((Geometry) spatial, sources.remove(spatial));
+                if (source != null) {
+                    updated.put(spatial, source);
+                }
+            } else if (spatial instanceof Terrain) {
+                updated.put(spatial, readTerrain((Terrain) spatial, sources.remove(spatial), generator));
+            } else if (spatial instanceof Node) {
+                collect((Node) spatial, rootNode, generator, updated);
+            }
+        }
+    }
+
+    private Source readGeometry(Geometry geometry, Source previous) {
+        Mesh mesh = geometry.getMesh();
+        if (mesh == null || mesh.getMode() != Mesh.Mode.Triangles || mesh.getBuffer(Type.Position) == null) {
+            if (previous != null) {
+                addArea(previous.positions, previous.indices);
+            }
+            return null;
+        }
+        Matrix4f transform = geometry.getWorldMatrix();
+        if (previous != null && previous.mesh == mesh && previous.transform.equals(transform)) {
+            return previous;
+        }
+
+        FloatBuffer pb = mesh.getFloatBuffer(Type.Position);
+        float[] meshPositions = new float[mesh.getVertexCount() * 3];
+        Vector3f vertex = new Vector3f();
+        for (int i = 0; i < meshPositions.length; i += 3) {
+            vertex.set(pb.get(i), pb.get(i + 1), pb.get(i + 2));
+            transform.mult(vertex, vertex);
+            meshPositions[i] = vertex.x;
+            meshPositions[i + 1] = vertex.y;
+            meshPositions[i + 2] = vertex.z;
+        }
+        IndexBuffer ib = mesh.getIndexBuffer();
+        int[] meshIndices = new int[ib != null ? ib.size() : mesh.getVertexCount()];
+        for (int i = 0; i < meshIndices.length; i++) {
+            meshIndices[i] = ib != null ? ib.get(i) : i;
+        }
+
+        Source source = new Source(meshPositions, meshIndices);
+        source.mesh = mesh;
+        source.transform = transform.clone();
+        compare(previous, source);
+        return source;
+    }
+
+    private Source readTerrain(Terrain terrain, Source previous, NavMeshGenerator generator) {
+        float[] heights = terrain.getHeightMap();
+        if (previous != null && Arrays.equals(previous.heights, heights)) {
+            return previous;
+        }
+        Mesh mesh = generator.terrain2mesh(terrain);
+        IndexBuffer ib = mesh.getIndexBuffer();
+        int[] meshIndices = new int[ib.size()];
+        for (int i = 0; i < meshIndices.length; i++) {
+            meshIndices[i] = ib.get(i);
+        }
+        FloatBuffer pb = mesh.getFloatBuffer(Type.Position);
+        float[] meshPositions = new float[pb.limit()];
+        pb.clear();
+        pb.get(meshPositions);
+
+        Source source = new Source(meshPositions, meshIndices);
+        source.heights = heights;
+        compare(previous, source);
+        return source;
+    }
+
+    /**
+     * Adds the area of the triangles that differ between the previous and
+     * the current state of a source.
+     */
+    private void compare(Source previous, Source source) {
+        if (previous == null) {
+            addArea(source.positions, source.indices);
+            return;
+        }
+        if (previous.positions.length != source.positions.length || !Arrays.equals(previous.indices, source.indices)) {
+            addArea(previous.positions, previous.indices);
+            addArea(source.positions, source.indices);
+            return;
+        }
+        float[] area = newArea();
+        for (int i = 0; i < source.indices.length; i += 3) {
+            boolean changed = false;
+            for (int k = i; k < i + 3 && !changed; k++) {
+                int v = source.indices[k] * 3;
+                changed = previous.positions[v] != source.positions[v]
+                        || previous.positions[v + 1] != source.positions[v + 1]
+                        || previous.positions[v + 2] != source.positions[v + 2];
+            }
+            if (changed) {
+                for (int k = i; k < i + 3; k++) {
+                    include(area, previous.positions, source.indices[k]);
+                    include(area, source.positions, source.indices[k]);
+                }
+            }
+        }
+        if (area[0] <= area[1]) {
+            dirtyAreas.add(area);
+        }
+    }
+
+    private void addArea(float[] positions, int[] indices) {
+        float[] area = newArea();
+        for (int index : indices) {
+            include(area, positions, index);
+        }
+        if (area[0] <= area[1]) {
+            dirtyAreas.add(area);
+        }
+    }
+
+    private static float[] newArea() {
+        return new float[]{Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY};
+    }
+
+    private static void include(float[] area, float[] positions, int vertex) {
+        float x = positions[vertex * 3];
+        float z = positions[vertex * 3 + 2];
+        area[0] = Math.min(area[0], x);
+        area[1] = Math.max(area[1], x);
+        area[2] = Math.min(area[2], z);
+        area[3] = Math.max(area[3], z);
+    }
+
+    private static class Source {
+
+        private final float[] positions;
+        private final int[] indices;
+        private Mesh mesh;
+        private Matrix4f transform;
+        private float[] heights;
+
+        Source(float[] positions, int[] indices) {
+            this.positions = positions;
+            this.indices = indices;
+        }
+    }
+}
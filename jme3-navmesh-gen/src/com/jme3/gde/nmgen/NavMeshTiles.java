@@ -0,0 +1,680 @@
+package com.jme3.gde.nmgen;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.critterai.nmgen.NavmeshGenerator;
+import org.critterai.nmgen.TriangleMesh;
+
+/**
+ * Splits the source geometry of a navmesh into square tiles on the xz plane
+ * and builds the tiles in parallel. Each tile is generated from the source
+ * triangles clipped to the tile plus a border, so the walkable area at the
+ * tile edges is the same as in a single build while large triangles don't
+ * stretch the heightfield of a tile, and the output is clipped to the tile.
+ * The tiles are aligned to a world grid, so after an edit of the source
+ * geometry the results of the unaffected tiles can be taken over from the
+ * previous tiles and only the affected tiles are rebuilt. {@link #stitch()}
+ * merges the tiles into one mesh that is connected across the tile edges.
+ */
+class NavMeshTiles {
+
+    private static final Logger logger = Logger.getLogger(NavMeshTiles.class.getName());
+    private static final ForkJoinPool pool = new ForkJoinPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+    private final NavMeshGenerator generator;
+    private final float[] positions;
+    private final int[] indices;
+    private final float tileSize;
+    private final float border;
+    private final float minX;
+    private final float minZ;
+    private final int tilesX;
+    private final int tilesZ;
+    // triangles overlapping each tile, tile i uses tileTriangles[tileOffsets[i]..tileOffsets[i + 1]]
+    private final int[] tileOffsets;
+    private final int[] tileTriangles;
+    private final TriangleMesh[] results;
+
+    /**
+     * @param generator the generator supplying the build parameters
+     * @param positions the source vertices, x y z per vertex
+     * @param indices the source triangles, three vertex indices per triangle
+     * @param tileSize the edge length of a tile in world units
+     */
+    NavMeshTiles(NavMeshGenerator generator, float[] positions, int[] indices, float tileSize) {
+        this.generator = generator;
+        this.positions = positions;
+        this.indices = indices;
+        this.tileSize = tileSize;
+        // the border has to cover the erosion at the heightfield edges, the
+        // contour simplification and a few cells for the contours to match
+        // up with the neighbour tiles
+        this.border = generator.getTraversableAreaBorderSize() + generator.getEdgeMaxDeviation()
+                + generator.getCellSize() * 4;
+
+        float x0 = Float.POSITIVE_INFINITY, z0 = Float.POSITIVE_INFINITY;
+        float x1 = Float.NEGATIVE_INFINITY, z1 = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < positions.length; i += 3) {
+            x0 = Math.min(x0, positions[i]);
+            x1 = Math.max(x1, positions[i]);
+            z0 = Math.min(z0, positions[i + 2]);
+            z1 = Math.max(z1, positions[i + 2]);
+        }
+        if (positions.length == 0) {
+            x0 = x1 = z0 = z1 = 0;
+        }
+        minX = (float) Math.floor(x0 / tileSize) * tileSize;
+        minZ = (float) Math.floor(z0 / tileSize) * tileSize;
+        tilesX = Math.max(1, (int) Math.ceil((x1 - minX) / tileSize));
+        tilesZ = Math.max(1, (int) Math.ceil((z1 - minZ) / tileSize));
+        results = new TriangleMesh[tilesX * tilesZ];
+
+        // bin the triangles, first count them per tile, then fill
+        tileOffsets = new int[tilesX * tilesZ + 1];
+        int triangles = indices.length / 3;
+        int[] range = new int[4];
+        for (int t = 0; t < triangles; t++) {
+            getTileRange(t, range);
+            for (int tz = range[2]; tz <= range[3]; tz++) {
+                for (int tx = range[0]; tx <= range[1]; tx++) {
+                    tileOffsets[tz * tilesX + tx + 1]++;
+                }
+            }
+        }
+        for (int i = 0; i < results.length; i++) {
+            tileOffsets[i + 1] += tileOffsets[i];
+        }
+        tileTriangles = new int[tileOffsets[results.length]];
+        int[] fill = Arrays.copyOf(tileOffsets, results.length);
+        for (int t = 0; t < triangles; t++) {
+            getTileRange(t, range);
+            for (int tz = range[2]; tz <= range[3]; tz++) {
+                for (int tx = range[0]; tx <= range[1]; tx++) {
+                    tileTriangles[fill[tz * tilesX + tx]++] = t;
+                }
+            }
+        }
+    }
+
+    private void getTileRange(int triangle, int[] range) {
+        float x0 = Float.POSITIVE_INFINITY, z0 = Float.POSITIVE_INFINITY;
+        float x1 = Float.NEGATIVE_INFINITY, z1 = Float.NEGATIVE_INFINITY;
+        for (int i = triangle * 3; i < triangle * 3 + 3; i++) {
+            int v = indices[i] * 3;
+            x0 = Math.min(x0, positions[v]);
+            x1 = Math.max(x1, positions[v]);
+            z0 = Math.min(z0, positions[v + 2]);
+            z1 = Math.max(z1, positions[v + 2]);
+        }
+        getTileRange(x0, x1, z0, z1, range);
+    }
+
+    /**
+     * Stores the range of tiles the given area plus the tile border overlaps
+     * as minX, maxX, minZ, maxZ in the range array.
+     */
+    private void getTileRange(float x0, float x1, float z0, float z1, int[] range) {
+        range[0] = clamp((int) Math.floor((x0 - border - minX) / tileSize), tilesX);
+        range[1] = clamp((int) Math.floor((x1 + border - minX) / tileSize), tilesX);
+        range[2] = clamp((int) Math.floor((z0 - border - minZ) / tileSize), tilesZ);
+        range[3] = clamp((int) Math.floor((z1 + border - minZ) / tileSize), tilesZ);
+    }
+
+    private static int clamp(int tile, int tiles) {
+        return Math.max(0, Math.min(tiles - 1, tile));
+    }
+
+    int getTileCount() {
+        return results.length;
+    }
+
+    /**
+     * @param previous the tiles of the previous build
+     * @return true if the previous tiles use the same grid and build
+     * parameters, so their results can be reused
+     */
+    boolean isCompatible(NavMeshTiles previous) {
+        return previous.tileSize == tileSize
+                && previous.minX == minX && previous.minZ == minZ
+                && previous.tilesX == tilesX && previous.tilesZ == tilesZ
+                && previous.generator.hasSameSettings(generator);
+    }
+
+    /**
+     * Takes over the results of compatible previous tiles.
+     *
+     * @see #isCompatible(NavMeshTiles)
+     */
+    void copyResults(NavMeshTiles previous) {
+        System.arraycopy(previous.results, 0, results, 0, results.length);
+    }
+
+    /**
+     * @param areas the changed areas as minX, maxX, minZ, maxZ
+     * @return the indices of the tiles whose source geometry overlaps one of
+     * the areas
+     */
+    int[] getTiles(List<float[]> areas) {
+        boolean[] affected = new boolean[results.length];
+        int count = 0;
+        int[] range = new int[4];
+        for (float[] area : areas) {
+            getTileRange(area[0], area[1], area[2], area[3], range);
+            for (int tz = range[2]; tz <= range[3]; tz++) {
+                for (int tx = range[0]; tx <= range[1]; tx++) {
+                    if (!affected[tz * tilesX + tx]) {
+                        affected[tz * tilesX + tx] = true;
+                        count++;
+                    }
+                }
+            }
+        }
+        int[] tiles = new int[count];
+        for (int i = 0, j = 0; i < affected.length; i++) {
+            if (affected[i]) {
+                tiles[j++] = i;
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Builds all tiles.
+     *
+     * @see #build(int[], long, IntConsumer)
+     */
+    boolean build(long timeout, IntConsumer progress) {
+        int[] tiles = new int[results.length];
+        for (int i = 0; i < tiles.length; i++) {
+            tiles[i] = i;
+        }
+        return build(tiles, timeout, progress);
+    }
+
+    /**
+     * Builds the given tiles on the shared fork join pool and replaces their
+     * previous results. Blocks until all tiles are built.
+     *
+     * @param tiles the indices of the tiles to build
+     * @param timeout the maximum time in milliseconds to wait for the next
+     * tile to complete
+     * @param progress receives the number of completed tiles, may be null
+     * @return false if the build timed out or failed, the running tiles are
+     * interrupted and the results of the tiles that were completed before
+     * are kept
+     */
+    boolean build(int[] tiles, long timeout, IntConsumer progress) {
+        CompletionService<Integer> service = new ExecutorCompletionService<>(pool);
+        List<Future<Integer>> futures = new ArrayList<>(tiles.length);
+        // the vertex maps of this build, one per running tile
+        Queue<int[]> vertexMaps = new ConcurrentLinkedQueue<>();
+        // set when the build gives up, tiles finishing later are dropped
+        boolean[] cancelled = new boolean[1];
+        for (int tile : tiles) {
+            futures.add(service.submit(() -> {
+                int[] map = vertexMaps.poll();
+                if (map == null) {
+                    map = new int[positions.length / 3];
+                    Arrays.fill(map, -1);
+                }
+                TriangleMesh result;
+                try {
+                    result = buildTile(tile, map);
+                } finally {
+                    vertexMaps.offer(map);
+                }
+                synchronized (cancelled) {
+                    if (cancelled[0]) {
+                        throw new InterruptedException();
+                    }
+                    results[tile] = result;
+                }
+                return tile;
+            }));
+        }
+        try {
+            for (int done = 1; done <= tiles.length; done++) {
+                Future<Integer> future = service.poll(timeout, TimeUnit.MILLISECONDS);
+                if (future == null) {
+                    return false;
+                }
+                future.get();
+                if (progress != null) {
+                    progress.accept(done);
+                }
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException ex) {
+            logger.log(Level.WARNING, "Error building NavMesh tile", ex.getCause());
+            return false;
+        } finally {
+            synchronized (cancelled) {
+                cancelled[0] = true;
+            }
+            for (Future<Integer> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @param map maps source vertices to tile vertices, all -1 and reset to
+     * -1 when done
+     * @throws InterruptedException when the build was cancelled
+     */
+    private TriangleMesh buildTile(int tile, int[] map) throws InterruptedException {
+        int start = tileOffsets[tile];
+        int end = tileOffsets[tile + 1];
+        if (start == end) {
+            return null;
+        }
+        // copy the triangles of the tile and their vertices into compact arrays
+        int[] tileIndices = new int[(end - start) * 3];
+        float[] tileVertices = new float[Math.min(tileIndices.length, positions.length / 3) * 3];
+        int vertexCount = 0;
+        for (int i = 0; i < tileIndices.length; i++) {
+            int v = indices[tileTriangles[start + i / 3] * 3 + i % 3];
+            if (map[v] < 0) {
+                map[v] = vertexCount;
+                System.arraycopy(positions, v * 3, tileVertices, vertexCount * 3, 3);
+                vertexCount++;
+            }
+            tileIndices[i] = map[v];
+        }
+        for (int i = 0; i < tileIndices.length; i++) {
+            map[indices[tileTriangles[start + i / 3] * 3 + i % 3]] = -1;
+        }
+        checkInterrupted();
+
+        TriangleMesh source = new TriangleMesh();
+        source.vertices = Arrays.copyOf(tileVertices, vertexCount * 3);
+        source.indices = tileIndices;
+        // cut the source down to the tile plus its border, the heightfield
+        // covers the bounds of the vertices it gets
+        source = clip(source, getBounds(tile, border));
+        if (source.indices.length == 0) {
+            return null;
+        }
+        checkInterrupted();
+        TriangleMesh mesh = generator.createNmgen().build(source.vertices, source.indices, null);
+        checkInterrupted();
+        if (mesh == null) {
+            return null;
+        }
+        return clip(mesh, getBounds(tile, 0));
+    }
+
+    private static void checkInterrupted() throws InterruptedException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new InterruptedException();
+        }
+    }
+
+    /**
+     * Returns the bounds of a tile grown by the margin as minX, maxX, minZ,
+     * maxZ. The outer tiles are not bounded at the border of the scene.
+     */
+    private float[] getBounds(int tile, float margin) {
+        int tx = tile % tilesX;
+        int tz = tile / tilesX;
+        return new float[]{
+            tx == 0 ? Float.NEGATIVE_INFINITY : minX + tx * tileSize - margin,
+            tx == tilesX - 1 ? Float.POSITIVE_INFINITY : minX + (tx + 1) * tileSize + margin,
+            tz == 0 ? Float.NEGATIVE_INFINITY : minZ + tz * tileSize - margin,
+            tz == tilesZ - 1 ? Float.POSITIVE_INFINITY : minZ + (tz + 1) * tileSize + margin};
+    }
+
+    private static int getLine(float coordinate, float origin, float tileSize, int tiles) {
+        int line = Math.round((coordinate - origin) / tileSize);
+        if (line > 0 && line < tiles && coordinate == origin + line * tileSize) {
+            return line;
+        }
+        return -1;
+    }
+
+    /**
+     * Clips triangles to the given bounds, used for the source triangles of a
+     * tile and for its output, whose parts outside the tile belong to the
+     * neighbour tiles. The vertices created on a bound only depend on the
+     * clipped triangle edge, so triangles sharing the edge share the new
+     * vertex. Vertices no triangle uses anymore are dropped.
+     *
+     * @param bounds minX, maxX, minZ, maxZ, infinite bounds are not clipped
+     */
+    private static TriangleMesh clip(TriangleMesh mesh, float[] bounds) {
+        float[] vertices = Arrays.copyOf(mesh.vertices, mesh.vertices.length + 96);
+        int vertexCount = mesh.vertices.length / 3;
+        int[] triangles = new int[mesh.indices.length + 96];
+        int indexCount = 0;
+        // a triangle clipped by four planes has at most seven corners
+        float[] polygon = new float[7 * 3];
+        int[] polygonIds = new int[7];
+        float[] clipped = new float[7 * 3];
+        int[] clippedIds = new int[7];
+        for (int i = 0; i < mesh.indices.length; i += 3) {
+            for (int k = 0; k < 3; k++) {
+                System.arraycopy(mesh.vertices, mesh.indices[i + k] * 3, polygon, k * 3, 3);
+                polygonIds[k] = mesh.indices[i + k];
+            }
+            int corners = 3;
+            for (int plane = 0; plane < 4 && corners > 0; plane++) {
+                if (Float.isInfinite(bounds[plane])) {
+                    continue;
+                }
+                corners = clip(polygon, polygonIds, corners, clipped, clippedIds, plane, bounds[plane]);
+                float[] swap = polygon;
+                polygon = clipped;
+                clipped = swap;
+                int[] swapIds = polygonIds;
+                polygonIds = clippedIds;
+                clippedIds = swapIds;
+            }
+            if (corners < 3) {
+                continue;
+            }
+            for (int k = 0; k < corners; k++) {
+                if (polygonIds[k] < 0) {
+                    if (vertices.length < (vertexCount + 1) * 3) {
+                        vertices = Arrays.copyOf(vertices, vertices.length * 2);
+                    }
+                    System.arraycopy(polygon, k * 3, vertices, vertexCount * 3, 3);
+                    polygonIds[k] = vertexCount++;
+                }
+            }
+            if (triangles.length < indexCount + (corners - 2) * 3) {
+                triangles = Arrays.copyOf(triangles, triangles.length * 2 + (corners - 2) * 3);
+            }
+            for (int k = 1; k < corners - 1; k++) {
+                triangles[indexCount++] = polygonIds[0];
+                triangles[indexCount++] = polygonIds[k];
+                triangles[indexCount++] = polygonIds[k + 1];
+            }
+        }
+        int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+        float[] used = new float[vertexCount * 3];
+        int usedCount = 0;
+        for (int i = 0; i < indexCount; i++) {
+            int v = triangles[i];
+            if (remap[v] < 0) {
+                System.arraycopy(vertices, v * 3, used, usedCount * 3, 3);
+                remap[v] = usedCount++;
+            }
+            triangles[i] = remap[v];
+        }
+        TriangleMesh clippedMesh = new TriangleMesh();
+        clippedMesh.vertices = Arrays.copyOf(used, usedCount * 3);
+        clippedMesh.indices = Arrays.copyOf(triangles, indexCount);
+        return clippedMesh;
+    }
+
+    /**
+     * Clips a convex polygon against one side of a tile.
+     *
+     * @param plane 0 and 1 keep the part with x greater or less than the
+     * bound, 2 and 3 the same for z
+     * @return the number of corners of the clipped polygon, new corners get
+     * the id -1
+     */
+    private static int clip(float[] polygon, int[] polygonIds, int corners, float[] clipped, int[] clippedIds, int plane, float bound) {
+        int axis = plane < 2 ? 0 : 2;
+        float sign = plane % 2 == 0 ? 1 : -1;
+        int count = 0;
+        for (int k = 0; k < corners; k++) {
+            int p = k * 3;
+            int q = ((k + 1) % corners) * 3;
+            float dp = (polygon[p + axis] - bound) * sign;
+            float dq = (polygon[q + axis] - bound) * sign;
+            if (dp >= 0) {
+                System.arraycopy(polygon, p, clipped, count * 3, 3);
+                clippedIds[count++] = polygonIds[k];
+            }
+            if ((dp > 0 && dq < 0) || (dp < 0 && dq > 0)) {
+                // interpolate in a fixed order so both directions of the edge give the same vertex
+                if (polygon[q] < polygon[p] || (polygon[q] == polygon[p] && polygon[q + 2] < polygon[p + 2])) {
+                    int swap = p;
+                    p = q;
+                    q = swap;
+                }
+                float t = (bound - polygon[p + axis]) / (polygon[q + axis] - polygon[p + axis]);
+                int c = count * 3;
+                clipped[c] = polygon[p] + (polygon[q] - polygon[p]) * t;
+                clipped[c + 1] = polygon[p + 1] + (polygon[q + 1] - polygon[p + 1]) * t;
+                clipped[c + 2] = polygon[p + 2] + (polygon[q + 2] - polygon[p + 2]) * t;
+                clipped[c + axis] = bound;
+                clippedIds[count++] = -1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Merges the built tiles into one mesh. Vertices of neighbour tiles that
+     * lie close together on a tile edge are welded and triangle edges on a
+     * tile edge are split where the neighbour tile has a vertex, so the tiles
+     * share their edges. Vertices are only connected across a tile edge if
+     * they are closer in height than the minimum traversable height, which is
+     * the closest two separate floors can get.
+     *
+     * @return the merged mesh or null if no tile contains a walkable area
+     */
+    TriangleMesh stitch() {
+        int vertexCapacity = 0;
+        int indexCapacity = 0;
+        for (TriangleMesh result : results) {
+            if (result != null) {
+                vertexCapacity += result.vertices.length;
+                indexCapacity += result.indices.length;
+            }
+        }
+        if (indexCapacity == 0) {
+            return null;
+        }
+        List<List<Integer>> linesX = new ArrayList<>();
+        List<List<Integer>> linesZ = new ArrayList<>();
+        for (int i = 0; i < tilesX; i++) {
+            linesX.add(new ArrayList<>());
+        }
+        for (int i = 0; i < tilesZ; i++) {
+            linesZ.add(new ArrayList<>());
+        }
+
+        float[] vertices = new float[vertexCapacity];
+        int[] triangles = new int[indexCapacity];
+        int vertexCount = 0;
+        int indexCount = 0;
+        for (TriangleMesh result : results) {
+            if (result == null) {
+                continue;
+            }
+            for (int i = 0; i < result.indices.length; i++) {
+                triangles[indexCount++] = vertexCount + result.indices[i];
+            }
+            for (int v = 0; v < result.vertices.length / 3; v++) {
+                int lineX = getLine(result.vertices[v * 3], minX, tileSize, tilesX);
+                int lineZ = getLine(result.vertices[v * 3 + 2], minZ, tileSize, tilesZ);
+                if (lineX >= 0) {
+                    linesX.get(lineX).add(vertexCount);
+                }
+                if (lineZ >= 0) {
+                    linesZ.get(lineZ).add(vertexCount);
+                }
+                System.arraycopy(result.vertices, v * 3, vertices, vertexCount * 3, 3);
+                vertexCount++;
+            }
+        }
+
+        // weld the vertices on each tile edge
+        final float[] positions = vertices;
+        float tolerance = generator.getMinTraversableHeight();
+        float distance = generator.getCellSize() * 0.5f;
+        int[] welded = new int[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            welded[i] = i;
+        }
+        for (List<Integer> line : linesX) {
+            weld(positions, line, 2, distance, tolerance, welded);
+        }
+        for (List<Integer> line : linesZ) {
+            weld(positions, line, 0, distance, tolerance, welded);
+        }
+        for (int i = 0; i < indexCount; i++) {
+            triangles[i] = find(welded, triangles[i]);
+        }
+        for (List<Integer> line : linesX) {
+            line.removeIf(v -> find(welded, v) != v);
+        }
+        for (List<Integer> line : linesZ) {
+            line.removeIf(v -> find(welded, v) != v);
+        }
+
+        // split the triangle edges on the tile edges at the vertices of the neighbour tiles
+        int[] stitched = new int[indexCount + indexCount / 2];
+        int stitchedCount = 0;
+        ArrayDeque<int[]> pending = new ArrayDeque<>();
+        for (int i = 0; i < indexCount; i += 3) {
+            pending.push(new int[]{triangles[i], triangles[i + 1], triangles[i + 2]});
+            while (!pending.isEmpty()) {
+                int[] triangle = pending.pop();
+                if (triangle[0] == triangle[1] || triangle[1] == triangle[2] || triangle[0] == triangle[2]) {
+                    continue;
+                }
+                boolean split = false;
+                for (int k = 0; k < 3 && !split; k++) {
+                    int p = triangle[k], q = triangle[(k + 1) % 3], r = triangle[(k + 2) % 3];
+                    int m = findEdgeVertex(positions, linesX, linesZ, p, q, tolerance);
+                    if (m >= 0) {
+                        pending.push(new int[]{p, m, r});
+                        pending.push(new int[]{m, q, r});
+                        split = true;
+                    }
+                }
+                if (!split) {
+                    if (stitched.length < stitchedCount + 3) {
+                        stitched = Arrays.copyOf(stitched, stitched.length * 2);
+                    }
+                    System.arraycopy(triangle, 0, stitched, stitchedCount, 3);
+                    stitchedCount += 3;
+                }
+            }
+        }
+
+        // drop the welded vertices
+        int[] remap = new int[vertexCount];
+        Arrays.fill(remap, -1);
+        float[] compacted = new float[vertexCount * 3];
+        int compactedCount = 0;
+        for (int i = 0; i < stitchedCount; i++) {
+            int v = stitched[i];
+            if (remap[v] < 0) {
+                System.arraycopy(positions, v * 3, compacted, compactedCount * 3, 3);
+                remap[v] = compactedCount++;
+            }
+            stitched[i] = remap[v];
+        }
+        TriangleMesh mesh = new TriangleMesh();
+        mesh.vertices = Arrays.copyOf(compacted, compactedCount * 3);
+        mesh.indices = Arrays.copyOf(stitched, stitchedCount);
+        return mesh;
+    }
+
+    /**
+     * Sorts the vertices of a tile edge along the edge and welds the vertices
+     * that are closer than the given distance along the edge and the given
+     * tolerance in height.
+     */
+    private static void weld(float[] positions, List<Integer> line, int axis, float distance, float tolerance, int[] welded) {
+        line.sort((a, b) -> Float.compare(positions[a * 3 + axis], positions[b * 3 + axis]));
+        for (int i = 0; i < line.size(); i++) {
+            int v = line.get(i);
+            for (int j = i - 1; j >= 0; j--) {
+                int w = line.get(j);
+                if (positions[v * 3 + axis] - positions[w * 3 + axis] > distance) {
+                    break;
+                }
+                if (Math.abs(positions[v * 3 + 1] - positions[w * 3 + 1]) < tolerance) {
+                    int root = find(welded, w);
+                    int other = find(welded, v);
+                    if (root != other) {
+                        welded[Math.max(root, other)] = Math.min(root, other);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int find(int[] welded, int vertex) {
+        while (welded[vertex] != vertex) {
+            welded[vertex] = welded[welded[vertex]];
+            vertex = welded[vertex];
+        }
+        return vertex;
+    }
+
+
+    /**
+     * Finds a vertex of the neighbour tile on the edge p q if the edge lies
+     * on a tile edge.
+     *
+     * @return the vertex or -1
+     */
+    private int findEdgeVertex(float[] positions, List<List<Integer>> linesX, List<List<Integer>> linesZ, int p, int q, float tolerance) {
+        int line = getLine(positions[p * 3], minX, tileSize, tilesX);
+        if (line >= 0 && positions[p * 3] == positions[q * 3]) {
+            int m = findEdgeVertex(positions, linesX.get(line), 2, p, q, tolerance);
+            if (m >= 0) {
+                return m;
+            }
+        }
+        line = getLine(positions[p * 3 + 2], minZ, tileSize, tilesZ);
+        if (line >= 0 && positions[p * 3 + 2] == positions[q * 3 + 2]) {
+            return findEdgeVertex(positions, linesZ.get(line), 0, p, q, tolerance);
+        }
+        return -1;
+    }
+
+    private static int findEdgeVertex(float[] positions, List<Integer> line, int axis, int p, int q, float tolerance) {
+        float start = positions[p * 3 + axis];
+        float end = positions[q * 3 + axis];
+        float min = Math.min(start, end);
+        float max = Math.max(start, end);
+        // first vertex after min, the line is sorted along the axis
+        int low = 0, high = line.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (positions[line.get(mid) * 3 + axis] <= min) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int i = low; i < line.size(); i++) {
+            int m = line.get(i);
+            float position = positions[m * 3 + axis];
+            if (position >= max) {
+                break;
+            }
+            // only split at vertices of the same floor
+            float height = positions[p * 3 + 1] + (positions[q * 3 + 1] - positions[p * 3 + 1]) * (position - start) / (end - start);
+            if (Math.abs(positions[m * 3 + 1] - height) <= tolerance) {
+                return m;
+            }
+        }
+        return -1;
+    }
+}
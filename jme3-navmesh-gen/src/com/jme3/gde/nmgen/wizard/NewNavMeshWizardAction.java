@@ -79,7 +79,7 @@ public final class NewNavMeshWizardAction extends AbstractNewSpatialWizardAction
             Mesh mesh = new Mesh();
 
             GeometryBatchFactory.mergeGeometries(findGeometries(rootNode, new LinkedList<>(), generator, rootNode), mesh);
-            Mesh optiMesh = generator.optimize(mesh);
+            Mesh optiMesh = generator.optimize(mesh, progressHandle);
             if(optiMesh == null) return null;
 
             Material material = new Material(pm, "Common/MatDefs/Misc/Unshaded.j3md");
@@ -4,6 +4,7 @@
  */
 package com.jme3.gde.terraineditor;
 
+import com.jme3.asset.ModelKey;
 import com.jme3.asset.TextureKey;
 import com.jme3.bounding.BoundingBox;
 import com.jme3.gde.core.assets.ProjectAssetManager;
@@ -13,8 +14,11 @@ import com.jme3.gde.core.sceneexplorer.nodes.actions.NewSpatialAction;
 import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.terrain.Terrain;
+import com.jme3.terrain.geomipmap.TerrainGrid;
+import com.jme3.terrain.geomipmap.TerrainGridLodControl;
 import com.jme3.terrain.geomipmap.TerrainLodControl;
 import com.jme3.terrain.geomipmap.TerrainQuad;
+import com.jme3.terrain.geomipmap.grid.AssetTileLoader;
 import com.jme3.terrain.geomipmap.lodcalc.DistanceLodCalculator;
 import com.jme3.terrain.heightmap.AbstractHeightMap;
 import com.jme3.texture.Texture;
@@ -25,6 +29,7 @@ import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
+import java.util.List;
 import javax.imageio.ImageIO;
 import javax.swing.JComponent;
 import jme3tools.converters.ImageToAwt;
@@ -86,6 +91,12 @@ public class AddTerrainAction extends AbstractNewSpatialWizardAction {
         int patchSize = (Integer) wizardDescriptor.getProperty("patchSize");
         int alphaTextureSize = (Integer) wizardDescriptor.getProperty("alphaTextureSize");
 
+        File gridFile = (File) wizardDescriptor.getProperty("heightfieldGridFile");
+        if (gridFile != null) {
+            float heightScale = (Float) wizardDescriptor.getProperty("heightfieldGridScale");
+            return doCreateTerrainGrid(parent, totalSize, patchSize, alphaTextureSize, gridFile, heightScale, sceneName, selectedNode);
+        }
+
         float[] heightmapData = null;
         AbstractHeightMap heightmap = null;
         if (wizardDescriptor.getProperty("abstractHeightMap") != null)
@@ -109,10 +120,58 @@ public class AddTerrainAction extends AbstractNewSpatialWizardAction {
                                     float[] heightmapData,
                                     String sceneName,
                                     org.openide.nodes.Node selectedNode) throws IOException
+    {
+        Terrain terrain = new TerrainQuad("terrain-"+sceneName, patchSize, totalSize, heightmapData); //TODO make this pluggable for different Terrain implementations
+        return doCreateTerrain(parent, terrain, patchSize, alphaTextureSize, sceneName, selectedNode);
+    }
+
+    /**
+     * Creates a TerrainGrid from a heightfield file. The file is split into
+     * j3o tiles in the assets, which the AssetTileLoader of jme3-terrain
+     * loads, so the scene also loads outside of the SDK. Grid cells outside
+     * of the file are flat.
+     *
+     * @param heightfield the heightfield file
+     * @param heightScale the factor all heights are multiplied with
+     */
+    protected Spatial doCreateTerrainGrid(Node parent,
+                                    int totalSize,
+                                    int patchSize,
+                                    int alphaTextureSize,
+                                    File heightfield,
+                                    float heightScale,
+                                    String sceneName,
+                                    org.openide.nodes.Node selectedNode) throws IOException
+    {
+        final ProjectAssetManager manager = selectedNode.getLookup().lookup(ProjectAssetManager.class);
+        if (manager == null) {
+            return null;
+        }
+        String terrainName = "terrain-"+sceneName;
+        String tilePath = "Scenes/terrain-tiles/"+terrainName;
+        File tileFolder = new File(manager.getAssetFolderName()+"/"+tilePath);
+        if (!tileFolder.isDirectory() && !tileFolder.mkdirs()) {
+            throw new IOException("Could not create the Terrain Tile Folder (assets/"+tilePath+")!");
+        }
+        // a TerrainGrid is made of quads of half its visible size
+        List<String> tiles = HeightfieldTiles.write(heightfield, heightScale, patchSize, (totalSize + 1) / 2, terrainName, tileFolder);
+        for (String tile : tiles) {
+            // tiles of an earlier grid with the same name
+            manager.deleteFromCache(new ModelKey(tilePath+"/"+tile));
+        }
+        Terrain terrain = new TerrainGrid(terrainName, patchSize, totalSize, new AssetTileLoader(manager, terrainName, tilePath));
+        return doCreateTerrain(parent, terrain, patchSize, alphaTextureSize, sceneName, selectedNode);
+    }
+
+    private Spatial doCreateTerrain(Node parent,
+                                    Terrain terrain,
+                                    int patchSize,
+                                    int alphaTextureSize,
+                                    String sceneName,
+                                    org.openide.nodes.Node selectedNode) throws IOException
     {
         final ProjectAssetManager manager = selectedNode.getLookup().lookup(ProjectAssetManager.class);
 
-        Terrain terrain = new TerrainQuad("terrain-"+sceneName, patchSize, totalSize, heightmapData); //TODO make this pluggable for different Terrain implementations
         com.jme3.material.Material mat = new com.jme3.material.Material(manager, "Common/MatDefs/Terrain/TerrainLighting.j3md");
 
         String assetFolder = "";
@@ -183,8 +242,10 @@ public class AddTerrainAction extends AbstractNewSpatialWizardAction {
         ((Node)terrain).setLocalTranslation(0, 0, 0);
         ((Node)terrain).setLocalScale(1f, 1f, 1f);
 
-        // add the lod control
-        TerrainLodControl control = new TerrainLodControl(terrain, SceneApplication.getApplication().getCamera());
+        // add the lod control, the one of a grid also loads the tiles around the camera
+        TerrainLodControl control = terrain instanceof TerrainGrid
+                ? new TerrainGridLodControl(terrain, SceneApplication.getApplication().getCamera())
+                : new TerrainLodControl(terrain, SceneApplication.getApplication().getCamera());
         control.setLodCalculator(new DistanceLodCalculator(patchSize, 2.7f));
 	((Node)terrain).addControl(control);
 
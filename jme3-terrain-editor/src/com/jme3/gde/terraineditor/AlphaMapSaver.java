@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor;
+
+import com.jme3.texture.Image;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import javax.imageio.ImageIO;
+import java.awt.EventQueue;
+import jme3tools.converters.ImageToAwt;
+import org.openide.util.Exceptions;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Writes alpha maps to PNG files in the background. The pixels are copied
+ * on the calling thread, so painting can go on right away, then the
+ * layers are converted and encoded in parallel. Each file is written to a
+ * temporary file next to it first and moved over the old file when
+ * complete, so a failed or interrupted save never leaves a broken alpha
+ * map behind.
+ */
+class AlphaMapSaver {
+
+    private static final RequestProcessor SAVER = new RequestProcessor("Alpha map saver",
+            TerrainEditorController.NUM_ALPHA_TEXTURES);
+    private final RequestProcessor.Task[] tasks = new RequestProcessor.Task[TerrainEditorController.NUM_ALPHA_TEXTURES];
+
+    /**
+     * Saves one alpha map. Saves of the same layer are written in the order
+     * they were started. Call this on the OpenGL thread.
+     *
+     * @param layer the alpha layer
+     * @param image the alpha map
+     * @param file the PNG file to write
+     * @param failed run on the AWT thread when the map could not be written,
+     * can be null
+     */
+    public synchronized void save(int layer, Image image, final File file, final Runnable failed) {
+        final Image copy = copy(image);
+        final RequestProcessor.Task previous = tasks[layer];
+        tasks[layer] = SAVER.post(() -> {
+            if (previous != null) {
+                previous.waitFinished();
+            }
+            try {
+                write(ImageToAwt.convert(copy, false, true, 0), file);
+            } catch (IOException | RuntimeException ex) {
+                Exceptions.printStackTrace(Exceptions.attachMessage(ex, "Failed saving alphamap " + file));
+                if (failed != null) {
+                    EventQueue.invokeLater(failed);
+                }
+            }
+        });
+    }
+
+    /**
+     * Blocks until all saves started so far are written or failed.
+     */
+    public void waitFinished() {
+        RequestProcessor.Task[] pending;
+        synchronized (this) {
+            pending = tasks.clone();
+        }
+        for (RequestProcessor.Task task : pending) {
+            if (task != null) {
+                task.waitFinished();
+            }
+        }
+    }
+
+    private static Image copy(Image image) {
+        ByteBuffer data = image.getData(0).duplicate();
+        data.clear();
+        ByteBuffer copy = ByteBuffer.allocate(data.capacity());
+        copy.put(data).flip();
+        return new Image(image.getFormat(), image.getWidth(), image.getHeight(), copy, image.getColorSpace());
+    }
+
+    private static void write(BufferedImage image, File file) throws IOException {
+        Path target = file.toPath();
+        Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), file.getName(), ".tmp");
+        try {
+            if (!ImageIO.write(image, "png", temp.toFile())) {
+                throw new IOException("No PNG writer found");
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
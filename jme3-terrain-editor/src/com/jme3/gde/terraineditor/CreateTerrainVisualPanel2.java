@@ -7,15 +7,19 @@ package com.jme3.gde.terraineditor;
 import com.jme3.gde.core.properties.TexturePropertyEditor;
 import com.jme3.texture.Texture;
 import java.awt.Component;
+import java.io.File;
 import javax.swing.JComboBox;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import org.openide.filesystems.FileChooserBuilder;
 
 @SuppressWarnings({"unchecked", "rawtypes"})
 public final class CreateTerrainVisualPanel2 extends JPanel {
 
     //String[] types = {"Flat", "Image Based", "Hill", "Fault Fractal"};
     private Texture browsedTexture;
+    private File heightfieldFile;
     private CreateTerrainWizardPanel2 wizardPanel;
 
     /** Creates new form CreateTerrainVisualPanel2 */
@@ -26,6 +30,8 @@ public final class CreateTerrainVisualPanel2 extends JPanel {
         _imagePanel.setVisible(false);
         _hillPanel.setVisible(false);
         _faultPanel.setVisible(false);
+        _proceduralPanel.setVisible(false);
+        _heightfieldPanel.setVisible(false);
         this.validate();
     }
 
@@ -69,6 +75,27 @@ public final class CreateTerrainVisualPanel2 extends JPanel {
         _hillMaxRadiusTextField = new javax.swing.JTextField();
         _faultPanel = new javax.swing.JPanel();
         _faultDescriptionLabel = new javax.swing.JLabel();
+        _proceduralPanel = new javax.swing.JPanel();
+        _proceduralDescriptionLabel = new javax.swing.JLabel();
+        jLabel8 = new javax.swing.JLabel();
+        _proceduralSeedTextField = new javax.swing.JTextField();
+        jLabel9 = new javax.swing.JLabel();
+        _proceduralNoiseComboBox = new javax.swing.JComboBox();
+        jLabel10 = new javax.swing.JLabel();
+        _proceduralOctavesTextField = new javax.swing.JTextField();
+        jLabel11 = new javax.swing.JLabel();
+        _proceduralWarpTextField = new javax.swing.JTextField();
+        jLabel12 = new javax.swing.JLabel();
+        _proceduralThermalTextField = new javax.swing.JTextField();
+        jLabel13 = new javax.swing.JLabel();
+        _proceduralHydraulicTextField = new javax.swing.JTextField();
+        _heightfieldPanel = new javax.swing.JPanel();
+        _heightfieldDescriptionLabel = new javax.swing.JLabel();
+        _heightfieldBrowseTextField = new javax.swing.JTextField();
+        _heightfieldBrowseButton = new javax.swing.JButton();
+        jLabel14 = new javax.swing.JLabel();
+        _heightfieldScaleTextField = new javax.swing.JTextField();
+        _heightfieldGridCheckBox = new javax.swing.JCheckBox();
 
         imageFileChooser.setApproveButtonText(org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2.imageFileChooser.approveButtonText")); // NOI18N
         imageFileChooser.setApproveButtonToolTipText(org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2.imageFileChooser.approveButtonToolTipText")); // NOI18N
@@ -78,7 +105,7 @@ public final class CreateTerrainVisualPanel2 extends JPanel {
         jLabel1.setFont(new java.awt.Font("Tahoma", 1, 12));
         org.openide.awt.Mnemonics.setLocalizedText(jLabel1, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2.jLabel1.text")); // NOI18N
 
-        heightmapTypeComboBox.setModel(new javax.swing.DefaultComboBoxModel(new String[] { "Flat", "Image Based", "Hill" }));
+        heightmapTypeComboBox.setModel(new javax.swing.DefaultComboBoxModel(new String[] { "Flat", "Image Based", "Hill", "Procedural", "Heightfield File" }));
         heightmapTypeComboBox.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
                 heightmapTypeComboBoxActionPerformed(evt);
@@ -274,6 +301,145 @@ public final class CreateTerrainVisualPanel2 extends JPanel {
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
 
+        org.openide.awt.Mnemonics.setLocalizedText(_proceduralDescriptionLabel, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._proceduralDescriptionLabel.text")); // NOI18N
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel8, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2.jLabel8.text")); // NOI18N
+
+        _proceduralSeedTextField.setText(org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._proceduralSeedTextField.text")); // NOI18N
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel9, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2.jLabel9.text")); // NOI18N
+
+        _proceduralNoiseComboBox.setModel(new javax.swing.DefaultComboBoxModel(new String[] { "fBm", "Ridged" }));
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel10, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2.jLabel10.text")); // NOI18N
+
+        _proceduralOctavesTextField.setText(org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._proceduralOctavesTextField.text")); // NOI18N
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel11, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2.jLabel11.text")); // NOI18N
+
+        _proceduralWarpTextField.setText(org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._proceduralWarpTextField.text")); // NOI18N
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel12, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2.jLabel12.text")); // NOI18N
+
+        _proceduralThermalTextField.setText(org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._proceduralThermalTextField.text")); // NOI18N
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel13, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2.jLabel13.text")); // NOI18N
+
+        _proceduralHydraulicTextField.setText(org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._proceduralHydraulicTextField.text")); // NOI18N
+
+        javax.swing.GroupLayout _proceduralPanelLayout = new javax.swing.GroupLayout(_proceduralPanel);
+        _proceduralPanel.setLayout(_proceduralPanelLayout);
+        _proceduralPanelLayout.setHorizontalGroup(
+            _proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(_proceduralPanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(_proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(_proceduralDescriptionLabel)
+                    .addGroup(_proceduralPanelLayout.createSequentialGroup()
+                        .addGroup(_proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                            .addComponent(jLabel8)
+                            .addComponent(jLabel9)
+                            .addComponent(jLabel10)
+                            .addComponent(jLabel11)
+                            .addComponent(jLabel12)
+                            .addComponent(jLabel13))
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addGroup(_proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                            .addComponent(_proceduralSeedTextField, javax.swing.GroupLayout.PREFERRED_SIZE, 80, javax.swing.GroupLayout.PREFERRED_SIZE)
+                            .addComponent(_proceduralNoiseComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, 80, javax.swing.GroupLayout.PREFERRED_SIZE)
+                            .addComponent(_proceduralOctavesTextField, javax.swing.GroupLayout.PREFERRED_SIZE, 80, javax.swing.GroupLayout.PREFERRED_SIZE)
+                            .addComponent(_proceduralWarpTextField, javax.swing.GroupLayout.PREFERRED_SIZE, 80, javax.swing.GroupLayout.PREFERRED_SIZE)
+                            .addComponent(_proceduralThermalTextField, javax.swing.GroupLayout.PREFERRED_SIZE, 80, javax.swing.GroupLayout.PREFERRED_SIZE)
+                            .addComponent(_proceduralHydraulicTextField, javax.swing.GroupLayout.PREFERRED_SIZE, 80, javax.swing.GroupLayout.PREFERRED_SIZE))))
+                .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+        _proceduralPanelLayout.setVerticalGroup(
+            _proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(_proceduralPanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(_proceduralDescriptionLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(_proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel8)
+                    .addComponent(_proceduralSeedTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(_proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel9)
+                    .addComponent(_proceduralNoiseComboBox, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(_proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel10)
+                    .addComponent(_proceduralOctavesTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(_proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel11)
+                    .addComponent(_proceduralWarpTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(_proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel12)
+                    .addComponent(_proceduralThermalTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(_proceduralPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel13)
+                    .addComponent(_proceduralHydraulicTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+
+        org.openide.awt.Mnemonics.setLocalizedText(_heightfieldDescriptionLabel, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._heightfieldDescriptionLabel.text")); // NOI18N
+
+        _heightfieldBrowseTextField.setEditable(false);
+        _heightfieldBrowseTextField.setText(org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._heightfieldBrowseTextField.text")); // NOI18N
+
+        org.openide.awt.Mnemonics.setLocalizedText(_heightfieldBrowseButton, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._heightfieldBrowseButton.text")); // NOI18N
+        _heightfieldBrowseButton.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                _heightfieldBrowseButtonActionPerformed(evt);
+            }
+        });
+
+        org.openide.awt.Mnemonics.setLocalizedText(jLabel14, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2.jLabel14.text")); // NOI18N
+
+        _heightfieldScaleTextField.setText(org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._heightfieldScaleTextField.text")); // NOI18N
+
+        org.openide.awt.Mnemonics.setLocalizedText(_heightfieldGridCheckBox, org.openide.util.NbBundle.getMessage(CreateTerrainVisualPanel2.class, "CreateTerrainVisualPanel2._heightfieldGridCheckBox.text")); // NOI18N
+
+        javax.swing.GroupLayout _heightfieldPanelLayout = new javax.swing.GroupLayout(_heightfieldPanel);
+        _heightfieldPanel.setLayout(_heightfieldPanelLayout);
+        _heightfieldPanelLayout.setHorizontalGroup(
+            _heightfieldPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(_heightfieldPanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addGroup(_heightfieldPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+                    .addComponent(_heightfieldDescriptionLabel)
+                    .addGroup(_heightfieldPanelLayout.createSequentialGroup()
+                        .addComponent(_heightfieldBrowseTextField, javax.swing.GroupLayout.PREFERRED_SIZE, 246, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(_heightfieldBrowseButton))
+                    .addGroup(_heightfieldPanelLayout.createSequentialGroup()
+                        .addComponent(jLabel14)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(_heightfieldScaleTextField, javax.swing.GroupLayout.PREFERRED_SIZE, 45, javax.swing.GroupLayout.PREFERRED_SIZE))
+                    .addComponent(_heightfieldGridCheckBox))
+                .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+        _heightfieldPanelLayout.setVerticalGroup(
+            _heightfieldPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
+            .addGroup(_heightfieldPanelLayout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(_heightfieldDescriptionLabel)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(_heightfieldPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(_heightfieldBrowseTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(_heightfieldBrowseButton))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(_heightfieldPanelLayout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jLabel14)
+                    .addComponent(_heightfieldScaleTextField, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(_heightfieldGridCheckBox)
+                .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
+        );
+
         javax.swing.GroupLayout jPanel2Layout = new javax.swing.GroupLayout(jPanel2);
         jPanel2.setLayout(jPanel2Layout);
         jPanel2Layout.setHorizontalGroup(
@@ -290,6 +456,12 @@ public final class CreateTerrainVisualPanel2 extends JPanel {
             .addGroup(jPanel2Layout.createSequentialGroup()
                 .addComponent(_hillPanel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                 .addGap(24, 24, 24))
+            .addGroup(jPanel2Layout.createSequentialGroup()
+                .addComponent(_proceduralPanel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                .addGap(24, 24, 24))
+            .addGroup(jPanel2Layout.createSequentialGroup()
+                .addComponent(_heightfieldPanel, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                .addGap(24, 24, 24))
         );
         jPanel2Layout.setVerticalGroup(
             jPanel2Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
@@ -304,6 +476,10 @@ public final class CreateTerrainVisualPanel2 extends JPanel {
                 .addComponent(_imagePanel, javax.swing.GroupLayout.PREFERRED_SIZE, 192, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(_hillPanel, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(_proceduralPanel, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(_heightfieldPanel, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
 
@@ -344,24 +520,48 @@ public final class CreateTerrainVisualPanel2 extends JPanel {
             _imagePanel.setVisible(false);
             _hillPanel.setVisible(false);
             _faultPanel.setVisible(false);
+            _proceduralPanel.setVisible(false);
+            _heightfieldPanel.setVisible(false);
         }
         else if ("Image Based".equals(heightmapTypeComboBox.getSelectedItem()) ) {
             _flatPanel.setVisible(false);
             _imagePanel.setVisible(true);
             _hillPanel.setVisible(false);
             _faultPanel.setVisible(false);
+            _proceduralPanel.setVisible(false);
+            _heightfieldPanel.setVisible(false);
         }
         else if ("Hill".equals(heightmapTypeComboBox.getSelectedItem()) ) {
             _flatPanel.setVisible(false);
             _imagePanel.setVisible(false);
             _hillPanel.setVisible(true);
             _faultPanel.setVisible(false);
+            _proceduralPanel.setVisible(false);
+            _heightfieldPanel.setVisible(false);
         }
         else if ("Fault Fractal".equals(heightmapTypeComboBox.getSelectedItem()) ) {
             _flatPanel.setVisible(false);
             _imagePanel.setVisible(false);
             _hillPanel.setVisible(false);
             _faultPanel.setVisible(true);
+            _proceduralPanel.setVisible(false);
+            _heightfieldPanel.setVisible(false);
+        }
+        else if ("Procedural".equals(heightmapTypeComboBox.getSelectedItem()) ) {
+            _flatPanel.setVisible(false);
+            _imagePanel.setVisible(false);
+            _hillPanel.setVisible(false);
+            _faultPanel.setVisible(false);
+            _proceduralPanel.setVisible(true);
+            _heightfieldPanel.setVisible(false);
+        }
+        else if ("Heightfield File".equals(heightmapTypeComboBox.getSelectedItem()) ) {
+            _flatPanel.setVisible(false);
+            _imagePanel.setVisible(false);
+            _hillPanel.setVisible(false);
+            _faultPanel.setVisible(false);
+            _proceduralPanel.setVisible(false);
+            _heightfieldPanel.setVisible(true);
         }
         wizardPanel.fireChangeEvent();
         this.validate();
@@ -371,11 +571,29 @@ public final class CreateTerrainVisualPanel2 extends JPanel {
         openFileActionPerformed(evt);
     }//GEN-LAST:event__imageBrowseButtonActionPerformed
 
+    private void _heightfieldBrowseButtonActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event__heightfieldBrowseButtonActionPerformed
+        File file = new FileChooserBuilder(CreateTerrainVisualPanel2.class)
+                .setTitle("Open Heightfield")
+                .setFileFilter(new FileNameExtensionFilter("Heightfields (.raw, .r16, .png, .r32)", "raw", "r16", "png", "r32", "f32"))
+                .showOpenDialog();
+        if (file != null) {
+            heightfieldFile = file;
+            _heightfieldBrowseTextField.setText(file.getName());
+        }
+        wizardPanel.fireChangeEvent();
+    }//GEN-LAST:event__heightfieldBrowseButtonActionPerformed
+
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JLabel _faultDescriptionLabel;
     private javax.swing.JPanel _faultPanel;
     private javax.swing.JLabel _flatDescriptionLabel;
     private javax.swing.JPanel _flatPanel;
+    private javax.swing.JButton _heightfieldBrowseButton;
+    private javax.swing.JTextField _heightfieldBrowseTextField;
+    private javax.swing.JLabel _heightfieldDescriptionLabel;
+    private javax.swing.JCheckBox _heightfieldGridCheckBox;
+    private javax.swing.JPanel _heightfieldPanel;
+    private javax.swing.JTextField _heightfieldScaleTextField;
     private javax.swing.JLabel _hillDescriptionLabel;
     private javax.swing.JTextField _hillFlatteningTextField;
     private javax.swing.JTextField _hillIterationsTextField;
@@ -386,16 +604,31 @@ public final class CreateTerrainVisualPanel2 extends JPanel {
     private javax.swing.JTextField _imageBrowseTextField;
     private javax.swing.JLabel _imageDescriptionLabel;
     private javax.swing.JPanel _imagePanel;
+    private javax.swing.JLabel _proceduralDescriptionLabel;
+    private javax.swing.JTextField _proceduralHydraulicTextField;
+    private javax.swing.JComboBox _proceduralNoiseComboBox;
+    private javax.swing.JTextField _proceduralOctavesTextField;
+    private javax.swing.JPanel _proceduralPanel;
+    private javax.swing.JTextField _proceduralSeedTextField;
+    private javax.swing.JTextField _proceduralThermalTextField;
+    private javax.swing.JTextField _proceduralWarpTextField;
     private javax.swing.JTextField heightScale;
     private javax.swing.JComboBox heightmapTypeComboBox;
     private javax.swing.JFileChooser imageFileChooser;
     private javax.swing.JLabel jLabel1;
+    private javax.swing.JLabel jLabel10;
+    private javax.swing.JLabel jLabel11;
+    private javax.swing.JLabel jLabel12;
+    private javax.swing.JLabel jLabel13;
+    private javax.swing.JLabel jLabel14;
     private javax.swing.JLabel jLabel2;
     private javax.swing.JLabel jLabel3;
     private javax.swing.JLabel jLabel4;
     private javax.swing.JLabel jLabel5;
     private javax.swing.JLabel jLabel6;
     private javax.swing.JLabel jLabel7;
+    private javax.swing.JLabel jLabel8;
+    private javax.swing.JLabel jLabel9;
     private javax.swing.JPanel jPanel2;
     private javax.swing.JLabel smoothIterationsLabel;
     private javax.swing.JSlider smoothSlider;
@@ -421,6 +654,46 @@ public final class CreateTerrainVisualPanel2 extends JPanel {
         return _hillMinRadiusTextField;
     }
 
+    public JTextField getProceduralSeedTextField() {
+        return _proceduralSeedTextField;
+    }
+
+    public JComboBox getProceduralNoiseComboBox() {
+        return _proceduralNoiseComboBox;
+    }
+
+    public JTextField getProceduralOctavesTextField() {
+        return _proceduralOctavesTextField;
+    }
+
+    public JTextField getProceduralWarpTextField() {
+        return _proceduralWarpTextField;
+    }
+
+    public JTextField getProceduralThermalTextField() {
+        return _proceduralThermalTextField;
+    }
+
+    public JTextField getProceduralHydraulicTextField() {
+        return _proceduralHydraulicTextField;
+    }
+
+    public File getHeightfieldFile() {
+        return heightfieldFile;
+    }
+
+    public boolean isHeightfieldGrid() {
+        return _heightfieldGridCheckBox.isSelected();
+    }
+
+    public float getHeightfieldScale() {
+        try {
+            return Float.parseFloat(_heightfieldScaleTextField.getText());
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
     public Texture getImageBrowseTexture() {
         return browsedTexture;
     }
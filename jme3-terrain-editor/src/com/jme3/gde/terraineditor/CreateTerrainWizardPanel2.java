@@ -36,6 +36,7 @@ import com.jme3.terrain.heightmap.HillHeightMap;
 import com.jme3.terrain.heightmap.ImageBasedHeightMap;
 import com.jme3.texture.Texture;
 import java.awt.Component;
+import java.io.File;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
@@ -143,8 +144,9 @@ public class CreateTerrainWizardPanel2 implements WizardDescriptor.Panel {
         CreateTerrainVisualPanel2 comp = (CreateTerrainVisualPanel2) getComponent();
         
         WizardDescriptor wiz = (WizardDescriptor) settings;
-        wiz.putProperty("abstractHeightMap", heightmap);
         wiz.putProperty("heightMapSmooth", 0f);
+        wiz.putProperty("heightfieldGridFile", null);
+        heightmap = null;
         
         if ("Flat".equals(comp.getHeightmapTypeComboBox().getSelectedItem()) ) {
             heightmap = new FlatHeightmap(terrainTotalSize);
@@ -169,7 +171,32 @@ public class CreateTerrainWizardPanel2 implements WizardDescriptor.Panel {
                 Exceptions.printStackTrace(ex);
             }
         }
+        else if ("Procedural".equals(comp.getHeightmapTypeComboBox().getSelectedItem()) ) {
+            try {
+                long seed = Long.parseLong(comp.getProceduralSeedTextField().getText().trim());
+                ProceduralHeightmap procedural = new ProceduralHeightmap(terrainTotalSize, seed);
+                procedural.setNoiseType("Ridged".equals(comp.getProceduralNoiseComboBox().getSelectedItem())
+                        ? ProceduralHeightmap.NoiseType.RIDGED : ProceduralHeightmap.NoiseType.FBM);
+                procedural.setOctaves(Integer.parseInt(comp.getProceduralOctavesTextField().getText().trim()));
+                procedural.setWarp(Float.parseFloat(comp.getProceduralWarpTextField().getText().trim()));
+                procedural.setThermalIterations(Integer.parseInt(comp.getProceduralThermalTextField().getText().trim()));
+                procedural.setHydraulicIterations(Integer.parseInt(comp.getProceduralHydraulicTextField().getText().trim()));
+                heightmap = procedural;
+            } catch (NumberFormatException ex) {
+                Exceptions.printStackTrace(ex);
+            }
+        }
+        else if ("Heightfield File".equals(comp.getHeightmapTypeComboBox().getSelectedItem()) ) {
+            File file = comp.getHeightfieldFile();
+            if (file != null && comp.isHeightfieldGrid()) {
+                // the file is split into the tiles of a grid, there is no heightmap to load
+                wiz.putProperty("heightfieldGridFile", file);
+                wiz.putProperty("heightfieldGridScale", comp.getHeightfieldScale());
+            } else if (file != null) {
+                heightmap = new HeightfieldHeightmap(terrainTotalSize, file, comp.getHeightfieldScale());
+            }
+        }
 
-        
+        wiz.putProperty("abstractHeightMap", heightmap);
     }
 }
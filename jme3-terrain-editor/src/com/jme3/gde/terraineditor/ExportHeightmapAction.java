@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor;
+
+import com.jme3.gde.core.sceneexplorer.nodes.AbstractSceneExplorerNode;
+import com.jme3.gde.core.sceneexplorer.nodes.JmeTerrainQuad;
+import com.jme3.gde.core.sceneexplorer.nodes.actions.AbstractToolWizardAction;
+import com.jme3.gde.core.sceneexplorer.nodes.actions.ToolAction;
+import com.jme3.terrain.geomipmap.TerrainQuad;
+import java.io.File;
+import java.io.IOException;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import org.netbeans.api.progress.ProgressHandle;
+import org.openide.filesystems.FileChooserBuilder;
+import org.openide.nodes.Node;
+import org.openide.util.Exceptions;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Exports the heights of a terrain as a RAW16, 16 bit PNG or R32F
+ * heightfield, picked by the extension of the chosen file.
+ */
+@org.openide.util.lookup.ServiceProvider(service = ToolAction.class)
+public class ExportHeightmapAction extends AbstractToolWizardAction {
+
+    private static final RequestProcessor EXPORTER = new RequestProcessor("Heightmap exporter");
+
+    public ExportHeightmapAction() {
+        name = "Export Heightmap...";
+    }
+
+    @Override
+    public Class<?> getNodeClass() {
+        return JmeTerrainQuad.class;
+    }
+
+    @Override
+    protected Object showWizard(Node node) {
+        return new FileChooserBuilder(ExportHeightmapAction.class)
+                .setTitle("Export Heightmap")
+                .setFileFilter(new FileNameExtensionFilter("Heightfields (.raw, .r16, .png, .r32)", "raw", "r16", "png", "r32", "f32"))
+                .showSaveDialog();
+    }
+
+    @Override
+    protected Object doApplyTool(AbstractSceneExplorerNode rootNode, Object settings) {
+        if (settings == null) {
+            return null;
+        }
+        final File file = (File) settings;
+        TerrainQuad quad = rootNode.getLookup().lookup(TerrainQuad.class);
+        // a copy of the heights, the file is written while editing goes on
+        final float[] heights = quad.getHeightMap();
+        final int size = quad.getTerrainSize();
+        EXPORTER.post(() -> {
+            ProgressHandle progressHandle = ProgressHandle.createHandle("Exporting heightmap " + file.getName());
+            progressHandle.start();
+            try {
+                HeightfieldIO.write(file, HeightfieldIO.Format.forFile(file), heights, size);
+            } catch (IOException ex) {
+                Exceptions.printStackTrace(Exceptions.attachMessage(ex, "Failed exporting heightmap " + file));
+            } finally {
+                progressHandle.finish();
+            }
+        });
+        //return null, no undo entry created
+        return null;
+    }
+
+    @Override
+    protected void doUndoTool(AbstractSceneExplorerNode rootNode, Object undoObject) {
+        // no undo, not needed
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor;
+
+import com.jme3.terrain.heightmap.AbstractHeightMap;
+import java.io.File;
+import java.io.IOException;
+import org.openide.util.Exceptions;
+
+/**
+ * Heightmap loaded from a RAW16, 16 bit PNG or R32F heightfield file, see
+ * HeightfieldIO. The format is picked by the extension of the file. A file
+ * of another size than the terrain is resampled bilinearly.
+ */
+public class HeightfieldHeightmap extends AbstractHeightMap {
+
+    private final File file;
+    private final float scale;
+
+    /**
+     * @param size the width and height of the heightmap
+     * @param file the heightfield file
+     * @param scale the factor all heights are multiplied with
+     */
+    public HeightfieldHeightmap(int size, File file, float scale) {
+        this.size = size;
+        this.file = file;
+        this.scale = scale;
+    }
+
+    @Override
+    public boolean load() {
+        HeightfieldIO.Format format = HeightfieldIO.Format.forFile(file);
+        float[] heights;
+        try {
+            int fileSize = HeightfieldIO.getSize(file, format);
+            heights = HeightfieldIO.read(file, format);
+            if (fileSize != size) {
+                heights = resample(heights, fileSize, size);
+            }
+        } catch (IOException ex) {
+            Exceptions.printStackTrace(Exceptions.attachMessage(ex, "Failed loading heightfield " + file));
+            return false;
+        }
+        for (int i = 0; i < heights.length; i++) {
+            heights[i] *= scale;
+        }
+        heightData = heights;
+        return true;
+    }
+
+    private static float[] resample(float[] heights, int from, int to) {
+        float[] result = new float[to * to];
+        float step = to > 1 ? (float) (from - 1) / (to - 1) : 0;
+        for (int z = 0; z < to; z++) {
+            float fz = z * step;
+            int z0 = Math.min((int) fz, from - 1);
+            int z1 = Math.min(z0 + 1, from - 1);
+            float tz = fz - z0;
+            for (int x = 0; x < to; x++) {
+                float fx = x * step;
+                int x0 = Math.min((int) fx, from - 1);
+                int x1 = Math.min(x0 + 1, from - 1);
+                float tx = fx - x0;
+                float top = heights[z0 * from + x0] * (1 - tx) + heights[z0 * from + x1] * tx;
+                float bottom = heights[z1 * from + x0] * (1 - tx) + heights[z1 * from + x1] * tx;
+                result[z * to + x] = top * (1 - tz) + bottom * tz;
+            }
+        }
+        return result;
+    }
+}
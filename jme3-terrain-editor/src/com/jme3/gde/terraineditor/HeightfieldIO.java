@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor;
+
+import com.jme3.terrain.heightmap.AbstractHeightMap;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Reads and writes square heightfields as 16 bit RAW, 16 bit grayscale PNG
+ * and 32 bit float RAW files, straight from and to float arrays without an
+ * intermediate BufferedImage.
+ *
+ * RAW files are memory mapped, so reading a region of a large file only
+ * touches the rows of that region. PNG files are decoded row by row from a
+ * mapped file and written as a stream, as their compressed size is not
+ * known up front.
+ *
+ * The 16 bit formats map 0 to 65535 onto the 0 to 255 range of the other
+ * heightmaps, like ImageBasedHeightMap does with 8 bit images, just with
+ * finer steps. Writing them uses the same mapping, so a file read and
+ * written again keeps its samples, and heights outside of 0 to 255 are
+ * clamped. R32F keeps the heights as they are.
+ */
+public final class HeightfieldIO {
+
+    public enum Format {
+
+        /** unsigned little endian 16 bit samples without header */
+        RAW16(2),
+        /** 16 bit grayscale PNG */
+        R16_PNG(2),
+        /** little endian 32 bit float samples without header */
+        R32F(4);
+
+        private final int bytesPerSample;
+
+        private Format(int bytesPerSample) {
+            this.bytesPerSample = bytesPerSample;
+        }
+
+        /**
+         * @param file a heightfield file
+         * @return the format matching the extension of the file, RAW16 for
+         * unknown extensions
+         */
+        public static Format forFile(File file) {
+            String name = file.getName().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".png")) {
+                return R16_PNG;
+            } else if (name.endsWith(".r32") || name.endsWith(".f32")) {
+                return R32F;
+            }
+            return RAW16;
+        }
+    }
+
+    private static final float SCALE_16 = AbstractHeightMap.NORMALIZE_RANGE / 65535f;
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final int PNG_CHUNK_SIZE = 64 * 1024;
+    private static final int PARALLEL_ROWS = 64;
+
+    private HeightfieldIO() {
+    }
+
+    /**
+     * @param file a heightfield file
+     * @param format the format of the file
+     * @return the width and height of the heightfield
+     * @throws IOException if the file can not be read or is not square
+     */
+    public static int getSize(File file, Format format) throws IOException {
+        if (format == Format.R16_PNG) {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(PNG_SIGNATURE.length + 16);
+                while (header.hasRemaining() && channel.read(header) >= 0) {
+                }
+                header.flip();
+                return readPngHeader(header);
+            }
+        }
+        long length = file.length();
+        int size = (int) Math.round(Math.sqrt((double) length / format.bytesPerSample));
+        if (length == 0 || (long) size * size * format.bytesPerSample != length) {
+            throw new IOException(file + " is not a square " + format + " heightfield");
+        }
+        return size;
+    }
+
+    /**
+     * @param file a heightfield file
+     * @param format the format of the file
+     * @return all heights of the file, row by row
+     * @throws IOException if the file can not be read
+     */
+    public static float[] read(File file, Format format) throws IOException {
+        return read(file, format, 0, 0, getSize(file, format));
+    }
+
+    /**
+     * Reads a square region of a heightfield, for example one tile of a
+     * large heightfield. Heights outside of the file repeat the nearest
+     * edge.
+     *
+     * @param file a heightfield file
+     * @param format the format of the file
+     * @param x the first column of the region
+     * @param z the first row of the region
+     * @param size the width and height of the region
+     * @return the heights of the region, row by row
+     * @throws IOException if the file can not be read
+     */
+    public static float[] read(File file, Format format, final int x, final int z, final int size) throws IOException {
+        final float[] heights = new float[size * size];
+        final int fileSize = getSize(file, format);
+        if (format == Format.R16_PNG) {
+            readPng(file, fileSize, heights, x, z, size);
+            return heights;
+        }
+        final int bytes = format.bytesPerSample;
+        final boolean floats = format == Format.R32F;
+        final int firstRow = clamp(z, fileSize);
+        int lastRow = clamp(z + size - 1, fileSize);
+        long length = (long) (lastRow - firstRow + 1) * fileSize * bytes;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Region of " + size + "x" + size + " is too large to map");
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    (long) firstRow * fileSize * bytes, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            forEachRow(size, row -> {
+                int rowStart = (clamp(z + row, fileSize) - firstRow) * fileSize;
+                for (int column = 0; column < size; column++) {
+                    int index = (rowStart + clamp(x + column, fileSize)) * bytes;
+                    heights[row * size + column] = floats
+                            ? buffer.getFloat(index)
+                            : (buffer.getShort(index) & 0xffff) * SCALE_16;
+                }
+            });
+        }
+        return heights;
+    }
+
+    /**
+     * @param file the file to write
+     * @param format the format to write
+     * @param heights the heights, row by row
+     * @param size the width and height of the heightfield
+     * @throws IOException if the file can not be written
+     */
+    public static void write(File file, Format format, final float[] heights, final int size) throws IOException {
+        if (format == Format.R16_PNG) {
+            writePng(file, heights, size);
+            return;
+        }
+        final int bytes = format.bytesPerSample;
+        final boolean floats = format == Format.R32F;
+        long length = (long) size * size * bytes;
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Heightfield of " + size + "x" + size + " is too large to map");
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            forEachRow(size, row -> {
+                for (int i = row * size; i < (row + 1) * size; i++) {
+                    if (floats) {
+                        buffer.putFloat(i * bytes, heights[i]);
+                    } else {
+                        buffer.putShort(i * bytes, (short) toSample(heights[i]));
+                    }
+                }
+            });
+            buffer.force();
+        }
+    }
+
+    private static int readPngHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < PNG_SIGNATURE.length + 16) {
+            throw new IOException("Not a PNG file");
+        }
+        for (int i = 0; i < PNG_SIGNATURE.length; i++) {
+            if (buffer.get(i) != PNG_SIGNATURE[i]) {
+                throw new IOException("Not a PNG file");
+            }
+        }
+        int data = PNG_SIGNATURE.length + 8;
+        if (!"IHDR".equals(chunkType(buffer, PNG_SIGNATURE.length))) {
+            throw new IOException("PNG does not start with a header");
+        }
+        int width = buffer.getInt(data);
+        int height = buffer.getInt(data + 4);
+        if (width != height || width <= 0) {
+            throw new IOException("PNG heightfield of " + width + "x" + height + " is not square");
+        }
+        return width;
+    }
+
+    private static void readPng(File file, int fileSize, float[] heights, int x, int z, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is too large to map");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            int header = PNG_SIGNATURE.length + 8;
+            // bit depth, color type and interlace method
+            if (buffer.get(header + 8) != 16 || buffer.get(header + 9) != 0 || buffer.get(header + 12) != 0) {
+                throw new IOException("Only non interlaced 16 bit grayscale PNGs are supported");
+            }
+            byte[] current = new byte[fileSize * 2 + 1];
+            byte[] previous = new byte[current.length];
+            int filled = 0;
+            int row = 0;
+            Inflater inflater = new Inflater();
+            try {
+                int position = PNG_SIGNATURE.length;
+                while (row < fileSize && position + 8 <= buffer.limit()) {
+                    int length = buffer.getInt(position);
+                    String type = chunkType(buffer, position);
+                    int data = position + 8;
+                    if (length < 0 || (long) data + length + 4 > buffer.limit()) {
+                        throw new IOException("PNG chunk " + type + " runs past the end of " + file);
+                    }
+                    if ("IDAT".equals(type)) {
+                        inflater.setInput(buffer.duplicate().position(data).limit(data + length));
+                        while (row < fileSize) {
+                            int inflated = inflater.inflate(current, filled, current.length - filled);
+                            if (inflated == 0 && (inflater.needsInput() || inflater.finished() || inflater.needsDictionary())) {
+                                break;
+                            }
+                            filled += inflated;
+                            if (filled == current.length) {
+                                unfilter(current, previous);
+                                copyPngRow(current, row, fileSize, heights, x, z, size);
+                                byte[] swap = previous;
+                                previous = current;
+                                current = swap;
+                                filled = 0;
+                                row++;
+                            }
+                        }
+                    } else if ("IEND".equals(type)) {
+                        break;
+                    }
+                    position = data + length + 4;
+                }
+            } catch (DataFormatException ex) {
+                throw new IOException("Corrupt PNG data in " + file, ex);
+            } finally {
+                inflater.end();
+            }
+            if (row < fileSize) {
+                throw new IOException("PNG " + file + " ends after " + row + " of " + fileSize + " rows");
+            }
+        }
+    }
+
+    private static void copyPngRow(byte[] samples, int fileRow, int fileSize, float[] heights, int x, int z, int size) {
+        // the output rows showing this file row, more than one at the edges
+        int first = fileRow == 0 ? 0 : fileRow - z;
+        int last = fileRow == fileSize - 1 ? size - 1 : fileRow - z;
+        for (int row = Math.max(0, first); row <= Math.min(size - 1, last); row++) {
+            for (int column = 0; column < size; column++) {
+                int index = 1 + clamp(x + column, fileSize) * 2;
+                int value = (samples[index] & 0xff) << 8 | (samples[index + 1] & 0xff);
+                heights[row * size + column] = value * SCALE_16;
+            }
+        }
+    }
+
+    private static void unfilter(byte[] current, byte[] previous) throws IOException {
+        int filter = current[0];
+        for (int i = 1; i < current.length; i++) {
+            int a = i > 2 ? current[i - 2] & 0xff : 0;
+            int b = previous[i] & 0xff;
+            int c = i > 2 ? previous[i - 2] & 0xff : 0;
+            int value = current[i] & 0xff;
+            switch (filter) {
+                case 0:
+                    break;
+                case 1:
+                    value += a;
+                    break;
+                case 2:
+                    value += b;
+                    break;
+                case 3:
+                    value += (a + b) >>> 1;
+                    break;
+                case 4:
+                    value += paeth(a, b, c);
+                    break;
+                default:
+                    throw new IOException("Unknown PNG filter " + filter);
+            }
+            current[i] = (byte) value;
+        }
+    }
+
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        }
+        return pb <= pc ? b : c;
+    }
+
+    private static void writePng(File file, float[] heights, int size) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+            out.write(PNG_SIGNATURE);
+            ByteBuffer header = ByteBuffer.allocate(13);
+            header.putInt(size).putInt(size).put((byte) 16).put((byte) 0).put((byte) 0).put((byte) 0).put((byte) 0);
+            writeChunk(out, "IHDR", header.array(), header.position());
+            // rows use the "up" filter, neighbouring rows of a heightfield are alike
+            byte[] line = new byte[size * 2];
+            byte[] previous = new byte[line.length];
+            byte[] filtered = new byte[line.length + 1];
+            filtered[0] = 2;
+            byte[] chunk = new byte[PNG_CHUNK_SIZE];
+            int filled = 0;
+            Deflater deflater = new Deflater();
+            try {
+                for (int row = 0; row < size; row++) {
+                    for (int column = 0; column < size; column++) {
+                        int value = toSample(heights[row * size + column]);
+                        line[column * 2] = (byte) (value >>> 8);
+                        line[column * 2 + 1] = (byte) value;
+                    }
+                    for (int i = 0; i < line.length; i++) {
+                        filtered[i + 1] = (byte) (line[i] - previous[i]);
+                    }
+                    byte[] swap = previous;
+                    previous = line;
+                    line = swap;
+                    deflater.setInput(filtered);
+                    while (!deflater.needsInput()) {
+                        filled += deflater.deflate(chunk, filled, chunk.length - filled);
+                        if (filled == chunk.length) {
+                            writeChunk(out, "IDAT", chunk, filled);
+                            filled = 0;
+                        }
+                    }
+                }
+                deflater.finish();
+                while (!deflater.finished()) {
+                    filled += deflater.deflate(chunk, filled, chunk.length - filled);
+                    if (filled == chunk.length || deflater.finished()) {
+                        writeChunk(out, "IDAT", chunk, filled);
+                        filled = 0;
+                    }
+                }
+            } finally {
+                deflater.end();
+            }
+            writeChunk(out, "IEND", chunk, 0);
+        }
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        out.writeInt(length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        out.writeInt((int) crc.getValue());
+    }
+
+    private static String chunkType(ByteBuffer buffer, int position) {
+        byte[] type = new byte[4];
+        for (int i = 0; i < type.length; i++) {
+            type[i] = buffer.get(position + 4 + i);
+        }
+        return new String(type, StandardCharsets.US_ASCII);
+    }
+
+    private static void forEachRow(int rows, IntConsumer row) {
+        IntStream range = IntStream.range(0, rows);
+        if (rows >= PARALLEL_ROWS) {
+            range = range.parallel();
+        }
+        range.forEach(row);
+    }
+
+    private static int toSample(float height) {
+        int value = Math.round(height / SCALE_16);
+        return value < 0 ? 0 : (value > 65535 ? 65535 : value);
+    }
+
+    private static int clamp(int i, int size) {
+        return i < 0 ? 0 : (i >= size ? size - 1 : i);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor;
+
+import com.jme3.export.binary.BinaryExporter;
+import com.jme3.terrain.geomipmap.TerrainQuad;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a RAW16, 16 bit PNG or R32F heightfield file into the tiles of a
+ * TerrainGrid. Each tile is saved as a j3o file, named the way the
+ * AssetTileLoader of jme3-terrain loads it, so a grid made of them needs no
+ * SDK classes when the game runs. Neighbouring tiles share their edges.
+ * RAW files are read one tile region at a time; PNG files can only be
+ * decoded from the start, so they are decoded once for all tiles.
+ */
+final class HeightfieldTiles {
+
+    private HeightfieldTiles() {
+    }
+
+    /**
+     * @param heightfield the heightfield file
+     * @param heightScale the factor all heights are multiplied with
+     * @param patchSize the patch size of the grid
+     * @param quadSize the size of one tile of the grid
+     * @param name the name of the grid, the tiles are named
+     * name_x_0_z.j3o
+     * @param folder the folder the tiles are written to
+     * @return the file names of the written tiles
+     * @throws IOException if the heightfield can not be read or a tile can
+     * not be written
+     */
+    static List<String> write(File heightfield, float heightScale, int patchSize, int quadSize,
+            String name, File folder) throws IOException {
+        HeightfieldIO.Format format = HeightfieldIO.Format.forFile(heightfield);
+        int fileSize = HeightfieldIO.getSize(heightfield, format);
+        int step = quadSize - 1;
+        int cells = Math.max(1, (fileSize - 1 + step - 1) / step);
+        float[] decoded = format == HeightfieldIO.Format.R16_PNG ? HeightfieldIO.read(heightfield, format) : null;
+        List<String> fileNames = new ArrayList<>();
+        for (int z = 0; z < cells; z++) {
+            for (int x = 0; x < cells; x++) {
+                float[] heights = decoded != null
+                        ? region(decoded, fileSize, x * step, z * step, quadSize)
+                        : HeightfieldIO.read(heightfield, format, x * step, z * step, quadSize);
+                for (int i = 0; i < heights.length; i++) {
+                    heights[i] *= heightScale;
+                }
+                String tileName = name + "_" + x + "_0_" + z;
+                TerrainQuad quad = new TerrainQuad(tileName, patchSize, quadSize, heights);
+                BinaryExporter.getInstance().save(quad, new File(folder, tileName + ".j3o"));
+                fileNames.add(tileName + ".j3o");
+            }
+        }
+        return fileNames;
+    }
+
+    private static float[] region(float[] heights, int size, int x, int z, int regionSize) {
+        float[] region = new float[regionSize * regionSize];
+        for (int row = 0; row < regionSize; row++) {
+            int fileRow = clamp(z + row, size);
+            for (int column = 0; column < regionSize; column++) {
+                region[row * regionSize + column] = heights[fileRow * size + clamp(x + column, size)];
+            }
+        }
+        return region;
+    }
+
+    private static int clamp(int i, int size) {
+        return i < 0 ? 0 : (i >= size ? size - 1 : i);
+    }
+}
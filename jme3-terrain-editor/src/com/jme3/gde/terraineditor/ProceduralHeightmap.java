@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor;
+
+import com.jme3.terrain.heightmap.AbstractHeightMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Heightmap made of fractal gradient noise (fBm or ridged), optionally
+ * domain warped, then shaped by thermal and hydraulic erosion.
+ *
+ * The map is computed into primitive float arrays in bands of rows on a
+ * fork-join pool. Noise only depends on the seed and the location, and
+ * every erosion step reads the previous state and writes a new one, so the
+ * result is the same for a given seed and settings no matter how many
+ * threads are used.
+ *
+ * Hydraulic erosion keeps six float arrays of the heightmap size, thermal
+ * erosion three.
+ */
+public class ProceduralHeightmap extends AbstractHeightMap {
+
+    public enum NoiseType {
+        FBM, RIDGED
+    }
+
+    private static final int TILE_ROWS = 32;
+    private static final int WARP_SEED = 0x5bd1e995;
+    private static final float THERMAL_RATE = 0.5f;
+    private static final float RAIN = 0.01f;
+    private static final float SOLUBILITY = 0.01f;
+    private static final float EVAPORATION = 0.5f;
+    private static final float CAPACITY = 0.01f;
+
+    private final long seed;
+    private NoiseType noiseType = NoiseType.FBM;
+    private int octaves = 8;
+    private float frequency = 4f;
+    private float lacunarity = 2f;
+    private float persistence = 0.5f;
+    private float warp = 0f;
+    private int thermalIterations = 0;
+    private float talus = 0.5f;
+    private int hydraulicIterations = 0;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * @param size the width and height of the heightmap
+     * @param seed the seed of the noise
+     */
+    public ProceduralHeightmap(int size, long seed) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be greater than 0");
+        }
+        this.size = size;
+        this.seed = seed;
+    }
+
+    public void setNoiseType(NoiseType noiseType) {
+        this.noiseType = noiseType;
+    }
+
+    /**
+     * @param octaves the number of noise layers added up
+     */
+    public void setOctaves(int octaves) {
+        this.octaves = Math.max(1, octaves);
+    }
+
+    /**
+     * @param frequency the number of features of the first octave across
+     * the heightmap
+     */
+    public void setFrequency(float frequency) {
+        this.frequency = frequency;
+    }
+
+    /**
+     * @param lacunarity the frequency factor from one octave to the next
+     */
+    public void setLacunarity(float lacunarity) {
+        this.lacunarity = lacunarity;
+    }
+
+    /**
+     * @param persistence the amplitude factor from one octave to the next
+     */
+    public void setPersistence(float persistence) {
+        this.persistence = persistence;
+    }
+
+    /**
+     * @param warp how far the noise lookups are displaced by a second noise,
+     * in features of the first octave, 0 for no domain warping
+     */
+    public void setWarp(float warp) {
+        this.warp = warp;
+    }
+
+    /**
+     * @param iterations the number of thermal erosion steps
+     */
+    public void setThermalIterations(int iterations) {
+        this.thermalIterations = Math.max(0, iterations);
+    }
+
+    /**
+     * @param talus the height difference between neighbors above which
+     * thermal erosion moves material down
+     */
+    public void setTalus(float talus) {
+        this.talus = talus;
+    }
+
+    /**
+     * @param iterations the number of hydraulic erosion steps
+     */
+    public void setHydraulicIterations(int iterations) {
+        this.hydraulicIterations = Math.max(0, iterations);
+    }
+
+    /**
+     * @param pool the pool to compute the heightmap on, the common pool by
+     * default
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public boolean load() {
+        float[] heights = new float[size * size];
+        generate(heights);
+        normalize(heights, NORMALIZE_RANGE);
+        if (thermalIterations > 0) {
+            heights = erodeThermal(heights);
+        }
+        if (hydraulicIterations > 0) {
+            erodeHydraulic(heights);
+        }
+        heightData = heights;
+        return true;
+    }
+
+    private void generate(final float[] heights) {
+        final int noiseSeed = (int) (seed ^ (seed >>> 32));
+        final float step = frequency / size;
+        forEachRow(y -> {
+            for (int x = 0; x < size; x++) {
+                float nx = x * step;
+                float ny = y * step;
+                if (warp != 0) {
+                    float wx = fractal(noiseSeed ^ WARP_SEED, nx + 5.2f, ny + 1.3f);
+                    float wy = fractal(noiseSeed ^ WARP_SEED, nx + 1.7f, ny + 9.2f);
+                    nx += warp * wx;
+                    ny += warp * wy;
+                }
+                heights[y * size + x] = fractal(noiseSeed, nx, ny);
+            }
+        });
+    }
+
+    private float fractal(int noiseSeed, float x, float y) {
+        float sum = 0;
+        float amplitude = 1;
+        for (int octave = 0; octave < octaves; octave++) {
+            float n = noise(noiseSeed + octave * 1013, x, y);
+            if (noiseType == NoiseType.RIDGED) {
+                n = 1f - Math.abs(n);
+                n *= n;
+            }
+            sum += n * amplitude;
+            x *= lacunarity;
+            y *= lacunarity;
+            amplitude *= persistence;
+        }
+        return sum;
+    }
+
+    /**
+     * Scales the heights to the range 0 to maxHeight.
+     */
+    private void normalize(final float[] heights, float maxHeight) {
+        final float[] rowMin = new float[size];
+        final float[] rowMax = new float[size];
+        forEachRow(y -> {
+            float min = Float.MAX_VALUE;
+            float max = -Float.MAX_VALUE;
+            for (int i = y * size; i < (y + 1) * size; i++) {
+                min = Math.min(min, heights[i]);
+                max = Math.max(max, heights[i]);
+            }
+            rowMin[y] = min;
+            rowMax[y] = max;
+        });
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (int y = 0; y < size; y++) {
+            min = Math.min(min, rowMin[y]);
+            max = Math.max(max, rowMax[y]);
+        }
+        final float offset = min;
+        final float scale = max > min ? maxHeight / (max - min) : 0;
+        forEachRow(y -> {
+            for (int i = y * size; i < (y + 1) * size; i++) {
+                heights[i] = (heights[i] - offset) * scale;
+            }
+        });
+    }
+
+    /**
+     * Moves material from each cell to its lower neighbors where the slope
+     * is steeper than the talus. Each step first computes the share every
+     * cell gives away, then every cell sums what it keeps and what it gets
+     * from its neighbors.
+     *
+     * @return the eroded heights, heights itself is used as scratch space
+     */
+    private float[] erodeThermal(float[] heights) {
+        float[] current = heights;
+        float[] next = new float[size * size];
+        final float[] share = new float[size * size];
+        for (int i = 0; i < thermalIterations; i++) {
+            final float[] h = current;
+            final float[] result = next;
+            forEachRow(y -> {
+                for (int x = 0; x < size; x++) {
+                    int c = y * size + x;
+                    float total = 0;
+                    float max = 0;
+                    for (int n = 0; n < 4; n++) {
+                        int o = neighbor(x, y, n);
+                        if (o >= 0) {
+                            float d = h[c] - h[o];
+                            if (d > talus) {
+                                total += d;
+                                max = Math.max(max, d);
+                            }
+                        }
+                    }
+                    share[c] = total > 0 ? THERMAL_RATE * (max - talus) / total : 0;
+                }
+            });
+            forEachRow(y -> {
+                for (int x = 0; x < size; x++) {
+                    int c = y * size + x;
+                    float height = h[c];
+                    for (int n = 0; n < 4; n++) {
+                        int o = neighbor(x, y, n);
+                        if (o >= 0) {
+                            float d = h[c] - h[o];
+                            if (d > talus) {
+                                height -= share[c] * d;
+                            } else if (-d > talus) {
+                                height -= share[o] * d;
+                            }
+                        }
+                    }
+                    result[c] = height;
+                }
+            });
+            next = current;
+            current = result;
+        }
+        return current;
+    }
+
+    /**
+     * Grid based hydraulic erosion: rain dissolves material, the water
+     * flows to lower neighbors carrying the sediment, evaporates and drops
+     * the sediment it can no longer carry.
+     */
+    private void erodeHydraulic(final float[] h) {
+        float[] water = new float[size * size];
+        float[] sediment = new float[size * size];
+        float[] nextWater = new float[size * size];
+        float[] nextSediment = new float[size * size];
+        final float[] share = new float[size * size];
+        for (int i = 0; i < hydraulicIterations; i++) {
+            final float[] w = water;
+            final float[] m = sediment;
+            final float[] w2 = nextWater;
+            final float[] m2 = nextSediment;
+            // rain and dissolve, then the part of its water each cell gives away per height difference
+            forEachRow(y -> {
+                for (int c = y * size; c < (y + 1) * size; c++) {
+                    w[c] += RAIN;
+                    h[c] -= SOLUBILITY * w[c];
+                    m[c] += SOLUBILITY * w[c];
+                }
+            });
+            forEachRow(y -> {
+                for (int x = 0; x < size; x++) {
+                    int c = y * size + x;
+                    float level = h[c] + w[c];
+                    float total = 0;
+                    float sum = level;
+                    int count = 1;
+                    for (int n = 0; n < 4; n++) {
+                        int o = neighbor(x, y, n);
+                        if (o >= 0) {
+                            float d = level - h[o] - w[o];
+                            if (d > 0) {
+                                total += d;
+                                sum += h[o] + w[o];
+                                count++;
+                            }
+                        }
+                    }
+                    share[c] = total > 0 ? Math.min(w[c], level - sum / count) / total : 0;
+                }
+            });
+            forEachRow(y -> {
+                for (int x = 0; x < size; x++) {
+                    int c = y * size + x;
+                    float level = h[c] + w[c];
+                    float waterIn = 0;
+                    float sedimentIn = 0;
+                    float waterOut = 0;
+                    for (int n = 0; n < 4; n++) {
+                        int o = neighbor(x, y, n);
+                        if (o >= 0) {
+                            float d = level - h[o] - w[o];
+                            if (d > 0) {
+                                waterOut += share[c] * d;
+                            } else if (d < 0 && w[o] > 0) {
+                                float flow = -share[o] * d;
+                                waterIn += flow;
+                                sedimentIn += m[o] * flow / w[o];
+                            }
+                        }
+                    }
+                    float kept = w[c] > 0 ? 1f - waterOut / w[c] : 1f;
+                    w2[c] = w[c] - waterOut + waterIn;
+                    m2[c] = m[c] * kept + sedimentIn;
+                }
+            });
+            // evaporate and deposit what the remaining water can not carry
+            forEachRow(y -> {
+                for (int c = y * size; c < (y + 1) * size; c++) {
+                    w2[c] *= 1f - EVAPORATION;
+                    float deposit = Math.max(0, m2[c] - CAPACITY * w2[c]);
+                    m2[c] -= deposit;
+                    h[c] += deposit;
+                }
+            });
+            water = w2;
+            sediment = m2;
+            nextWater = w;
+            nextSediment = m;
+        }
+        // drop the sediment still in the water
+        final float[] m = sediment;
+        forEachRow(y -> {
+            for (int c = y * size; c < (y + 1) * size; c++) {
+                h[c] += m[c];
+            }
+        });
+    }
+
+    /**
+     * @return the index of neighbor n (0 to 3) of the cell or -1 if it is
+     * outside of the map
+     */
+    private int neighbor(int x, int y, int n) {
+        switch (n) {
+            case 0:
+                return x > 0 ? y * size + x - 1 : -1;
+            case 1:
+                return x < size - 1 ? y * size + x + 1 : -1;
+            case 2:
+                return y > 0 ? (y - 1) * size + x : -1;
+            default:
+                return y < size - 1 ? (y + 1) * size + x : -1;
+        }
+    }
+
+    private void forEachRow(IntConsumer row) {
+        pool.invoke(new RowTask(0, size, row));
+    }
+
+    /**
+     * Splits rows into bands of TILE_ROWS rows.
+     */
+    private static class RowTask extends RecursiveAction {
+
+        private final int from;
+        private final int to;
+        private final IntConsumer row;
+
+        RowTask(int from, int to, IntConsumer row) {
+            this.from = from;
+            this.to = to;
+            this.row = row;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TILE_ROWS) {
+                for (int y = from; y < to; y++) {
+                    row.accept(y);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RowTask(from, middle, row), new RowTask(middle, to, row));
+            }
+        }
+    }
+
+    /**
+     * 2D gradient noise in about -1 to 1, the gradients are picked by
+     * hashing the seed and the lattice point, so no permutation table is
+     * shared between threads.
+     */
+    static float noise(int seed, float x, float y) {
+        int x0 = (int) Math.floor(x);
+        int y0 = (int) Math.floor(y);
+        float fx = x - x0;
+        float fy = y - y0;
+        float u = fade(fx);
+        float v = fade(fy);
+        float n00 = gradient(hash(seed, x0, y0), fx, fy);
+        float n10 = gradient(hash(seed, x0 + 1, y0), fx - 1, fy);
+        float n01 = gradient(hash(seed, x0, y0 + 1), fx, fy - 1);
+        float n11 = gradient(hash(seed, x0 + 1, y0 + 1), fx - 1, fy - 1);
+        float nx0 = n00 + u * (n10 - n00);
+        float nx1 = n01 + u * (n11 - n01);
+        return (nx0 + v * (nx1 - nx0)) * 1.4142135f;
+    }
+
+    private static float fade(float t) {
+        return t * t * t * (t * (t * 6 - 15) + 10);
+    }
+
+    private static int hash(int seed, int x, int y) {
+        int h = seed ^ (x * 0x27d4eb2d) ^ (y * 0x165667b1);
+        h ^= h >>> 15;
+        h *= 0x2c1b3c6d;
+        h ^= h >>> 12;
+        h *= 0x297a2d39;
+        h ^= h >>> 15;
+        return h;
+    }
+
+    private static float gradient(int hash, float x, float y) {
+        switch (hash & 7) {
+            case 0:
+                return x;
+            case 1:
+                return -x;
+            case 2:
+                return y;
+            case 3:
+                return -y;
+            case 4:
+                return (x + y) * 0.70710677f;
+            case 5:
+                return (x - y) * 0.70710677f;
+            case 6:
+                return (-x + y) * 0.70710677f;
+            default:
+                return (-x - y) * 0.70710677f;
+        }
+    }
+}
@@ -38,9 +38,9 @@ import com.jme3.gde.core.scene.SceneApplication;
 import com.jme3.gde.core.sceneexplorer.nodes.JmeNode;
 import com.jme3.gde.core.sceneexplorer.nodes.JmeSpatial;
 import com.jme3.gde.core.util.TerrainUtils;
-import com.jme3.gde.terraineditor.tools.PaintTerrainToolAction;
+import com.jme3.gde.terraineditor.tools.SplatMapPainter;
+import com.jme3.gde.terraineditor.tools.TerrainEntropyGenerator;
 import com.jme3.material.MatParam;
-import com.jme3.math.ColorRGBA;
 import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.renderer.Camera;
@@ -48,22 +48,23 @@ import com.jme3.scene.Node;
 import com.jme3.scene.Spatial;
 import com.jme3.terrain.ProgressMonitor;
 import com.jme3.terrain.Terrain;
+import com.jme3.terrain.geomipmap.TerrainQuad;
 import com.jme3.texture.Image;
 import com.jme3.texture.Texture;
 import com.jme3.texture.Texture.WrapMode;
 import com.jme3.util.SkyFactory;
 import com.jme3.util.SkyFactory.EnvMapType;
-import java.awt.image.BufferedImage;
+import java.awt.EventQueue;
 import java.beans.PropertyChangeEvent;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
-import javax.imageio.ImageIO;
-import javax.imageio.stream.FileImageOutputStream;
-import javax.imageio.stream.ImageOutputStream;
-import jme3tools.converters.ImageToAwt;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.netbeans.api.progress.ProgressHandle;
 import org.openide.cookies.SaveCookie;
 import org.openide.filesystems.FileObject;
 import org.openide.loaders.DataObject;
@@ -72,6 +73,7 @@ import org.openide.nodes.NodeListener;
 import org.openide.nodes.NodeMemberEvent;
 import org.openide.nodes.NodeReorderEvent;
 import org.openide.util.Exceptions;
+import org.openide.util.RequestProcessor;
 
 /**
  * Modifies the actual terrain in the scene.
@@ -95,7 +97,10 @@ public class TerrainEditorController implements NodeListener {
     protected final int MAX_DIFFUSE = 12;
     protected final int MAX_TEXTURES = 16 - NUM_ALPHA_TEXTURES; // 16 max (diffuse and normal), minus the ones we are reserving
 
-    private boolean alphaLayersChanged = false;
+    private final boolean[] changedAlphaLayers = new boolean[NUM_ALPHA_TEXTURES];
+    private static final RequestProcessor SAVER = new RequestProcessor("Terrain saver");
+    private final AlphaMapSaver alphaMapSaver = new AlphaMapSaver();
+    private volatile Future<Void> pendingSave;
 
     class TerrainSaveCookie implements SaveCookie {
 
@@ -103,16 +108,33 @@ public class TerrainEditorController implements NodeListener {
 
         @Override
         public void save() throws IOException {
-
-            SceneApplication.getApplication().enqueue(() -> {
-                if (alphaLayersChanged) {
-                    doSaveAlphaImages();
+            final ProgressHandle progressHandle = ProgressHandle.createHandle("Saving terrain " + currentFileObject.getPrimaryFile().getNameExt());
+            progressHandle.start();
+            final AtomicBoolean failed = new AtomicBoolean();
+            pendingSave = SceneApplication.getApplication().enqueue(() -> {
+                try {
+                    doSaveAlphaImages(failed);
+                    currentFileObject.saveAsset();
+                } catch (IOException | RuntimeException ex) {
+                    Exceptions.printStackTrace(ex);
+                    failed.set(true);
                 }
-                currentFileObject.saveAsset();
+                // the alpha maps are written in the background, the save is done when they are
+                SAVER.post(() -> {
+                    try {
+                        alphaMapSaver.waitFinished();
+                    } finally {
+                        progressHandle.finish();
+                        // after the failure callbacks of the alpha maps
+                        EventQueue.invokeLater(() -> {
+                            if (failed.get()) {
+                                setNeedsSave(true);
+                            }
+                        });
+                    }
+                });
                 return null;
             });
-            alphaLayersChanged = false;
-
         }
     }
     private final TerrainSaveCookie terrainSaveCookie = new TerrainSaveCookie();
@@ -219,7 +241,20 @@ public class TerrainEditorController implements NodeListener {
     public void alphaLayersChanged() {
         //if (!alphaLayersChanged)
         //    content.add(terrainSaveCookie);
-        alphaLayersChanged = true;
+        synchronized (changedAlphaLayers) {
+            Arrays.fill(changedAlphaLayers, true);
+        }
+    }
+
+    /**
+     * Painting happened on one alpha map and it needs saving.
+     *
+     * @param alphaLayer the alpha map, selectedTextureIndex/4
+     */
+    public void alphaLayerChanged(int alphaLayer) {
+        synchronized (changedAlphaLayers) {
+            changedAlphaLayers[alphaLayer] = true;
+        }
     }
 
     /**
@@ -311,22 +346,41 @@ public class TerrainEditorController implements NodeListener {
         return val;
     }
 
+    /**
+     * Blocks until the terrain and the alpha maps that are being saved are
+     * written.
+     */
+    public void waitForSave() {
+        Future<Void> save = pendingSave;
+        if (save != null) {
+            try {
+                save.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                Exceptions.printStackTrace(ex);
+            }
+        }
+        alphaMapSaver.waitFinished();
+    }
+
     public void cleanup() {
         terrainNode = null;
         rootNode = null;
     }
 
     /**
-     * pre-calculate the terrain's entropy values
+     * pre-calculate the terrain's entropy values, the calculation itself runs
+     * in the background
      */
     public void generateEntropies(final ProgressMonitor progressMonitor) {
         if (SceneApplication.getApplication().isOgl()) {
-            Terrain terrain = (Terrain) getTerrain(null);
-            if (terrain == null) {
-                return;
+            Node terrain = getTerrain(null);
+            if (terrain instanceof TerrainQuad) {
+                TerrainEntropyGenerator.generate((TerrainQuad) terrain, progressMonitor);
+            } else if (terrain != null) {
+                ((Terrain) terrain).generateEntropy(progressMonitor);
             }
-
-            terrain.generateEntropy(progressMonitor);
         } else {
             SceneApplication.getApplication().enqueue(() -> {
                 generateEntropies(progressMonitor);
@@ -555,37 +609,11 @@ public class TerrainEditorController implements NodeListener {
         Texture tex = doGetAlphaTexture(terrain, alphaIdx);
         Image image = tex.getImage();
 
-        PaintTerrainToolAction paint = new PaintTerrainToolAction();
-
-        ColorRGBA color = ColorRGBA.Black;
-        for (int y = 0; y < image.getHeight(); y++) {
-            for (int x = 0; x < image.getWidth(); x++) {
-
-                paint.manipulatePixel(image, x, y, color, false); // gets the color at that location (false means don't write to the buffer)
-                switch (texIndex) {
-                    case 0:
-                        color.r = 0;
-                        break;
-                    case 1:
-                        color.g = 0;
-                        break;
-                    case 2:
-                        color.b = 0;
-                        break;
-                    case 3:
-                        color.a = 0;
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Invalid texIndex " + texIndex);
-                }
-                color.clamp();
-                paint.manipulatePixel(image, x, y, color, true); // set the new color
-            }
-        }
-        image.getData(0).rewind();
-        tex.getImage().setUpdateNeeded();
+        SplatMapPainter painter = new SplatMapPainter(image);
+        painter.clear(texIndex);
+        painter.upload(tex);
         setNeedsSave(true);
-        alphaLayersChanged();
+        alphaLayerChanged(alphaIdx);
     }
 
     /**
@@ -709,13 +737,48 @@ public class TerrainEditorController implements NodeListener {
         return null; // if failed
     }
 
+    // blocks on GL thread until the terrain grid is created
+    public Terrain createTerrainGrid(final Node parent,
+            final int totalSize,
+            final int patchSize,
+            final int alphaTextureSize,
+            final File heightfield,
+            final float heightScale,
+            final String sceneName) throws IOException {
+        try {
+            Terrain terrain
+                    = SceneApplication.getApplication().enqueue(() -> {
+                        AddTerrainAction a = new AddTerrainAction();
+                        return (Terrain) a.doCreateTerrainGrid(parent, totalSize, patchSize, alphaTextureSize, heightfield, heightScale, sceneName, jmeRootNode);
+                    }).get();
+            return terrain;
+        } catch (InterruptedException | ExecutionException ex) {
+            Exceptions.printStackTrace(ex);
+        }
+
+        return null; // if failed
+    }
+
     /**
-     * Save the terrain's alpha maps to disk, in the Textures/terrain-alpha/
-     * directory
+     * Save the changed alpha maps of the terrain to disk, in the
+     * Textures/terrain-alpha/ directory. The maps are copied here and
+     * written in the background.
      *
-     * @throws IOException
+     * @param failed set on the AWT thread when a map could not be written
      */
-    private synchronized void doSaveAlphaImages() {
+    private synchronized void doSaveAlphaImages(final AtomicBoolean failed) {
+        boolean[] changed;
+        synchronized (changedAlphaLayers) {
+            changed = changedAlphaLayers.clone();
+            Arrays.fill(changedAlphaLayers, false);
+        }
+        boolean anyChanged = false;
+        for (boolean layerChanged : changed) {
+            anyChanged |= layerChanged;
+        }
+        if (!anyChanged) {
+            return;
+        }
 
         terrainNode = null;
         // re-look it up
@@ -730,56 +793,22 @@ public class TerrainEditorController implements NodeListener {
             throw new IllegalStateException("AssetManager was not a ProjectAssetManager. Could not locate image save directories.");
         }
 
-        Texture alpha1 = doGetAlphaTexture(terrain, 0);
-        BufferedImage bi1 = ImageToAwt.convert(alpha1.getImage(), false, true, 0);
-        File imageFile1 = new File(assetFolder + "/" + alpha1.getKey().getName());
-        Texture alpha2 = doGetAlphaTexture(terrain, 1);
-        BufferedImage bi2 = ImageToAwt.convert(alpha2.getImage(), false, true, 0);
-        File imageFile2 = new File(assetFolder + "/" + alpha2.getKey().getName());
-        Texture alpha3 = doGetAlphaTexture(terrain, 2);
-        BufferedImage bi3 = ImageToAwt.convert(alpha3.getImage(), false, true, 0);
-        File imageFile3 = new File(assetFolder + "/" + alpha3.getKey().getName());
-
-        ImageOutputStream ios1 = null;
-        ImageOutputStream ios2 = null;
-        ImageOutputStream ios3 = null;
-        try {
-            ios1 = new FileImageOutputStream(imageFile1);
-            ios2 = new FileImageOutputStream(imageFile2);
-            ios3 = new FileImageOutputStream(imageFile3);
-            ImageIO.write(bi1, "png", ios1);
-            ImageIO.write(bi2, "png", imageFile2);
-            ImageIO.write(bi3, "png", imageFile3);
-        } catch (IOException ex) {
-            System.out.println("Failed saving alphamaps");
-            System.out.println("    " + imageFile1);
-            System.out.println("    " + imageFile2);
-            System.out.println("    " + imageFile3);
-            Exceptions.printStackTrace(ex);
-        } finally {
-            try {
-                if (ios1 != null) {
-                    ios1.close();
-                }
-            } catch (IOException ex) {
-                Exceptions.printStackTrace(ex);
+        for (int i = 0; i < NUM_ALPHA_TEXTURES; i++) {
+            if (!changed[i]) {
+                continue;
             }
-            try {
-                if (ios2 != null) {
-                    ios2.close();
-                }
-            } catch (IOException ex) {
-                Exceptions.printStackTrace(ex);
-            }
-            try {
-                if (ios3 != null) {
-                    ios3.close();
-                }
-            } catch (IOException ex) {
-                Exceptions.printStackTrace(ex);
+            Texture alpha = doGetAlphaTexture(terrain, i);
+            if (alpha == null) {
+                continue;
             }
+            final int layer = i;
+            File imageFile = new File(assetFolder + "/" + alpha.getKey().getName());
+            alphaMapSaver.save(layer, alpha.getImage(), imageFile, () -> {
+                // keep the layer for the next save
+                alphaLayerChanged(layer);
+                failed.set(true);
+            });
         }
-
     }
 
     /**
@@ -1070,15 +1070,26 @@ public final class TerrainEditorTopComponent extends TopComponent implements Sce
         String[] split1 = currentRequest.getWindowTitle().split("/");
         String[] split2 = split1[split1.length - 1].split("\\.");
 
+        File gridFile = (File) wizardDescriptor.getProperty("heightfieldGridFile");
         Terrain terrain = null;
         try {
-            terrain = editorController.createTerrain((Node) node,
-                    totalSize,
-                    patchSize,
-                    alphaTextureSize,
-                    heightmapData,
-                    split2[0],
-                    selectedSpat);
+            if (gridFile != null) {
+                terrain = editorController.createTerrainGrid((Node) node,
+                        totalSize,
+                        patchSize,
+                        alphaTextureSize,
+                        gridFile,
+                        (Float) wizardDescriptor.getProperty("heightfieldGridScale"),
+                        split2[0]);
+            } else {
+                terrain = editorController.createTerrain((Node) node,
+                        totalSize,
+                        patchSize,
+                        alphaTextureSize,
+                        heightmapData,
+                        split2[0],
+                        selectedSpat);
+            }
         } catch (IOException ex) {
             Exceptions.printStackTrace(ex);
         }
@@ -1226,6 +1237,10 @@ public final class TerrainEditorTopComponent extends TopComponent implements Sce
     @Override
     public void componentClosed() {
         super.componentClosed();
+        if (editorController != null) {
+            // don't let the editor go away while the terrain is still being written
+            editorController.waitForSave();
+        }
         if (currentRequest != null) {
             SceneApplication.getApplication().closeScene(currentRequest);
         }
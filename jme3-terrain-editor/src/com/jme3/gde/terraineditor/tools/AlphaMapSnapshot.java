@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor.tools;
+
+import com.jme3.texture.Texture;
+import java.awt.Rectangle;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers the pixels of the alpha maps a paint stroke changes, so the
+ * whole stroke can be undone and redone as one edit. The alpha maps are
+ * split in square tiles and each tile is copied the first time a dab of the
+ * stroke touches it, before it is painted. When the stroke ends finish()
+ * copies the painted tiles as well.
+ *
+ * Like the painter the snapshot is only used from the OpenGL thread.
+ */
+public class AlphaMapSnapshot {
+
+    private static final int TILE_SIZE = 64;
+
+    private final Map<Integer, Layer> layers = new LinkedHashMap<>();
+
+    /**
+     * Copies the tiles of a region that were not copied yet. Must be called
+     * before the region is painted.
+     *
+     * @param alphaLayer the index of the alpha map
+     * @param texture the alpha map
+     * @param bounds the region about to be painted
+     */
+    public void capture(int alphaLayer, Texture texture, Rectangle bounds) {
+        if (bounds.isEmpty()) {
+            return;
+        }
+        Layer layer = layers.get(alphaLayer);
+        if (layer == null || layer.texture != texture) {
+            layer = new Layer(texture);
+            layers.put(alphaLayer, layer);
+        }
+        layer.capture(bounds);
+    }
+
+    /**
+     * Copies the painted pixels of all captured tiles, call it once when the
+     * stroke ends.
+     */
+    public void finish() {
+        for (Layer layer : layers.values()) {
+            for (Tile tile : layer.tiles.values()) {
+                tile.after = layer.painter.read(tile.bounds);
+            }
+        }
+    }
+
+    /**
+     * Puts back the pixels from before the stroke.
+     */
+    public void restore() {
+        for (Layer layer : layers.values()) {
+            for (Tile tile : layer.tiles.values()) {
+                layer.painter.write(tile.bounds, tile.before);
+            }
+            layer.texture.getImage().setUpdateNeeded();
+        }
+    }
+
+    /**
+     * Puts back the pixels from the end of the stroke, finish() must have
+     * been called.
+     */
+    public void apply() {
+        for (Layer layer : layers.values()) {
+            for (Tile tile : layer.tiles.values()) {
+                layer.painter.write(tile.bounds, tile.after);
+            }
+            layer.texture.getImage().setUpdateNeeded();
+        }
+    }
+
+    /**
+     * @return the indices of the alpha maps the stroke touched
+     */
+    public Set<Integer> getAlphaLayers() {
+        return layers.keySet();
+    }
+
+    public boolean isEmpty() {
+        return layers.isEmpty();
+    }
+
+    private static class Layer {
+
+        private final Texture texture;
+        private final SplatMapPainter painter;
+        private final int width;
+        private final int height;
+        private final int columns;
+        private final Map<Integer, Tile> tiles = new LinkedHashMap<>();
+
+        Layer(Texture texture) {
+            this.texture = texture;
+            this.painter = new SplatMapPainter(texture.getImage());
+            this.width = texture.getImage().getWidth();
+            this.height = texture.getImage().getHeight();
+            this.columns = (width + TILE_SIZE - 1) / TILE_SIZE;
+        }
+
+        void capture(Rectangle bounds) {
+            int maxColumn = (bounds.x + bounds.width - 1) / TILE_SIZE;
+            int maxRow = (bounds.y + bounds.height - 1) / TILE_SIZE;
+            for (int row = bounds.y / TILE_SIZE; row <= maxRow; row++) {
+                for (int column = bounds.x / TILE_SIZE; column <= maxColumn; column++) {
+                    Integer key = row * columns + column;
+                    if (!tiles.containsKey(key)) {
+                        int x = column * TILE_SIZE;
+                        int y = row * TILE_SIZE;
+                        Rectangle tileBounds = new Rectangle(x, y, Math.min(TILE_SIZE, width - x), Math.min(TILE_SIZE, height - y));
+                        tiles.put(key, new Tile(tileBounds, painter.read(tileBounds)));
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Tile {
+
+        private final Rectangle bounds;
+        private final byte[] before;
+        private byte[] after;
+
+        Tile(Rectangle bounds, byte[] before) {
+            this.bounds = bounds;
+            this.before = before;
+        }
+    }
+}
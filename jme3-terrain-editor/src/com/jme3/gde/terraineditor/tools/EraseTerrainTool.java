@@ -56,6 +56,11 @@ public class EraseTerrainTool extends TerrainTool {
     public void actionSecondary(Vector3f point, int textureIndex, AbstractSceneExplorerNode rootNode, DataObject dataObject) {
         // do nothing
     }
+
+    @Override
+    public void actionEnded(AbstractSceneExplorerNode rootNode, DataObject dataObject) {
+        SplatMapPainter.refreshMipMaps();
+    }
     
     @Override
     public void addMarkerPrimary(Node parent) {
@@ -27,36 +27,33 @@ public class GenerateTerrainEntropiesAction extends AbstractToolAction {
     @Override
     protected Object doApplyTool(AbstractSceneExplorerNode rootNode) {
         Node terrain = rootNode.getLookup().lookup(Node.class);
-        final ProgressHandle progressHandle = ProgressHandle.createHandle("Generating Terrain Entropies");
-        progressHandle.start();
-        try {
-            if (terrain instanceof TerrainQuad) { // it should be terrain anyways
-                ((TerrainQuad) terrain).generateEntropy(new ProgressMonitor() {
+        if (terrain instanceof TerrainQuad) { // it should be terrain anyways
+            final ProgressHandle progressHandle = ProgressHandle.createHandle("Generating Terrain Entropies");
+            progressHandle.start();
+            // computed in the background, the viewport stays responsive
+            TerrainEntropyGenerator.generate((TerrainQuad) terrain, new ProgressMonitor() {
 
-                    private float progress = 0;
-                    private float max = 0;
+                private float progress = 0;
+                private float max = 0;
 
-                    public void incrementProgress(float f) {
-                        progress += f * 100.0f;
-                        progressHandle.progress((int) progress);
-                    }
+                public void incrementProgress(float f) {
+                    progress += f;
+                    progressHandle.progress((int) progress);
+                }
 
-                    public void setMonitorMax(float f) {
-                        max = f * 100.0f;
-                        progressHandle.switchToDeterminate((int) (f));
-                    }
+                public void setMonitorMax(float f) {
+                    max = f;
+                    progressHandle.switchToDeterminate((int) f);
+                }
 
-                    public float getMonitorMax() {
-                        return max;
-                    }
+                public float getMonitorMax() {
+                    return max;
+                }
 
-                    public void progressComplete() {
-                        progressHandle.switchToIndeterminate();
-                    }
-                });
-            }
-        } finally {
-            progressHandle.finish();
+                public void progressComplete() {
+                    progressHandle.finish();
+                }
+            });
         }
         //return null, no undo entry created
         return null;
@@ -33,12 +33,9 @@ package com.jme3.gde.terraineditor.tools;
 
 import com.jme3.gde.core.sceneexplorer.nodes.AbstractSceneExplorerNode;
 import com.jme3.gde.terraineditor.tools.TerrainTool.Meshes;
-import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
 import com.jme3.terrain.Terrain;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Level the terrain to a desired height, executed from the OpenGL thread.
@@ -57,8 +54,7 @@ public class LevelTerrainToolAction extends AbstractTerrainToolAction {
     private final boolean precision;
     private final Meshes mesh;
     
-    private List<Vector2f> undoLocs;
-    private List<Float> undoHeights;
+    private TerrainBrush.Stroke undoStroke;
 
     public LevelTerrainToolAction(Vector3f markerLocation, float radius, float height, Vector3f levelTerrainLocation, boolean precision, Meshes mesh) {
         this.worldLoc = markerLocation.clone();
@@ -86,9 +82,9 @@ public class LevelTerrainToolAction extends AbstractTerrainToolAction {
     protected void doUndoTool(AbstractSceneExplorerNode rootNode, Object undoObject) {
         if (undoObject == null)
             return;
-        if (undoLocs == null || undoHeights == null)
+        if (undoStroke == null)
             return;
-        resetHeight((Terrain)undoObject, undoLocs, undoHeights, precision);
+        resetHeight((Terrain)undoObject, undoStroke, precision);
     }
 
     private void modifyHeight(Terrain terrain, Vector3f level, Vector3f worldLoc, float radius, float height, boolean precision, Meshes mesh) {
@@ -97,43 +93,31 @@ public class LevelTerrainToolAction extends AbstractTerrainToolAction {
 
         float desiredHeight = level.y;
 
-        int radiusStepsX = (int)(radius / ((Node)terrain).getLocalScale().x);
-        int radiusStepsZ = (int)(radius / ((Node)terrain).getLocalScale().z);
-
         float xStepAmount = ((Node)terrain).getLocalScale().x;
         float zStepAmount = ((Node)terrain).getLocalScale().z;
+        float worldScaleY = ((Node)terrain).getWorldScale().y;
+        float localScaleY = ((Node)terrain).getLocalScale().y;
 
-        List<Vector2f> locs = new ArrayList<Vector2f>();
-        List<Float> heights = new ArrayList<Float>();
-        undoHeights = new ArrayList<Float>();
-
-        for (int z=-radiusStepsZ; z<radiusStepsZ; z++) {
-            for (int x=-radiusStepsX; x<radiusStepsX; x++) {
+        TerrainBrush.Stroke stroke;
+        if (precision) {
+            stroke = TerrainBrush.getInstance().compute(worldLoc, radius, xStepAmount, zStepAmount, mesh,
+                    (row, column, locX, locZ) -> desiredHeight / localScaleY,
+                    (row, column, locX, locZ) -> TerrainBrush.getHeightmapHeight(terrain, locX, locZ) * worldScaleY / localScaleY);
+        } else {
+            float epsilon = 0.1f*height; // rounding error for snapping
+            stroke = TerrainBrush.getInstance().compute(worldLoc, radius, xStepAmount, zStepAmount, mesh,
+                    (row, column, locX, locZ) -> {
+                        // adjust height based on radius of the tool
+                        float terrainHeightAtLoc = TerrainBrush.getHeightmapHeight(terrain, locX, locZ)*worldScaleY;
 
-                float locX = worldLoc.x + (x*xStepAmount);
-                float locZ = worldLoc.z + (z*zStepAmount);
-                
-                // see if it is in the radius of the tool
-                if (ToolUtils.isInMesh(locX-worldLoc.x,locZ-worldLoc.z,radius, mesh)) {
-
-                    Vector2f terrainLoc = new Vector2f(locX, locZ);
-                    // adjust height based on radius of the tool
-                    float terrainHeightAtLoc = terrain.getHeightmapHeight(terrainLoc)*((Node)terrain).getWorldScale().y;
-                    if (precision) {
-                        locs.add(terrainLoc);
-                        heights.add(desiredHeight / ((Node) terrain).getLocalScale().y);
-                        undoHeights.add(terrainHeightAtLoc / ((Node) terrain).getLocalScale().y);
-                    } else {
-                        float epsilon = 0.1f*height; // rounding error for snapping
-                    
                         float adj = 0;
                         if (terrainHeightAtLoc < desiredHeight)
                             adj = 1;
                         else if (terrainHeightAtLoc > desiredHeight)
                             adj = -1;
-                        
+
                         adj *= height;
-                        
+
                         if (mesh.equals(Meshes.Sphere))
                             adj *= ToolUtils.calculateRadiusPercent(radius, locX-worldLoc.x, locZ-worldLoc.z);
 
@@ -142,41 +126,30 @@ public class LevelTerrainToolAction extends AbstractTerrainToolAction {
                             adj = desiredHeight - terrainHeightAtLoc;
                         else if (adj < 0 && ToolUtils.floatLessThan((terrainHeightAtLoc + adj), desiredHeight, epsilon))
                             adj = terrainHeightAtLoc - desiredHeight;
-  
-                        if (!ToolUtils.floatEquals(adj, 0, 0.001f)) {
-                                locs.add(terrainLoc);
-                                heights.add(adj);
-                        }
-                    
-                    }
-                }
-            }
+
+                        if (ToolUtils.floatEquals(adj, 0, 0.001f))
+                            return Float.NaN;
+                        return adj;
+                    }, null);
         }
-        undoLocs = locs;
-        if (!precision)
-            undoHeights = heights;
+        undoStroke = stroke;
         
         // do the actual height adjustment
         if (precision)
-            terrain.setHeight(locs, heights);
+            stroke.set(terrain);
         else 
-            terrain.adjustHeight(locs, heights);
+            stroke.adjust(terrain);
         
         ((Node)terrain).updateModelBound(); // or else we won't collide with it where we just edited
 
     }
 
     
-    private void resetHeight(Terrain terrain, List<Vector2f> undoLocs, List<Float> undoHeights, boolean precision) {
+    private void resetHeight(Terrain terrain, TerrainBrush.Stroke undoStroke, boolean precision) {
         if (precision)
-            terrain.setHeight(undoLocs, undoHeights);
-        else {
-            List<Float> neg = new ArrayList<Float>();
-            for (Float f : undoHeights) {
-                neg.add(f * -1f);
-            }
-            terrain.adjustHeight(undoLocs, neg);
-        }
+            undoStroke.restore(terrain);
+        else
+            undoStroke.revert(terrain);
         ((Node)terrain).updateModelBound();
     }
     
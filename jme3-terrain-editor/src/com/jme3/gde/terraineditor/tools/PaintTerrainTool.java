@@ -38,9 +38,6 @@ import com.jme3.gde.terraineditor.TerrainEditorController;
 import com.jme3.math.ColorRGBA;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
-import com.jme3.terrain.Terrain;
-import java.util.ArrayList;
-import java.util.List;
 import javax.swing.undo.CannotRedoException;
 import javax.swing.undo.CannotUndoException;
 import org.openide.loaders.DataObject;
@@ -54,7 +51,7 @@ import org.openide.util.Lookup;
 public class PaintTerrainTool extends TerrainTool {
 
     private boolean painting = false; // to check when undo actions need to be set
-    List<PaintTerrainToolAction> actions = new ArrayList<PaintTerrainToolAction>();
+    private AlphaMapSnapshot stroke; // the pixels the current stroke painted over
     TerrainEditorController controller; // used to we can flag when alpha maps changed
 
     public PaintTerrainTool(TerrainEditorController controller) {
@@ -77,32 +74,34 @@ public class PaintTerrainTool extends TerrainTool {
         if (radius == 0 || weight == 0)
             return;
         
-        if (!painting)
+        if (!painting) {
             painting = true;
+            stroke = new AlphaMapSnapshot();
+        }
         
         PaintTerrainToolAction action;
         if (isPrimary())
-            action = new PaintTerrainToolAction(point, radius, weight, textureIndex);
+            action = new PaintTerrainToolAction(point, radius, weight, textureIndex, stroke);
         else
-            action = new PaintTerrainToolAction(point, radius, -weight, textureIndex);
+            action = new PaintTerrainToolAction(point, radius, -weight, textureIndex, stroke);
         action.doActionPerformed(rootNode, dataObject, false);
-        actions.add(action);
-        setModified(rootNode, dataObject);
+        setModified(rootNode, dataObject, textureIndex / 4);
     }
     
     @Override
     public void actionEnded(AbstractSceneExplorerNode rootNode, DataObject dataObject) {
         if (painting) {
             painting = false;
+            SplatMapPainter.refreshMipMaps();
             
-            if (actions.isEmpty())
+            AlphaMapSnapshot snapshot = stroke;
+            stroke = null;
+            if (snapshot.isEmpty())
                 return;
             
-            // record undo action
-            List<PaintTerrainToolAction> cloned = new ArrayList<PaintTerrainToolAction>();
-            cloned.addAll(actions);
-            recordUndo(cloned, rootNode, dataObject);
-            actions.clear();
+            // record one undo action for the whole stroke
+            snapshot.finish();
+            recordUndo(snapshot, rootNode, dataObject);
         }
     }
 
@@ -121,7 +120,7 @@ public class PaintTerrainTool extends TerrainTool {
         markerPrimary.getMaterial().setColor("Color", ColorRGBA.Cyan);
     }
 
-    private void recordUndo(final List<PaintTerrainToolAction> actions, final AbstractSceneExplorerNode rootNode, final DataObject dataObject) {
+    private void recordUndo(final AlphaMapSnapshot snapshot, final AbstractSceneExplorerNode rootNode, final DataObject dataObject) {
         Lookup lookup = Lookup.getDefault() ;
         SceneUndoRedoManager manager = lookup.lookup(SceneUndoRedoManager.class);
 
@@ -129,22 +128,17 @@ public class PaintTerrainTool extends TerrainTool {
 
             @Override
             public void sceneUndo() throws CannotUndoException {
-                Terrain terrain = null;
-                for (int i=actions.size()-1; i>=0; i--) {
-                    PaintTerrainToolAction a = actions.get(i);
-                    if (terrain == null) 
-                        terrain = a.getTerrain(rootNode.getLookup().lookup(Node.class));
-                    a.doUndoTool(rootNode, terrain);
-                }
+                snapshot.restore();
+                for (int alphaLayer : snapshot.getAlphaLayers())
+                    controller.alphaLayerChanged(alphaLayer);
                 setModified(rootNode, dataObject);
             }
 
             @Override
             public void sceneRedo() throws CannotRedoException {
-                for (int i=0; i<actions.size(); i++) {
-                    PaintTerrainToolAction a = actions.get(i);
-                    a.applyTool(rootNode);
-                }
+                snapshot.apply();
+                for (int alphaLayer : snapshot.getAlphaLayers())
+                    controller.alphaLayerChanged(alphaLayer);
                 setModified(rootNode, dataObject);
             }
 
@@ -153,8 +147,12 @@ public class PaintTerrainTool extends TerrainTool {
             manager.addEdit(this, undoer);
     }
     
+    protected void setModified(final AbstractSceneExplorerNode rootNode, final DataObject dataObject, int alphaLayer) {
+        controller.alphaLayerChanged(alphaLayer);
+        setModified(rootNode, dataObject);
+    }
+
     protected void setModified(final AbstractSceneExplorerNode rootNode, final DataObject dataObject) {
-        controller.alphaLayersChanged();
         if (dataObject.isModified())
             return;
         java.awt.EventQueue.invokeLater(new Runnable() {
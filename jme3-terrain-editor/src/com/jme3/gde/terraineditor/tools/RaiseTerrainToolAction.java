@@ -34,12 +34,9 @@ package com.jme3.gde.terraineditor.tools;
 
 import com.jme3.gde.core.sceneexplorer.nodes.AbstractSceneExplorerNode;
 import com.jme3.gde.terraineditor.tools.TerrainTool.Meshes;
-import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
 import com.jme3.terrain.Terrain;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Raise/lower the terrain, executed from the OpenGL thread.
@@ -85,34 +82,16 @@ public class RaiseTerrainToolAction extends AbstractTerrainToolAction {
 
     private void modifyHeight(Terrain terrain, Vector3f worldLoc, float radius, float heightDir, Meshes mesh) {
 
-        int radiusStepsX = (int) (radius / ((Node)terrain).getWorldScale().x);
-        int radiusStepsZ = (int) (radius / ((Node)terrain).getWorldScale().z);
-
         float xStepAmount = ((Node)terrain).getWorldScale().x;
         float zStepAmount = ((Node)terrain).getWorldScale().z;
 
-        List<Vector2f> locs = new ArrayList<Vector2f>();
-        List<Float> heights = new ArrayList<Float>();
-        
-        for (int z=-radiusStepsZ; z<radiusStepsZ; z++) {
-            for (int x=-radiusStepsX; x<radiusStepsX; x++) {
-
-                float locX = worldLoc.x + (x*xStepAmount);
-                float locZ = worldLoc.z + (z*zStepAmount);
-
-                // see if it is in the radius of the tool
-                if (ToolUtils.isInMesh(locX-worldLoc.x,locZ-worldLoc.z,radius,mesh)) {
-                    // adjust height based on radius of the tool
-                    float h = ToolUtils.calculateHeight(radius, heightDir, locX-worldLoc.x, locZ-worldLoc.z);
-                    // increase the height
-                    locs.add(new Vector2f(locX, locZ));
-                    heights.add(h);
-                }
-            }
-        }
+        // adjust height based on radius of the tool
+        TerrainBrush.Stroke stroke = TerrainBrush.getInstance().compute(worldLoc, radius, xStepAmount, zStepAmount, mesh,
+                (row, column, locX, locZ) -> ToolUtils.calculateHeight(radius, heightDir, locX-worldLoc.x, locZ-worldLoc.z),
+                null);
 
         // do the actual height adjustment
-        terrain.adjustHeight(locs, heights);
+        stroke.adjust(terrain);
 
         ((Node)terrain).updateModelBound(); // or else we won't collide with it where we just edited
     }
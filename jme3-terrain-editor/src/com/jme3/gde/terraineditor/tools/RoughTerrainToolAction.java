@@ -33,6 +33,7 @@ package com.jme3.gde.terraineditor.tools;
 
 import com.jme3.gde.core.sceneexplorer.nodes.AbstractSceneExplorerNode;
 import com.jme3.gde.terraineditor.ExtraToolParams;
+import com.jme3.gde.terraineditor.tools.TerrainTool.Meshes;
 import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
@@ -47,8 +48,6 @@ import com.jme3.terrain.noise.filter.SmoothFilter;
 import com.jme3.terrain.noise.fractal.FractalSum;
 import com.jme3.terrain.noise.modulator.NoiseModulator;
 import java.nio.FloatBuffer;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  *
@@ -61,8 +60,7 @@ public class RoughTerrainToolAction extends AbstractTerrainToolAction {
     private float weight;
     private RoughExtraToolParams params;
     
-    List<Vector2f> undoLocs;
-    List<Float> undoHeights;
+    TerrainBrush.Stroke undoStroke;
 
     public RoughTerrainToolAction(Vector3f markerLocation, float radius, float weight, ExtraToolParams params) {
         this.worldLoc = markerLocation.clone();
@@ -87,64 +85,34 @@ public class RoughTerrainToolAction extends AbstractTerrainToolAction {
     protected void doUndoTool(AbstractSceneExplorerNode rootNode, Object undoObject) {
         if (undoObject == null)
             return;
-        if (undoLocs == null || undoHeights == null)
+        if (undoStroke == null)
             return;
-        resetHeight((Terrain)undoObject, undoLocs, undoHeights);
+        resetHeight((Terrain)undoObject, undoStroke);
     }
     
     private void roughen(Terrain terrain, float radius, float weight, RoughExtraToolParams params) {
         Basis fractalFilter = createFractalGenerator(params, weight);
         
-        List<Vector2f> locs = new ArrayList<Vector2f>();
-        List<Float> heights = new ArrayList<Float>();
-        
-        // offset it by radius because in the loop we iterate through 2 radii
-        int radiusStepsX = (int) (radius / ((Node)terrain).getLocalScale().x);
-        int radiusStepsZ = (int) (radius / ((Node)terrain).getLocalScale().z);
         float xStepAmount = ((Node)terrain).getLocalScale().x;
         float zStepAmount = ((Node)terrain).getLocalScale().z;
         
         int r2 = (int) (radius*2);
         FloatBuffer fb = fractalFilter.getBuffer(worldLoc.x, worldLoc.z, 0, r2);
         
-        //for (int y=0; y<r2; y++) {
-        //    for (int x=0; x<r2; x++) {
-        int xfb=0,yfb=0;
-        for (int z = -radiusStepsZ; z < radiusStepsZ; z++) {
-            for (int x = -radiusStepsX; x < radiusStepsX; x++) {
-                
-                float locX = worldLoc.x + (x * xStepAmount);
-                float locZ = worldLoc.z + (z * zStepAmount);
-                
-                float height = fb.get(yfb*r2 + xfb);
-                
-                if (isInRadius(locX - worldLoc.x, locZ - worldLoc.z, radius)) {
-                    // see if it is in the radius of the tool
-                    float h = calculateHeight(radius, height, locX - worldLoc.x, locZ - worldLoc.z);
-                    locs.add(new Vector2f(locX, locZ));
-                    heights.add(h);
-                }
-                xfb++;
-            }
-            yfb++;
-            xfb = 0;
-        }
+        TerrainBrush.Stroke stroke = TerrainBrush.getInstance().compute(worldLoc, radius, xStepAmount, zStepAmount, Meshes.Sphere,
+                (row, column, locX, locZ) -> {
+                    float height = fb.get(row*r2 + column);
+                    return calculateHeight(radius, height, locX - worldLoc.x, locZ - worldLoc.z);
+                }, null);
         
-        undoLocs = locs;
-        undoHeights = heights;
+        undoStroke = stroke;
         
         // do the actual height adjustment
-        terrain.adjustHeight(locs, heights);
+        stroke.adjust(terrain);
 
         ((Node)terrain).updateModelBound(); // or else we won't collide with it where we just edited
     }
     
-    private boolean isInRadius(float x, float y, float radius) {
-        Vector2f point = new Vector2f(x, y);
-        // return true if the distance is less than equal to the radius
-        return point.length() <= radius;
-    }
-
     private float calculateHeight(float radius, float heightFactor, float x, float z) {
         // find percentage for each 'unit' in radius
         Vector2f point = new Vector2f(x, z);
@@ -156,12 +124,8 @@ public class RoughTerrainToolAction extends AbstractTerrainToolAction {
         return heightFactor * val * 0.1f; // 0.1 scales it down a bit to lower the impact of the tool
     }
     
-    private void resetHeight(Terrain terrain, List<Vector2f> undoLocs, List<Float> undoHeights) {
-        List<Float> neg = new ArrayList<Float>();
-        for (Float f : undoHeights)
-            neg.add( f * -1f );
-        
-        terrain.adjustHeight(undoLocs, neg);
+    private void resetHeight(Terrain terrain, TerrainBrush.Stroke undoStroke) {
+        undoStroke.revert(terrain);
         ((Node)terrain).updateModelBound();
     }
     
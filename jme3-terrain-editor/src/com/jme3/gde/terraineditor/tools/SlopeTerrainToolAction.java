@@ -34,12 +34,9 @@ package com.jme3.gde.terraineditor.tools;
 import com.jme3.gde.core.sceneexplorer.nodes.AbstractSceneExplorerNode;
 import com.jme3.gde.terraineditor.tools.TerrainTool.Meshes;
 import com.jme3.math.Plane;
-import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
 import com.jme3.terrain.Terrain;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  *
@@ -52,8 +49,7 @@ public class SlopeTerrainToolAction extends AbstractTerrainToolAction {
     private final Vector3f point2;
     private final float radius;
     private final float weight;
-    private List<Vector2f> undoLocs;
-    private List<Float> undoHeights;
+    private TerrainBrush.Stroke undoStroke;
     private final boolean precise;
     private final boolean lock;
     private final Meshes mesh;
@@ -89,10 +85,10 @@ public class SlopeTerrainToolAction extends AbstractTerrainToolAction {
         if (undoObject == null)
             return;
 
-        if (undoLocs == null || undoHeights == null)
+        if (undoStroke == null)
             return;
 
-        resetHeight((Terrain) undoObject, undoLocs, undoHeights, precise);
+        resetHeight((Terrain) undoObject, undoStroke, precise);
     }
 
     private void modifyHeight(Terrain terrain, Vector3f point1, Vector3f point2, Vector3f current, float radius, float weight, boolean precise, boolean lock, Meshes mesh) {
@@ -103,94 +99,73 @@ public class SlopeTerrainToolAction extends AbstractTerrainToolAction {
             point2 = temp;
         }
 
-        Vector3f subtract = point2.subtract(point1);
-
-        int radiusStepsX = (int) (radius / ((Node) terrain).getLocalScale().x);
-        int radiusStepsZ = (int) (radius / ((Node) terrain).getLocalScale().z);
+        final Vector3f start = point1;
+        final Vector3f end = point2;
+        final Vector3f subtract = end.subtract(start);
 
         float xStepAmount = ((Node) terrain).getLocalScale().x;
         float zStepAmount = ((Node) terrain).getLocalScale().z;
+        final float worldScaleY = ((Node) terrain).getWorldScale().y;
+        final float localScaleY = ((Node) terrain).getLocalScale().y;
 
-        List<Vector2f> locs = new ArrayList<Vector2f>();
-        List<Float> heights = new ArrayList<Float>();
-        undoHeights = new ArrayList<Float>();
-
-        Plane p1 = new Plane();
-        Plane p2 = new Plane();
-        p1.setOriginNormal(point1, point1.subtract(point2).normalize());
-        p2.setOriginNormal(point2, point1.subtract(point2).normalize());
-
-        for (int z = -radiusStepsZ; z < radiusStepsZ; z++)
-            for (int x = -radiusStepsX; x < radiusStepsX; x++) {
+        final Plane p1 = new Plane();
+        final Plane p2 = new Plane();
+        p1.setOriginNormal(start, start.subtract(end).normalize());
+        p2.setOriginNormal(end, start.subtract(end).normalize());
 
-                float locX = current.x + (x * xStepAmount);
-                float locZ = current.z + (z * zStepAmount);
-
-                if (ToolUtils.isInMesh(locX - current.x, locZ - current.z, radius, mesh)) { // see if it is in the radius of the tool
-                    Vector2f terrainLoc = new Vector2f(locX, locZ);
+        final float epsilon = 0.1f * weight; // rounding error for snapping
 
+        TerrainBrush.Stroke stroke = TerrainBrush.getInstance().compute(current, radius, xStepAmount, zStepAmount, mesh,
+                (row, column, locX, locZ) -> {
                     // adjust height based on radius of the tool
-                    float terrainHeightAtLoc = terrain.getHeightmapHeight(terrainLoc) * ((Node) terrain).getWorldScale().y;
-                    float distance = point1.distance(new Vector3f(locX, terrainHeightAtLoc, locZ).subtractLocal(point1).project(subtract).addLocal(point1));
-                    float desiredHeight = point1.y + (point2.y - point1.y) * distance;
-                    if (!lock || (lock && p1.whichSide(new Vector3f(locX, 0f, locZ)) != p2.whichSide(new Vector3f(locX, 0f, locZ))))
-                        if (!precise) {
-                            float epsilon = 0.1f * weight; // rounding error for snapping
-
-                            float adj = 0;
-                            if (terrainHeightAtLoc < desiredHeight)
-                                adj = 1;
-                            else if (terrainHeightAtLoc > desiredHeight)
-                                adj = -1;
-
-                            adj *= weight;
-                            
-                            if (mesh.equals(Meshes.Sphere))
-                                adj *= ToolUtils.calculateRadiusPercent(radius, locX - current.x, locZ - current.z);
-                            
-                            // test if adjusting too far and then cap it
-                            if (adj > 0 && ToolUtils.floatGreaterThan((terrainHeightAtLoc + adj), desiredHeight, epsilon))
-                                adj = desiredHeight - terrainHeightAtLoc;
-                            else
-                                if (adj < 0 && ToolUtils.floatLessThan((terrainHeightAtLoc + adj), desiredHeight, epsilon))
-                                    adj = terrainHeightAtLoc - desiredHeight;
-
-                            if (!ToolUtils.floatEquals(adj, 0, 0.001f)) {
-                                locs.add(terrainLoc);
-                                heights.add(adj);
-                            }
-                        } else {
-                            locs.add(terrainLoc);
-                            heights.add(desiredHeight / ((Node) terrain).getLocalScale().y);
-                            undoHeights.add(terrainHeightAtLoc / ((Node) terrain).getLocalScale().y);
-                        }
-
-
-                }
-            }
-        undoLocs = locs;
-        if (!precise)
-            undoHeights = heights;
+                    float terrainHeightAtLoc = TerrainBrush.getHeightmapHeight(terrain, locX, locZ) * worldScaleY;
+                    float distance = start.distance(new Vector3f(locX, terrainHeightAtLoc, locZ).subtractLocal(start).project(subtract).addLocal(start));
+                    float desiredHeight = start.y + (end.y - start.y) * distance;
+                    Vector3f location = new Vector3f(locX, 0f, locZ);
+                    if (lock && p1.whichSide(location) == p2.whichSide(location))
+                        return Float.NaN;
+                    if (precise)
+                        return desiredHeight / localScaleY;
+
+                    float adj = 0;
+                    if (terrainHeightAtLoc < desiredHeight)
+                        adj = 1;
+                    else if (terrainHeightAtLoc > desiredHeight)
+                        adj = -1;
+
+                    adj *= weight;
+
+                    if (mesh.equals(Meshes.Sphere))
+                        adj *= ToolUtils.calculateRadiusPercent(radius, locX - current.x, locZ - current.z);
+
+                    // test if adjusting too far and then cap it
+                    if (adj > 0 && ToolUtils.floatGreaterThan((terrainHeightAtLoc + adj), desiredHeight, epsilon))
+                        adj = desiredHeight - terrainHeightAtLoc;
+                    else
+                        if (adj < 0 && ToolUtils.floatLessThan((terrainHeightAtLoc + adj), desiredHeight, epsilon))
+                            adj = terrainHeightAtLoc - desiredHeight;
+
+                    if (ToolUtils.floatEquals(adj, 0, 0.001f))
+                        return Float.NaN;
+                    return adj;
+                },
+                precise ? (row, column, locX, locZ) -> TerrainBrush.getHeightmapHeight(terrain, locX, locZ) * worldScaleY / localScaleY : null);
+        undoStroke = stroke;
 
         // do the actual height adjustment
         if (precise)
-            terrain.setHeight(locs, heights);
+            stroke.set(terrain);
         else
-            terrain.adjustHeight(locs, heights);
+            stroke.adjust(terrain);
 
         ((Node) terrain).updateModelBound(); // or else we won't collide with it where we just edited
     }
 
-    private void resetHeight(Terrain terrain, List<Vector2f> undoLocs, List<Float> undoHeights, boolean precise) {
+    private void resetHeight(Terrain terrain, TerrainBrush.Stroke undoStroke, boolean precise) {
         if (precise)
-            terrain.setHeight(undoLocs, undoHeights);
-        else {
-            List<Float> neg = new ArrayList<Float>();
-            for (Float f : undoHeights) {
-                neg.add(f * -1f);
-            }
-            terrain.adjustHeight(undoLocs, neg);
-        }
+            undoStroke.restore(terrain);
+        else
+            undoStroke.revert(terrain);
         ((Node) terrain).updateModelBound();
     }
 }
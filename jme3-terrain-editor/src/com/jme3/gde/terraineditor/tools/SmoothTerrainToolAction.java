@@ -33,12 +33,9 @@ package com.jme3.gde.terraineditor.tools;
 
 import com.jme3.gde.core.sceneexplorer.nodes.AbstractSceneExplorerNode;
 import com.jme3.gde.terraineditor.tools.TerrainTool.Meshes;
-import com.jme3.math.Vector2f;
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
 import com.jme3.terrain.Terrain;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Smooth bumps in the terrain by averaging the height in the tool radius.
@@ -54,8 +51,7 @@ public class SmoothTerrainToolAction extends AbstractTerrainToolAction {
     private float radius;
     private float height;
     
-    List<Vector2f> undoLocs;
-    List<Float> undoHeights;
+    TerrainBrush.Stroke undoStroke;
     private final Meshes mesh;
 
     public SmoothTerrainToolAction(Vector3f markerLocation, float radius, float height, Meshes mesh) {
@@ -81,38 +77,24 @@ public class SmoothTerrainToolAction extends AbstractTerrainToolAction {
     protected void doUndoTool(AbstractSceneExplorerNode rootNode, Object undoObject) {
         if (undoObject == null)
             return;
-        if (undoLocs == null || undoHeights == null)
+        if (undoStroke == null)
             return;
-        resetHeight((Terrain)undoObject, undoLocs, undoHeights);
+        resetHeight((Terrain)undoObject, undoStroke);
     }
     
     private void modifyHeight(Terrain terrain, Vector3f worldLoc, float radius, float height, Meshes mesh) {
         
-        int radiusStepsX = (int)(radius / ((Node)terrain).getLocalScale().x);
-        int radiusStepsZ = (int)(radius / ((Node)terrain).getLocalScale().z);
-
         float xStepAmount = ((Node)terrain).getLocalScale().x;
         float zStepAmount = ((Node)terrain).getLocalScale().z;
 
-        List<Vector2f> locs = new ArrayList<Vector2f>();
-        List<Float> heights = new ArrayList<Float>();
-
-        for (int z=-radiusStepsZ; z<radiusStepsZ; z++) {
-            for (int x=-radiusStepsX; x<radiusStepsX; x++) {
-
-                float locX = worldLoc.x + (x*xStepAmount);
-                float locZ = worldLoc.z + (z*zStepAmount);
-
-                // see if it is in the radius of the tool
-                if (ToolUtils.isInMesh(locX-worldLoc.x,locZ-worldLoc.z,radius,mesh)) {
-
-                    Vector2f terrainLoc = new Vector2f(locX, locZ);
+        TerrainBrush.Stroke stroke = TerrainBrush.getInstance().compute(worldLoc, radius, xStepAmount, zStepAmount, mesh,
+                (row, column, locX, locZ) -> {
                     // adjust height based on radius of the tool
-                    float center = terrain.getHeightmapHeight(terrainLoc);
-                    float left = terrain.getHeightmapHeight(new Vector2f(terrainLoc.x-1, terrainLoc.y));
-                    float right = terrain.getHeightmapHeight(new Vector2f(terrainLoc.x+1, terrainLoc.y));
-                    float up = terrain.getHeightmapHeight(new Vector2f(terrainLoc.x, terrainLoc.y+1));
-                    float down = terrain.getHeightmapHeight(new Vector2f(terrainLoc.x, terrainLoc.y-1));
+                    float center = TerrainBrush.getHeightmapHeight(terrain, locX, locZ);
+                    float left = TerrainBrush.getHeightmapHeight(terrain, locX-1, locZ);
+                    float right = TerrainBrush.getHeightmapHeight(terrain, locX+1, locZ);
+                    float up = TerrainBrush.getHeightmapHeight(terrain, locX, locZ+1);
+                    float down = TerrainBrush.getHeightmapHeight(terrain, locX, locZ-1);
                     int count = 1;
                     float amount = center;
                     if ( !isNaN(left) ) {
@@ -137,18 +119,14 @@ public class SmoothTerrainToolAction extends AbstractTerrainToolAction {
                     // weigh it
                     float diff = amount-center;
                     diff *= height;
-                        
-                    locs.add(terrainLoc);
-                    heights.add(diff);
-                }
-            }
-        }
+                    // NaN heights outside of the terrain leave the cell out
+                    return diff;
+                }, null);
         
-        undoLocs = locs;
-        undoHeights = heights;
+        undoStroke = stroke;
         
         // do the actual height adjustment
-        terrain.adjustHeight(locs, heights);
+        stroke.adjust(terrain);
 
         ((Node)terrain).updateModelBound(); // or else we won't collide with it where we just edited
     }
@@ -157,12 +135,8 @@ public class SmoothTerrainToolAction extends AbstractTerrainToolAction {
         return val != val;
     }
     
-    private void resetHeight(Terrain terrain, List<Vector2f> undoLocs, List<Float> undoHeights) {
-        List<Float> neg = new ArrayList<Float>();
-        for (Float f : undoHeights)
-            neg.add( f * -1f );
-        
-        terrain.adjustHeight(undoLocs, neg);
+    private void resetHeight(Terrain terrain, TerrainBrush.Stroke undoStroke) {
+        undoStroke.revert(terrain);
         ((Node)terrain).updateModelBound();
     }
 }
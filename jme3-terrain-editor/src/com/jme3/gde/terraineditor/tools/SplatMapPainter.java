@@ -0,0 +1,277 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor.tools;
+
+import com.jme3.gde.core.scene.SceneApplication;
+import com.jme3.math.Vector2f;
+import com.jme3.texture.Image;
+import com.jme3.texture.Texture;
+import com.jme3.texture.Texture2D;
+import java.awt.Rectangle;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Paints the channels of an RGBA8 or ABGR8 alpha (splat) map directly in its
+ * ByteBuffer. Rows are painted in parallel for large brushes, and the
+ * painted region is remembered so only that part of the texture has to be
+ * sent to the GPU.
+ *
+ * Painting into a channel scales the other three channels down when the
+ * sum of the weights would go above one, so the weights of a pixel stay
+ * normalized.
+ *
+ * Like the other tools the painter is only used from the OpenGL thread.
+ */
+public class SplatMapPainter {
+
+    private static final int PARALLEL_THRESHOLD = 64 * 64;
+    // textures that only got their base level updated, see refreshMipMaps()
+    private static final Set<Texture> staleMipMaps = Collections.newSetFromMap(new WeakHashMap<Texture, Boolean>());
+
+    private final Image image;
+    private final ByteBuffer data;
+    private final int width;
+    private final int height;
+    private final int[] channelOffsets;
+    private final Rectangle dirty = new Rectangle();
+
+    /**
+     * @param image the alpha map
+     * @throws UnsupportedOperationException if the image is not RGBA8 or
+     * ABGR8
+     */
+    public SplatMapPainter(Image image) {
+        this.image = image;
+        this.data = image.getData(0);
+        this.width = image.getWidth();
+        this.height = image.getHeight();
+        switch (image.getFormat()) {
+            case RGBA8:
+                channelOffsets = new int[]{0, 1, 2, 3};
+                break;
+            case ABGR8:
+                channelOffsets = new int[]{3, 2, 1, 0};
+                break;
+            default:
+                throw new UnsupportedOperationException("Image format: " + image.getFormat());
+        }
+    }
+
+    /**
+     * @param uv the center of the brush, in percent of the image size
+     * @param radius the radius of the brush, in percent of the image size
+     * @return the pixels the brush can touch, clipped to the image
+     */
+    public Rectangle getBrushBounds(Vector2f uv, float radius) {
+        int minx = (int) Math.max(0, (uv.x * width - radius * width)); // convert percents to pixels to limit how much we iterate
+        int maxx = (int) Math.min(width, (uv.x * width + radius * width));
+        int miny = (int) Math.max(0, (uv.y * height - radius * height));
+        int maxy = (int) Math.min(height, (uv.y * height + radius * height));
+        return new Rectangle(minx, miny, Math.max(0, maxx - minx), Math.max(0, maxy - miny));
+    }
+
+    /**
+     * Adds or removes paint in one channel, fading out from the center of
+     * the brush to its radius.
+     *
+     * @param channel the channel, 0 to 3 for r, g, b and a
+     * @param uv the center of the brush, in percent of the image size
+     * @param radius the radius of the brush, in percent of the image size
+     * @param strength the intensity of the paint at the center of the brush
+     * @param erase true if the paint should be removed instead of added
+     */
+    public void paint(final int channel, final Vector2f uv, final float radius, final float strength, final boolean erase) {
+        checkChannel(channel);
+        final Rectangle bounds = getBrushBounds(uv, radius);
+        if (bounds.isEmpty()) {
+            return;
+        }
+        final float radiusSquared = radius * radius;
+        forEachRow(bounds, y -> {
+            float dy = (float) y / height - uv.y;
+            for (int x = bounds.x; x < bounds.x + bounds.width; x++) {
+                float dx = (float) x / width - uv.x;
+                float dist = dx * dx + dy * dy;
+                if (dist < radiusSquared) { // if the pixel is within the distance of the radius, set a color (distance times intensity)
+                    float intensity = (1.0f - (dist / radiusSquared)) * strength;
+                    paintPixel((y * width + x) * 4, channel, erase ? -intensity : intensity);
+                }
+            }
+        });
+        markDirty(bounds);
+    }
+
+    /**
+     * Removes all paint from one channel of the whole image.
+     *
+     * @param channel the channel, 0 to 3 for r, g, b and a
+     */
+    public void clear(int channel) {
+        checkChannel(channel);
+        final int offset = channelOffsets[channel];
+        final Rectangle bounds = new Rectangle(0, 0, width, height);
+        forEachRow(bounds, y -> {
+            int end = (y + 1) * width * 4;
+            for (int position = y * width * 4 + offset; position < end; position += 4) {
+                data.put(position, (byte) 0);
+            }
+        });
+        markDirty(bounds);
+    }
+
+    /**
+     * @param bounds a region of the image
+     * @return a copy of the pixels of the region, row by row
+     */
+    public byte[] read(Rectangle bounds) {
+        byte[] pixels = new byte[bounds.width * bounds.height * 4];
+        ByteBuffer src = data.duplicate();
+        for (int row = 0; row < bounds.height; row++) {
+            src.position(((bounds.y + row) * width + bounds.x) * 4);
+            src.get(pixels, row * bounds.width * 4, bounds.width * 4);
+        }
+        return pixels;
+    }
+
+    /**
+     * @param bounds a region of the image
+     * @param pixels the pixels of the region as returned by read()
+     */
+    public void write(Rectangle bounds, byte[] pixels) {
+        ByteBuffer dst = data.duplicate();
+        for (int row = 0; row < bounds.height; row++) {
+            dst.position(((bounds.y + row) * width + bounds.x) * 4);
+            dst.put(pixels, row * bounds.width * 4, bounds.width * 4);
+        }
+        markDirty(bounds);
+    }
+
+    /**
+     * Sends the region changed since the last upload to the GPU. When the
+     * texture is not on the GPU yet, or has to be uploaded anyway, the whole
+     * image is flagged for update instead. Must be called on the OpenGL
+     * thread.
+     *
+     * @param texture the texture of the painted image
+     */
+    public void upload(Texture texture) {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        if (texture instanceof Texture2D && image.getId() != -1 && !image.isUpdateNeeded()
+                && !image.hasMipmaps() && (dirty.width < width || dirty.height < height)) {
+            SceneApplication.getApplication().getRenderer().modifyTexture((Texture2D) texture, image,
+                    dirty.x, dirty.y, dirty.x, dirty.y, dirty.width, dirty.height);
+            if (texture.getMinFilter().usesMipMapLevels()) {
+                staleMipMaps.add(texture);
+            }
+        } else {
+            image.setUpdateNeeded();
+        }
+        dirty.setBounds(0, 0, 0, 0);
+    }
+
+    /**
+     * Partial uploads only change the base level of a texture, so the GPU
+     * generated mip maps of painted textures get out of date. This uploads
+     * those textures once more as a whole, the tools call it when a stroke
+     * ends. Must be called on the OpenGL thread.
+     */
+    public static void refreshMipMaps() {
+        for (Texture texture : staleMipMaps) {
+            texture.getImage().setUpdateNeeded();
+        }
+        staleMipMaps.clear();
+    }
+
+    private void paintPixel(int position, int channel, float delta) {
+        float value = clamp(byte2float(data.get(position + channelOffsets[channel])) + delta);
+        data.put(position + channelOffsets[channel], float2byte(value));
+        if (delta <= 0) {
+            return;
+        }
+        float others = 0;
+        for (int i = 0; i < 4; i++) {
+            if (i != channel) {
+                others += byte2float(data.get(position + channelOffsets[i]));
+            }
+        }
+        if (value + others > 1f && others > 0) {
+            float scale = (1f - value) / others;
+            for (int i = 0; i < 4; i++) {
+                if (i != channel) {
+                    int index = position + channelOffsets[i];
+                    data.put(index, float2byte(byte2float(data.get(index)) * scale));
+                }
+            }
+        }
+    }
+
+    private void forEachRow(Rectangle bounds, IntConsumer row) {
+        IntStream range = IntStream.range(bounds.y, bounds.y + bounds.height);
+        if (bounds.width * bounds.height >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(row);
+    }
+
+    private void markDirty(Rectangle bounds) {
+        if (dirty.isEmpty()) {
+            dirty.setBounds(bounds);
+        } else {
+            dirty.add(bounds);
+        }
+    }
+
+    private static void checkChannel(int channel) {
+        if (channel < 0 || channel > 3) {
+            throw new IllegalArgumentException("Invalid texIndex " + channel);
+        }
+    }
+
+    private static float clamp(float f) {
+        return f < 0 ? 0 : (f > 1 ? 1 : f);
+    }
+
+    private static float byte2float(byte b) {
+        return ((float) (b & 0xFF)) / 255f;
+    }
+
+    private static byte float2byte(float f) {
+        return (byte) (f * 255f);
+    }
+}
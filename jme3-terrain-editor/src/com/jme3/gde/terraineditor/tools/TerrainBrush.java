@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2009-2024 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.jme3.gde.terraineditor.tools;
+
+import com.jme3.gde.terraineditor.tools.TerrainTool.Meshes;
+import com.jme3.math.Vector2f;
+import com.jme3.math.Vector3f;
+import com.jme3.terrain.Terrain;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+/**
+ * Computes the height changes of one terrain tool stroke. The values of all
+ * brush cells are computed into a reusable float array, split by brush rows
+ * over the worker threads for large brushes, and then compacted into a
+ * Stroke that keeps them in primitive arrays. The stroke hands them to
+ * Terrain.adjustHeight/setHeight in one call, through list views that reuse
+ * one Vector2f for the locations. The Terrain API only takes a List of
+ * Float, so the values are boxed one at a time while the terrain reads
+ * them, nothing per vertex is kept beyond that call.
+ * 
+ * The brush is only used from the OpenGL thread, the worker threads only
+ * read from the terrain.
+ */
+public class TerrainBrush {
+
+    private static final int PARALLEL_THRESHOLD = 64 * 64;
+    private static final ThreadLocal<Vector2f> tmpLocation = ThreadLocal.withInitial(Vector2f::new);
+    private static final TerrainBrush instance = new TerrainBrush();
+
+    private float[] cells = new float[0];
+
+    /**
+     * Computes the value of one brush cell
+     */
+    public interface CellFunction {
+
+        /**
+         * @param row the row of the cell in the brush, starting at 0
+         * @param column the column of the cell in the brush, starting at 0
+         * @param locX the x location of the cell on the terrain
+         * @param locZ the z location of the cell on the terrain
+         * @return the value of the cell or NaN to leave the cell out
+         */
+        float apply(int row, int column, float locX, float locZ);
+    }
+
+    public static TerrainBrush getInstance() {
+        return instance;
+    }
+
+    /**
+     * Reads the heightmap height at the location, can be called from the
+     * brush worker threads.
+     */
+    public static float getHeightmapHeight(Terrain terrain, float x, float z) {
+        return terrain.getHeightmapHeight(tmpLocation.get().set(x, z));
+    }
+
+    /**
+     * Computes the values of all cells of the brush that are inside the
+     * marker mesh.
+     *
+     * @param center the center of the brush in terrain space
+     * @param radius the radius of the brush
+     * @param xStep the distance between two cells in x direction
+     * @param zStep the distance between two cells in z direction
+     * @param mesh the marker mesh
+     * @param function computes the value of a cell
+     * @param undoFunction computes the undo value of the cells that are part
+     * of the stroke, can be null
+     * @return the stroke
+     */
+    public synchronized Stroke compute(final Vector3f center, final float radius, final float xStep, final float zStep,
+            final Meshes mesh, final CellFunction function, final CellFunction undoFunction) {
+        final int radiusStepsX = (int) (radius / xStep);
+        final int radiusStepsZ = (int) (radius / zStep);
+        final int columns = radiusStepsX * 2;
+        final int rows = radiusStepsZ * 2;
+        if (columns <= 0 || rows <= 0) {
+            return new Stroke(new float[0], new float[0], new float[0], null, 0);
+        }
+        if (cells.length < columns * rows) {
+            cells = new float[columns * rows];
+        }
+        final float[] values = cells;
+
+        IntStream range = IntStream.range(0, rows);
+        if (columns * rows >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(row -> {
+            float locZ = center.z + ((row - radiusStepsZ) * zStep);
+            for (int column = 0; column < columns; column++) {
+                float locX = center.x + ((column - radiusStepsX) * xStep);
+                // see if it is in the radius of the tool
+                if (ToolUtils.isInMesh(locX - center.x, locZ - center.z, radius, mesh)) {
+                    values[row * columns + column] = function.apply(row, column, locX, locZ);
+                } else {
+                    values[row * columns + column] = Float.NaN;
+                }
+            }
+        });
+
+        int count = 0;
+        for (int i = 0; i < columns * rows; i++) {
+            if (!Float.isNaN(values[i])) {
+                count++;
+            }
+        }
+        float[] x = new float[count];
+        float[] z = new float[count];
+        float[] result = new float[count];
+        float[] undo = undoFunction != null ? new float[count] : null;
+        int index = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                float value = values[row * columns + column];
+                if (!Float.isNaN(value)) {
+                    x[index] = center.x + ((column - radiusStepsX) * xStep);
+                    z[index] = center.z + ((row - radiusStepsZ) * zStep);
+                    result[index] = value;
+                    if (undo != null) {
+                        undo[index] = undoFunction.apply(row, column, x[index], z[index]);
+                    }
+                    index++;
+                }
+            }
+        }
+        return new Stroke(x, z, result, undo, count);
+    }
+
+    /**
+     * The locations and values of one stroke, kept by the tool actions for
+     * undo.
+     */
+    public static class Stroke {
+
+        private final float[] x;
+        private final float[] z;
+        private final float[] values;
+        private final float[] undoValues;
+        private final int count;
+
+        Stroke(float[] x, float[] z, float[] values, float[] undoValues, int count) {
+            this.x = x;
+            this.z = z;
+            this.values = values;
+            this.undoValues = undoValues;
+            this.count = count;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public List<Vector2f> getLocations() {
+            return new LocationList(x, z, count);
+        }
+
+        public List<Float> getValues() {
+            return new ValueList(values, count, 1f);
+        }
+
+        public List<Float> getNegatedValues() {
+            return new ValueList(values, count, -1f);
+        }
+
+        public List<Float> getUndoValues() {
+            return new ValueList(undoValues != null ? undoValues : values, count, 1f);
+        }
+
+        /**
+         * Adds the values to the terrain heights
+         */
+        public void adjust(Terrain terrain) {
+            if (count > 0) {
+                terrain.adjustHeight(getLocations(), getValues());
+            }
+        }
+
+        /**
+         * Subtracts the values from the terrain heights
+         */
+        public void revert(Terrain terrain) {
+            if (count > 0) {
+                terrain.adjustHeight(getLocations(), getNegatedValues());
+            }
+        }
+
+        /**
+         * Sets the terrain heights to the values
+         */
+        public void set(Terrain terrain) {
+            if (count > 0) {
+                terrain.setHeight(getLocations(), getValues());
+            }
+        }
+
+        /**
+         * Sets the terrain heights to the undo values
+         */
+        public void restore(Terrain terrain) {
+            if (count > 0) {
+                terrain.setHeight(getLocations(), getUndoValues());
+            }
+        }
+    }
+
+    /**
+     * Returns the same Vector2f from every get call, TerrainQuad reads the
+     * coordinates right away and never keeps the location.
+     */
+    private static class LocationList extends AbstractList<Vector2f> implements RandomAccess {
+
+        private final float[] x;
+        private final float[] z;
+        private final int count;
+        private final Vector2f location = new Vector2f();
+
+        LocationList(float[] x, float[] z, int count) {
+            this.x = x;
+            this.z = z;
+            this.count = count;
+        }
+
+        @Override
+        public Vector2f get(int index) {
+            return location.set(x[index], z[index]);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    private static class ValueList extends AbstractList<Float> implements RandomAccess {
+
+        private final float[] values;
+        private final int count;
+        private final float factor;
+
+        ValueList(float[] values, int count, float factor) {
+            this.values = values;
+            this.count = count;
+            this.factor = factor;
+        }
+
+        @Override
+        public Float get(int index) {
+            return values[index] * factor;
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor.tools;
+
+import com.jme3.gde.core.scene.SceneApplication;
+import com.jme3.math.Vector2f;
+import com.jme3.math.Vector3f;
+import com.jme3.terrain.ProgressMonitor;
+import com.jme3.terrain.geomipmap.TerrainPatch;
+import com.jme3.terrain.geomipmap.TerrainQuad;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.openide.util.Exceptions;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Computes the LOD entropies of a terrain without blocking the OpenGL
+ * thread. Only the heights of the patches are copied on the OpenGL thread,
+ * the meshes and their entropies are built in parallel on a worker thread.
+ * When all patches are done the results are set on the terrain in one go on
+ * the OpenGL thread, so the LOD calculation never sees a half updated
+ * terrain. Patches that were edited in the meantime keep their old
+ * entropies, just like patches edited after the entropies were generated.
+ */
+public class TerrainEntropyGenerator {
+
+    private static final RequestProcessor WORKER = new RequestProcessor("Terrain entropy generator");
+
+    private TerrainEntropyGenerator() {
+    }
+
+    /**
+     * Starts computing the entropies of all patches of the terrain. Must be
+     * called on the OpenGL thread.
+     *
+     * @param terrain the terrain
+     * @param progressMonitor gets the number of patches as its maximum, one
+     * increment per patch and progressComplete() at the end, can be null
+     * @return the task computing the entropies
+     */
+    public static RequestProcessor.Task generate(TerrainQuad terrain, final ProgressMonitor progressMonitor) {
+        final List<TerrainPatch> patches = new ArrayList<>();
+        terrain.getAllTerrainPatches(patches);
+        final PatchSnapshot[] snapshots = new PatchSnapshot[patches.size()];
+        for (int i = 0; i < snapshots.length; i++) {
+            snapshots[i] = new PatchSnapshot(patches.get(i));
+        }
+        if (progressMonitor != null) {
+            progressMonitor.setMonitorMax(snapshots.length);
+        }
+        return WORKER.post(() -> {
+            try {
+                final float[][] entropies = new float[snapshots.length][];
+                IntStream.range(0, snapshots.length).parallel().forEach(i -> {
+                    TerrainPatch patch = snapshots[i].createPatch();
+                    patch.generateLodEntropies();
+                    entropies[i] = patch.getLodEntropies();
+                    if (progressMonitor != null) {
+                        synchronized (progressMonitor) {
+                            progressMonitor.incrementProgress(1);
+                        }
+                    }
+                });
+                SceneApplication.getApplication().enqueue(() -> {
+                    for (int i = 0; i < entropies.length; i++) {
+                        if (snapshots[i].isCurrent(patches.get(i))) {
+                            patches.get(i).setLodEntropies(entropies[i]);
+                        }
+                    }
+                    return null;
+                });
+            } catch (RuntimeException ex) {
+                Exceptions.printStackTrace(Exceptions.attachMessage(ex, "Failed generating terrain entropies"));
+            } finally {
+                if (progressMonitor != null) {
+                    synchronized (progressMonitor) {
+                        progressMonitor.progressComplete();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * The data a patch builds its mesh from.
+     */
+    private static class PatchSnapshot {
+
+        private final String name;
+        private final int size;
+        private final Vector3f stepScale;
+        private final float[] heights;
+        private final int totalSize;
+        private final Vector2f offset;
+        private final float offsetAmount;
+
+        PatchSnapshot(TerrainPatch patch) {
+            name = patch.getName();
+            size = patch.getSize();
+            stepScale = patch.getStepScale().clone();
+            heights = patch.getHeightMap().clone();
+            totalSize = patch.getTotalSize();
+            offset = patch.getOffset().clone();
+            offsetAmount = patch.getOffsetAmount();
+        }
+
+        TerrainPatch createPatch() {
+            return new TerrainPatch(name, size, stepScale, heights, Vector3f.ZERO, totalSize, offset, offsetAmount);
+        }
+
+        /**
+         * @return true if the patch still has the heights of the snapshot
+         */
+        boolean isCurrent(TerrainPatch patch) {
+            return patch.getSize() == size && Arrays.equals(patch.getHeightMap(), heights);
+        }
+    }
+}
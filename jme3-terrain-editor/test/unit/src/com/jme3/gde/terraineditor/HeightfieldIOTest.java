@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor;
+
+import com.jme3.terrain.heightmap.AbstractHeightMap;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test class for reading and writing heightfield files
+ */
+public class HeightfieldIOTest {
+
+    // odd and not a power of two plus one, so no row lines up with anything
+    private static final int SIZE = 37;
+    private static final float SCALE_16 = AbstractHeightMap.NORMALIZE_RANGE / 65535f;
+
+    @TempDir
+    Path folder;
+
+    private static int[] createSamples(int size) {
+        int[] samples = new int[size * size];
+        Random random = new Random(42);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = random.nextInt(65536);
+        }
+        return samples;
+    }
+
+    private static float[] toHeights(int[] samples) {
+        float[] heights = new float[samples.length];
+        for (int i = 0; i < samples.length; i++) {
+            heights[i] = samples[i] * SCALE_16;
+        }
+        return heights;
+    }
+
+    private File createFile(HeightfieldIO.Format format) {
+        String extension = format == HeightfieldIO.Format.R16_PNG ? ".png"
+                : (format == HeightfieldIO.Format.R32F ? ".r32" : ".raw");
+        return folder.resolve("heightfield-" + format + extension).toFile();
+    }
+
+    private static float[] expectedRegion(float[] heights, int size, int x, int z, int regionSize) {
+        float[] region = new float[regionSize * regionSize];
+        for (int row = 0; row < regionSize; row++) {
+            for (int column = 0; column < regionSize; column++) {
+                int fileRow = Math.max(0, Math.min(size - 1, z + row));
+                int fileColumn = Math.max(0, Math.min(size - 1, x + column));
+                region[row * regionSize + column] = heights[fileRow * size + fileColumn];
+            }
+        }
+        return region;
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        float[] heights = toHeights(createSamples(SIZE));
+        for (HeightfieldIO.Format format : HeightfieldIO.Format.values()) {
+            File file = createFile(format);
+            assertEquals(format, HeightfieldIO.Format.forFile(file));
+            HeightfieldIO.write(file, format, heights, SIZE);
+            assertEquals(SIZE, HeightfieldIO.getSize(file, format));
+            assertArrayEquals(heights, HeightfieldIO.read(file, format), format.toString());
+        }
+    }
+
+    @Test
+    public void testFloatHeightsAreKept() throws IOException {
+        float[] heights = new float[SIZE * SIZE];
+        Random random = new Random(7);
+        for (int i = 0; i < heights.length; i++) {
+            heights[i] = (random.nextFloat() - 0.5f) * 10000f;
+        }
+        File file = createFile(HeightfieldIO.Format.R32F);
+        HeightfieldIO.write(file, HeightfieldIO.Format.R32F, heights, SIZE);
+        assertArrayEquals(heights, HeightfieldIO.read(file, HeightfieldIO.Format.R32F));
+    }
+
+    @Test
+    public void testSamplesAreClamped() throws IOException {
+        float[] heights = {-5f, 300f, 0f, AbstractHeightMap.NORMALIZE_RANGE};
+        float[] expected = {0f, 65535 * SCALE_16, 0f, 65535 * SCALE_16};
+        for (HeightfieldIO.Format format : new HeightfieldIO.Format[]{HeightfieldIO.Format.RAW16, HeightfieldIO.Format.R16_PNG}) {
+            File file = createFile(format);
+            HeightfieldIO.write(file, format, heights, 2);
+            assertArrayEquals(expected, HeightfieldIO.read(file, format), format.toString());
+        }
+    }
+
+    @Test
+    public void testRegionsRepeatTheEdges() throws IOException {
+        float[] heights = toHeights(createSamples(SIZE));
+        int[][] regions = {
+            {5, 7, 10}, // inside
+            {-3, SIZE - 4, 10}, // over the left and bottom edges
+            {SIZE - 2, -6, 9}, // over the right and top edges
+            {-2, -2, SIZE + 4}, // larger than the file
+            {SIZE + 3, SIZE + 3, 3} // completely outside
+        };
+        for (HeightfieldIO.Format format : HeightfieldIO.Format.values()) {
+            File file = createFile(format);
+            HeightfieldIO.write(file, format, heights, SIZE);
+            for (int[] region : regions) {
+                assertArrayEquals(expectedRegion(heights, SIZE, region[0], region[1], region[2]),
+                        HeightfieldIO.read(file, format, region[0], region[1], region[2]),
+                        format + " region " + region[0] + "," + region[1] + " size " + region[2]);
+            }
+        }
+    }
+
+    @Test
+    public void testPngFilters() throws IOException {
+        int[] samples = createSamples(SIZE);
+        float[] heights = toHeights(samples);
+        // -1 mixes all filters, one per row
+        for (int filter = -1; filter <= 4; filter++) {
+            File file = folder.resolve("filter" + filter + ".png").toFile();
+            Files.write(file.toPath(), encodePng(samples, SIZE, filter));
+            assertArrayEquals(heights, HeightfieldIO.read(file, HeightfieldIO.Format.R16_PNG), "filter " + filter);
+            assertArrayEquals(expectedRegion(heights, SIZE, 30, 20, 12),
+                    HeightfieldIO.read(file, HeightfieldIO.Format.R16_PNG, 30, 20, 12), "filter " + filter);
+        }
+    }
+
+    @Test
+    public void testChunkPastTheEndFails() throws IOException {
+        File file = createFile(HeightfieldIO.Format.R16_PNG);
+        HeightfieldIO.write(file, HeightfieldIO.Format.R16_PNG, toHeights(createSamples(SIZE)), SIZE);
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            // the length of the chunk after the signature and the header
+            out.seek(8 + 12 + 13);
+            out.writeInt(Integer.MAX_VALUE - 16);
+        }
+        assertThrows(IOException.class, () -> HeightfieldIO.read(file, HeightfieldIO.Format.R16_PNG));
+    }
+
+    /**
+     * Encodes a 16 bit grayscale PNG with the given filter, the compressed
+     * data is split over many small IDAT chunks.
+     */
+    private static byte[] encodePng(int[] samples, int size, int filter) throws IOException {
+        ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        byte[] previous = new byte[size * 2];
+        for (int row = 0; row < size; row++) {
+            byte[] line = new byte[size * 2];
+            for (int column = 0; column < size; column++) {
+                line[column * 2] = (byte) (samples[row * size + column] >>> 8);
+                line[column * 2 + 1] = (byte) samples[row * size + column];
+            }
+            int rowFilter = filter < 0 ? row % 5 : filter;
+            raw.write(rowFilter);
+            for (int i = 0; i < line.length; i++) {
+                int a = i >= 2 ? line[i - 2] & 0xff : 0;
+                int b = previous[i] & 0xff;
+                int c = i >= 2 ? previous[i - 2] & 0xff : 0;
+                raw.write((line[i] & 0xff) - predict(rowFilter, a, b, c));
+            }
+            previous = line;
+        }
+        Deflater deflater = new Deflater();
+        deflater.setInput(raw.toByteArray());
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        while (!deflater.finished()) {
+            compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(png);
+        out.write(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'});
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(size);
+        headerOut.writeInt(size);
+        headerOut.write(new byte[]{16, 0, 0, 0, 0});
+        writeChunk(out, "IHDR", header.toByteArray());
+        byte[] data = compressed.toByteArray();
+        for (int start = 0; start < data.length; start += 100) {
+            byte[] chunk = new byte[Math.min(100, data.length - start)];
+            System.arraycopy(data, start, chunk, 0, chunk.length);
+            writeChunk(out, "IDAT", chunk);
+        }
+        writeChunk(out, "IEND", new byte[0]);
+        return png.toByteArray();
+    }
+
+    private static int predict(int filter, int a, int b, int c) {
+        switch (filter) {
+            case 1:
+                return a;
+            case 2:
+                return b;
+            case 3:
+                return (a + b) / 2;
+            case 4:
+                int p = a + b - c;
+                int pa = Math.abs(p - a);
+                int pb = Math.abs(p - b);
+                int pc = Math.abs(p - c);
+                if (pa <= pb && pa <= pc) {
+                    return a;
+                }
+                return pb <= pc ? b : c;
+            default:
+                return 0;
+        }
+    }
+
+    private static void writeChunk(DataOutputStream out, String type, byte[] data) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data);
+        out.writeInt(data.length);
+        out.write(typeBytes);
+        out.write(data);
+        out.writeInt((int) crc.getValue());
+    }
+}
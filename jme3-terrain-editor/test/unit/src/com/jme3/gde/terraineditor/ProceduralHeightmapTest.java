@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2009-2025 jMonkeyEngine
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are
+ * met:
+ *
+ * * Redistributions of source code must retain the above copyright
+ *   notice, this list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright
+ *   notice, this list of conditions and the following disclaimer in the
+ *   documentation and/or other materials provided with the distribution.
+ *
+ * * Neither the name of 'jMonkeyEngine' nor the names of its contributors
+ *   may be used to endorse or promote products derived from this software
+ *   without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED
+ * TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR
+ * PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR
+ * CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL,
+ * EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO,
+ * PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR
+ * PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF
+ * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.jme3.gde.terraineditor;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the procedural heightmap generator
+ */
+public class ProceduralHeightmapTest {
+
+    // not a multiple of the band height, so the last band is a partial one
+    private static final int SIZE = 97;
+    private static final long SEED = 1234567890123L;
+
+    private static float[] generate(ProceduralHeightmap.NoiseType noiseType, long seed, int threads) {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            ProceduralHeightmap heightmap = new ProceduralHeightmap(SIZE, seed);
+            heightmap.setNoiseType(noiseType);
+            heightmap.setOctaves(6);
+            heightmap.setWarp(0.75f);
+            heightmap.setThermalIterations(5);
+            heightmap.setHydraulicIterations(5);
+            heightmap.setPool(pool);
+            heightmap.load();
+            return heightmap.getHeightMap();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testSameResultWithAnyNumberOfThreads() {
+        assertArrayEquals(generate(ProceduralHeightmap.NoiseType.FBM, SEED, 1),
+                generate(ProceduralHeightmap.NoiseType.FBM, SEED, 4));
+    }
+
+    @Test
+    public void testRidgedSameResultWithAnyNumberOfThreads() {
+        assertArrayEquals(generate(ProceduralHeightmap.NoiseType.RIDGED, SEED, 1),
+                generate(ProceduralHeightmap.NoiseType.RIDGED, SEED, 4));
+    }
+
+    @Test
+    public void testSeedChangesResult() {
+        assertFalse(Arrays.equals(generate(ProceduralHeightmap.NoiseType.FBM, SEED, 4),
+                generate(ProceduralHeightmap.NoiseType.FBM, SEED + 1, 4)));
+    }
+}
@@ -1,10 +1,16 @@
 package com.jme3.gde.textureeditor;
 
+import java.awt.Dimension;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.Iterator;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
 import javax.imageio.stream.FileImageInputStream;
 import javax.imageio.stream.FileImageOutputStream;
 import javax.imageio.stream.ImageInputStream;
@@ -16,6 +22,8 @@ import tgaimageplugin.TGAImageWriterSpi;
 
 public class IOModule {
 
+    private static final int BAND_ROWS = 256;
+
     public static IOModule create() {
         return new IOModule();
     }
@@ -46,4 +54,120 @@ public class IOModule {
             return image;
         }
     }
+
+    /**
+     * Reads the size of the image without decoding it.
+     */
+    public Dimension getSize(FileObject file) throws IOException, URISyntaxException {
+        ImageReader reader = createReader(file);
+        try {
+            return new Dimension(reader.getWidth(0), reader.getHeight(0));
+        } finally {
+            dispose(reader);
+        }
+    }
+
+    /**
+     * Tells if the image can be decoded in parts, see loadRegion() and
+     * loadMapped(). Only the readers of the JDK are known to honor the source
+     * region, subsampling and destination of the read parameters. Others,
+     * like the TGA reader, decode the whole image onto the heap for every
+     * read, those images have to be loaded with load().
+     */
+    public boolean canLoadRegions(FileObject file) throws IOException, URISyntaxException {
+        if (file.getExt().equalsIgnoreCase("tga")) {
+            return false;
+        }
+        ImageReader reader = createReader(file);
+        try {
+            return reader.getClass().getName().startsWith("com.sun.imageio.plugins.");
+        } finally {
+            dispose(reader);
+        }
+    }
+
+    /**
+     * Decodes every n-th pixel of every n-th row of the image, or of a part of
+     * it.
+     *
+     * @param region the part of the image to read, or null for all of it
+     * @param subsampling the distance of the decoded pixels
+     * @throws IOException if the reader does not honor the region or the
+     * subsampling, see canLoadRegions()
+     */
+    public BufferedImage loadRegion(FileObject file, Rectangle region, int subsampling) throws IOException, URISyntaxException {
+        ImageReader reader = createReader(file);
+        try {
+            ImageReadParam param = reader.getDefaultReadParam();
+            Rectangle bounds = new Rectangle(0, 0, reader.getWidth(0), reader.getHeight(0));
+            if (region != null) {
+                param.setSourceRegion(region);
+                bounds = bounds.intersection(region);
+            }
+            param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            BufferedImage image = reader.read(0, param);
+            if (image.getWidth() != (bounds.width + subsampling - 1) / subsampling
+                    || image.getHeight() != (bounds.height + subsampling - 1) / subsampling) {
+                throw new IOException("The reader of " + file.getNameExt() + " ignores the source region");
+            }
+            return image;
+        } finally {
+            dispose(reader);
+        }
+    }
+
+    /**
+     * Decodes the image into a memory mapped file instead of the heap.
+     *
+     * @see MappedImage
+     */
+    public BufferedImage loadMapped(FileObject file) throws IOException, URISyntaxException {
+        ImageReader reader = createReader(file);
+        try {
+            ImageTypeSpecifier type = reader.getImageTypes(0).next();
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            BufferedImage image = MappedImage.create(type, width, height);
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setDestination(image);
+            try {
+                if (reader.read(0, param) != image) {
+                    throw new IOException("The reader of " + file.getNameExt() + " ignores the destination");
+                }
+                return image;
+            } catch (ClassCastException | IllegalArgumentException ex) {
+                // some readers only decode into their own buffer types, read bands of rows then
+                for (int y = 0; y < height; y += BAND_ROWS) {
+                    ImageReadParam bandParam = reader.getDefaultReadParam();
+                    bandParam.setSourceRegion(new Rectangle(0, y, width, Math.min(BAND_ROWS, height - y)));
+                    image.getRaster().setRect(0, y, reader.read(0, bandParam).getRaster());
+                }
+                return image;
+            }
+        } finally {
+            dispose(reader);
+        }
+    }
+
+    private ImageReader createReader(FileObject file) throws IOException, URISyntaxException {
+        ImageInputStream in = new FileImageInputStream(new File(file.toURI()));
+        ImageReader reader;
+        if (file.getExt().equalsIgnoreCase("tga")) {
+            reader = new TGAImageReader(new TGAImageReaderSpi());
+        } else {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                in.close();
+                throw new IOException("No reader for " + file.getNameExt());
+            }
+            reader = readers.next();
+        }
+        reader.setInput(in);
+        return reader;
+    }
+
+    private void dispose(ImageReader reader) throws IOException {
+        ((ImageInputStream) reader.getInput()).close();
+        reader.dispose();
+    }
 }
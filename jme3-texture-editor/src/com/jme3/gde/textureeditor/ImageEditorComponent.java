@@ -3,19 +3,35 @@ package com.jme3.gde.textureeditor;
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.GridLayout;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.KeyEvent;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.WritableRaster;
 import java.io.File;
+import java.net.URISyntaxException;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.AbstractAction;
 import javax.swing.AbstractButton;
 import javax.swing.ButtonGroup;
 import javax.swing.ImageIcon;
+import javax.swing.InputMap;
 import javax.swing.JButton;
 import javax.swing.JComponent;
 import javax.swing.JFileChooser;
@@ -29,9 +45,11 @@ import javax.swing.JScrollPane;
 import javax.swing.JSpinner;
 import javax.swing.JToggleButton;
 import javax.swing.JToolBar;
+import javax.swing.KeyStroke;
 import javax.swing.SpinnerNumberModel;
 import org.openide.filesystems.FileUtil;
 import org.openide.util.Exceptions;
+import org.openide.util.RequestProcessor;
 import org.openide.windows.TopComponent;
 import com.jme3.gde.textureeditor.filters.BrightFilter;
 import com.jme3.gde.textureeditor.filters.BumpMapFilter;
@@ -88,9 +106,44 @@ public class ImageEditorComponent implements EditorToolTarget {
     private SaveNode saveNode = new SaveNode();
     private boolean newFile = false;
     private final InstanceContent content;
+    private final ImageHistory history = new ImageHistory();
+    private JButton undo;
+    private JButton redo;
+    private static final Logger logger = Logger.getLogger(ImageEditorComponent.class.getName());
+    private static final int TILE_SIZE = 512;
+    private static final int MAX_TILES = 32;
+    private static final RequestProcessor TILE_LOADER = new RequestProcessor(ImageEditorComponent.class.getName(), 2);
+    /** subsampled version of a large image, shown until its tiles are copied */
+    private BufferedImage overview;
+    private BufferedImage overviewSource;
+    private int overviewSubsampling = 1;
+    private Dimension overviewSize;
+    private final Map<Point, BufferedImage> tiles = new LinkedHashMap<Point, BufferedImage>(MAX_TILES, 0.75f, true) {
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Point, BufferedImage> eldest) {
+            return size() > MAX_TILES;
+        }
+    };
+    private final Set<Point> pendingTiles = new HashSet<>();
 
     private void doPaint(Graphics2D g) {
-        if (editedImage != null) {
+        if (editedImage == null || overviewSource == editedImage) {
+            if (overview != null) {
+                g.drawImage(overview, 0, 0, imageScreen.getWidth(), imageScreen.getHeight(), null);
+            }
+        }
+        if (editedImage == null) {
+            // a large image is still loading, decode the visible tiles from its file when zoomed in
+            if (editedFile != null && overviewSize != null && scaleX * overviewSubsampling > 1) {
+                paintTiles(g);
+            }
+        } else if (MappedImage.isMapped(editedImage)) {
+            // an overview pixel covers several screen pixels, show the full resolution tiles
+            if (overviewSource != editedImage || scaleX * overviewSubsampling > 1) {
+                paintTiles(g);
+            }
+        } else {
             g.drawImage(editedImage, 0, 0, imageScreen.getWidth(), imageScreen.getHeight(), null);
         }
         if (currentTool != null) {
@@ -118,6 +171,93 @@ public class ImageEditorComponent implements EditorToolTarget {
 
     }
 
+    /**
+     * Draws the visible tiles of a mapped image, the missing ones are copied
+     * to the heap in the background. While a large image is loading the
+     * missing tiles are decoded from its file instead.
+     */
+    private void paintTiles(Graphics2D g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(imageScreen.getWidth(), imageScreen.getHeight());
+        }
+        int fromX = Math.max(0, (int) (clip.x / scaleX) / TILE_SIZE);
+        int fromY = Math.max(0, (int) (clip.y / scaleY) / TILE_SIZE);
+        int toX = Math.min((getImageWidth() - 1) / TILE_SIZE, (int) ((clip.x + clip.width) / scaleX) / TILE_SIZE);
+        int toY = Math.min((getImageHeight() - 1) / TILE_SIZE, (int) ((clip.y + clip.height) / scaleY) / TILE_SIZE);
+        for (int ty = fromY; ty <= toY; ty++) {
+            for (int tx = fromX; tx <= toX; tx++) {
+                BufferedImage tile = getTile(new Point(tx, ty));
+                if (tile != null) {
+                    int x = (int) (tx * TILE_SIZE * scaleX);
+                    int y = (int) (ty * TILE_SIZE * scaleY);
+                    int x2 = (int) ((tx * TILE_SIZE + tile.getWidth()) * scaleX);
+                    int y2 = (int) ((ty * TILE_SIZE + tile.getHeight()) * scaleY);
+                    g.drawImage(tile, x, y, x2 - x, y2 - y, null);
+                }
+            }
+        }
+    }
+
+    private BufferedImage getTile(final Point key) {
+        BufferedImage tile = tiles.get(key);
+        if (tile == null && pendingTiles.add(key)) {
+            final BufferedImage source = editedImage;
+            final FileObject file = editedFile;
+            final Rectangle region = new Rectangle(key.x * TILE_SIZE, key.y * TILE_SIZE, TILE_SIZE, TILE_SIZE)
+                    .intersection(new Rectangle(getImageWidth(), getImageHeight()));
+            TILE_LOADER.post(new Runnable() {
+
+                public void run() {
+                    final BufferedImage copy = source != null ? copyTile(source, region) : decodeTile(file, region);
+                    if (copy == null) {
+                        return; // stays pending, so a broken file is not read again on every repaint
+                    }
+                    EventQueue.invokeLater(new Runnable() {
+
+                        public void run() {
+                            pendingTiles.remove(key);
+                            if (source == editedImage && file == editedFile) {
+                                tiles.put(key, copy);
+                                imageScreen.repaint();
+                            }
+                        }
+                    });
+                }
+            });
+        }
+        return tile;
+    }
+
+    private static BufferedImage copyTile(BufferedImage source, Rectangle region) {
+        ColorModel colorModel = source.getColorModel();
+        WritableRaster raster = source.getRaster().createCompatibleWritableRaster(region.width, region.height);
+        raster.setDataElements(0, 0, source.getRaster().getDataElements(region.x, region.y, region.width, region.height, null));
+        return new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
+    }
+
+    private static BufferedImage decodeTile(FileObject file, Rectangle region) {
+        try {
+            return IOModule.create().loadRegion(file, region, 1);
+        } catch (IOException | URISyntaxException | RuntimeException ex) {
+            logger.log(Level.WARNING, "Could not decode " + region + " of " + file, ex);
+            return null;
+        }
+    }
+
+    private int getImageWidth() {
+        return editedImage != null ? editedImage.getWidth() : overviewSize.width;
+    }
+
+    private int getImageHeight() {
+        return editedImage != null ? editedImage.getHeight() : overviewSize.height;
+    }
+
+    private void clearTiles() {
+        tiles.clear();
+        pendingTiles.clear();
+    }
+
     public InstanceContent getContent() {
         return content;
     }
@@ -167,13 +307,122 @@ public class ImageEditorComponent implements EditorToolTarget {
         }
         editedFile = file;
         editedImage = image;
+        if (!MappedImage.isMapped(image)) {
+            overview = null;
+        }
+        overviewSource = overview != null ? image : null;
+        clearTiles();
+        history.reset(image);
+        updateHistoryButtons();
         resizeDisplay();
     }
 
+    /**
+     * Shows the subsampled overview of a large image until the image itself
+     * is set with {@link #setEditedImage(org.openide.windows.TopComponent,
+     * java.awt.image.BufferedImage, org.openide.filesystems.FileObject)}.
+     *
+     * @param overview the subsampled image, or null if it is decoded later
+     * and set with {@link #setOverviewImage(java.awt.image.BufferedImage,
+     * org.openide.filesystems.FileObject)}
+     * @param subsampling the distance of the overview pixels in the image
+     * @param size the size of the image
+     */
+    public void setOverview(TopComponent component, BufferedImage overview, int subsampling, Dimension size, FileObject file) {
+        this.owner = component;
+        component.setActivatedNodes(new Node[]{saveNode});
+        newFile = false;
+        disableSaving();
+        editedFile = file;
+        editedImage = null;
+        this.overview = overview;
+        overviewSource = null;
+        overviewSubsampling = subsampling;
+        overviewSize = size;
+        clearTiles();
+        history.reset(null);
+        updateHistoryButtons();
+        resizeDisplay();
+    }
+
+    /**
+     * @param file a file
+     * @return true if the editor shows the overview of the file and waits for
+     * its image
+     */
+    public boolean isLoading(FileObject file) {
+        return file == editedFile && editedImage == null;
+    }
+
+    /**
+     * Shows the decoded overview of the large image that is loading.
+     *
+     * @param overview the subsampled image
+     * @param file the file the overview was decoded from, it is dropped if
+     * another file was opened meanwhile or the image finished loading
+     */
+    public void setOverviewImage(BufferedImage overview, FileObject file) {
+        if (file != editedFile || editedImage != null) {
+            return;
+        }
+        this.overview = overview;
+        imageScreen.repaint();
+    }
+
+    /**
+     * Replaces the edited image with the result of a filter, the change can
+     * be undone.
+     */
+    public void applyImage(BufferedImage image) {
+        if (image != null) {
+            history.commit(image);
+            editedImage = history.getImage();
+            clearTiles();
+            updateHistoryButtons();
+            resizeDisplay();
+            enableSaving();
+        }
+    }
+
+    public void undo() {
+        if (history.canUndo()) {
+            editedImage = history.undo();
+            clearTiles();
+            updateHistoryButtons();
+            resizeDisplay();
+            enableSaving();
+        }
+    }
+
+    public void redo() {
+        if (history.canRedo()) {
+            editedImage = history.redo();
+            clearTiles();
+            updateHistoryButtons();
+            resizeDisplay();
+            enableSaving();
+        }
+    }
+
+    /**
+     * Frees the undo history when the editor is closed.
+     */
+    public void dispose() {
+        history.clear();
+        clearTiles();
+        overview = null;
+        overviewSource = null;
+    }
+
+    private void updateHistoryButtons() {
+        undo.setEnabled(history.canUndo());
+        redo.setEnabled(history.canRedo());
+    }
+
     private void resizeDisplay() {
         Dimension s = new Dimension(
-                (int) (editedImage.getWidth() * scaleX),
-                (int) (editedImage.getHeight() * scaleY));
+                (int) (getImageWidth() * scaleX),
+                (int) (getImageHeight() * scaleY));
         imageScreen.setPreferredSize(s);
         imageScreen.setMinimumSize(s);
         imageScreen.setMaximumSize(s);
@@ -190,8 +439,15 @@ public class ImageEditorComponent implements EditorToolTarget {
         final JButton rotateLeft = new JButton(Icon("object-rotate-left-2.png"));
         final JButton mirrorX = new JButton(Icon("mirror_x.png"));
         final JButton mirrorY = new JButton(Icon("mirror_y.png"));
+        undo = new JButton("Undo");
+        redo = new JButton("Redo");
+        undo.setEnabled(false);
+        redo.setEnabled(false);
 
         JToolBar toolbar1 = new JToolBar();
+        toolbar1.add(undo);
+        toolbar1.add(redo);
+        toolbar1.addSeparator();
         toolbar1.add(zoomIn);
         toolbar1.add(zoomOut);
         toolbar1.addSeparator();
@@ -218,6 +474,9 @@ public class ImageEditorComponent implements EditorToolTarget {
 
             public void actionPerformed(ActionEvent e) {
                 Object source = e.getSource();
+                if (editedImage == null && (source == resize || source == rotateLeft || source == mirrorX || source == mirrorY)) {
+                    return; // a large image is still loading
+                }
                 if (source == zoomIn) {
                     setScaleFactor(getScaleFactor() + 0.1f);
                 } else if (source == zoomOut) {
@@ -225,17 +484,15 @@ public class ImageEditorComponent implements EditorToolTarget {
                 } else if (source == resize) {
                     querySizeAndResize();
                 } else if (source == rotateLeft) {
-                    editedImage = RotateLeftFilter.create().filter(editedImage);
-                    resizeDisplay();
-                    enableSaving();
+                    applyImage(RotateLeftFilter.create().filter(editedImage));
                 } else if (source == mirrorX) {
-                    editedImage = MirrorFilter.create().filter(editedImage, MirrorFilter.X);
-                    resizeDisplay();
-                    enableSaving();
+                    applyImage(MirrorFilter.create().filter(editedImage, MirrorFilter.X));
                 } else if (source == mirrorY) {
-                    editedImage = MirrorFilter.create().filter(editedImage, MirrorFilter.Y);
-                    resizeDisplay();
-                    enableSaving();
+                    applyImage(MirrorFilter.create().filter(editedImage, MirrorFilter.Y));
+                } else if (source == undo) {
+                    undo();
+                } else if (source == redo) {
+                    redo();
                 } else if (source == colorPicker) {
                     setCurrentTool(ColorPicker.create());
                 } else if (source == imageCrop) {
@@ -245,9 +502,26 @@ public class ImageEditorComponent implements EditorToolTarget {
             }
         };
         for (AbstractButton b : Arrays.asList(zoomIn, zoomOut, resize, /*save, saveAs,*/
-                rotateLeft, mirrorX, mirrorY, colorPicker, imageCrop)) {
+                rotateLeft, mirrorX, mirrorY, colorPicker, imageCrop, undo, redo)) {
             b.addActionListener(al);
         }
+
+        int shortcut = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        InputMap inputMap = COMPONENT.getInputMap(JComponent.WHEN_ANCESTOR_OF_FOCUSED_COMPONENT);
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, shortcut), "undo");
+        inputMap.put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, shortcut), "redo");
+        COMPONENT.getActionMap().put("undo", new AbstractAction() {
+
+            public void actionPerformed(ActionEvent e) {
+                undo();
+            }
+        });
+        COMPONENT.getActionMap().put("redo", new AbstractAction() {
+
+            public void actionPerformed(ActionEvent e) {
+                redo();
+            }
+        });
     }
 
     private void confirmAndSave() {
@@ -349,7 +623,7 @@ public class ImageEditorComponent implements EditorToolTarget {
             int newWidth = w.getNumber().intValue();
             int newHeight = h.getNumber().intValue();
             if (newWidth != editedImage.getWidth() || newHeight != editedImage.getHeight()) {
-                spawnEditor(ResizeFilter.create().filter(editedImage, newWidth, newHeight));
+                applyImage(ResizeFilter.create().filter(editedImage, newWidth, newHeight));
             }
         }
     }
@@ -381,28 +655,31 @@ public class ImageEditorComponent implements EditorToolTarget {
 
             public void actionPerformed(ActionEvent e) {
                 Object source = e.getSource();
+                if (editedImage == null) {
+                    return; // a large image is still loading
+                }
                 if (source == bumpSoft) {
-                    spawnEditor(BumpMapFilter.create().filter(editedImage, 0.01f));
+                    applyImage(BumpMapFilter.create().filter(editedImage, 0.01f));
                 } else if (source == bumpMedium) {
-                    spawnEditor(BumpMapFilter.create().filter(editedImage, 0.025f));
+                    applyImage(BumpMapFilter.create().filter(editedImage, 0.025f));
                 } else if (source == bumpStrong) {
-                    spawnEditor(BumpMapFilter.create().filter(editedImage, 0.5f));
+                    applyImage(BumpMapFilter.create().filter(editedImage, 0.5f));
                 } else if (source == gray) {
-                    spawnEditor(GrayscaleFilter.create().filter(editedImage));
+                    applyImage(GrayscaleFilter.create().filter(editedImage));
                 } else if (source == bright) {
-                    spawnEditor(BrightFilter.create().filter(editedImage, ImageEditorComponent.this));
+                    applyImage(BrightFilter.create().filter(editedImage, ImageEditorComponent.this));
                 } else if (source == spheremap) {
-                    spawnEditor(SphereMappedFilter.create().filter(editedImage));
+                    applyImage(SphereMappedFilter.create().filter(editedImage));
                 } else if (source == invertAll) {
-                    spawnEditor(new InvertFilter().filter(editedImage, InvertFilter.Channel.All));
+                    applyImage(new InvertFilter().filter(editedImage, InvertFilter.Channel.All));
                 } else if (source == invertAlpha) {
-                    spawnEditor(new InvertFilter().filter(editedImage, InvertFilter.Channel.Alpha));
+                    applyImage(new InvertFilter().filter(editedImage, InvertFilter.Channel.Alpha));
                 } else if (source == invertRed) {
-                    spawnEditor(new InvertFilter().filter(editedImage, InvertFilter.Channel.Red));
+                    applyImage(new InvertFilter().filter(editedImage, InvertFilter.Channel.Red));
                 } else if (source == invertGreen) {
-                    spawnEditor(new InvertFilter().filter(editedImage, InvertFilter.Channel.Green));
+                    applyImage(new InvertFilter().filter(editedImage, InvertFilter.Channel.Green));
                 } else if (source == invertBlue) {
-                    spawnEditor(new InvertFilter().filter(editedImage, InvertFilter.Channel.Blue));
+                    applyImage(new InvertFilter().filter(editedImage, InvertFilter.Channel.Blue));
                 }
             }
         };
@@ -447,7 +724,9 @@ public class ImageEditorComponent implements EditorToolTarget {
 
     public BufferedImage createIcon(int w, int h) {
         BufferedImage icon = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
-        icon.getGraphics().drawImage(editedImage, 0, 0, w, h, null);
+        // scaling the overview is much cheaper than reading a whole mapped image
+        BufferedImage image = overview != null && overviewSource == editedImage ? overview : editedImage;
+        icon.getGraphics().drawImage(image, 0, 0, w, h, null);
         return icon;
     }
 
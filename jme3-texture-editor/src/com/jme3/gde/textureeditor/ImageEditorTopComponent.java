@@ -5,12 +5,16 @@
 package com.jme3.gde.textureeditor;
 
 import com.jme3.gde.textureeditor.icons.Icons;
+import java.awt.Dimension;
+import java.awt.EventQueue;
 import java.awt.image.BufferedImage;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.logging.Logger;
+import org.openide.util.Exceptions;
 import org.openide.util.NbBundle;
+import org.openide.util.RequestProcessor;
 import org.openide.windows.TopComponent;
 import org.openide.windows.WindowManager;
 import org.openide.util.ImageUtilities;
@@ -29,6 +33,10 @@ public final class ImageEditorTopComponent extends TopComponent {
     /** path to the icon used by the component and its open action */
     static final String ICON_PATH = Icons.TEXTURE_GREEN;
     private static final String PREFERRED_ID = "ImageEditorTopComponent";
+    /** images with more pixels are opened as an overview backed by a mapped file */
+    private static final long LARGE_IMAGE_PIXELS = 4096L * 4096L;
+    private static final int OVERVIEW_SIZE = 2048;
+    private static final RequestProcessor LOADER = new RequestProcessor(ImageEditorTopComponent.class.getName(), 1);
     private final ImageEditorComponent EDITOR = ImageEditorComponent.create();
 
     public ImageEditorTopComponent() {
@@ -98,7 +106,7 @@ public final class ImageEditorTopComponent extends TopComponent {
 
     @Override
     public void componentClosed() {
-        // TODO add custom code on component closing
+        EDITOR.dispose();
     }
 
     void writeProperties(java.util.Properties p) {
@@ -132,8 +140,50 @@ public final class ImageEditorTopComponent extends TopComponent {
         } else {
             setName("PixelHead - No name");
         }
-        BufferedImage image = IOModule.create().load(file);
-        EDITOR.setEditedImage(this, image, file);
+        IOModule io = IOModule.create();
+        Dimension size = io.getSize(file);
+        if ((long) size.width * size.height > LARGE_IMAGE_PIXELS && io.canLoadRegions(file)) {
+            openLargeImage(io, file, size);
+        } else {
+            BufferedImage image = io.load(file);
+            EDITOR.setEditedImage(this, image, file);
+        }
+    }
+
+    /**
+     * Decodes a subsampled overview of the image and then the full image into
+     * a memory mapped file in the background, the editor shows the overview
+     * as soon as it is decoded.
+     */
+    private void openLargeImage(final IOModule io, final FileObject file, Dimension size) {
+        final int subsampling = (Math.max(size.width, size.height) + OVERVIEW_SIZE - 1) / OVERVIEW_SIZE;
+        EDITOR.setOverview(this, null, subsampling, size, file);
+        LOADER.post(new Runnable() {
+
+            public void run() {
+                try {
+                    final BufferedImage overview = io.loadRegion(file, null, subsampling);
+                    EventQueue.invokeLater(new Runnable() {
+
+                        public void run() {
+                            EDITOR.setOverviewImage(overview, file);
+                        }
+                    });
+                    final BufferedImage image = io.loadMapped(file);
+                    EventQueue.invokeLater(new Runnable() {
+
+                        public void run() {
+                            // the user may have opened another file meanwhile
+                            if (isOpened() && EDITOR.isLoading(file)) {
+                                EDITOR.setEditedImage(ImageEditorTopComponent.this, image, file);
+                            }
+                        }
+                    });
+                } catch (IOException | URISyntaxException | RuntimeException ex) {
+                    Exceptions.printStackTrace(ex);
+                }
+            }
+        });
     }
 
     void setEditedImage(BufferedImage image) {
@@ -0,0 +1,512 @@
+package com.jme3.gde.textureeditor;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The undo and redo history of an edited image. The current image is the only
+ * full size copy, each step only keeps the deflated tiles that differ from
+ * it and undo and redo write these tiles back into the current image. When
+ * the steps use more memory than the limit, the tiles of the oldest steps are
+ * moved to a temporary file.
+ */
+public class ImageHistory {
+
+    public static final int TILE_SIZE = 128;
+    private static final Logger logger = Logger.getLogger(ImageHistory.class.getName());
+    private final long memoryLimit;
+    private final int maxSteps;
+    private final Deque<Step> undoSteps = new ArrayDeque<>();
+    private final Deque<Step> redoSteps = new ArrayDeque<>();
+    private BufferedImage image;
+    private long memoryUse;
+    private File spillPath;
+    private RandomAccessFile spillFile;
+    // the bytes of the temporary file still used by tiles of the steps
+    private long spillUse;
+
+    /**
+     * Creates a history of up to 100 steps using up to 64 MB of memory.
+     */
+    public ImageHistory() {
+        this(64L << 20, 100);
+    }
+
+    /**
+     * @param memoryLimit the number of bytes the steps may keep in memory
+     * @param maxSteps the maximum number of undo and redo steps
+     */
+    public ImageHistory(long memoryLimit, int maxSteps) {
+        this.memoryLimit = memoryLimit;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Clears the history and starts a new one with the image.
+     *
+     * @param image the current image
+     */
+    public void reset(BufferedImage image) {
+        clear();
+        this.image = image;
+    }
+
+    /**
+     * @return the current image, undo and redo change it in place unless its
+     * size changes
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Makes the changed image the current one and stores the tiles of the
+     * previous image that differ from it as an undo step.
+     *
+     * @param changed the new image, it is not copied
+     */
+    public void commit(BufferedImage changed) {
+        if (image == null) {
+            image = changed;
+            return;
+        }
+        Step step = createStep(image, changed);
+        image = changed;
+        if (!step.tiles.isEmpty() || step.layout != null) {
+            clearSteps(redoSteps);
+            add(undoSteps, step);
+        }
+    }
+
+    public boolean canUndo() {
+        return !undoSteps.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redoSteps.isEmpty();
+    }
+
+    /**
+     * @return the image before the last change
+     */
+    public BufferedImage undo() {
+        if (canUndo()) {
+            add(redoSteps, apply(remove(undoSteps)));
+        }
+        return image;
+    }
+
+    /**
+     * @return the image after the last undone change
+     */
+    public BufferedImage redo() {
+        if (canRedo()) {
+            add(undoSteps, apply(remove(redoSteps)));
+        }
+        return image;
+    }
+
+    /**
+     * @return the number of bytes of the tiles kept in memory
+     */
+    public long getMemoryUse() {
+        return memoryUse;
+    }
+
+    /**
+     * @return the number of bytes of the temporary file
+     */
+    public long getSpillFileSize() {
+        try {
+            return spillFile != null ? spillFile.length() : 0;
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Removes all steps and deletes the temporary file.
+     */
+    public void clear() {
+        clearSteps(undoSteps);
+        clearSteps(redoSteps);
+        if (spillFile != null) {
+            try {
+                spillFile.close();
+            } catch (IOException ex) {
+                logger.log(Level.FINE, "Could not close undo file", ex);
+            }
+            spillPath.delete();
+            spillFile = null;
+            spillPath = null;
+            spillUse = 0;
+        }
+    }
+
+    private void clearSteps(Deque<Step> steps) {
+        for (Step step : steps) {
+            release(step);
+        }
+        steps.clear();
+    }
+
+    private void add(Deque<Step> steps, Step step) {
+        steps.push(step);
+        memoryUse += step.getMemoryUse();
+        while (undoSteps.size() + redoSteps.size() > maxSteps) {
+            Deque<Step> oldest = undoSteps.size() >= redoSteps.size() ? undoSteps : redoSteps;
+            release(oldest.removeLast());
+        }
+        compactSpillFile();
+        spillOldest();
+    }
+
+    /**
+     * Removes the step, its tiles are read before the next step is added.
+     */
+    private Step remove(Deque<Step> steps) {
+        Step step = steps.pop();
+        release(step);
+        return step;
+    }
+
+    /**
+     * Subtracts the tiles of a step that is no longer kept from the memory
+     * and the temporary file use.
+     */
+    private void release(Step step) {
+        memoryUse -= step.getMemoryUse();
+        spillUse -= step.getSpillUse();
+    }
+
+    /**
+     * Moves the tiles in the temporary file to its start and truncates it
+     * when more than half of it belongs to removed steps. The tiles are
+     * moved in the order of their offsets, so a tile never overwrites one
+     * that has not been moved yet, and a failed write leaves all tiles
+     * readable.
+     */
+    private void compactSpillFile() {
+        if (spillFile == null) {
+            return;
+        }
+        try {
+            long length = spillFile.length();
+            if (length - spillUse <= spillUse) {
+                return;
+            }
+            List<Tile> tiles = new ArrayList<>();
+            for (Step step : undoSteps) {
+                step.addSpilledTiles(tiles);
+            }
+            for (Step step : redoSteps) {
+                step.addSpilledTiles(tiles);
+            }
+            tiles.sort(Comparator.comparingLong(tile -> tile.offset));
+            long offset = 0;
+            for (Tile tile : tiles) {
+                if (tile.offset != offset) {
+                    byte[] data = readTile(tile);
+                    spillFile.seek(offset);
+                    spillFile.write(data);
+                    tile.offset = offset;
+                }
+                offset += tile.length;
+            }
+            spillFile.setLength(offset);
+        } catch (IOException ex) {
+            logger.log(Level.WARNING, "Could not compact undo file", ex);
+        }
+    }
+
+    /**
+     * Moves the tiles of the oldest steps to the temporary file until the
+     * memory use is below the limit, if that fails the steps are dropped.
+     */
+    private void spillOldest() {
+        spill(undoSteps);
+        spill(redoSteps);
+    }
+
+    private void spill(Deque<Step> steps) {
+        Iterator<Step> it = steps.descendingIterator();
+        while (memoryUse > memoryLimit && it.hasNext()) {
+            Step step = it.next();
+            long stepMemory = step.getMemoryUse();
+            try {
+                for (Tile tile : step.tiles) {
+                    if (tile.data != null) {
+                        RandomAccessFile file = getSpillFile();
+                        tile.offset = file.length();
+                        file.seek(tile.offset);
+                        file.write(tile.data);
+                        tile.data = null;
+                        spillUse += tile.length;
+                    }
+                }
+            } catch (IOException ex) {
+                logger.log(Level.WARNING, "Could not write undo step, dropping it", ex);
+                it.remove();
+                spillUse -= step.getSpillUse();
+            }
+            memoryUse -= stepMemory;
+        }
+    }
+
+    private RandomAccessFile getSpillFile() throws IOException {
+        if (spillFile == null) {
+            spillPath = File.createTempFile("imagehistory", ".tmp");
+            spillPath.deleteOnExit();
+            spillFile = new RandomAccessFile(spillPath, "rw");
+        }
+        return spillFile;
+    }
+
+    /**
+     * Stores the tiles of the previous image that differ from the changed
+     * image, or all of them if the size or type of the images differ or there
+     * is no changed image.
+     */
+    private Step createStep(BufferedImage previous, BufferedImage changed) {
+        Step step = new Step();
+        boolean sameLayout = changed != null
+                && previous.getWidth() == changed.getWidth()
+                && previous.getHeight() == changed.getHeight()
+                && previous.getColorModel().equals(changed.getColorModel())
+                && previous.getSampleModel().getTransferType() == changed.getSampleModel().getTransferType()
+                && previous.getSampleModel().getNumDataElements() == changed.getSampleModel().getNumDataElements();
+        if (!sameLayout) {
+            step.layout = new Layout(previous);
+        }
+        Raster previousRaster = previous.getRaster();
+        Raster changedRaster = sameLayout ? changed.getRaster() : null;
+        for (int y = 0; y < previous.getHeight(); y += TILE_SIZE) {
+            for (int x = 0; x < previous.getWidth(); x += TILE_SIZE) {
+                int w = Math.min(TILE_SIZE, previous.getWidth() - x);
+                int h = Math.min(TILE_SIZE, previous.getHeight() - y);
+                Object data = previousRaster.getDataElements(x, y, w, h, null);
+                if (sameLayout && Objects.deepEquals(data, changedRaster.getDataElements(x, y, w, h, null))) {
+                    continue;
+                }
+                step.tiles.add(new Tile(x, y, w, h, encode(data)));
+            }
+        }
+        return step;
+    }
+
+    /**
+     * Writes the tiles of the step into the current image.
+     *
+     * @return the step that reverts this one
+     */
+    private Step apply(Step step) {
+        Step inverse;
+        BufferedImage target;
+        if (step.layout != null) {
+            inverse = createStep(image, null);
+            target = step.layout.createImage();
+        } else {
+            inverse = new Step();
+            target = image;
+        }
+        WritableRaster raster = target.getRaster();
+        int transferType = raster.getTransferType();
+        int elements = raster.getNumDataElements();
+        for (Tile tile : step.tiles) {
+            if (step.layout == null) {
+                Object current = raster.getDataElements(tile.x, tile.y, tile.width, tile.height, null);
+                inverse.tiles.add(new Tile(tile.x, tile.y, tile.width, tile.height, encode(current)));
+            }
+            try {
+                Object data = decode(readTile(tile), transferType, tile.width * tile.height * elements);
+                raster.setDataElements(tile.x, tile.y, tile.width, tile.height, data);
+            } catch (IOException | DataFormatException ex) {
+                logger.log(Level.WARNING, "Could not restore image tile", ex);
+            }
+        }
+        image = target;
+        return inverse;
+    }
+
+    private byte[] readTile(Tile tile) throws IOException {
+        if (tile.data != null) {
+            return tile.data;
+        }
+        byte[] data = new byte[tile.length];
+        spillFile.seek(tile.offset);
+        spillFile.readFully(data);
+        return data;
+    }
+
+    private static byte[] encode(Object data) {
+        ByteBuffer buffer;
+        if (data instanceof byte[] bytes) {
+            buffer = ByteBuffer.wrap(bytes);
+        } else if (data instanceof short[] shorts) {
+            buffer = ByteBuffer.allocate(shorts.length * 2);
+            buffer.asShortBuffer().put(shorts);
+        } else if (data instanceof int[] ints) {
+            buffer = ByteBuffer.allocate(ints.length * 4);
+            buffer.asIntBuffer().put(ints);
+        } else if (data instanceof float[] floats) {
+            buffer = ByteBuffer.allocate(floats.length * 4);
+            buffer.asFloatBuffer().put(floats);
+        } else {
+            double[] doubles = (double[]) data;
+            buffer = ByteBuffer.allocate(doubles.length * 8);
+            buffer.asDoubleBuffer().put(doubles);
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(buffer.array());
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(buffer.capacity() / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static Object decode(byte[] deflated, int transferType, int length) throws DataFormatException {
+        int size = DataBuffer.getDataTypeSize(transferType) / 8;
+        byte[] bytes = new byte[length * size];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(deflated);
+            int read = 0;
+            while (read < bytes.length && !inflater.finished()) {
+                read += inflater.inflate(bytes, read, bytes.length - read);
+            }
+        } finally {
+            inflater.end();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        switch (transferType) {
+            case DataBuffer.TYPE_BYTE:
+                return bytes;
+            case DataBuffer.TYPE_SHORT:
+            case DataBuffer.TYPE_USHORT: {
+                short[] data = new short[length];
+                buffer.asShortBuffer().get(data);
+                return data;
+            }
+            case DataBuffer.TYPE_INT: {
+                int[] data = new int[length];
+                buffer.asIntBuffer().get(data);
+                return data;
+            }
+            case DataBuffer.TYPE_FLOAT: {
+                float[] data = new float[length];
+                buffer.asFloatBuffer().get(data);
+                return data;
+            }
+            default: {
+                double[] data = new double[length];
+                buffer.asDoubleBuffer().get(data);
+                return data;
+            }
+        }
+    }
+
+    /**
+     * The changed tiles of one edit, with the layout of the image if the edit
+     * changed its size or type.
+     */
+    private static class Step {
+
+        private final List<Tile> tiles = new ArrayList<>();
+        private Layout layout;
+
+        long getMemoryUse() {
+            long bytes = 0;
+            for (Tile tile : tiles) {
+                if (tile.data != null) {
+                    bytes += tile.data.length;
+                }
+            }
+            return bytes;
+        }
+
+        long getSpillUse() {
+            long bytes = 0;
+            for (Tile tile : tiles) {
+                if (tile.data == null) {
+                    bytes += tile.length;
+                }
+            }
+            return bytes;
+        }
+
+        void addSpilledTiles(List<Tile> spilled) {
+            for (Tile tile : tiles) {
+                if (tile.data == null) {
+                    spilled.add(tile);
+                }
+            }
+        }
+    }
+
+    private static class Tile {
+
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+        private final int length;
+        private byte[] data;
+        private long offset;
+
+        Tile(int x, int y, int width, int height, byte[] data) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+            this.data = data;
+            this.length = data.length;
+        }
+    }
+
+    /**
+     * What is needed to create an empty image like the stored one.
+     */
+    private static class Layout {
+
+        private final ColorModel colorModel;
+        private final SampleModel sampleModel;
+
+        Layout(BufferedImage image) {
+            colorModel = image.getColorModel();
+            sampleModel = image.getSampleModel().createCompatibleSampleModel(image.getWidth(), image.getHeight());
+        }
+
+        BufferedImage createImage() {
+            WritableRaster raster = Raster.createWritableRaster(sampleModel, null);
+            return new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
+        }
+    }
+}
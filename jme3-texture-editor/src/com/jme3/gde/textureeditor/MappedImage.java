@@ -0,0 +1,137 @@
+package com.jme3.gde.textureeditor;
+
+import java.awt.image.BandedSampleModel;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.MultiPixelPackedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SampleModel;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import javax.imageio.ImageTypeSpecifier;
+
+/**
+ * Creates images whose pixels are kept in a memory mapped temporary file
+ * instead of the heap, so images larger than the heap can be loaded, shown
+ * and saved. The file is deleted when the virtual machine exits.
+ */
+public final class MappedImage {
+
+    private MappedImage() {
+    }
+
+    /**
+     * @param type the color and sample model of the image
+     * @param width the width of the image
+     * @param height the height of the image
+     * @return an empty image backed by a temporary file
+     * @throws IOException if the file can not be created or mapped
+     */
+    public static BufferedImage create(ImageTypeSpecifier type, int width, int height) throws IOException {
+        SampleModel sampleModel = type.getSampleModel(width, height);
+        long size;
+        if (sampleModel.getDataType() > DataBuffer.TYPE_INT) {
+            throw new IOException("Images with floating point samples are not supported");
+        } else if (sampleModel instanceof BandedSampleModel) {
+            throw new IOException("Images with one bank per band are not supported");
+        } else if (sampleModel instanceof ComponentSampleModel component) {
+            size = (long) component.getScanlineStride() * height;
+        } else if (sampleModel instanceof SinglePixelPackedSampleModel packed) {
+            size = (long) packed.getScanlineStride() * height;
+        } else if (sampleModel instanceof MultiPixelPackedSampleModel packed) {
+            size = (long) packed.getScanlineStride() * height;
+        } else {
+            size = (long) width * height * sampleModel.getNumDataElements();
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Image of " + width + "x" + height + " is too large");
+        }
+        DataBuffer buffer = new MappedDataBuffer(sampleModel.getDataType(), (int) size);
+        WritableRaster raster = Raster.createWritableRaster(sampleModel, buffer, null);
+        ColorModel colorModel = type.getColorModel();
+        return new BufferedImage(colorModel, raster, colorModel.isAlphaPremultiplied(), null);
+    }
+
+    /**
+     * @param image an image
+     * @return true if the pixels of the image are kept in a mapped file
+     */
+    public static boolean isMapped(BufferedImage image) {
+        return image != null && image.getRaster().getDataBuffer() instanceof MappedDataBuffer;
+    }
+
+    /**
+     * A data buffer of a single bank in a temporary file, mapped in chunks
+     * of 1 GB.
+     */
+    private static class MappedDataBuffer extends DataBuffer {
+
+        private static final int CHUNK_BITS = 30;
+        private static final int CHUNK_MASK = (1 << CHUNK_BITS) - 1;
+        private final MappedByteBuffer[] chunks;
+        private final int elementSize;
+
+        MappedDataBuffer(int dataType, int size) throws IOException {
+            super(dataType, size);
+            elementSize = DataBuffer.getDataTypeSize(dataType) / 8;
+            long bytes = (long) size * elementSize;
+            chunks = new MappedByteBuffer[(int) ((bytes + CHUNK_MASK) >>> CHUNK_BITS)];
+            File file = File.createTempFile("mappedimage", ".tmp");
+            file.deleteOnExit();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(bytes);
+                FileChannel channel = raf.getChannel();
+                for (int i = 0; i < chunks.length; i++) {
+                    long offset = (long) i << CHUNK_BITS;
+                    chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset, Math.min(1L << CHUNK_BITS, bytes - offset));
+                    chunks[i].order(ByteOrder.nativeOrder());
+                }
+            }
+            // the mappings stay valid, on systems that allow it the file is gone right away
+            file.delete();
+        }
+
+        @Override
+        public int getElem(int bank, int i) {
+            long position = (long) i * elementSize;
+            MappedByteBuffer chunk = chunks[(int) (position >>> CHUNK_BITS)];
+            int offset = (int) (position & CHUNK_MASK);
+            switch (dataType) {
+                case TYPE_BYTE:
+                    return chunk.get(offset) & 0xff;
+                case TYPE_USHORT:
+                    return chunk.getShort(offset) & 0xffff;
+                case TYPE_SHORT:
+                    return chunk.getShort(offset);
+                default:
+                    return chunk.getInt(offset);
+            }
+        }
+
+        @Override
+        public void setElem(int bank, int i, int val) {
+            long position = (long) i * elementSize;
+            MappedByteBuffer chunk = chunks[(int) (position >>> CHUNK_BITS)];
+            int offset = (int) (position & CHUNK_MASK);
+            switch (dataType) {
+                case TYPE_BYTE:
+                    chunk.put(offset, (byte) val);
+                    break;
+                case TYPE_USHORT:
+                case TYPE_SHORT:
+                    chunk.putShort(offset, (short) val);
+                    break;
+                default:
+                    chunk.putInt(offset, val);
+            }
+        }
+    }
+}
@@ -65,21 +65,18 @@ public class BrightFilter implements BufferedImageFilter {
     }
 
     private BufferedImage doFilter(BufferedImage source, float factor) {
-        BufferedImage dest = new BufferedImage(source.getWidth(), source.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        for (int i = 0; i < source.getWidth(); i++) {
-            for (int j = 0; j < source.getHeight(); j++) {
-                int rgb = source.getRGB(i, j);
-                int a = (rgb >> 24) & 0xff;
-                int r = (rgb >> 16) & 0xff;
-                int g = (rgb >> 8) & 0xff;
-                int b = rgb & 0xff;
-                r = Math.min(255, Math.round(lookup[r] * factor));
-                g = Math.min(255, Math.round(lookup[g] * factor));
-                b = Math.min(255, Math.round(lookup[b] * factor));
-                rgb = (a << 24) + (r << 16) + (g << 8) + b;
-                dest.setRGB(i, j, rgb);
-            }
+        int[] scaled = new int[lookup.length];
+        for (int i = 0; i < scaled.length; i++) {
+            scaled[i] = Math.min(255, Math.round(lookup[i] * factor));
         }
-        return dest;
+        return TiledFilter.apply(source, (src, dest, width, height, fromRow, toRow) -> {
+            for (int i = fromRow * width, end = toRow * width; i < end; i++) {
+                int rgb = src[i];
+                int r = scaled[(rgb >> 16) & 0xff];
+                int g = scaled[(rgb >> 8) & 0xff];
+                int b = scaled[rgb & 0xff];
+                dest[i] = (rgb & 0xff000000) | (r << 16) | (g << 8) | b;
+            }
+        });
     }
 }
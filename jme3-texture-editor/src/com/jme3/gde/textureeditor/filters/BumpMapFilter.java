@@ -1,22 +1,9 @@
 package com.jme3.gde.textureeditor.filters;
 
-import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorConvertOp;
 
 public class BumpMapFilter implements BufferedImageFilter {
 
-    private static class Vec3f {
-
-        float x, y, z;
-
-        void divideLocal(float d) {
-            x /= d;
-            y /= d;
-            z /= d;
-        }
-    };
-
     public static BumpMapFilter create() {
         return new BumpMapFilter();
     }
@@ -25,37 +12,36 @@ public class BumpMapFilter implements BufferedImageFilter {
     }
 
     public BufferedImage filter(BufferedImage sourceImage, Object... args) {
-        float a = (Float) args[0];
-        BufferedImage heightMap = new BufferedImage(sourceImage.getWidth(), sourceImage.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        BufferedImage bumpMap = new BufferedImage(sourceImage.getWidth(), sourceImage.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        ColorConvertOp gscale = new ColorConvertOp(ColorSpace.getInstance(ColorSpace.CS_GRAY), null);
-        gscale.filter(sourceImage, heightMap);
-        for (int x = 0; x < bumpMap.getWidth(); x++) {
-            for (int y = 0; y < bumpMap.getHeight(); y++) {
-                bumpMap.setRGB(x, y, generateBumpPixel(heightMap, x, y, a));
+        final float a = (Float) args[0];
+        return TiledFilter.apply(TiledFilter.toGray(sourceImage), (heights, dest, width, height, fromRow, toRow) -> {
+            for (int y = fromRow; y < toRow; y++) {
+                int row = y * width;
+                int up = Math.max(y - 1, 0) * width;
+                int down = Math.min(y + 1, height - 1) * width;
+                for (int x = 0; x < width; x++) {
+                    int left = row + Math.max(x - 1, 0);
+                    int right = row + Math.min(x + 1, width - 1);
+                    dest[row + x] = generateBumpPixel(heights[left] & 0xff, heights[right] & 0xff,
+                            heights[up + x] & 0xff, heights[down + x] & 0xff, a);
+                }
             }
-        }
-        return bumpMap;
+        });
     }
 
     public int generateBumpPixel(BufferedImage image, int x, int y, float a) {
-        Vec3f S = new Vec3f();
-        Vec3f T = new Vec3f();
-        Vec3f N = new Vec3f();
+        return generateBumpPixel(getHeight(image, x - 1, y), getHeight(image, x + 1, y),
+                getHeight(image, x, y - 1), getHeight(image, x, y + 1), a);
+    }
 
-        S.x = 1;
-        S.y = 0;
-        S.z = a * getHeight(image, x + 1, y) - a * getHeight(image, x - 1, y);
-        T.x = 0;
-        T.y = 1;
-        T.z = a * getHeight(image, x, y + 1) - a * getHeight(image, x, y - 1);
+    /**
+     * Computes the normal from the heights of the neighbour pixels.
+     */
+    private int generateBumpPixel(float left, float right, float up, float down, float a) {
+        float sz = a * right - a * left;
+        float tz = a * down - a * up;
 
-        float den = (float) Math.sqrt(S.z * S.z + T.z * T.z + 1);
-        N.x = -S.z;
-        N.y = -T.z;
-        N.z = 1;
-        N.divideLocal(den);
-        return vectorToColor(N.x, N.y, N.z);
+        float den = (float) Math.sqrt(sz * sz + tz * tz + 1);
+        return vectorToColor(-sz / den, -tz / den, 1f / den);
     }
 
     private float getHeight(BufferedImage image, int x, int y) {
@@ -1,8 +1,6 @@
 package com.jme3.gde.textureeditor.filters;
 
-import java.awt.color.ColorSpace;
 import java.awt.image.BufferedImage;
-import java.awt.image.ColorConvertOp;
 
 public class GrayscaleFilter implements BufferedImageFilter {
 
@@ -14,9 +12,6 @@ public class GrayscaleFilter implements BufferedImageFilter {
     }
 
     public BufferedImage filter(BufferedImage sourceImage, Object... args) {
-        BufferedImage filtered = new BufferedImage(sourceImage.getWidth(), sourceImage.getHeight(), BufferedImage.TYPE_INT_ARGB);
-        ColorConvertOp gscale = new ColorConvertOp(ColorSpace.getInstance(ColorSpace.CS_GRAY), null);
-        gscale.filter(sourceImage, filtered);
-        return filtered;
+        return TiledFilter.toGray(sourceImage);
     }
 }
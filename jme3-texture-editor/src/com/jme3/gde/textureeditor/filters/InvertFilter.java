@@ -19,55 +19,29 @@ public class InvertFilter implements BufferedImageFilter {
         } else {
             channel = (Channel) args[0];
         }
-        BufferedImage result = new BufferedImage(
-                source.getWidth(),
-                source.getHeight(),
-                BufferedImage.TYPE_INT_ARGB);
-        final int height = source.getHeight();
-        final int width = source.getWidth();
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                final int sourceARGB = source.getRGB(x, y);
-                final int targetARGB = invert(sourceARGB, channel);
-                result.setRGB(x, y, targetARGB);
+        final int mask = getMask(channel);
+        return TiledFilter.apply(source, (src, dest, width, height, fromRow, toRow) -> {
+            for (int i = fromRow * width, end = toRow * width; i < end; i++) {
+                dest[i] = src[i] ^ mask;
             }
-        }
-        return result;
+        });
     }
 
-    private int invert(final int sourceARGB, final Channel channel) {
-        int a = (sourceARGB >> 24) & 0xff;
-        int r = (sourceARGB >> 16) & 0xff;
-        int g = (sourceARGB >> 8) & 0xff;
-        int b = sourceARGB & 0xff;
-
+    /**
+     * Inverting a component is the same as flipping its bits, 255 - value.
+     */
+    private int getMask(final Channel channel) {
         switch (channel) {
             case Alpha:
-                a = 255 - a;
-                break;
+                return 0xff000000;
             case Red:
-                r = 255 - r;
-                break;
+                return 0x00ff0000;
             case Green:
-                g = 255 - g;
-                break;
+                return 0x0000ff00;
             case Blue:
-                b = 255 - b;
-                break;
+                return 0x000000ff;
             default:
-                a = 255 - a;
-                r = 255 - r;
-                g = 255 - g;
-                b = 255 - b;
+                return 0xffffffff;
         }
-        return packPixel(a, r, g, b);
-    }
-
-    private int packPixel(int alpha, int red, int green, int blue) {
-        final int argb = ((alpha << 24) & 0xff000000)
-                | ((red << 16) & 0x00ff0000)
-                | ((green << 8) & 0x0000ff00)
-                | (blue & 0x000000ff);
-        return argb;
     }
 }
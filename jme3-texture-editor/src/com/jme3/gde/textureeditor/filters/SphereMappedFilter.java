@@ -29,28 +29,24 @@ public class SphereMappedFilter implements BufferedImageFilter {
     @Override
     public BufferedImage filter(BufferedImage sourceImg, Object... args) {
 
-        BufferedImage imageOut = new BufferedImage(sourceImg.getWidth(), sourceImg.getHeight(), BufferedImage.TYPE_INT_ARGB);
-
-        double theta, phi, phi2;
-        int i, i2, j;
-
-        for (j = 0; j < sourceImg.getHeight(); j++) {
-            theta = Math.PI * (j - (sourceImg.getHeight() - 1) / 2.0f) / (sourceImg.getHeight() - 1);
-            for (i = 0; i < sourceImg.getWidth(); i++) {
-                phi = Math.PI * 2 * (i - sourceImg.getWidth() / 2.0f) / sourceImg.getWidth();
-                phi2 = phi * Math.cos(theta);
-                i2 = (int) Math.round(phi2 * sourceImg.getWidth() / (Math.PI * 2) + sourceImg.getWidth() / 2);
-
-                int newpixel = 0;
-                if (i2 < 0 || i2 > sourceImg.getWidth() - 1) {
-                    /* Should not happen, make that a red pixel */
-                    newpixel = 100;
-                } else {
-                    newpixel = sourceImg.getRGB(i2, j);
+        return TiledFilter.apply(sourceImg, (src, dest, width, height, fromRow, toRow) -> {
+            for (int j = fromRow; j < toRow; j++) {
+                double theta = Math.PI * (j - (height - 1) / 2.0f) / (height - 1);
+                double cosTheta = Math.cos(theta);
+                int row = j * width;
+                for (int i = 0; i < width; i++) {
+                    double phi = Math.PI * 2 * (i - width / 2.0f) / width;
+                    double phi2 = phi * cosTheta;
+                    int i2 = (int) Math.round(phi2 * width / (Math.PI * 2) + width / 2);
+
+                    if (i2 < 0 || i2 > width - 1) {
+                        /* Should not happen, make that a red pixel */
+                        dest[row + i] = 100;
+                    } else {
+                        dest[row + i] = src[row + i2];
+                    }
                 }
-                imageOut.setRGB(i, j, newpixel);
             }
-        }
-        return imageOut;
+        });
     }
 }
@@ -0,0 +1,142 @@
+package com.jme3.gde.textureeditor.filters;
+
+import java.awt.color.ColorSpace;
+import java.awt.image.BufferedImage;
+import java.awt.image.ColorConvertOp;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.util.stream.IntStream;
+
+/**
+ * Runs per pixel filters directly on the int arrays of ARGB images. The rows
+ * of the image are split into tiles which are filtered in parallel, each tile
+ * reads the whole source but only writes its own rows of the destination.
+ */
+public final class TiledFilter {
+
+    /**
+     * The number of rows per tile.
+     */
+    public static final int TILE_ROWS = 64;
+
+    /**
+     * Filters a range of rows. The arrays hold the ARGB pixels row by row
+     * without any padding.
+     */
+    public interface Kernel {
+
+        void filter(int[] source, int[] dest, int width, int height, int fromRow, int toRow);
+    }
+
+    /**
+     * Works on a range of rows.
+     */
+    public interface RowTask {
+
+        void run(int fromRow, int toRow);
+    }
+
+    private TiledFilter() {
+    }
+
+    /**
+     * Filters the image into a new ARGB image of the same size.
+     *
+     * @param source the image to filter, it is not changed
+     * @param kernel the filter
+     * @return the filtered image
+     */
+    public static BufferedImage apply(BufferedImage source, Kernel kernel) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int[] sourcePixels = getPixels(toIntArgb(source));
+        BufferedImage dest = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] destPixels = getPixels(dest);
+        forEachTile(height, (fromRow, toRow) -> kernel.filter(sourcePixels, destPixels, width, height, fromRow, toRow));
+        return dest;
+    }
+
+    /**
+     * Converts the image to gray into a new ARGB image. The tiles are copied
+     * into images of their own so each conversion takes the fast path for
+     * whole ARGB images.
+     *
+     * @param source the image to convert, it is not changed
+     * @return the gray image
+     */
+    public static BufferedImage toGray(BufferedImage source) {
+        int width = source.getWidth();
+        int[] sourcePixels = getPixels(toIntArgb(source));
+        BufferedImage gray = new BufferedImage(width, source.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        int[] grayPixels = getPixels(gray);
+        forEachTile(source.getHeight(), (fromRow, toRow) -> {
+            int rows = toRow - fromRow;
+            BufferedImage tile = new BufferedImage(width, rows, BufferedImage.TYPE_INT_ARGB);
+            BufferedImage grayTile = new BufferedImage(width, rows, BufferedImage.TYPE_INT_ARGB);
+            System.arraycopy(sourcePixels, fromRow * width, getPixels(tile), 0, rows * width);
+            ColorConvertOp gscale = new ColorConvertOp(ColorSpace.getInstance(ColorSpace.CS_GRAY), null);
+            gscale.filter(tile, grayTile);
+            System.arraycopy(getPixels(grayTile), 0, grayPixels, fromRow * width, rows * width);
+        });
+        return gray;
+    }
+
+    /**
+     * Calls the task for all tiles of rows in parallel and waits for them.
+     *
+     * @param height the number of rows
+     * @param task called with the first and the end row of each tile
+     */
+    public static void forEachTile(int height, RowTask task) {
+        int tiles = (height + TILE_ROWS - 1) / TILE_ROWS;
+        IntStream.range(0, tiles).parallel().forEach(tile -> {
+            int fromRow = tile * TILE_ROWS;
+            task.run(fromRow, Math.min(height, fromRow + TILE_ROWS));
+        });
+    }
+
+    /**
+     * Returns the image if its pixels can be accessed as a packed ARGB array,
+     * otherwise a copy that can.
+     *
+     * @param image the image
+     * @return an ARGB image with the pixels of the image
+     */
+    public static BufferedImage toIntArgb(BufferedImage image) {
+        if (isPackedIntArgb(image)) {
+            return image;
+        }
+        // getRGB converts exactly like the per pixel calls, drawing would blend translucent pixels
+        BufferedImage copy = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        image.getRGB(0, 0, image.getWidth(), image.getHeight(), getPixels(copy), 0, image.getWidth());
+        return copy;
+    }
+
+    /**
+     * @param image an image accepted by {@link #isPackedIntArgb(java.awt.image.BufferedImage)}
+     * @return the array backing the pixels of the image, writing to it
+     * changes the image
+     */
+    public static int[] getPixels(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    /**
+     * @param image the image
+     * @return true when the image is an ARGB image whose data array holds
+     * exactly its pixels, which is not the case for sub images
+     */
+    public static boolean isPackedIntArgb(BufferedImage image) {
+        if (image.getType() != BufferedImage.TYPE_INT_ARGB) {
+            return false;
+        }
+        WritableRaster raster = image.getRaster();
+        return raster.getParent() == null
+                && raster.getSampleModelTranslateX() == 0
+                && raster.getSampleModelTranslateY() == 0
+                && raster.getDataBuffer().getOffset() == 0
+                && raster.getSampleModel() instanceof SinglePixelPackedSampleModel sampleModel
+                && sampleModel.getScanlineStride() == image.getWidth();
+    }
+}
@@ -33,6 +33,9 @@ public class ColorPicker extends MouseAdapter implements EditorTool {
 
     @Override
     public void mousePressed(MouseEvent e) {
+        if (target.getCurrentImage() == null) {
+            return;
+        }
         Point p = e.getPoint();
         p.x /= target.getScaleX();
         p.y /= target.getScaleY();
@@ -50,6 +50,10 @@ public class CropTool extends MouseInputAdapter implements EditorTool {
         int w = (int) (track.width / target.getScaleX());
         int h = (int) (track.height / target.getScaleY());
         BufferedImage source = target.getCurrentImage();
+        if (source == null) {
+            track = null;
+            return;
+        }
         int type = source.getType();
         if (type == BufferedImage.TYPE_CUSTOM) {
             type = BufferedImage.TYPE_INT_ARGB;
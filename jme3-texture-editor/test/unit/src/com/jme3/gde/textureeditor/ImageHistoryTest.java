@@ -0,0 +1,129 @@
+package com.jme3.gde.textureeditor;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the tiled undo history of the texture editor
+ */
+public class ImageHistoryTest {
+
+    private static BufferedImage createImage(int width, int height, Color color) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = image.createGraphics();
+        g.setColor(color);
+        g.fillRect(0, 0, width, height);
+        g.dispose();
+        return image;
+    }
+
+    private static BufferedImage copy(BufferedImage image) {
+        BufferedImage copy = createImage(image.getWidth(), image.getHeight(), Color.BLACK);
+        copy.setData(image.getRaster());
+        return copy;
+    }
+
+    private static byte[] pixels(BufferedImage image) {
+        byte[] data = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        return Arrays.copyOf(data, data.length);
+    }
+
+    @Test
+    public void testOnlyChangedTilesAreStored() {
+        ImageHistory history = new ImageHistory();
+        BufferedImage original = createImage(1024, 1024, Color.RED);
+        byte[] originalPixels = pixels(original);
+        history.reset(original);
+
+        BufferedImage changed = copy(original);
+        changed.setRGB(5, 5, Color.BLUE.getRGB());
+        history.commit(changed);
+        assertTrue(history.canUndo());
+        // one 128x128 tile of a solid color deflates to far less than the image
+        assertTrue(history.getMemoryUse() < 1024);
+
+        BufferedImage undone = history.undo();
+        assertSame(changed, undone);
+        assertArrayEquals(originalPixels, pixels(undone));
+        assertTrue(history.canRedo());
+
+        history.redo();
+        assertEquals(Color.BLUE.getRGB(), history.getImage().getRGB(5, 5));
+        assertFalse(history.canRedo());
+    }
+
+    @Test
+    public void testSizeChangesAreUndone() {
+        ImageHistory history = new ImageHistory();
+        BufferedImage original = createImage(300, 200, Color.GREEN);
+        history.reset(original);
+        history.commit(createImage(100, 50, Color.WHITE));
+
+        BufferedImage undone = history.undo();
+        assertEquals(300, undone.getWidth());
+        assertEquals(200, undone.getHeight());
+        assertEquals(BufferedImage.TYPE_3BYTE_BGR, undone.getType());
+        assertArrayEquals(pixels(original), pixels(undone));
+
+        BufferedImage redone = history.redo();
+        assertEquals(100, redone.getWidth());
+        assertEquals(Color.WHITE.getRGB(), redone.getRGB(99, 49));
+    }
+
+    @Test
+    public void testStepsAreSpilledAboveTheMemoryLimit() {
+        ImageHistory history = new ImageHistory(0, 10);
+        history.reset(createImage(256, 256, Color.RED));
+        Color[] colors = {Color.GREEN, Color.BLUE, Color.YELLOW};
+        for (Color color : colors) {
+            history.commit(createImage(256, 256, color));
+        }
+        assertEquals(0, history.getMemoryUse());
+        history.undo();
+        history.undo();
+        history.undo();
+        assertEquals(Color.RED.getRGB(), history.getImage().getRGB(200, 200));
+        assertFalse(history.canUndo());
+        history.clear();
+    }
+
+    @Test
+    public void testSpillFileIsCompacted() {
+        int steps = 4;
+        ImageHistory history = new ImageHistory(0, steps);
+        Random random = new Random(7);
+        BufferedImage[] images = new BufferedImage[40];
+        for (int i = 0; i < images.length; i++) {
+            // noise does not deflate, so every step is about the image size
+            images[i] = createImage(256, 256, Color.BLACK);
+            random.nextBytes(((DataBufferByte) images[i].getRaster().getDataBuffer()).getData());
+        }
+        history.reset(images[0]);
+        for (int i = 1; i < images.length; i++) {
+            history.commit(copy(images[i]));
+            if (i % 3 == 0) {
+                history.undo();
+                history.redo();
+            }
+        }
+        // the kept steps, as much space of removed steps and the last spill
+        long stepSize = 256 * 256 * 3;
+        assertTrue(history.getSpillFileSize() < (2 * steps + 2) * stepSize);
+
+        for (int i = images.length - 2; i >= images.length - 1 - steps; i--) {
+            assertArrayEquals(pixels(images[i]), pixels(history.undo()));
+        }
+        assertFalse(history.canUndo());
+        history.clear();
+    }
+}
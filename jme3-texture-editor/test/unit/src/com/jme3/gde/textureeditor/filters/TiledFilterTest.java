@@ -0,0 +1,65 @@
+package com.jme3.gde.textureeditor.filters;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the filters running on TiledFilter
+ */
+public class TiledFilterTest {
+
+    private static BufferedImage createImage(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+
+    @Test
+    public void testInvertCoversAllTiles() {
+        // a height that is not a multiple of the tile size
+        BufferedImage source = createImage(37, TiledFilter.TILE_ROWS * 2 + 5, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage result = new InvertFilter().filter(source, InvertFilter.Channel.Red);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                int rgb = source.getRGB(x, y);
+                int red = 255 - ((rgb >> 16) & 0xff);
+                assertEquals((rgb & 0xff00ffff) | (red << 16), result.getRGB(x, y));
+            }
+        }
+    }
+
+    @Test
+    public void testSubimagesAreCopied() {
+        BufferedImage image = createImage(50, 50, BufferedImage.TYPE_INT_ARGB);
+        BufferedImage subimage = image.getSubimage(10, 10, 20, 20);
+        assertTrue(TiledFilter.isPackedIntArgb(image));
+        assertFalse(TiledFilter.isPackedIntArgb(subimage));
+
+        BufferedImage copy = TiledFilter.toIntArgb(subimage);
+        assertTrue(TiledFilter.isPackedIntArgb(copy));
+        assertEquals(image.getRGB(10, 10), TiledFilter.getPixels(copy)[0]);
+        assertEquals(image.getRGB(29, 29), TiledFilter.getPixels(copy)[20 * 20 - 1]);
+    }
+
+    @Test
+    public void testBumpMapMatchesPixelFilter() {
+        BufferedImage source = createImage(40, TiledFilter.TILE_ROWS + 3, BufferedImage.TYPE_3BYTE_BGR);
+        BumpMapFilter filter = BumpMapFilter.create();
+        BufferedImage result = filter.filter(source, 2f);
+        BufferedImage heightMap = GrayscaleFilter.create().filter(source);
+        for (int y = 0; y < source.getHeight(); y++) {
+            for (int x = 0; x < source.getWidth(); x++) {
+                assertEquals(filter.generateBumpPixel(heightMap, x, y, 2f), result.getRGB(x, y));
+            }
+        }
+    }
+}